@@ -41,6 +41,10 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
+    implementation("androidx.core:core-splashscreen:1.0.1")
+    implementation("androidx.work:work-runtime:2.9.1")
+    implementation("androidx.metrics:metrics-performance:1.0.0-beta01")
     implementation(libs.play.services.maps)
     implementation("com.google.android.gms:play-services-location:21.3.0")
 
@@ -0,0 +1,20 @@
+package com.example.bicyclestorage;
+
+import android.app.Application;
+
+import com.example.bicyclestorage.auth.AuthErrors;
+import com.example.bicyclestorage.metrics.OpMetrics;
+
+/**
+ * Process-wide setup shared by every entry point (activities, workers,
+ * receivers). Keep it to cheap, synchronous wiring: it runs before any of them.
+ */
+public class BicycleStorageApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Error classes follow the same mapping as the user-facing messages
+        OpMetrics.get().setErrorClassifier(e -> AuthErrors.classify(e.getMessage()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bicyclestorage;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.core.splashscreen.SplashScreen;
+
+import com.example.bicyclestorage.auth.LoginActivity;
+import com.example.bicyclestorage.metrics.StartupTrace;
+import com.example.bicyclestorage.util.DeviceProfile;
+import com.google.android.gms.maps.MapsInitializer;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Launcher: decides the first screen without inflating any layout (the system
+ * splash screen stays up meanwhile) and prewarms what that screen needs.
+ *
+ * Signed in → {@link MainActivity}: the Maps module, Firestore (local cache)
+ * and the device profile are warmed on a background thread, in parallel with
+ * the MainActivity launch instead of ahead of it. Otherwise → {@link LoginActivity}.
+ */
+public class LaunchActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        SplashScreen.installSplashScreen(this);
+        super.onCreate(savedInstanceState);
+
+        boolean signedIn = FirebaseAuth.getInstance().getCurrentUser() != null;
+        StartupTrace.launchStarted(signedIn);
+        if (signedIn) prewarmMap(getApplicationContext());
+
+        startActivity(new Intent(this, signedIn ? MainActivity.class : LoginActivity.class));
+        finish();
+        overridePendingTransition(0, 0);
+    }
+
+    private static void prewarmMap(Context app) {
+        Thread warm = new Thread(() -> {
+            // Loads the Maps module before SupportMapFragment asks for it
+            MapsInitializer.initialize(app, MapsInitializer.Renderer.LATEST, null);
+            FirebaseFirestore.getInstance();
+            DeviceProfile.get(app);
+        }, "prewarm");
+        warm.setDaemon(true);
+        warm.start();
+    }
+}
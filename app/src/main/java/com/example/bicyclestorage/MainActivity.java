@@ -6,18 +6,26 @@ import android.content.ActivityNotFoundException;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.location.Location;
 import android.net.Uri;
+import android.os.BatteryManager;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.PowerManager;
 import android.view.View;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
@@ -26,64 +34,198 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.view.WindowInsetsControllerCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.bicyclestorage.auth.AccountActivity;
 import com.example.bicyclestorage.auth.FirebaseUserRepository;
 import com.example.bicyclestorage.auth.LoginActivity;
+import com.example.bicyclestorage.history.ParkingHistory;
+import com.example.bicyclestorage.lock.FirestoreLockSync;
+import com.example.bicyclestorage.lock.LockEntry;
+import com.example.bicyclestorage.lock.LockStateModel;
+import com.example.bicyclestorage.map.InfoWindowRenderer;
+import com.example.bicyclestorage.map.MapSnapshotCache;
+import com.example.bicyclestorage.map.MarkerIconCache;
+import com.example.bicyclestorage.map.StorageThumbnails;
+import com.example.bicyclestorage.metrics.StartupTrace;
+import com.example.bicyclestorage.occupancy.OccupancyForecaster;
+import com.example.bicyclestorage.occupancy.OccupancyStore;
+import com.example.bicyclestorage.perf.MapFrameMonitor;
+import com.example.bicyclestorage.reservation.FirestoreReservationStore;
+import com.example.bicyclestorage.reservation.Reservations;
+import com.example.bicyclestorage.routing.RoadGraph;
+import com.example.bicyclestorage.routing.StorageEtas;
+import com.example.bicyclestorage.storage.CatalogAggregates;
+import com.example.bicyclestorage.storage.NearestStorages;
+import com.example.bicyclestorage.storage.OccupancyPipeline;
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.StorageCatalog;
+import com.example.bicyclestorage.storage.StorageListAdapter;
+import com.example.bicyclestorage.storage.TrajectoryPrefetcher;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+import com.example.bicyclestorage.storage.backend.StorageBackends;
+import com.example.bicyclestorage.telemetry.Telemetry;
+import com.example.bicyclestorage.trip.TripRecorder;
+import com.example.bicyclestorage.util.DeviceProfile;
+import com.example.bicyclestorage.util.DisplayUnits;
+import com.example.bicyclestorage.util.GeoMath;
+import com.example.bicyclestorage.watch.WatchMultiplexer;
+import com.example.bicyclestorage.watch.WatchPollWorker;
+import com.example.bicyclestorage.watch.Watchlist;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.android.gms.common.api.ResolvableApiException;
 import com.google.android.gms.location.*;
 import com.google.android.gms.maps.*;
 import com.google.android.gms.maps.model.*;
+import com.google.android.material.button.MaterialButtonToggleGroup;
+import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * MainActivity – Google Maps, multiple bicycle storage markers,
- * lock button (persistently toggles open/closed), edge-to-edge layout,
- * sign-in check and account screen launcher.
+ * sortable storage list, lock button (persistently toggles open/closed),
+ * edge-to-edge layout, sign-in check and account screen launcher.
  */
 public class MainActivity extends AppCompatActivity implements OnMapReadyCallback {
 
-    // --- Data model for storages ---
-    private static class Storage {
-        final LatLng position;
-        final String title;
-        String snippet;
-        Storage(LatLng pos, String title, String snippet) {
-            this.position = pos;
-            this.title = title;
-            this.snippet = snippet;
-        }
-    }
-
-    // List of storages – extendable
-    private static final Storage[] STORAGES = new Storage[]{
-            new Storage(new LatLng(47.543277, 21.640391), "Bicycle storage 1", "In use: 3/6"),
-            new Storage(new LatLng(47.532368, 21.629087), "Bicycle storage 2", "In use: 1/4"),
-            new Storage(new LatLng(47.553577, 21.621793), "Bicycle storage 3", "In use: 5/10")
-    };
+    // Storage catalog (keyed by stable storage id) – extendable
+    private final StorageCatalog catalog = StorageCatalog.createDefault();
 
     // Constants
     private static final float DEFAULT_ZOOM = 15f;
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1;
     private static final int REQUEST_CHECK_SETTINGS = 2;
     private static final int PLAY_SERVICES_RESOLUTION_REQUEST = 9000;
+    private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 3;
+    private static final String ROUTING_GRAPH_ASSET = "bike_graph.bin";
 
     // Lock state persistence keys
     private static final String PREFS_NAME = "lock_prefs";
     private static final String KEY_LOCKED = "key_locked";
+    private static final String KEY_LOCK_LAMPORT = "key_lock_lamport";
+    private static final String KEY_LOCK_DEVICE = "key_lock_device";
+    private static final String KEY_DEVICE_ID = "key_device_id";
     private static final String STATE_LOCKED = "state_locked";
 
     // Map and location
     private GoogleMap myMap;
     private FusedLocationProviderClient fusedLocationClient;
-    private LocationCallback locationCallback;
+    private LocationRequest locationRequest;     // built once, reused
+    private LocationCallback locationCallback;   // built once, reused
+    private boolean locationUpdatesActive = false;
 
-    // Marker -> Storage mapping
+    // Marker -> Storage mapping (values replaced on occupancy change)
     private final Map<Marker, Storage> markerStorageMap = new HashMap<>();
+    private final Map<String, Marker> markersById = new HashMap<>();
+    @Nullable private LatLngBounds cullBounds; // culling only: visible region at the last camera idle
+
+    // Storage list next to the map
+    private StorageListAdapter storageListAdapter;
+    private final StorageCatalog.Listener catalogListener = new StorageCatalog.Listener() {
+        @Override
+        public void onStorageChanged(@NonNull Storage storage) {
+            MainActivity.this.onStorageChanged(storage);
+        }
+
+        @Override
+        public void onStorageRemoved(@NonNull Storage storage) {
+            Marker m = markersById.remove(storage.id);
+            if (m != null) {
+                markerStorageMap.remove(m);
+                m.remove();
+            }
+        }
+
+        @Override
+        public void onBatchEnd() {
+            if (snapshotLayoutPending) checkSnapshotLayout();
+            noteBackendMarkers();
+            if (storageListAdapter != null) storageListAdapter.submitStorages(catalog.snapshot());
+        }
+    };
+
+    // Backend (Firestore / fake) → coalescing pipeline → catalog
+    private OccupancyPipeline occupancyPipeline;
+    private StorageBackend.Subscription backendSubscription;
+    private TrajectoryPrefetcher prefetcher; // storages ahead of the rider
+    private static final int PREFETCH_MIN_BATTERY_PCT = 20;
+
+    // Favourite storages: catalog feed in the foreground; in the background the full
+    // stream is dropped for chunked id listeners, then a periodic WorkManager poll
+    private static final long BACKGROUND_WATCH_MS = 10 * 60_000L;
+    private Watchlist watchlist;
+    private WatchMultiplexer watchMultiplexer;
+    private final Handler watchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable stopBackgroundWatch = () -> {
+        if (watchMultiplexer != null) watchMultiplexer.stop();
+    };
+
+    // Parking sessions: lock opens one at the storage the bike is at, unlock closes it
+    private static final double PARK_MATCH_RADIUS_M = 150;
+    private static final long PARK_FIX_MAX_AGE_MS = 10 * 60_000L;
+    private ParkingHistory parkingHistory;
+    private double lastFixLat, lastFixLng;
+    private long lastFixAtMs = 0; // wall clock when the fix arrived; 0 = none yet
+
+    // Usage events (marker taps, lock toggles, navigation hand-offs)
+    private Telemetry telemetry;
+
+    // Frame-time / jank instrumentation (per-phase annotations)
+    private MapFrameMonitor frameMonitor;
+
+    // Device class: icon size, culling, location rate, cache sizes
+    private DeviceProfile profile;
+
+    // Hot-path caches: density, scaled marker icons, inflated info window
+    private DisplayUnits units;
+    private final MarkerIconCache<BitmapDescriptor> markerIcons =
+            new MarkerIconCache<>(this::createResizedMarkerIcon);
+    private final InfoWindowRenderer<View, Storage> infoWindow =
+            new InfoWindowRenderer<>(this::inflateInfoWindow, this::bindInfoWindow);
+    private TextView infoWindowText;
+    private TextView infoWindowForecast;
+    private ImageView infoWindowPhoto;
+
+    // Storage photos in the info window (memory + disk cache, prefetched on camera idle)
+    private static final int THUMB_WIDTH_DP = 160;  // custom_info_window.xml info_photo
+    private static final int THUMB_HEIGHT_DP = 100;
+    private static final int THUMB_PREFETCH_COUNT = 8;
+    private StorageThumbnails thumbnails;
+
+    // Occupancy history + forecast shown in the info window
+    private static final long FORECAST_AHEAD_MS = 30 * 60_000L;
+    private final OccupancyStore occupancyStore = new OccupancyStore(TimeZone.getDefault());
+    private final OccupancyForecaster forecaster = new OccupancyForecaster(occupancyStore);
+    private File occupancyFile;
+
+    // Last map frame as a cold-start placeholder (cross-faded once the live map has loaded)
+    private static final long PLACEHOLDER_FADE_MS = 250;
+    private MapSnapshotCache snapshotCache;
+    private MapSnapshotCache.Key snapshotKey; // key of the image on disk (if valid)
+    private boolean snapshotLayoutPending;    // catalog layout not checked yet (backend not loaded)
+    private long builtInLayoutFingerprint;
+    private ImageView mapPlaceholder;
+    private boolean mapLoaded = false;
+
+    // Background file I/O (occupancy store load/save, map snapshot)
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+
+    // Ride history: fixes from the location callback → compact segment files
+    private TripRecorder tripRecorder;
 
     // UI elements
     private ImageButton lockButton;     // bottom-right – red/green selector
@@ -93,9 +235,30 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
     // Lock state
     private boolean locked = true; // true = LOCKED (red), false = UNLOCKED (green)
 
+    // Lock state shared by the user's devices (versioned, synced via one listener)
+    private static final String LOCK_KEY = "primary"; // the single lock button
+    private LockStateModel lockModel;
+    private FirestoreLockSync lockSync;
+
     // Firebase user repo (auth + profile)
     private FirebaseUserRepository userRepo;
 
+    // Space reservation: a hold is taken when the rider sets off (info window tap);
+    // it expires locally on time, without waiting for the server
+    private static final String RESERVATION_PREFS = "reservation_prefs";
+    private static final String KEY_HOLD_STORAGE = "key_hold_storage";
+    private static final String KEY_HOLD_EXPIRES = "key_hold_expires";
+    private static final int HOLD_CLEANUP_BATCH = 10;
+    private static final long HOLD_CLEANUP_INTERVAL_MS = 10 * 60_000L;
+    private Reservations reservations;
+    private final ExecutorService reservationExecutor = Executors.newSingleThreadExecutor();
+    private final Handler holdHandler = new Handler(Looper.getMainLooper());
+    private final Runnable holdExpiry = this::expireHold;
+    private String heldStorageId;
+    private long holdExpiresAtMs;
+    private long lastHoldCleanupMs;
+    private TextView infoWindowReservation;
+
     // System insets cache (for map padding)
     private int systemTopInset = 0;
     private int systemBottomInset = 0;
@@ -106,17 +269,22 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         // Edge-to-edge
         WindowCompat.setDecorFitsSystemWindows(getWindow(), false);
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
 
         // Firebase user repo
         userRepo = new FirebaseUserRepository();
 
-        // Sign-in check (if no user → LoginActivity)
+        // Sign-in check before inflating anything (if no user → LoginActivity)
         if (!userRepo.isLoggedIn()) {
             goToLoginAndFinish();
             return;
         }
 
+        setContentView(R.layout.activity_main);
+        units = DisplayUnits.of(this);
+        profile = DeviceProfile.get(this);
+        thumbnails = new StorageThumbnails(this, units.dp(THUMB_WIDTH_DP), units.dp(THUMB_HEIGHT_DP),
+                profile.thumbnailCacheBytes, ContextCompat.getMainExecutor(this), this::refreshInfoWindow);
+
         // Restore from config change (e.g., rotation)
         if (savedInstanceState != null) {
             locked = savedInstanceState.getBoolean(STATE_LOCKED, true);
@@ -134,8 +302,22 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
             return;
         }
 
+        frameMonitor = MapFrameMonitor.attach(this, profile.frameRingCapacity);
+        tripRecorder = new TripRecorder(new File(getFilesDir(), "trips"));
+        occupancyFile = new File(getFilesDir(), "occupancy.bin");
+        ioExecutor.execute(() -> occupancyStore.load(occupancyFile));
+
         initUiReferences();
+        builtInLayoutFingerprint = catalog.layoutFingerprint();
+        showSnapshotPlaceholder();
         setupButtons();
+        parkingHistory = ParkingHistory.get(this); // before lock sync: remote changes record sessions
+        startLockSync();
+        setupReservations();
+        watchlist = Watchlist.get(this);
+        telemetry = Telemetry.get(this);
+        setupStorageList();
+        subscribeStorageBackend();
 
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
 
@@ -154,19 +336,28 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         lockButton = findViewById(R.id.lockButton);
         accountButton = findViewById(R.id.accountButton);
         storageButton = findViewById(R.id.storageButton);
+        mapPlaceholder = findViewById(R.id.mapPlaceholder);
     }
 
     private void setupButtons() {
         if (storageButton != null) {
             storageButton.setOnClickListener(v -> resetMapPosition());
+            // Debuggable builds: frame-time summary + CSV export
+            if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+                storageButton.setOnLongClickListener(v -> {
+                    showFrameReport();
+                    return true;
+                });
+            }
         }
 
         if (lockButton != null) {
             applyLockVisual();
             lockButton.setOnClickListener(v -> {
-                locked = !locked;
-                applyLockVisual();
-                persistLockState();
+                LockEntry entry = lockModel.toggle(LOCK_KEY, locked);
+                telemetry.lockToggle(entry.locked);
+                if (lockSync != null) lockSync.publish(LOCK_KEY, entry);
+                setLocked(entry.locked);
             });
             lockButton.setOnLongClickListener(v -> {
                 new AlertDialog.Builder(this)
@@ -192,16 +383,193 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         }
     }
 
+    private void showFrameReport() {
+        if (frameMonitor == null || ioExecutor.isShutdown()) return;
+        MapFrameMonitor monitor = frameMonitor;
+        File dir = new File(getFilesDir(), "perf");
+        // The CSV write would itself drop frames on the screen being measured
+        ioExecutor.execute(() -> {
+            File exported = monitor.export(dir);
+            String summary = monitor.summaryText();
+            ContextCompat.getMainExecutor(this).execute(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                new AlertDialog.Builder(this)
+                        .setTitle("Frame times")
+                        .setMessage(summary + (exported != null ? "\nExported: " + exported.getAbsolutePath() : ""))
+                        .setPositiveButton("OK", null)
+                        .show();
+            });
+        });
+    }
+
     private void restoreLockFromPrefs() {
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         locked = prefs.getBoolean(KEY_LOCKED, locked);
+
+        String deviceId = prefs.getString(KEY_DEVICE_ID, null);
+        if (deviceId == null) {
+            deviceId = UUID.randomUUID().toString();
+            prefs.edit().putString(KEY_DEVICE_ID, deviceId).apply();
+        }
+        lockModel = new LockStateModel(deviceId);
+        if (prefs.contains(KEY_LOCK_LAMPORT)) {
+            // Last known version, so an offline toggle still outranks what it has seen
+            lockModel.merge(LOCK_KEY, new LockEntry(locked,
+                    prefs.getLong(KEY_LOCK_LAMPORT, 0),
+                    prefs.getString(KEY_LOCK_DEVICE, deviceId)));
+        }
     }
 
     private void persistLockState() {
-        getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+        SharedPreferences.Editor edit = getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
                 .edit()
-                .putBoolean(KEY_LOCKED, locked)
+                .putBoolean(KEY_LOCKED, locked);
+        LockEntry entry = lockModel.entry(LOCK_KEY);
+        if (entry != null) {
+            edit.putLong(KEY_LOCK_LAMPORT, entry.lamport)
+                    .putString(KEY_LOCK_DEVICE, entry.deviceId);
+        }
+        edit.apply();
+    }
+
+    // Other devices' toggles arrive through one snapshot listener on lockStates/{uid}
+    private void startLockSync() {
+        String uid = userRepo.getUid();
+        if (uid == null) return;
+        lockSync = new FirestoreLockSync(FirebaseFirestore.getInstance(), uid, lockModel);
+        lockSync.start(ContextCompat.getMainExecutor(this), locked, storageId -> {
+            if (!LOCK_KEY.equals(storageId)) return;
+            setLocked(lockModel.isLocked(LOCK_KEY, locked));
+        });
+    }
+
+    // Local toggles and other devices' changes both land here; parking history, holds and
+    // trips follow only an actual flip
+    private void setLocked(boolean nowLocked) {
+        boolean flipped = nowLocked != locked;
+        locked = nowLocked;
+        applyLockVisual();
+        persistLockState();
+        if (!flipped) return;
+        long now = System.currentTimeMillis();
+        if (!locked) {
+            parkingHistory.onUnlocked(now);
+            return;
+        }
+        Storage parked = parkedStorage(now);
+        parkingHistory.onLocked(parked, now);
+        // Parked in the held space → the hold is used up
+        if (parked != null && parked.id.equals(heldStorageId)) releaseHold();
+        // Locking = bike parked → the ride to the storage is over
+        if (tripRecorder != null) tripRecorder.endTrip();
+    }
+
+    // --- Reservations ---
+    private void setupReservations() {
+        String uid = userRepo.getUid();
+        if (uid == null) return;
+        reservations = new Reservations(new FirestoreReservationStore(FirebaseFirestore.getInstance()), uid);
+        SharedPreferences prefs = getSharedPreferences(RESERVATION_PREFS, MODE_PRIVATE);
+        String id = prefs.getString(KEY_HOLD_STORAGE, null);
+        long expires = prefs.getLong(KEY_HOLD_EXPIRES, 0);
+        if (id != null && expires > System.currentTimeMillis()) setHold(id, expires);
+        else if (id != null) prefs.edit().clear().apply();
+    }
+
+    private void reserveSpace(@NonNull Storage storage) {
+        if (reservations == null || reservationExecutor.isShutdown()) return;
+        String previous = heldStorageId;
+        reservationExecutor.execute(() -> {
+            Reservations.Result result = reservations.reserve(storage.id, previous);
+            runOnUiThread(() -> onReservationResult(storage, result));
+        });
+    }
+
+    private void onReservationResult(@NonNull Storage storage, @NonNull Reservations.Result result) {
+        switch (result.status) {
+            case HELD:
+                setHold(storage.id, result.expiresAtMs);
+                Toast.makeText(this, getString(R.string.reservation_held, storage.title,
+                        Reservations.HOLD_MS / 60_000), Toast.LENGTH_SHORT).show();
+                break;
+            case NO_SPACE:
+                Toast.makeText(this, R.string.reservation_no_space, Toast.LENGTH_SHORT).show();
+                break;
+            default:
+                Toast.makeText(this, R.string.reservation_failed, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void setHold(@NonNull String storageId, long expiresAtMs) {
+        String previous = heldStorageId;
+        heldStorageId = storageId;
+        holdExpiresAtMs = expiresAtMs;
+        getSharedPreferences(RESERVATION_PREFS, MODE_PRIVATE).edit()
+                .putString(KEY_HOLD_STORAGE, storageId)
+                .putLong(KEY_HOLD_EXPIRES, expiresAtMs)
                 .apply();
+        holdHandler.removeCallbacks(holdExpiry);
+        holdHandler.postDelayed(holdExpiry, Math.max(0, expiresAtMs - System.currentTimeMillis()));
+        if (previous != null) refreshInfoWindow(previous);
+        refreshInfoWindow(storageId);
+    }
+
+    private void expireHold() {
+        String id = heldStorageId;
+        heldStorageId = null;
+        holdExpiresAtMs = 0;
+        getSharedPreferences(RESERVATION_PREFS, MODE_PRIVATE).edit().clear().apply();
+        if (id != null) refreshInfoWindow(id);
+    }
+
+    private void releaseHold() {
+        String id = heldStorageId;
+        holdHandler.removeCallbacks(holdExpiry);
+        expireHold();
+        if (id != null && reservations != null && !reservationExecutor.isShutdown()) {
+            reservationExecutor.execute(() -> reservations.release(id));
+        }
+    }
+
+    private void refreshInfoWindow(@NonNull String storageId) {
+        Marker m = markersById.get(storageId);
+        if (m != null && m.isInfoWindowShown()) m.showInfoWindow();
+    }
+
+    // Expired holds of the storages around the camera, one transaction, at most every 10 min
+    private void cleanupNearbyHolds() {
+        if (reservations == null || myMap == null || reservationExecutor.isShutdown()) return;
+        long now = System.currentTimeMillis();
+        if (now - lastHoldCleanupMs < HOLD_CLEANUP_INTERVAL_MS) return;
+        lastHoldCleanupMs = now;
+        LatLng center = myMap.getCameraPosition().target;
+        List<Storage> storages = catalog.snapshot();
+        reservationExecutor.execute(() -> {
+            List<String> ids = new ArrayList<>(HOLD_CLEANUP_BATCH);
+            for (Storage st : NearestStorages.nearest(storages, center.latitude, center.longitude,
+                    HOLD_CLEANUP_BATCH, null)) {
+                ids.add(st.id);
+            }
+            reservations.cleanupExpired(ids);
+        });
+    }
+
+    // The storage nearest a recent fix, else the one with the rider's hold (null if neither)
+    @Nullable
+    private Storage parkedStorage(long nowMs) {
+        Storage best = null;
+        if (lastFixAtMs != 0 && nowMs - lastFixAtMs <= PARK_FIX_MAX_AGE_MS) {
+            double bestM = PARK_MATCH_RADIUS_M;
+            for (Storage s : catalog.snapshot()) {
+                double m = GeoMath.distanceMeters(lastFixLat, lastFixLng, s.lat, s.lng);
+                if (m <= bestM) {
+                    best = s;
+                    bestM = m;
+                }
+            }
+        }
+        if (best == null && heldStorageId != null) best = catalog.get(heldStorageId);
+        return best;
     }
 
     private void goToLoginAndFinish() {
@@ -272,19 +640,198 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         lockButton.setContentDescription(locked ? "Storage locked" : "Storage unlocked");
     }
 
+    // --- Storage list ---
+    private void setupStorageList() {
+        RecyclerView list = findViewById(R.id.storageList);
+        if (list == null) return;
+        storageListAdapter = new StorageListAdapter(this::focusStorage);
+        storageListAdapter.setOnStorageLongClickListener(this::toggleWatch);
+        list.setLayoutManager(new LinearLayoutManager(this));
+        list.setHasFixedSize(true);
+        list.setAdapter(storageListAdapter);
+        storageListAdapter.submitStorages(catalog.snapshot());
+        catalog.addListener(catalogListener);
+        loadRoutingGraph();
+
+        MaterialButtonToggleGroup sortToggle = findViewById(R.id.sortToggle);
+        if (sortToggle != null) {
+            sortToggle.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+                if (!isChecked) return;
+                if (checkedId == R.id.sortFree) {
+                    storageListAdapter.setSortMode(StorageListAdapter.SortMode.FREE_SPACES);
+                } else if (checkedId == R.id.sortName) {
+                    storageListAdapter.setSortMode(StorageListAdapter.SortMode.NAME);
+                } else {
+                    storageListAdapter.setSortMode(StorageListAdapter.SortMode.DISTANCE);
+                }
+            });
+        }
+    }
+
+    // Offline bike graph (assets/bike_graph.bin, built by scripts/build_bike_graph.sh);
+    // without it the list ranks by straight-line distance
+    private void loadRoutingGraph() {
+        ioExecutor.execute(() -> {
+            RoadGraph graph;
+            try (InputStream in = getAssets().open(ROUTING_GRAPH_ASSET)) {
+                graph = RoadGraph.read(in);
+            } catch (IOException e) {
+                return; // not bundled in this build, or unreadable
+            }
+            StorageEtas etas = new StorageEtas(graph);
+            runOnUiThread(() -> {
+                if (storageListAdapter != null && !isFinishing()) storageListAdapter.setEtaSource(etas);
+            });
+        });
+    }
+
+    private void subscribeStorageBackend() {
+        // Seed the history with the current values
+        long now = System.currentTimeMillis();
+        for (Storage s : catalog.snapshot()) occupancyStore.sample(s, now);
+
+        occupancyPipeline = new OccupancyPipeline(catalog, ContextCompat.getMainExecutor(this));
+        // Pipeline is thread-safe: deliver directly on the backend's thread
+        backendSubscription = StorageBackends.get().subscribe(Runnable::run, occupancyPipeline);
+        watchMultiplexer = new WatchMultiplexer(StorageBackends.get(), ContextCompat.getMainExecutor(this),
+                watchlist.listener(true));
+        prefetcher = new TrajectoryPrefetcher(StorageBackends.get(), ContextCompat.getMainExecutor(this),
+                occupancyPipeline, this::prefetchAllowed, profile.prefetchBytesPerHour);
+    }
+
+    // No prefetch in power save mode or on low battery (unless charging)
+    private boolean prefetchAllowed() {
+        PowerManager pm = (PowerManager) getSystemService(POWER_SERVICE);
+        if (pm != null && pm.isPowerSaveMode()) return false;
+        BatteryManager bm = (BatteryManager) getSystemService(BATTERY_SERVICE);
+        if (bm == null) return true;
+        return bm.isCharging()
+                || bm.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY) >= PREFETCH_MIN_BATTERY_PCT;
+    }
+
+    // Catalog change → history + marker (list is refreshed once per batch, see catalogListener)
+    private void onStorageChanged(@NonNull Storage storage) {
+        occupancyStore.sample(storage, System.currentTimeMillis());
+        watchlist.observe(storage, false); // keeps the hysteresis baseline current, no notification
+        Marker m = markersById.get(storage.id);
+        if (m != null) {
+            Storage old = markerStorageMap.put(m, storage);
+            if (old != null && !old.sameStatic(storage)) { // edited on the backend
+                m.setPosition(storage.getPosition());
+                m.setTitle(storage.title);
+            }
+            m.setSnippet(storage.snippet());
+            if (m.isInfoWindowShown()) m.showInfoWindow(); // re-render with fresh data
+        } else if (myMap != null) {
+            addStorageMarker(storage);
+        }
+    }
+
+    // List row tap → center the map on the storage and open its info window
+    private void focusStorage(@NonNull Storage storage) {
+        if (myMap == null) return;
+        myMap.animateCamera(CameraUpdateFactory.newLatLngZoom(storage.getPosition(), DEFAULT_ZOOM));
+        Marker m = markersById.get(storage.id);
+        if (m != null) m.showInfoWindow();
+    }
+
+    // List row long-press → watch / unwatch (notification when it gets a free space)
+    private void toggleWatch(@NonNull Storage storage) {
+        boolean watched = watchlist.toggle(storage);
+        Toast.makeText(this, getString(watched ? R.string.watch_on : R.string.watch_off, storage.title),
+                Toast.LENGTH_SHORT).show();
+        if (watched && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, android.Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this,
+                    new String[]{android.Manifest.permission.POST_NOTIFICATIONS},
+                    NOTIFICATION_PERMISSION_REQUEST_CODE);
+        }
+    }
+
+    // Foreground: the full catalog stream covers the watched storages
+    private void watchInForeground() {
+        watchHandler.removeCallbacks(stopBackgroundWatch);
+        if (watchMultiplexer != null) watchMultiplexer.stop();
+        WatchPollWorker.cancel(this);
+        if (backendSubscription == null && occupancyPipeline != null) {
+            backendSubscription = StorageBackends.get().subscribe(Runnable::run, occupancyPipeline);
+        }
+    }
+
+    // Background: only the watched ids, live for a while, then the periodic poll
+    private void watchInBackground() {
+        if (backendSubscription != null) {
+            backendSubscription.remove();
+            backendSubscription = null;
+        }
+        if (watchMultiplexer == null) return;
+        Set<String> ids = watchlist.ids();
+        if (ids.isEmpty()) return;
+        watchMultiplexer.setIds(ids);
+        watchHandler.postDelayed(stopBackgroundWatch, BACKGROUND_WATCH_MS);
+        WatchPollWorker.schedule(this);
+        ioExecutor.execute(watchlist::saveState);
+    }
+
     // --- Google Map ready ---
     @Override
     public void onMapReady(@NonNull GoogleMap googleMap) {
         myMap = googleMap;
 
         setupMapUi();
+        frameMonitor.begin(MapFrameMonitor.Phase.ADDING_MARKERS);
         addStorageMarkers();
+        frameMonitor.end(MapFrameMonitor.Phase.ADDING_MARKERS);
+        noteBackendMarkers();
         focusInitial();
         setupInfoWindowAdapter();
         setupMarkerClickAndNavigation();
+        setupCameraPhaseTracking();
+        myMap.setOnMapLoadedCallback(() -> {
+            mapLoaded = true;
+            hideSnapshotPlaceholder();
+            if (StartupTrace.mapLoaded()) reportFullyDrawn();
+        });
         checkLocationSettings();
     }
 
+    // Startup is complete once the backend's storages are markers, not just the built-in ones
+    private void noteBackendMarkers() {
+        if (myMap == null || catalog.layoutFingerprint() == builtInLayoutFingerprint) return;
+        if (StartupTrace.markersAdded()) reportFullyDrawn();
+    }
+
+    private void setupCameraPhaseTracking() {
+        myMap.setOnCameraMoveStartedListener(reason ->
+                frameMonitor.begin(MapFrameMonitor.Phase.CAMERA_MOVE));
+        myMap.setOnCameraIdleListener(() -> {
+            frameMonitor.end(MapFrameMonitor.Phase.CAMERA_MOVE);
+            if (profile.cullOffscreenMarkers) cullOffscreenMarkers();
+            prefetchNearbyThumbnails();
+        });
+    }
+
+    // Photos of the storages nearest the camera, so opening their info window is a memory hit
+    private void prefetchNearbyThumbnails() {
+        if (ioExecutor.isShutdown()) return;
+        LatLng center = myMap.getCameraPosition().target;
+        List<Storage> storages = catalog.snapshot();
+        ioExecutor.execute(() -> thumbnails.prefetch(NearestStorages.nearest(storages,
+                center.latitude, center.longitude, THUMB_PREFETCH_COUNT, s -> s.photoUrl != null)));
+    }
+
+    // Low-end devices: only markers inside the visible region are drawn. The region of the
+    // last camera idle also decides for markers added until the next one
+    private void cullOffscreenMarkers() {
+        LatLngBounds visible = myMap.getProjection().getVisibleRegion().latLngBounds;
+        cullBounds = visible;
+        for (Map.Entry<Marker, Storage> e : markerStorageMap.entrySet()) {
+            boolean inside = visible.contains(e.getValue().getPosition());
+            if (e.getKey().isVisible() != inside) e.getKey().setVisible(inside);
+        }
+    }
+
     private void setupMapUi() {
         if (myMap == null) return;
         myMap.getUiSettings().setMyLocationButtonEnabled(true);
@@ -292,6 +839,9 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         // Enable built-in Map Toolbar (bottom-right), so navigation shortcut appears
         myMap.getUiSettings().setMapToolbarEnabled(true);
 
+        myMap.setBuildingsEnabled(profile.mapDetailEnabled);
+        myMap.setIndoorEnabled(profile.mapDetailEnabled);
+
         applyMapPadding();
     }
 
@@ -304,24 +854,102 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
     }
 
     private void addStorageMarkers() {
-        for (Storage storage : STORAGES) {
-            MarkerOptions opts = new MarkerOptions()
-                    .position(storage.position)
-                    .title(storage.title)
-                    .snippet(storage.snippet)
-                    .icon(getResizedMarkerIcon(R.drawable.bicycle, 120, 120));
-            Marker m = myMap.addMarker(opts);
-            if (m != null) {
-                markerStorageMap.put(m, storage);
-            }
+        for (Storage storage : catalog.snapshot()) {
+            addStorageMarker(storage);
+        }
+    }
+
+    private void addStorageMarker(@NonNull Storage storage) {
+        MarkerOptions opts = new MarkerOptions()
+                .position(storage.getPosition())
+                .visible(cullBounds == null || cullBounds.contains(storage.getPosition()))
+                .title(storage.title)
+                .snippet(storage.snippet())
+                .icon(markerIcons.get(R.drawable.bicycle, profile.markerIconPx, profile.markerIconPx));
+        Marker m = myMap.addMarker(opts);
+        if (m != null) {
+            markerStorageMap.put(m, storage);
+            markersById.put(storage.id, m);
         }
     }
 
     private void focusInitial() {
-        if (STORAGES.length > 0) {
+        if (snapshotKey != null) {
+            // Same camera as the placeholder image, so the cross-fade lines up
+            myMap.moveCamera(CameraUpdateFactory.newCameraPosition(new CameraPosition(
+                    new LatLng(snapshotKey.lat, snapshotKey.lng),
+                    snapshotKey.zoom, 0f, snapshotKey.bearing)));
+        } else if (!catalog.isEmpty()) {
             myMap.moveCamera(CameraUpdateFactory.newLatLngZoom(
-                    STORAGES[0].position, DEFAULT_ZOOM));
+                    catalog.snapshot().get(0).getPosition(), DEFAULT_ZOOM));
+        }
+    }
+
+    // --- Cold-start placeholder ---
+    private void showSnapshotPlaceholder() {
+        snapshotCache = new MapSnapshotCache(this, profile.snapshotDownsample);
+        MapSnapshotCache.Key saved = snapshotCache.savedKey();
+        if (saved == null) return;
+        if (saved.orientation != getResources().getConfiguration().orientation) {
+            ioExecutor.execute(snapshotCache::invalidate);
+            return;
+        }
+        // The layout is checked once backend storages have reached the catalog
+        snapshotKey = saved;
+        snapshotLayoutPending = true;
+        ioExecutor.execute(() -> {
+            Bitmap image = snapshotCache.loadBitmap();
+            if (image == null) return;
+            runOnUiThread(() -> {
+                if (mapLoaded || snapshotKey == null || isFinishing()) {
+                    image.recycle();
+                    return;
+                }
+                mapPlaceholder.setImageBitmap(image);
+                mapPlaceholder.setAlpha(1f);
+                mapPlaceholder.setVisibility(View.VISIBLE);
+            });
+        });
+    }
+
+    // First catalog batch that changed the layout = the backend's storages have arrived
+    private void checkSnapshotLayout() {
+        long fingerprint = catalog.layoutFingerprint();
+        if (snapshotKey.sameLayout(fingerprint)) {
+            snapshotLayoutPending = false;
+            return;
         }
+        if (fingerprint == builtInLayoutFingerprint) return; // still only the built-in storages
+        snapshotLayoutPending = false;
+        snapshotKey = null;
+        ioExecutor.execute(snapshotCache::invalidate);
+        hideSnapshotPlaceholder();
+    }
+
+    private void hideSnapshotPlaceholder() {
+        if (mapPlaceholder.getVisibility() != View.VISIBLE) return;
+        mapPlaceholder.animate()
+                .alpha(0f)
+                .setDuration(PLACEHOLDER_FADE_MS)
+                .withEndAction(() -> {
+                    mapPlaceholder.setVisibility(View.GONE);
+                    mapPlaceholder.setImageDrawable(null);
+                });
+    }
+
+    // Captures the current frame unless the stored one already shows this camera + catalog
+    private void captureMapSnapshot() {
+        if (myMap == null || !mapLoaded) return;
+        CameraPosition cam = myMap.getCameraPosition();
+        MapSnapshotCache.Key key = new MapSnapshotCache.Key(
+                cam.target.latitude, cam.target.longitude, cam.zoom, cam.bearing,
+                catalog.layoutFingerprint(), getResources().getConfiguration().orientation);
+        if (key.matches(snapshotKey)) return;
+        snapshotKey = key;
+        myMap.snapshot(bitmap -> {
+            if (bitmap == null || ioExecutor.isShutdown()) return;
+            ioExecutor.execute(() -> snapshotCache.save(bitmap, key));
+        });
     }
 
     private void setupInfoWindowAdapter() {
@@ -329,58 +957,148 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         myMap.setInfoWindowAdapter(new GoogleMap.InfoWindowAdapter() {
             @Override
             public View getInfoWindow(Marker marker) {
-                Storage st = markerStorageMap.get(marker);
-                if (st == null) return null;
-                View view = getLayoutInflater().inflate(R.layout.custom_info_window, null);
-                TextView infoText = view.findViewById(R.id.info_text);
-                infoText.setText(st.snippet);
-                return view;
+                frameMonitor.begin(MapFrameMonitor.Phase.INFO_WINDOW);
+                View v = infoWindow.render(markerStorageMap.get(marker));
+                frameMonitor.end(MapFrameMonitor.Phase.INFO_WINDOW);
+                return v;
             }
             @Override
             public View getInfoContents(Marker marker) { return null; }
         });
     }
 
+    @NonNull
+    private View inflateInfoWindow() {
+        View v = getLayoutInflater().inflate(R.layout.custom_info_window, null);
+        infoWindowText = v.findViewById(R.id.info_text);
+        infoWindowForecast = v.findViewById(R.id.info_forecast);
+        infoWindowReservation = v.findViewById(R.id.info_reservation);
+        infoWindowPhoto = v.findViewById(R.id.info_photo);
+        return v;
+    }
+
+    private void bindInfoWindow(@NonNull View v, @NonNull Storage st) {
+        infoWindowText.setText(st.snippet());
+        bindPhoto(st);
+        bindForecast(st);
+        bindReservation(st);
+    }
+
+    // Memory cache only: a miss starts a load and the window is re-rendered when it is ready
+    private void bindPhoto(@NonNull Storage st) {
+        Bitmap thumb = thumbnails.peek(st);
+        if (thumb != null) {
+            infoWindowPhoto.setImageBitmap(thumb);
+            infoWindowPhoto.setVisibility(View.VISIBLE);
+        } else {
+            infoWindowPhoto.setImageDrawable(null);
+            infoWindowPhoto.setVisibility(View.GONE);
+            thumbnails.request(st);
+        }
+    }
+
+    private void bindForecast(@NonNull Storage st) {
+        long now = System.currentTimeMillis();
+        int free = forecaster.forecastFree(st, now, now + FORECAST_AHEAD_MS);
+        if (free == OccupancyForecaster.UNKNOWN) {
+            infoWindowForecast.setVisibility(View.GONE);
+        } else {
+            infoWindowForecast.setText(getString(R.string.forecast_free,
+                    (int) (FORECAST_AHEAD_MS / 60_000L), free));
+            infoWindowForecast.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void bindReservation(@NonNull Storage st) {
+        long left = holdExpiresAtMs - System.currentTimeMillis();
+        if (!st.id.equals(heldStorageId) || left <= 0) {
+            infoWindowReservation.setVisibility(View.GONE);
+        } else {
+            infoWindowReservation.setText(getString(R.string.reservation_minutes_left,
+                    (int) Math.max(1, (left + 59_999) / 60_000)));
+            infoWindowReservation.setVisibility(View.VISIBLE);
+        }
+    }
+
     private void setupMarkerClickAndNavigation() {
         // Let default behavior show info window + toolbar
         myMap.setOnMarkerClickListener(marker -> {
-            if (!markerStorageMap.containsKey(marker)) return false;
+            Storage st = markerStorageMap.get(marker);
+            if (st != null) telemetry.markerTap(st.id);
             return false;
         });
 
         // InfoWindow click → open Google Maps with bicycling route
         myMap.setOnInfoWindowClickListener(marker -> {
             Storage st = markerStorageMap.get(marker);
-            if (st != null) openInGoogleMaps(st.position, st.title);
-            else openInGoogleMaps(marker.getPosition(), marker.getTitle());
+            if (st != null) {
+                reserveSpace(st); // in the background; navigation does not wait for it
+                openInGoogleMaps(st.getPosition(), st.title, st.id);
+            } else {
+                openInGoogleMaps(marker.getPosition(), marker.getTitle(), null);
+            }
         });
     }
 
-    private void openInGoogleMaps(LatLng pos, String label) {
+    private void openInGoogleMaps(LatLng pos, String label, @Nullable String storageId) {
         // Prefer Google Maps app navigation intent (bicycle mode)
         Uri uri = Uri.parse("google.navigation:q=" + pos.latitude + "," + pos.longitude + "&mode=b");
         Intent intent = new Intent(Intent.ACTION_VIEW, uri);
         intent.setPackage("com.google.android.apps.maps");
         try {
             startActivity(intent);
+            telemetry.navigation(storageId, true);
         } catch (ActivityNotFoundException e) {
             // Fallback: web Google Maps
             Uri web = Uri.parse("https://www.google.com/maps/dir/?api=1"
                     + "&destination=" + pos.latitude + "," + pos.longitude
                     + "&travelmode=bicycling");
             startActivity(new Intent(Intent.ACTION_VIEW, web));
+            telemetry.navigation(storageId, false);
         }
     }
 
     // --- Location / permissions / settings ---
-    private void checkLocationSettings() {
-        LocationRequest locationRequest = LocationRequest.create()
-                .setPriority(Priority.PRIORITY_HIGH_ACCURACY)
-                .setInterval(5000)
-                .setFastestInterval(2000);
+    private LocationRequest getLocationRequest() {
+        if (locationRequest == null) {
+            locationRequest = LocationRequest.create()
+                    .setPriority(profile.locationPriority)
+                    .setInterval(profile.locationIntervalMs)
+                    .setFastestInterval(profile.locationFastestIntervalMs);
+        }
+        return locationRequest;
+    }
+
+    private LocationCallback getLocationCallback() {
+        if (locationCallback == null) {
+            locationCallback = new LocationCallback() {
+                public void onLocationResult(@NonNull LocationResult locationResult) {
+                    for (Location location : locationResult.getLocations()) {
+                        if (location == null) continue;
+                        lastFixLat = location.getLatitude();
+                        lastFixLng = location.getLongitude();
+                        lastFixAtMs = System.currentTimeMillis();
+                        if (storageListAdapter != null) {
+                            storageListAdapter.setOrigin(location.getLatitude(), location.getLongitude());
+                        }
+                        if (tripRecorder != null) {
+                            tripRecorder.record(location.getTime(), location.getLatitude(),
+                                    location.getLongitude(), location.getAccuracy());
+                        }
+                        if (prefetcher != null) {
+                            prefetcher.onFix(location.getTime(), location.getLatitude(),
+                                    location.getLongitude(), location.getAccuracy());
+                        }
+                    }
+                }
+            };
+        }
+        return locationCallback;
+    }
 
+    private void checkLocationSettings() {
         LocationSettingsRequest.Builder builder =
-                new LocationSettingsRequest.Builder().addLocationRequest(locationRequest);
+                new LocationSettingsRequest.Builder().addLocationRequest(getLocationRequest());
 
         SettingsClient client = LocationServices.getSettingsClient(this);
         client.checkLocationSettings(builder.build())
@@ -445,23 +1163,12 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
                 == PackageManager.PERMISSION_GRANTED;
 
         if (!fine && !coarse) return;
+        if (locationUpdatesActive) return;
 
-        LocationRequest locationRequest = LocationRequest.create()
-                .setPriority(Priority.PRIORITY_HIGH_ACCURACY)
-                .setInterval(5000)
-                .setFastestInterval(2000);
-
-        locationCallback = new LocationCallback() {
-            public void onLocationResult(@NonNull LocationResult locationResult) {
-                for (Location location : locationResult.getLocations()) {
-                    if (location != null) {
-                        // future logic
-                    }
-                }
-            }
-        };
         try {
-            fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
+            fusedLocationClient.requestLocationUpdates(
+                    getLocationRequest(), getLocationCallback(), Looper.getMainLooper());
+            locationUpdatesActive = true;
         } catch (SecurityException ignored) {}
     }
 
@@ -490,10 +1197,33 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
     }
 
     // --- Lifecycle ---
+    @Override
+    protected void onStart() {
+        super.onStart();
+        watchInForeground();
+        cleanupNearbyHolds();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        watchInBackground();
+        if (telemetry != null) telemetry.flush();
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
         removeLocationUpdates();
+        if (frameMonitor != null) frameMonitor.setTrackingEnabled(false);
+        if (tripRecorder != null) tripRecorder.flush();
+        captureMapSnapshot();
+        if (occupancyFile != null) {
+            ioExecutor.execute(() -> {
+                occupancyStore.tick(System.currentTimeMillis());
+                occupancyStore.save(occupancyFile);
+            });
+        }
     }
 
     @Override
@@ -504,6 +1234,7 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
             goToLoginAndFinish();
             return;
         }
+        if (frameMonitor != null) frameMonitor.setTrackingEnabled(true);
         if (myMap != null &&
                 ContextCompat.checkSelfPermission(this, android.Manifest.permission.ACCESS_FINE_LOCATION)
                         == PackageManager.PERMISSION_GRANTED) {
@@ -516,12 +1247,33 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
     protected void onDestroy() {
         super.onDestroy();
         removeLocationUpdates();
+        if (backendSubscription != null) backendSubscription.remove();
+        if (prefetcher != null) prefetcher.cancelAll();
+        watchHandler.removeCallbacks(stopBackgroundWatch);
+        if (watchMultiplexer != null) watchMultiplexer.stop();
+        if (lockSync != null) lockSync.stop();
+        holdHandler.removeCallbacks(holdExpiry);
+        reservationExecutor.shutdown();
+        catalog.removeListener(catalogListener);
+        if (storageListAdapter != null) storageListAdapter.shutdown();
+        if (tripRecorder != null) tripRecorder.close();
+        if (thumbnails != null) thumbnails.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (thumbnails != null && level >= TRIM_MEMORY_RUNNING_LOW) {
+            thumbnails.trimMemory(level >= TRIM_MEMORY_BACKGROUND);
+        }
     }
 
     private void removeLocationUpdates() {
         if (fusedLocationClient != null && locationCallback != null) {
             fusedLocationClient.removeLocationUpdates(locationCallback);
         }
+        locationUpdatesActive = false;
     }
 
     @Override
@@ -544,26 +1296,37 @@ public class MainActivity extends AppCompatActivity implements OnMapReadyCallbac
         return true;
     }
 
-    // --- Map reset: include all storages in bounds ---
+    // --- Map reset: include all storages in bounds (maintained by the catalog) ---
     private void resetMapPosition() {
-        if (myMap == null || STORAGES.length == 0) return;
-        LatLngBounds.Builder builder = new LatLngBounds.Builder();
-        for (Storage s : STORAGES) {
-            builder.include(s.position);
-        }
-        LatLngBounds bounds = builder.build();
+        if (myMap == null || catalog.isEmpty()) return;
+        CatalogAggregates agg = catalog.aggregates();
+        LatLngBounds bounds = new LatLngBounds(
+                new LatLng(agg.minLat(), agg.minLng()),
+                new LatLng(agg.maxLat(), agg.maxLng()));
         int padding = dp(48); // uniform dp-based padding
         myMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, padding));
     }
 
-    // --- Marker icon scaling ---
-    private BitmapDescriptor getResizedMarkerIcon(int resourceId, int width, int height) {
-        Bitmap bitmap = BitmapFactory.decodeResource(getResources(), resourceId);
-        Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, width, height, false);
+    // --- Marker icon scaling (cached per resource + size in markerIcons) ---
+    @NonNull
+    private BitmapDescriptor createResizedMarkerIcon(int resourceId, int width, int height) {
+        // Decode subsampled close to the target size, then scale the rest of the way
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(getResources(), resourceId, opts);
+        int sample = 1;
+        while (opts.outWidth / (sample * 2) >= width && opts.outHeight / (sample * 2) >= height) {
+            sample *= 2;
+        }
+        opts.inJustDecodeBounds = false;
+        opts.inSampleSize = sample;
+        Bitmap bitmap = BitmapFactory.decodeResource(getResources(), resourceId, opts);
+        Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, width, height, true);
+        if (resizedBitmap != bitmap) bitmap.recycle();
         return BitmapDescriptorFactory.fromBitmap(resizedBitmap);
     }
 
     private int dp(int value) {
-        return Math.round(value * getResources().getDisplayMetrics().density);
+        return units.dp(value);
     }
 }
\ No newline at end of file
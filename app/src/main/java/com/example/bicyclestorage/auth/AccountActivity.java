@@ -1,15 +1,21 @@
 package com.example.bicyclestorage.auth;
 
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.text.InputType;
 import android.text.TextUtils;
+import android.view.View;
 import android.widget.*;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.example.bicyclestorage.R;
+import com.example.bicyclestorage.history.ParkingHistory;
+import com.example.bicyclestorage.history.ParkingSession;
+import com.example.bicyclestorage.metrics.OpMetrics;
 import com.google.firebase.auth.EmailAuthProvider;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -17,8 +23,12 @@ import com.google.firebase.auth.UserInfo;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.text.DateFormat;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class AccountActivity extends AppCompatActivity {
 
@@ -27,6 +37,16 @@ public class AccountActivity extends AppCompatActivity {
     private EditText usernameField;
     private Button updateButton, logoutButton, passwordResetButton;
 
+    // Parking history: statistics + session list in keyset pages
+    private ParkingHistory history;
+    private Executor mainExecutor;
+    private TextView historyStats;
+    private LinearLayout historyList;
+    private Button historyMore;
+    private ParkingSession lastShown; // keyset cursor (null: nothing loaded yet)
+    private boolean pageLoading = false;
+    private final DateFormat sessionDate = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -47,7 +67,7 @@ public class AccountActivity extends AppCompatActivity {
         emailLabel.setText("Email: " + repo.getEmail());
 
         if (repo.userDoc() != null) {
-            repo.userDoc().get()
+            repo.loadProfile()
                     .addOnSuccessListener(this::fillUser)
                     .addOnFailureListener(e ->
                             Toast.makeText(this,
@@ -66,6 +86,82 @@ public class AccountActivity extends AppCompatActivity {
 
         // Local password change (reauth + updatePassword)
         passwordResetButton.setOnClickListener(v -> startChangePasswordDialog());
+
+        // Statistics are read from the aggregate tables, not computed from the history
+        history = ParkingHistory.get(this);
+        mainExecutor = ContextCompat.getMainExecutor(this);
+        historyStats = findViewById(R.id.historyStats);
+        historyList = findViewById(R.id.historyList);
+        historyMore = findViewById(R.id.historyMore);
+        historyMore.setOnClickListener(v -> loadHistoryPage());
+        history.loadStats(mainExecutor, this::bindStats);
+        loadHistoryPage();
+
+        // Debuggable builds: operation latency / error metrics
+        TextView title = findViewById(R.id.title);
+        if (title != null && (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            title.setOnLongClickListener(v -> {
+                new AlertDialog.Builder(this)
+                        .setTitle("Operation metrics")
+                        .setMessage(OpMetrics.get().dump())
+                        .setPositiveButton("OK", null)
+                        .show();
+                return true;
+            });
+        }
+    }
+
+    // --- Parking history ---
+
+    private void bindStats(ParkingHistory.Stats stats) {
+        if (isDestroyed()) return;
+        if (stats.sessions == 0) {
+            historyStats.setText(R.string.history_empty);
+            return;
+        }
+        StringBuilder sb = new StringBuilder()
+                .append(getString(R.string.history_total, formatDuration(stats.totalMs), stats.sessions))
+                .append('\n')
+                .append(getString(R.string.history_month, stats.monthSessions, formatDuration(stats.monthMs)));
+        if (stats.favouriteTitle != null) {
+            sb.append('\n').append(getString(R.string.history_favourite,
+                    stats.favouriteTitle, stats.favouriteSessions));
+        }
+        historyStats.setText(sb);
+    }
+
+    private void loadHistoryPage() {
+        if (pageLoading) return;
+        pageLoading = true;
+        historyMore.setEnabled(false);
+        history.loadPage(lastShown, mainExecutor, this::appendHistoryPage);
+    }
+
+    private void appendHistoryPage(List<ParkingSession> page) {
+        if (isDestroyed()) return;
+        pageLoading = false;
+        int pad = (int) (4 * getResources().getDisplayMetrics().density);
+        for (ParkingSession s : page) {
+            TextView row = new TextView(this);
+            row.setTextSize(13);
+            row.setPadding(0, pad, 0, pad);
+            row.setText(getString(R.string.history_row,
+                    sessionDate.format(new Date(s.startMs)),
+                    s.storageTitle != null ? s.storageTitle : getString(R.string.history_unknown_storage),
+                    formatDuration(s.durationMs())));
+            historyList.addView(row);
+        }
+        if (!page.isEmpty()) lastShown = page.get(page.size() - 1);
+        // A short page is the last one
+        historyMore.setVisibility(page.size() == ParkingHistory.PAGE_SIZE ? View.VISIBLE : View.GONE);
+        historyMore.setEnabled(true);
+    }
+
+    private String formatDuration(long ms) {
+        long minutes = ms / 60_000;
+        return minutes >= 60
+                ? getString(R.string.history_duration_hm, (int) (minutes / 60), (int) (minutes % 60))
+                : getString(R.string.history_duration_m, (int) minutes);
     }
 
     private void fillUser(DocumentSnapshot snap) {
@@ -222,20 +318,6 @@ public class AccountActivity extends AppCompatActivity {
     }
 
     private String readable(String raw) {
-        if (raw == null) return "unknown error";
-        String low = raw.toLowerCase();
-        if (raw.contains("PERMISSION_DENIED"))
-            return "Permission denied (Firestore rules / API).";
-        if (raw.contains("NOT_FOUND"))
-            return "Document not found.";
-        if (low.contains("network"))
-            return "Network error. Check your internet connection.";
-        if (low.contains("recent") || low.contains("requires recent login"))
-            return "For security reasons, a recent login is required. Please sign out and sign in again.";
-        if (low.contains("weak password") || low.contains("password should be at least"))
-            return "Weak password. Use at least 6 characters.";
-        if (low.contains("password is invalid") || low.contains("invalid password"))
-            return "Incorrect current password.";
-        return raw;
+        return AuthErrors.readable(raw);
     }
 }
\ No newline at end of file
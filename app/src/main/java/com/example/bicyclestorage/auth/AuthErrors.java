@@ -0,0 +1,63 @@
+package com.example.bicyclestorage.auth;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Maps raw Firebase error messages to user-facing text and to short error
+ * classes (the latter feed the operation metrics).
+ */
+public final class AuthErrors {
+
+    public static final String PERMISSION_DENIED = "permission_denied";
+    public static final String NOT_FOUND = "not_found";
+    public static final String NETWORK = "network";
+    public static final String RECENT_LOGIN = "recent_login";
+    public static final String WEAK_PASSWORD = "weak_password";
+    public static final String INVALID_PASSWORD = "invalid_password";
+    public static final String USERNAME_TAKEN = "username_taken";
+    public static final String UNKNOWN = "unknown";
+    public static final String OTHER = "other";
+
+    /** Message of the exception thrown when the username claim loses. */
+    public static final String USERNAME_TAKEN_MESSAGE = "USERNAME_TAKEN";
+
+    private AuthErrors() {}
+
+    @NonNull
+    public static String classify(String raw) {
+        if (raw == null) return UNKNOWN;
+        String low = raw.toLowerCase();
+        if (raw.contains(USERNAME_TAKEN_MESSAGE)) return USERNAME_TAKEN;
+        if (raw.contains("PERMISSION_DENIED")) return PERMISSION_DENIED;
+        if (raw.contains("NOT_FOUND")) return NOT_FOUND;
+        if (low.contains("network")) return NETWORK;
+        if (low.contains("recent") || low.contains("requires recent login")) return RECENT_LOGIN;
+        if (low.contains("weak password") || low.contains("password should be at least")) return WEAK_PASSWORD;
+        if (low.contains("password is invalid") || low.contains("invalid password")) return INVALID_PASSWORD;
+        return OTHER;
+    }
+
+    @NonNull
+    public static String readable(String raw) {
+        switch (classify(raw)) {
+            case UNKNOWN:
+                return "unknown error";
+            case PERMISSION_DENIED:
+                return "Permission denied (Firestore rules / API).";
+            case NOT_FOUND:
+                return "Document not found.";
+            case NETWORK:
+                return "Network error. Check your internet connection.";
+            case RECENT_LOGIN:
+                return "For security reasons, a recent login is required. Please sign out and sign in again.";
+            case WEAK_PASSWORD:
+                return "Weak password. Use at least 6 characters.";
+            case INVALID_PASSWORD:
+                return "Incorrect current password.";
+            case USERNAME_TAKEN:
+                return "This username is already taken.";
+            default:
+                return raw;
+        }
+    }
+}
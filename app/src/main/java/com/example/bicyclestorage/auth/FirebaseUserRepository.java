@@ -2,18 +2,33 @@ package com.example.bicyclestorage.auth;
 
 import androidx.annotation.NonNull;
 
+import com.example.bicyclestorage.metrics.OpMetrics;
 import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.Blob;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class FirebaseUserRepository {
 
+    // usernames/{normalized} = { uid, username, claimedAt } – one owner per name
+    static final String USERNAMES = "usernames";
+    // meta/usernameBloom = { bits: Blob, names, updatedAt } – shared filter of taken names,
+    // written only by the importer's UsernameFilterJob (read-only for clients)
+    static final String META = "meta";
+    static final String USERNAME_FILTER_DOC = "usernameBloom";
+    static final String FILTER_BITS = "bits";
+
     private final FirebaseAuth auth = FirebaseAuth.getInstance();
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final OpMetrics metrics = OpMetrics.get();
 
     public boolean isLoggedIn() {
         return auth.getCurrentUser() != null;
@@ -27,12 +42,67 @@ public class FirebaseUserRepository {
         return auth.getCurrentUser() != null ? auth.getCurrentUser().getEmail() : null;
     }
 
+    public Task<AuthResult> signIn(@NonNull String email, @NonNull String password) {
+        return metrics.time(OpMetrics.OP_SIGN_IN, () -> auth.signInWithEmailAndPassword(email, password));
+    }
+
+    public Task<AuthResult> createUser(@NonNull String email, @NonNull String password) {
+        return metrics.time(OpMetrics.OP_CREATE_USER, () -> auth.createUserWithEmailAndPassword(email, password));
+    }
+
+    /**
+     * Claims the username in a transaction, then writes the profile; fails with
+     * {@link AuthErrors#USERNAME_TAKEN_MESSAGE} if another account owns the name.
+     * The claim is the only transactional write: the shared availability filter is
+     * rebuilt from the usernames index by a scheduled job, not by clients. Retrying
+     * after a failed profile write is safe, the claim already belongs to this uid.
+     */
     public Task<Void> createUserProfile(@NonNull String uid, @NonNull String email, @NonNull String username) {
+        String key = Usernames.normalize(username);
+        DocumentReference nameDoc = db.collection(USERNAMES).document(key);
+        DocumentReference profileDoc = db.collection("users").document(uid);
+
         Map<String,Object> data = new HashMap<>();
         data.put("email", email);
         data.put("username", username);
         data.put("createdAt", System.currentTimeMillis());
-        return db.collection("users").document(uid).set(data);
+
+        Map<String,Object> claim = new HashMap<>();
+        claim.put("uid", uid);
+        claim.put("username", username);
+        claim.put("claimedAt", FieldValue.serverTimestamp());
+
+        return metrics.time(OpMetrics.OP_CREATE_PROFILE, () -> db.runTransaction(tx -> {
+            DocumentSnapshot owner = tx.get(nameDoc);
+            if (owner.exists() && !uid.equals(owner.getString("uid"))) {
+                throw new FirebaseFirestoreException(AuthErrors.USERNAME_TAKEN_MESSAGE,
+                        FirebaseFirestoreException.Code.ALREADY_EXISTS);
+            }
+            tx.set(nameDoc, claim);
+            return null;
+        }).onSuccessTask(unused -> profileDoc.set(data)));
+    }
+
+    /** Index entry of a (normalized) username; exists() means taken. */
+    public Task<DocumentSnapshot> lookupUsername(@NonNull String normalized) {
+        return metrics.time(OpMetrics.OP_CHECK_USERNAME,
+                () -> db.collection(USERNAMES).document(normalized).get());
+    }
+
+    public DocumentReference usernameFilterDoc() {
+        return db.collection(META).document(USERNAME_FILTER_DOC);
+    }
+
+    static UsernameBloomFilter parseUsernameFilter(DocumentSnapshot doc) {
+        if (doc == null || !doc.exists()) return null;
+        Blob bits = doc.getBlob(FILTER_BITS);
+        return bits != null ? UsernameBloomFilter.fromBytes(bits.toBytes()) : null;
+    }
+
+    public Task<DocumentSnapshot> loadProfile() {
+        DocumentReference doc = userDoc();
+        if (doc == null) return null;
+        return metrics.time(OpMetrics.OP_LOAD_PROFILE, doc::get);
     }
 
     public DocumentReference userDoc() {
@@ -46,7 +116,7 @@ public class FirebaseUserRepository {
         if (doc == null) return null;
         Map<String,Object> upd = new HashMap<>();
         upd.put("username", newUsername);
-        return doc.update(upd);
+        return metrics.time(OpMetrics.OP_UPDATE_USERNAME, () -> doc.update(upd));
     }
 
     public void logout() {
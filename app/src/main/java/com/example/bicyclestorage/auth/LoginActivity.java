@@ -9,6 +9,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.bicyclestorage.MainActivity;
 import com.example.bicyclestorage.R;
+import com.example.bicyclestorage.telemetry.Telemetry;
 import com.google.firebase.auth.FirebaseAuth;
 
 public class LoginActivity extends AppCompatActivity {
@@ -16,6 +17,7 @@ public class LoginActivity extends AppCompatActivity {
     private static final String TAG = "LoginActivity";
     private EditText emailField, passwordField;
     private FirebaseAuth auth;
+    private final FirebaseUserRepository repo = new FirebaseUserRepository();
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -63,13 +65,16 @@ public class LoginActivity extends AppCompatActivity {
             Toast.makeText(this, "Email and password are required!", Toast.LENGTH_SHORT).show();
             return;
         }
-        auth.signInWithEmailAndPassword(email, pass)
+        repo.signIn(email, pass)
                 .addOnSuccessListener(res -> {
+                    Telemetry.get(this).login(true, null);
                     Toast.makeText(this, "Signed in successfully.", Toast.LENGTH_SHORT).show();
                     startActivity(new Intent(this, MainActivity.class));
                     finish();
                 })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show());
+                .addOnFailureListener(e -> {
+                    Telemetry.get(this).login(false, AuthErrors.classify(e.getMessage()));
+                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
     }
 }
\ No newline at end of file
@@ -3,6 +3,10 @@ package com.example.bicyclestorage.auth;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.util.Patterns;
 import android.view.View;
@@ -11,31 +15,45 @@ import android.widget.*;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.example.bicyclestorage.R;
+import com.google.android.material.textfield.TextInputLayout;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthUserCollisionException;
 
 /**
  * Registration flow:
+ *  - Username availability while typing (offline filter, confirming read on a hit)
  *  - Create user (Firebase Auth)
- *  - Create profile document in Firestore (users/{uid})
+ *  - Claim username (transaction), then create the profile document (users/{uid})
  *  - On success, sign out and navigate back to LoginActivity (email prefilled)
  */
 public class RegisterActivity extends AppCompatActivity {
 
     private static final String TAG = "RegisterActivity";
+    private static final long CONFIRM_DELAY_MS = 300;
 
     private EditText emailField, passwordField, usernameField;
     private Button registerButton;
     private TextView toLogin;
     private ProgressBar progressBar;
+    private TextInputLayout usernameLayout;
 
     private FirebaseAuth auth;
     private final FirebaseUserRepository repo = new FirebaseUserRepository();
 
     private boolean submitting = false;
 
+    // Username availability (instant filter answer, debounced confirmation)
+    private UsernameAvailability availability;
+    private UsernameAvailability.Result usernameResult = UsernameAvailability.Result.UNKNOWN;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable confirmUsername = () -> {
+        String current = usernameField.getText().toString();
+        availability.confirm(current, this::onUsernameChecked);
+    };
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -47,10 +65,21 @@ public class RegisterActivity extends AppCompatActivity {
         emailField = findViewById(R.id.emailField);
         passwordField = findViewById(R.id.passwordField);
         usernameField = findViewById(R.id.usernameField);
+        usernameLayout = findViewById(R.id.usernameLayout);
         registerButton = findViewById(R.id.registerButton);
         toLogin = findViewById(R.id.toLogin);
         progressBar = null;
 
+        availability = new UsernameAvailability(this, repo, ContextCompat.getMainExecutor(this));
+        availability.start();
+        usernameField.addTextChangedListener(new TextWatcher() {
+            @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
+            @Override public void afterTextChanged(Editable s) {
+                onUsernameEdited(s.toString());
+            }
+        });
+
         registerButton.setOnClickListener(v -> {
             hideKeyboard();
             startRegistration();
@@ -60,6 +89,52 @@ public class RegisterActivity extends AppCompatActivity {
                 startActivity(new Intent(this, LoginActivity.class)));
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(confirmUsername);
+        if (availability != null) availability.shutdown();
+    }
+
+    // --- Username availability ---
+    private void onUsernameEdited(String username) {
+        handler.removeCallbacks(confirmUsername);
+        UsernameAvailability.Result r = availability.quickCheck(username);
+        showUsernameResult(username, r);
+        if (r == UsernameAvailability.Result.PROBABLY_TAKEN || r == UsernameAvailability.Result.UNKNOWN) {
+            handler.postDelayed(confirmUsername, CONFIRM_DELAY_MS);
+        }
+    }
+
+    private void onUsernameChecked(String username, UsernameAvailability.Result r) {
+        // Ignore answers for text that has changed since
+        if (username.equals(usernameField.getText().toString())) showUsernameResult(username, r);
+    }
+
+    private void showUsernameResult(String username, UsernameAvailability.Result r) {
+        usernameResult = r;
+        switch (r) {
+            case INVALID:
+                usernameLayout.setError(username.trim().isEmpty() ? null : Usernames.problem(username));
+                usernameLayout.setHelperText(null);
+                break;
+            case AVAILABLE:
+                usernameLayout.setError(null);
+                usernameLayout.setHelperText("Available");
+                break;
+            case PROBABLY_TAKEN:
+                usernameLayout.setError(null);
+                usernameLayout.setHelperText("Checking...");
+                break;
+            case TAKEN:
+                usernameLayout.setError("Already taken");
+                break;
+            default:
+                usernameLayout.setError(null);
+                usernameLayout.setHelperText(null);
+        }
+    }
+
     private void startRegistration() {
         if (submitting) return;
 
@@ -73,7 +148,7 @@ public class RegisterActivity extends AppCompatActivity {
         setUiEnabled(false);
         Toast.makeText(this, "Registration in progress...", Toast.LENGTH_SHORT).show();
 
-        auth.createUserWithEmailAndPassword(email, pass)
+        repo.createUser(email, pass)
                 .addOnSuccessListener(res -> {
                     if (res.getUser() == null) {
                         fail("Unknown auth error (user null)");
@@ -82,7 +157,7 @@ public class RegisterActivity extends AppCompatActivity {
                     String uid = res.getUser().getUid();
                     Log.d(TAG, "Auth success uid=" + uid);
 
-                    // Create profile – only after SUCCESS redirect + signOut
+                    // Claim username + create profile – only after SUCCESS redirect + signOut
                     repo.createUserProfile(uid, email, uname)
                             .addOnSuccessListener(unused -> {
                                 Log.d(TAG, "Profile saved: " + uid);
@@ -90,7 +165,18 @@ public class RegisterActivity extends AppCompatActivity {
                             })
                             .addOnFailureListener(e -> {
                                 Log.e(TAG, "Profile save error: " + e.getMessage(), e);
-                                fail("Profile save error: " + e.getMessage());
+                                if (AuthErrors.USERNAME_TAKEN.equals(AuthErrors.classify(e.getMessage()))) {
+                                    // Lost the race for the name: drop the fresh account so the email stays free
+                                    res.getUser().delete().addOnFailureListener(de -> {
+                                        // Account stays without profile; at least do not leave it signed in
+                                        Log.e(TAG, "Rollback delete failed uid=" + uid + ": " + de.getMessage(), de);
+                                        auth.signOut();
+                                    });
+                                    showUsernameResult(uname, UsernameAvailability.Result.TAKEN);
+                                    fail(AuthErrors.readable(e.getMessage()));
+                                } else {
+                                    fail("Profile save error: " + e.getMessage());
+                                }
                             });
                 })
                 .addOnFailureListener(e -> {
@@ -122,8 +208,14 @@ public class RegisterActivity extends AppCompatActivity {
     }
 
     private boolean validate(String email, String pass, String uname) {
-        if (uname.isEmpty()) {
-            usernameField.setError("Required");
+        String unameProblem = Usernames.problem(uname);
+        if (unameProblem != null) {
+            usernameField.setError(unameProblem);
+            usernameField.requestFocus();
+            return false;
+        }
+        if (usernameResult == UsernameAvailability.Result.TAKEN) {
+            usernameField.setError("Already taken");
             usernameField.requestFocus();
             return false;
         }
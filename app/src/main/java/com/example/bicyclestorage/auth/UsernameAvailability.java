@@ -0,0 +1,135 @@
+package com.example.bicyclestorage.auth;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.Source;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Username availability while typing.
+ *
+ * The shared Bloom filter of taken names (meta/usernameBloom) is cached in a
+ * local file and refreshed when older than {@link #REFRESH_MS}. The filter is
+ * rebuilt on a schedule and the local copy can be hours old, so a miss is only
+ * a hint ("probably available", no network); a hit is confirmed with one read
+ * of the usernames index. The final word is the claim transaction in
+ * {@link FirebaseUserRepository#createUserProfile}.
+ */
+public class UsernameAvailability {
+
+    private static final String TAG = "UsernameAvailability";
+    private static final String CACHE_FILE = "username_bloom.bin";
+    private static final long REFRESH_MS = 6 * 60 * 60_000L;
+
+    public enum Result {
+        /** Breaks the username rules (see {@link Usernames#problem}). */
+        INVALID,
+        /** Not in the filter (a hint: names claimed since the last rebuild are missing) or confirmed free. */
+        AVAILABLE,
+        /** Filter hit, confirmation pending. */
+        PROBABLY_TAKEN,
+        TAKEN,
+        /** No filter yet and no confirmation (offline). */
+        UNKNOWN
+    }
+
+    public interface Callback {
+        void onResult(@NonNull String username, @NonNull Result result);
+    }
+
+    private final FirebaseUserRepository repo;
+    private final File cacheFile;
+    private final Executor mainExecutor;
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+
+    private volatile UsernameBloomFilter filter;
+
+    public UsernameAvailability(@NonNull Context context, @NonNull FirebaseUserRepository repo,
+                                @NonNull Executor mainExecutor) {
+        this.repo = repo;
+        this.cacheFile = new File(context.getFilesDir(), CACHE_FILE);
+        this.mainExecutor = mainExecutor;
+    }
+
+    /** Loads the cached filter and refreshes it from Firestore if stale. */
+    public void start() {
+        io.execute(() -> {
+            UsernameBloomFilter cached = readCache();
+            if (cached != null) filter = cached;
+            boolean stale = cached == null
+                    || System.currentTimeMillis() - cacheFile.lastModified() > REFRESH_MS;
+            if (stale) mainExecutor.execute(this::refresh);
+        });
+    }
+
+    private void refresh() {
+        repo.usernameFilterDoc().get(Source.SERVER)
+                .addOnSuccessListener(doc -> {
+                    UsernameBloomFilter fresh = FirebaseUserRepository.parseUsernameFilter(doc);
+                    if (fresh == null) return; // no registrations yet
+                    filter = fresh;
+                    byte[] bytes = fresh.toBytes();
+                    if (!io.isShutdown()) io.execute(() -> writeCache(bytes));
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Filter refresh failed: " + e.getMessage()));
+    }
+
+    /** Offline answer: INVALID, AVAILABLE (hint), PROBABLY_TAKEN or UNKNOWN. */
+    @NonNull
+    public Result quickCheck(@NonNull String username) {
+        if (Usernames.problem(username) != null) return Result.INVALID;
+        UsernameBloomFilter f = filter;
+        if (f == null) return Result.UNKNOWN;
+        return f.mightContain(Usernames.normalize(username)) ? Result.PROBABLY_TAKEN : Result.AVAILABLE;
+    }
+
+    /** Confirms a {@link Result#PROBABLY_TAKEN} / {@link Result#UNKNOWN} with one index read. */
+    public void confirm(@NonNull String username, @NonNull Callback callback) {
+        repo.lookupUsername(Usernames.normalize(username))
+                .addOnSuccessListener(mainExecutor, doc ->
+                        callback.onResult(username, doc.exists() ? Result.TAKEN : Result.AVAILABLE))
+                .addOnFailureListener(mainExecutor, e ->
+                        callback.onResult(username, quickCheck(username)));
+    }
+
+    public void shutdown() {
+        io.shutdown();
+    }
+
+    // --- Local cache file ---
+
+    private UsernameBloomFilter readCache() {
+        if (!cacheFile.exists()) return null;
+        byte[] bytes = new byte[(int) cacheFile.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(cacheFile))) {
+            in.readFully(bytes);
+            return UsernameBloomFilter.fromBytes(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Cache read failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(byte[] bytes) {
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Cache write failed: " + e.getMessage());
+            return;
+        }
+        if (!tmp.renameTo(cacheFile)) Log.w(TAG, "Cache rename failed");
+    }
+}
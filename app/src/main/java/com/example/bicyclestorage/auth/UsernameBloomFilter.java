@@ -0,0 +1,112 @@
+package com.example.bicyclestorage.auth;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter of taken (normalized) usernames.
+ *
+ * "Not contained" is exact for the names the filter was built from, so most
+ * keystrokes get an instant offline "probably available" (names claimed after
+ * the last rebuild are not in it); "contained" is only probable and needs a
+ * confirming read.
+ * The hash is fixed (FNV-1a + fmix64, double hashing), so every client and
+ * the shared copy in Firestore agree on the bit layout.
+ */
+public final class UsernameBloomFilter {
+
+    /** 2^17 bits (16 KiB), 7 hashes: ~0.2 % false positives at 10k names. */
+    public static final int DEFAULT_BITS = 1 << 17;
+    public static final int DEFAULT_HASHES = 7;
+
+    private static final int HEADER_BYTES = 8;
+
+    private final long[] words;
+    private final int bitCount;
+    private final int hashCount;
+
+    public UsernameBloomFilter(int bitCount, int hashCount) {
+        if (bitCount <= 0 || bitCount % 64 != 0) throw new IllegalArgumentException("bitCount must be a positive multiple of 64");
+        if (hashCount <= 0) throw new IllegalArgumentException("hashCount must be > 0");
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.words = new long[bitCount / 64];
+    }
+
+    public static UsernameBloomFilter createDefault() {
+        return new UsernameBloomFilter(DEFAULT_BITS, DEFAULT_HASHES);
+    }
+
+    public void put(@NonNull String normalized) {
+        long h = hash(normalized);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1; // odd, so the probes stay distinct
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(@NonNull String normalized) {
+        long h = hash(normalized);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1; // odd, so the probes stay distinct
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Bits of {@code other} are OR-ed in (same geometry required). */
+    public void merge(@NonNull UsernameBloomFilter other) {
+        if (other.bitCount != bitCount || other.hashCount != hashCount) {
+            throw new IllegalArgumentException("Filter geometry differs");
+        }
+        for (int i = 0; i < words.length; i++) words[i] |= other.words[i];
+    }
+
+    // --- Serialization: [bitCount:int][hashCount:int][words...] big-endian ---
+
+    @NonNull
+    public byte[] toBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + words.length * 8);
+        buf.putInt(bitCount).putInt(hashCount);
+        for (long w : words) buf.putLong(w);
+        return buf.array();
+    }
+
+    /** Parses {@link #toBytes()} output; null if malformed. */
+    @Nullable
+    public static UsernameBloomFilter fromBytes(@Nullable byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES) return null;
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        int bits = buf.getInt();
+        int hashes = buf.getInt();
+        if (bits <= 0 || bits % 64 != 0 || hashes <= 0 || hashes > 32
+                || bytes.length != HEADER_BYTES + bits / 8) {
+            return null;
+        }
+        UsernameBloomFilter f = new UsernameBloomFilter(bits, hashes);
+        for (int i = 0; i < f.words.length; i++) f.words[i] = buf.getLong();
+        return f;
+    }
+
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        // fmix64: spread FNV's weak high bits
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
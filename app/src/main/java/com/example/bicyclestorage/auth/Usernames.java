@@ -0,0 +1,37 @@
+package com.example.bicyclestorage.auth;
+
+import androidx.annotation.NonNull;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Username rules shared by validation, the availability filter and the
+ * {@code usernames} index (whose document ids are normalized names).
+ */
+public final class Usernames {
+
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 30;
+
+    private static final Pattern ALLOWED = Pattern.compile("[\\p{L}\\p{N}._-]+");
+
+    private Usernames() {}
+
+    /** Case-insensitive, NFC form: "Kata" and "kata" are the same name. */
+    @NonNull
+    public static String normalize(@NonNull String raw) {
+        return Normalizer.normalize(raw.trim(), Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    /** Null if valid, otherwise a short user-facing reason. */
+    public static String problem(@NonNull String raw) {
+        String n = normalize(raw);
+        if (n.isEmpty()) return "Required";
+        if (n.length() < MIN_LENGTH) return "At least " + MIN_LENGTH + " characters";
+        if (n.length() > MAX_LENGTH) return "At most " + MAX_LENGTH + " characters";
+        if (!ALLOWED.matcher(n).matches()) return "Letters, digits, '.', '_' and '-' only";
+        return null;
+    }
+}
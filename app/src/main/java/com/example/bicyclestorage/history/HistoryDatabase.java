@@ -0,0 +1,34 @@
+package com.example.bicyclestorage.history;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+@Database(entities = {ParkingSession.class, StorageUsage.class, MonthlyUsage.class, UsageTotals.class},
+        version = 1, exportSchema = false)
+public abstract class HistoryDatabase extends RoomDatabase {
+
+    private static final String NAME = "parking_history.db";
+
+    private static volatile HistoryDatabase instance;
+
+    public abstract ParkingDao parkingDao();
+
+    @NonNull
+    public static HistoryDatabase get(@NonNull Context context) {
+        HistoryDatabase db = instance;
+        if (db == null) {
+            synchronized (HistoryDatabase.class) {
+                db = instance;
+                if (db == null) {
+                    db = Room.databaseBuilder(context.getApplicationContext(), HistoryDatabase.class, NAME).build();
+                    instance = db;
+                }
+            }
+        }
+        return db;
+    }
+}
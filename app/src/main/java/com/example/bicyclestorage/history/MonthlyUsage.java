@@ -0,0 +1,15 @@
+package com.example.bicyclestorage.history;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/** Closed sessions per calendar month of their start ({@code yyyyMM}, local time). */
+@Entity(tableName = "monthly_usage")
+public class MonthlyUsage {
+
+    @PrimaryKey
+    public int month;
+
+    public int sessions;
+    public long totalMs;
+}
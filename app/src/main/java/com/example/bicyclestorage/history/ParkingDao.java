@@ -0,0 +1,93 @@
+package com.example.bicyclestorage.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public abstract class ParkingDao {
+
+    // --- Sessions ---
+
+    @Insert
+    public abstract long insert(ParkingSession session);
+
+    @Update
+    public abstract void update(ParkingSession session);
+
+    @Delete
+    public abstract void delete(ParkingSession session);
+
+    @Nullable
+    @Query("SELECT * FROM parking_sessions WHERE endMs IS NULL ORDER BY startMs DESC LIMIT 1")
+    public abstract ParkingSession openSession();
+
+    // Keyset pages, newest first: (endMs, id) of the last row shown is the cursor.
+    // Row values need SQLite 3.15; API 24 ships 3.9, hence the OR.
+    @Query("SELECT * FROM parking_sessions WHERE endMs IS NOT NULL "
+            + "ORDER BY endMs DESC, id DESC LIMIT :limit")
+    public abstract List<ParkingSession> firstPage(int limit);
+
+    @Query("SELECT * FROM parking_sessions WHERE endMs IS NOT NULL "
+            + "AND (endMs < :endMs OR (endMs = :endMs AND id < :id)) "
+            + "ORDER BY endMs DESC, id DESC LIMIT :limit")
+    public abstract List<ParkingSession> pageAfter(long endMs, long id, int limit);
+
+    // --- Aggregates (primary key lookups) ---
+
+    @Nullable
+    @Query("SELECT * FROM usage_totals WHERE id = " + UsageTotals.ROW_ID)
+    public abstract UsageTotals totals();
+
+    @Nullable
+    @Query("SELECT * FROM monthly_usage WHERE month = :month")
+    public abstract MonthlyUsage monthly(int month);
+
+    @Nullable
+    @Query("SELECT * FROM storage_usage WHERE storageId = :storageId")
+    public abstract StorageUsage storageUsage(String storageId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void put(UsageTotals totals);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void put(MonthlyUsage month);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void put(StorageUsage storage);
+
+    /** Closes {@code session} and folds it into the aggregates, atomically. */
+    @Transaction
+    public void close(@NonNull ParkingSession session, long endMs, int month) {
+        session.endMs = endMs;
+        update(session);
+
+        UsageTotals totals = totals();
+        if (totals == null) totals = new UsageTotals();
+        MonthlyUsage m = monthly(month);
+        if (m == null) {
+            m = new MonthlyUsage();
+            m.month = month;
+        }
+        StorageUsage storage = null;
+        if (session.storageId != null) {
+            storage = storageUsage(session.storageId);
+            if (storage == null) {
+                storage = new StorageUsage();
+                storage.storageId = session.storageId;
+            }
+        }
+        UsageAggregates.add(session, storage, m, totals);
+        put(totals);
+        put(m);
+        if (storage != null) put(storage);
+    }
+}
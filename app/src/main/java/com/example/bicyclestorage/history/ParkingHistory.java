@@ -0,0 +1,130 @@
+package com.example.bicyclestorage.history;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The rider's parking sessions (one instance per process): locking the bike
+ * opens a session, unlocking closes it and updates the aggregates in the same
+ * transaction. Statistics are primary-key reads of those aggregates; the
+ * history list is read in keyset pages. All database work runs on one
+ * background thread, results are delivered on the given executor.
+ */
+public final class ParkingHistory {
+
+    public static final int PAGE_SIZE = 20;
+
+    // Lock → unlock within a minute is a mis-tap, not a parking
+    static final long MIN_SESSION_MS = 60_000L;
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /** Account screen statistics. */
+    public static final class Stats {
+        public final int sessions;
+        public final long totalMs;
+        @Nullable public final String favouriteTitle;
+        public final int favouriteSessions;
+        public final int monthSessions;
+        public final long monthMs;
+
+        Stats(@Nullable UsageTotals totals, @Nullable MonthlyUsage month) {
+            sessions = totals != null ? totals.sessions : 0;
+            totalMs = totals != null ? totals.totalMs : 0;
+            favouriteTitle = totals != null ? totals.favouriteTitle : null;
+            favouriteSessions = totals != null ? totals.favouriteSessions : 0;
+            monthSessions = month != null ? month.sessions : 0;
+            monthMs = month != null ? month.totalMs : 0;
+        }
+    }
+
+    private static volatile ParkingHistory instance;
+
+    private final ParkingDao dao;
+    private final ExecutorService db = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ParkingHistory");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ParkingHistory(Context app) {
+        dao = HistoryDatabase.get(app).parkingDao();
+    }
+
+    @NonNull
+    public static ParkingHistory get(@NonNull Context context) {
+        ParkingHistory h = instance;
+        if (h == null) {
+            synchronized (ParkingHistory.class) {
+                h = instance;
+                if (h == null) {
+                    h = new ParkingHistory(context.getApplicationContext());
+                    instance = h;
+                }
+            }
+        }
+        return h;
+    }
+
+    // --- Lock events ---
+
+    /** Bike locked at {@code storage} (null: no storage matched). Ignored if a session is already open. */
+    public void onLocked(@Nullable Storage storage, long nowMs) {
+        db.execute(() -> {
+            if (dao.openSession() != null) return;
+            ParkingSession s = new ParkingSession();
+            s.startMs = nowMs;
+            if (storage != null) {
+                s.storageId = storage.id;
+                s.storageTitle = storage.title;
+            }
+            s.id = dao.insert(s);
+        });
+    }
+
+    /** Bike unlocked: closes the open session, if any. */
+    public void onUnlocked(long nowMs) {
+        db.execute(() -> {
+            ParkingSession s = dao.openSession();
+            if (s == null) return;
+            if (nowMs - s.startMs < MIN_SESSION_MS) {
+                dao.delete(s);
+                return;
+            }
+            dao.close(s, nowMs, UsageAggregates.monthKey(s.startMs, TimeZone.getDefault()));
+        });
+    }
+
+    // --- Reads ---
+
+    public void loadStats(@NonNull Executor resultExecutor, @NonNull Callback<Stats> callback) {
+        db.execute(() -> {
+            int month = UsageAggregates.monthKey(System.currentTimeMillis(), TimeZone.getDefault());
+            Stats stats = new Stats(dao.totals(), dao.monthly(month));
+            resultExecutor.execute(() -> callback.onResult(stats));
+        });
+    }
+
+    /** Next {@link #PAGE_SIZE} closed sessions, newest first, after {@code last} (null: first page). */
+    public void loadPage(@Nullable ParkingSession last, @NonNull Executor resultExecutor,
+                         @NonNull Callback<List<ParkingSession>> callback) {
+        db.execute(() -> {
+            List<ParkingSession> page = last == null || last.endMs == null
+                    ? dao.firstPage(PAGE_SIZE)
+                    : dao.pageAfter(last.endMs, last.id, PAGE_SIZE);
+            resultExecutor.execute(() -> callback.onResult(page));
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bicyclestorage.history;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One parking: from locking the bike to unlocking it. {@code endMs} is null
+ * while the bike is still locked. The (endMs, id) index serves the keyset
+ * pages of the history list.
+ */
+@Entity(tableName = "parking_sessions", indices = {@Index(value = {"endMs", "id"})})
+public class ParkingSession {
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    /** Storage the bike was locked at, if one could be matched. */
+    @Nullable
+    public String storageId;
+    @Nullable
+    public String storageTitle;
+
+    public long startMs;
+    @Nullable
+    public Long endMs;
+
+    public long durationMs() {
+        return endMs != null ? Math.max(0, endMs - startMs) : 0;
+    }
+}
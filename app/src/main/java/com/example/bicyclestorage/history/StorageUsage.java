@@ -0,0 +1,20 @@
+package com.example.bicyclestorage.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/** Closed sessions per storage (kept up to date on every session close). */
+@Entity(tableName = "storage_usage")
+public class StorageUsage {
+
+    @PrimaryKey
+    @NonNull
+    public String storageId = "";
+    @Nullable
+    public String title;
+
+    public int sessions;
+    public long totalMs;
+}
@@ -0,0 +1,50 @@
+package com.example.bicyclestorage.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/** Incremental update of the aggregate rows when one session closes (no history scan). */
+final class UsageAggregates {
+
+    private UsageAggregates() {}
+
+    /** {@code yyyyMM} of {@code timeMs} in {@code tz}. */
+    static int monthKey(long timeMs, @NonNull TimeZone tz) {
+        Calendar c = Calendar.getInstance(tz);
+        c.setTimeInMillis(timeMs);
+        return c.get(Calendar.YEAR) * 100 + c.get(Calendar.MONTH) + 1;
+    }
+
+    /**
+     * Folds the closed {@code session} into the rows of its storage (null if it
+     * was not at a known storage), its month and the totals.
+     */
+    static void add(@NonNull ParkingSession session, @Nullable StorageUsage storage,
+                    @NonNull MonthlyUsage month, @NonNull UsageTotals totals) {
+        long d = session.durationMs();
+        totals.sessions++;
+        totals.totalMs += d;
+        month.sessions++;
+        month.totalMs += d;
+        if (storage == null) return;
+
+        storage.sessions++;
+        storage.totalMs += d;
+        if (session.storageTitle != null) storage.title = session.storageTitle;
+        if (storage.storageId.equals(totals.favouriteId) || beats(storage, totals)) {
+            totals.favouriteId = storage.storageId;
+            totals.favouriteTitle = storage.title;
+            totals.favouriteSessions = storage.sessions;
+            totals.favouriteMs = storage.totalMs;
+        }
+    }
+
+    private static boolean beats(StorageUsage s, UsageTotals t) {
+        if (t.favouriteId == null) return true;
+        if (s.sessions != t.favouriteSessions) return s.sessions > t.favouriteSessions;
+        return s.totalMs > t.favouriteMs;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bicyclestorage.history;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Single-row summary of all closed sessions, including the favourite storage
+ * (most sessions, then most time). Counts only grow, so the favourite can be
+ * kept by comparing against the storage that was just updated.
+ */
+@Entity(tableName = "usage_totals")
+public class UsageTotals {
+
+    static final int ROW_ID = 1;
+
+    @PrimaryKey
+    public int id = ROW_ID;
+
+    public int sessions;
+    public long totalMs;
+
+    @Nullable
+    public String favouriteId;
+    @Nullable
+    public String favouriteTitle;
+    public int favouriteSessions;
+    public long favouriteMs;
+}
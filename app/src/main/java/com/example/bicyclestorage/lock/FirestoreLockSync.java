@@ -0,0 +1,69 @@
+package com.example.bicyclestorage.lock;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Syncs a {@link LockStateModel} through {@code lockStates/{uid}} ({@link LockDoc}
+ * format) with one snapshot listener per user. Conflicts are resolved locally
+ * by the model, so a snapshot is applied without any extra read.
+ */
+public class FirestoreLockSync {
+
+    private static final String TAG = "FirestoreLockSync";
+    public static final String COLLECTION = "lockStates";
+
+    public interface Listener {
+        /** The visible lock state of {@code storageId} changed (callback executor). */
+        void onLockChanged(@NonNull String storageId);
+    }
+
+    private final LockStateModel model;
+    private final DocumentReference doc;
+    private ListenerRegistration registration;
+
+    public FirestoreLockSync(@NonNull FirebaseFirestore db, @NonNull String uid, @NonNull LockStateModel model) {
+        this.model = model;
+        this.doc = db.collection(COLLECTION).document(uid);
+    }
+
+    /**
+     * {@code executor} must be the thread that owns the model (main). {@code defaultLocked}
+     * is what the caller shows for storages the model has no entry for.
+     */
+    public void start(@NonNull Executor executor, boolean defaultLocked, @NonNull Listener listener) {
+        if (registration != null) return;
+        registration = doc.addSnapshotListener(executor, (snap, e) -> {
+            if (e != null) {
+                Log.w(TAG, "Listen failed: " + e.getMessage());
+                return;
+            }
+            if (snap == null || !snap.exists()) return;
+            Map<String, Object> data = snap.getData();
+            if (data == null) return;
+            for (String storageId : LockDoc.apply(model, data, defaultLocked)) listener.onLockChanged(storageId);
+        });
+    }
+
+    /** Writes this device's slot; works offline (queued by Firestore). */
+    public void publish(@NonNull String storageId, @NonNull LockEntry entry) {
+        doc.set(LockDoc.encode(storageId, entry), SetOptions.merge())
+                .addOnFailureListener(e -> Log.w(TAG, "Publish failed: " + e.getMessage()));
+    }
+
+    public void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bicyclestorage.lock;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of a user's lock document:
+ * {@code { <storageId>: { <deviceId>: { locked, lamport } } } }.
+ *
+ * Every device writes only its own slot (merge write), so concurrent writes
+ * never overwrite each other; readers take the winning slot per storage.
+ */
+public final class LockDoc {
+
+    static final String FIELD_LOCKED = "locked";
+    static final String FIELD_LAMPORT = "lamport";
+
+    private LockDoc() {}
+
+    /** Merge-write payload for one entry. */
+    @NonNull
+    public static Map<String, Object> encode(@NonNull String storageId, @NonNull LockEntry e) {
+        Map<String, Object> slot = new HashMap<>();
+        slot.put(FIELD_LOCKED, e.locked);
+        slot.put(FIELD_LAMPORT, e.lamport);
+        Map<String, Object> devices = new HashMap<>();
+        devices.put(e.deviceId, slot);
+        Map<String, Object> data = new HashMap<>();
+        data.put(storageId, devices);
+        return data;
+    }
+
+    /**
+     * Merges every slot of {@code data}; returns the storage ids whose visible state
+     * changed. Storages without an entry yet show {@code defaultLocked}, so a first
+     * remote entry that agrees with it is not a change.
+     */
+    @NonNull
+    public static List<String> apply(@NonNull LockStateModel model, @NonNull Map<String, Object> data,
+                                     boolean defaultLocked) {
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, Object> storage : data.entrySet()) {
+            if (!(storage.getValue() instanceof Map)) continue;
+            boolean before = model.isLocked(storage.getKey(), defaultLocked);
+            for (Map.Entry<?, ?> slot : ((Map<?, ?>) storage.getValue()).entrySet()) {
+                if (!(slot.getValue() instanceof Map)) continue;
+                Map<?, ?> fields = (Map<?, ?>) slot.getValue();
+                Object locked = fields.get(FIELD_LOCKED);
+                Object lamport = fields.get(FIELD_LAMPORT);
+                if (!(locked instanceof Boolean) || !(lamport instanceof Number)) continue;
+                LockEntry e = new LockEntry((Boolean) locked, ((Number) lamport).longValue(),
+                        String.valueOf(slot.getKey()));
+                model.merge(storage.getKey(), e);
+            }
+            if (model.isLocked(storage.getKey(), defaultLocked) != before) changed.add(storage.getKey());
+        }
+        return changed;
+    }
+}
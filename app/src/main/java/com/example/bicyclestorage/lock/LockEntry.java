@@ -0,0 +1,48 @@
+package com.example.bicyclestorage.lock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * One lock state write: the value, its Lamport timestamp and the device that
+ * wrote it. Ordering is total – (lamport, deviceId) – so every device picks
+ * the same winner without asking anyone.
+ */
+public final class LockEntry {
+
+    public final boolean locked;
+    public final long lamport;
+    @NonNull public final String deviceId;
+
+    public LockEntry(boolean locked, long lamport, @NonNull String deviceId) {
+        this.locked = locked;
+        this.lamport = lamport;
+        this.deviceId = deviceId;
+    }
+
+    /** True if this entry supersedes {@code other} (null = nothing yet). */
+    public boolean wins(@Nullable LockEntry other) {
+        if (other == null) return true;
+        if (lamport != other.lamport) return lamport > other.lamport;
+        return deviceId.compareTo(other.deviceId) > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LockEntry)) return false;
+        LockEntry e = (LockEntry) o;
+        return locked == e.locked && lamport == e.lamport && deviceId.equals(e.deviceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (lamport * 31 + deviceId.hashCode()) * 2 + (locked ? 1 : 0);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return (locked ? "locked" : "unlocked") + "@" + lamport + "/" + deviceId;
+    }
+}
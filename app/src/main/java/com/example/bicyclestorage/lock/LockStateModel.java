@@ -0,0 +1,68 @@
+package com.example.bicyclestorage.lock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-storage lock state of one user, replicated across that user's devices.
+ *
+ * Each storage is a last-writer-wins register ordered by {@link LockEntry#wins}.
+ * Merging keeps the maximum, so it is commutative, associative and idempotent:
+ * devices that have seen the same writes show the same state, whatever the
+ * delivery order. The Lamport clock makes a toggle win over every state the
+ * device had seen when it toggled.
+ *
+ * Not thread-safe; use from the main thread.
+ */
+public class LockStateModel {
+
+    private final String deviceId;
+    private final Map<String, LockEntry> entries = new HashMap<>();
+    private long clock = 0;
+
+    public LockStateModel(@NonNull String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    /** Flips the currently visible state; returns the entry to publish. */
+    @NonNull
+    public LockEntry toggle(@NonNull String storageId, boolean defaultLocked) {
+        LockEntry e = new LockEntry(!isLocked(storageId, defaultLocked), ++clock, deviceId);
+        entries.put(storageId, e);
+        return e;
+    }
+
+    /**
+     * Applies a local or remote entry; returns true if the stored state changed. A first
+     * entry counts as a change: the caller's default is not known here (see {@link LockDoc#apply}).
+     */
+    public boolean merge(@NonNull String storageId, @NonNull LockEntry entry) {
+        clock = Math.max(clock, entry.lamport);
+        LockEntry cur = entries.get(storageId);
+        if (!entry.wins(cur)) return false;
+        entries.put(storageId, entry);
+        return cur == null || cur.locked != entry.locked;
+    }
+
+    public boolean isLocked(@NonNull String storageId, boolean defaultLocked) {
+        LockEntry e = entries.get(storageId);
+        return e != null ? e.locked : defaultLocked;
+    }
+
+    @Nullable
+    public LockEntry entry(@NonNull String storageId) {
+        return entries.get(storageId);
+    }
+
+    public long clock() {
+        return clock;
+    }
+
+    @NonNull
+    public String deviceId() {
+        return deviceId;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bicyclestorage.map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU map bounded by the summed byte size of its values (e.g. bitmap
+ * allocation sizes) rather than by entry count. Synchronized.
+ */
+public final class ByteLruCache<K, V> {
+
+    public interface Sizer<V> {
+        int bytesOf(@NonNull V value);
+    }
+
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final Sizer<V> sizer;
+    private final long maxBytes;
+    private long bytes;
+
+    public ByteLruCache(long maxBytes, @NonNull Sizer<V> sizer) {
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+    }
+
+    @Nullable
+    public synchronized V get(@NonNull K key) {
+        return map.get(key);
+    }
+
+    /** Adds a value; a value larger than the whole budget is not kept. */
+    public synchronized void put(@NonNull K key, @NonNull V value) {
+        int size = sizer.bytesOf(value);
+        V old = map.remove(key);
+        if (old != null) bytes -= sizer.bytesOf(old);
+        if (size > maxBytes) return;
+        map.put(key, value);
+        bytes += size;
+        trimTo(maxBytes);
+    }
+
+    /** Evicts least recently used entries until at most {@code target} bytes remain. */
+    public synchronized void trimTo(long target) {
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        while (bytes > target && it.hasNext()) {
+            bytes -= sizer.bytesOf(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+}
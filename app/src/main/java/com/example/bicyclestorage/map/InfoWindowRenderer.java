@@ -0,0 +1,46 @@
+package com.example.bicyclestorage.map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Marker info window on one reused view. The map draws the returned view into a
+ * bitmap, so a single instance serves every marker: it is inflated on the first
+ * render and only re-bound afterwards.
+ */
+public final class InfoWindowRenderer<V, T> {
+
+    public interface Inflater<V> {
+        @NonNull V inflate();
+    }
+
+    public interface Binder<V, T> {
+        void bind(@NonNull V view, @NonNull T item);
+    }
+
+    private final Inflater<V> inflater;
+    private final Binder<V, T> binder;
+    @Nullable private V view;
+    private int inflations = 0;
+
+    public InfoWindowRenderer(@NonNull Inflater<V> inflater, @NonNull Binder<V, T> binder) {
+        this.inflater = inflater;
+        this.binder = binder;
+    }
+
+    /** The bound view, or null for markers without an item (default window). */
+    @Nullable
+    public V render(@Nullable T item) {
+        if (item == null) return null;
+        if (view == null) {
+            view = inflater.inflate();
+            inflations++;
+        }
+        binder.bind(view, item);
+        return view;
+    }
+
+    public int inflations() {
+        return inflations;
+    }
+}
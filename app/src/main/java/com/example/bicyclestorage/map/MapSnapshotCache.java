@@ -0,0 +1,158 @@
+package com.example.bicyclestorage.map;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Last map frame (camera + markers) kept on disk, shown as a placeholder on the
+ * next cold start until the live map has drawn its markers.
+ *
+ * The image is stored downsampled in the cache dir; its {@link Key} lives in
+ * shared prefs so it can be checked synchronously in onCreate. A snapshot is
+ * only valid for the same catalog layout, camera region and orientation.
+ *
+ * The layout part can only be checked once the backend has delivered the
+ * catalog: at onCreate the catalog holds just the built-in storages, while the
+ * saved fingerprint covers everything that was on the map. Callers check the
+ * orientation up front and {@link Key#sameLayout} after the first backend batch.
+ */
+public final class MapSnapshotCache {
+
+    private static final String TAG = "MapSnapshotCache";
+    private static final String PREFS_NAME = "map_snapshot";
+    private static final String FILE_NAME = "map_snapshot.webp";
+    private static final int QUALITY = 70;
+
+    /** What the snapshot shows: if any of it differs, the image is stale. */
+    public static final class Key {
+        public final double lat;
+        public final double lng;
+        public final float zoom;
+        public final float bearing;
+        public final long catalogFingerprint;
+        public final int orientation;
+
+        public Key(double lat, double lng, float zoom, float bearing,
+                   long catalogFingerprint, int orientation) {
+            this.lat = lat;
+            this.lng = lng;
+            this.zoom = zoom;
+            this.bearing = bearing;
+            this.catalogFingerprint = catalogFingerprint;
+            this.orientation = orientation;
+        }
+
+        /** The image shows the storages of a catalog with this {@link com.example.bicyclestorage.storage.StorageCatalog#layoutFingerprint()}. */
+        public boolean sameLayout(long catalogFingerprint) {
+            return this.catalogFingerprint == catalogFingerprint;
+        }
+
+        /** Same region (within float noise of a restored camera) and same catalog layout. */
+        public boolean matches(@Nullable Key o) {
+            return o != null
+                    && catalogFingerprint == o.catalogFingerprint
+                    && orientation == o.orientation
+                    && Math.abs(lat - o.lat) < 1e-6
+                    && Math.abs(lng - o.lng) < 1e-6
+                    && Math.abs(zoom - o.zoom) < 0.01f
+                    && Math.abs(bearing - o.bearing) < 0.5f;
+        }
+    }
+
+    private final SharedPreferences prefs;
+    private final File file;
+    private final int downsample;
+
+    public MapSnapshotCache(@NonNull Context context, int downsample) {
+        this(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                new File(context.getApplicationContext().getCacheDir(), FILE_NAME), downsample);
+    }
+
+    MapSnapshotCache(@NonNull SharedPreferences prefs, @NonNull File file, int downsample) {
+        this.prefs = prefs;
+        this.file = file;
+        this.downsample = Math.max(1, downsample);
+    }
+
+    /** Key of the stored snapshot, or null if there is none. */
+    @Nullable
+    public Key savedKey() {
+        if (!prefs.contains("lat")) return null;
+        return new Key(
+                Double.longBitsToDouble(prefs.getLong("lat", 0)),
+                Double.longBitsToDouble(prefs.getLong("lng", 0)),
+                prefs.getFloat("zoom", 0),
+                prefs.getFloat("bearing", 0),
+                prefs.getLong("catalog", 0),
+                prefs.getInt("orientation", 0));
+    }
+
+    /** Decodes the stored image (call off the main thread). */
+    @Nullable
+    public Bitmap loadBitmap() {
+        if (!file.exists()) return null;
+        Bitmap b = BitmapFactory.decodeFile(file.getPath());
+        if (b == null) invalidate();
+        return b;
+    }
+
+    /** Downsamples and writes {@code frame} (call off the main thread); recycles it. */
+    public void save(@NonNull Bitmap frame, @NonNull Key key) {
+        Bitmap small = Bitmap.createScaledBitmap(frame,
+                Math.max(1, frame.getWidth() / downsample),
+                Math.max(1, frame.getHeight() / downsample), true);
+        if (small != frame) frame.recycle();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+            small.compress(webpFormat(), QUALITY, out);
+        } catch (IOException e) {
+            Log.e(TAG, "Save failed: " + e.getMessage(), e);
+            return;
+        } finally {
+            small.recycle();
+        }
+        if (!tmp.renameTo(file)) {
+            Log.e(TAG, "Rename failed: " + tmp);
+            return;
+        }
+        saveKey(key);
+    }
+
+    // Written after the image, so a key never points at a missing or half-written file
+    void saveKey(@NonNull Key key) {
+        prefs.edit()
+                .putLong("lat", Double.doubleToLongBits(key.lat))
+                .putLong("lng", Double.doubleToLongBits(key.lng))
+                .putFloat("zoom", key.zoom)
+                .putFloat("bearing", key.bearing)
+                .putLong("catalog", key.catalogFingerprint)
+                .putInt("orientation", key.orientation)
+                .apply();
+    }
+
+    public void invalidate() {
+        prefs.edit().clear().apply();
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
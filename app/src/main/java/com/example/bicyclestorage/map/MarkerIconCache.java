@@ -0,0 +1,61 @@
+package com.example.bicyclestorage.map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Tiny cache of scaled marker icons keyed by (resource, width, height).
+ *
+ * Only a handful of icon variants exist, so entries live in parallel arrays
+ * with a linear scan – a cache hit allocates nothing (no boxed keys).
+ */
+public final class MarkerIconCache<T> {
+
+    public interface Factory<T> {
+        @NonNull T create(int resourceId, int widthPx, int heightPx);
+    }
+
+    private final Factory<T> factory;
+    private long[] keys = new long[4];
+    private Object[] values = new Object[4];
+    private int size = 0;
+
+    public MarkerIconCache(@NonNull Factory<T> factory) {
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public T get(int resourceId, int widthPx, int heightPx) {
+        long key = key(resourceId, widthPx, heightPx);
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) return (T) values[i];
+        }
+        T created = factory.create(resourceId, widthPx, heightPx);
+        if (size == keys.length) {
+            long[] k = new long[size * 2];
+            Object[] v = new Object[size * 2];
+            System.arraycopy(keys, 0, k, 0, size);
+            System.arraycopy(values, 0, v, 0, size);
+            keys = k;
+            values = v;
+        }
+        keys[size] = key;
+        values[size] = created;
+        size++;
+        return created;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) values[i] = null;
+        size = 0;
+    }
+
+    private static long key(int resourceId, int w, int h) {
+        // resource id in the high 32 bits, 16 bits each for width/height
+        return ((long) resourceId << 32) | ((long) (w & 0xFFFF) << 16) | (h & 0xFFFF);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.bicyclestorage.map;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Storage photo thumbnails for the info window, cached on two levels:
+ * decoded bitmaps in a {@link ByteLruCache} (budget in bytes) and encoded
+ * thumbnails in the cache dir (size-capped, least recently used deleted first).
+ *
+ * Photos are downloaded (at most {@link #MAX_DOWNLOAD_BYTES}) and decoded off
+ * the main thread, sampled down to the thumbnail size while decoding, so a
+ * full-size photo is never held in memory.
+ * The info window only ever {@link #peek}s; a miss starts a load and the
+ * listener re-renders the window when the thumbnail is ready.
+ */
+public final class StorageThumbnails {
+
+    public interface Listener {
+        /** A thumbnail of {@code storageId} is now in memory (main thread). */
+        void onThumbnailReady(@NonNull String storageId);
+    }
+
+    private static final String TAG = "StorageThumbnails";
+    private static final String DIR = "thumbs";
+    private static final long DISK_MAX_BYTES = 16L * 1024 * 1024;
+    private static final int QUALITY = 80;
+    private static final int TIMEOUT_MS = 10_000;
+    // Larger responses are not storage photos; dropped instead of filling the cache dir
+    static final long MAX_DOWNLOAD_BYTES = 8L * 1024 * 1024;
+
+    private final File dir;
+    private final int widthPx;
+    private final int heightPx;
+    private final ByteLruCache<String, Bitmap> memory;
+    private final Executor mainExecutor;
+    private final Listener listener;
+    private final ExecutorService io = Executors.newFixedThreadPool(2);
+
+    // URLs being loaded → prefetch generation that wants it (REQUESTED: a request() waits).
+    // A newer prefetch round supersedes queued loads only no one else has joined
+    private static final int REQUESTED = -1;
+    private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger prefetchGeneration = new AtomicInteger();
+
+    public StorageThumbnails(@NonNull Context context, int widthPx, int heightPx, int memoryBytes,
+                             @NonNull Executor mainExecutor, @NonNull Listener listener) {
+        this.dir = new File(context.getApplicationContext().getCacheDir(), DIR);
+        this.widthPx = widthPx;
+        this.heightPx = heightPx;
+        this.memory = new ByteLruCache<>(memoryBytes, Bitmap::getAllocationByteCount);
+        this.mainExecutor = mainExecutor;
+        this.listener = listener;
+    }
+
+    /** Memory-only lookup; never blocks. */
+    @Nullable
+    public Bitmap peek(@NonNull Storage storage) {
+        return storage.photoUrl != null ? memory.get(storage.photoUrl) : null;
+    }
+
+    /** Loads the thumbnail (disk, then network) unless it is cached or already loading. */
+    public void request(@NonNull Storage storage) {
+        load(storage, REQUESTED);
+    }
+
+    /** Warms the cache for {@code storages} (e.g. nearest the camera); replaces the previous round. */
+    public void prefetch(@NonNull List<Storage> storages) {
+        int gen = prefetchGeneration.incrementAndGet();
+        for (Storage s : storages) load(s, gen);
+    }
+
+    private void load(Storage storage, int generation) {
+        String url = storage.photoUrl;
+        if (url == null || memory.get(url) != null || io.isShutdown()) return;
+        boolean[] queued = new boolean[1];
+        inFlight.compute(url, (k, owner) -> {
+            queued[0] = owner != null;
+            if (owner == null || owner == REQUESTED || generation == REQUESTED) return generation;
+            return Math.max(owner, generation);
+        });
+        if (queued[0]) return; // joined the queued load
+        io.execute(() -> {
+            // Camera moved on: drop the prefetch unless a request() or a newer round joined it
+            if (generation != REQUESTED && generation != prefetchGeneration.get()
+                    && inFlight.remove(url, generation)) {
+                return;
+            }
+            try {
+                Bitmap thumb = loadBlocking(url);
+                if (thumb == null) return;
+                memory.put(url, thumb);
+                mainExecutor.execute(() -> listener.onThumbnailReady(storage.id));
+            } finally {
+                inFlight.remove(url);
+            }
+        });
+    }
+
+    /** Drops decoded thumbnails under memory pressure (disk copies stay). */
+    public void trimMemory(boolean all) {
+        memory.trimTo(all ? 0 : memory.maxBytes() / 2);
+    }
+
+    public void shutdown() {
+        io.shutdownNow();
+    }
+
+    // --- Disk + network (io threads) ---
+
+    @Nullable
+    private Bitmap loadBlocking(String url) {
+        File cached = new File(dir, fileName(url));
+        if (cached.exists()) {
+            Bitmap b = BitmapFactory.decodeFile(cached.getPath());
+            if (b != null) {
+                //noinspection ResultOfMethodCallIgnored
+                cached.setLastModified(System.currentTimeMillis()); // LRU order for trimming
+                return b;
+            }
+            //noinspection ResultOfMethodCallIgnored
+            cached.delete();
+        }
+
+        if (!dir.exists() && !dir.mkdirs()) return null;
+        File download = new File(dir, fileName(url) + ".download");
+        try {
+            if (!downloadTo(url, download)) return null;
+            Bitmap thumb = decodeThumbnail(download.getPath());
+            if (thumb == null) return null;
+            writeAtomically(thumb, cached);
+            trimDisk();
+            return thumb;
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            download.delete();
+        }
+    }
+
+    private boolean downloadTo(String url, File target) {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(url).openConnection();
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) return false;
+            if (conn.getContentLengthLong() > MAX_DOWNLOAD_BYTES) {
+                Log.w(TAG, "Photo too large: " + conn.getContentLengthLong() + " bytes");
+                return false;
+            }
+            try (InputStream in = conn.getInputStream();
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+                byte[] buf = new byte[16 * 1024];
+                long total = 0;
+                int r;
+                while ((r = in.read(buf)) > 0) {
+                    total += r;
+                    // Content-Length may be missing or wrong
+                    if (total > MAX_DOWNLOAD_BYTES) {
+                        Log.w(TAG, "Photo too large: over " + MAX_DOWNLOAD_BYTES + " bytes");
+                        return false;
+                    }
+                    out.write(buf, 0, r);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Download failed: " + e.getMessage());
+            return false;
+        } finally {
+            if (conn != null) conn.disconnect();
+        }
+    }
+
+    // Sampled decode (power of two, never below the target), then center-crop to the exact size
+    @Nullable
+    private Bitmap decodeThumbnail(String path) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, widthPx, heightPx);
+        Bitmap sampled = BitmapFactory.decodeFile(path, opts);
+        if (sampled == null) return null;
+
+        float scale = Math.max(widthPx / (float) sampled.getWidth(), heightPx / (float) sampled.getHeight());
+        int srcW = Math.round(widthPx / scale);
+        int srcH = Math.round(heightPx / scale);
+        int left = (sampled.getWidth() - srcW) / 2;
+        int top = (sampled.getHeight() - srcH) / 2;
+        Bitmap out = Bitmap.createBitmap(widthPx, heightPx, Bitmap.Config.ARGB_8888);
+        new Canvas(out).drawBitmap(sampled, new Rect(left, top, left + srcW, top + srcH),
+                new Rect(0, 0, widthPx, heightPx), new Paint(Paint.FILTER_BITMAP_FLAG));
+        sampled.recycle();
+        return out;
+    }
+
+    static int sampleSize(int srcW, int srcH, int dstW, int dstH) {
+        int sample = 1;
+        while (srcW / (sample * 2) >= dstW && srcH / (sample * 2) >= dstH) sample *= 2;
+        return sample;
+    }
+
+    private void writeAtomically(Bitmap thumb, File target) {
+        File tmp = new File(target.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+            thumb.compress(webpFormat(), QUALITY, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Cache write failed: " + e.getMessage());
+            return;
+        }
+        if (!tmp.renameTo(target)) Log.w(TAG, "Cache rename failed: " + tmp);
+    }
+
+    private synchronized void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".webp"));
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= DISK_MAX_BYTES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File f : files) {
+            if (total <= DISK_MAX_BYTES * 3 / 4) break; // trim with headroom, not on every write
+            total -= f.length();
+            //noinspection ResultOfMethodCallIgnored
+            f.delete();
+        }
+    }
+
+    // Thumbnail size is part of the name: a different size is a different entry
+    private String fileName(String url) {
+        return sha1Hex(url) + "_" + widthPx + "x" + heightPx + ".webp";
+    }
+
+    private static String sha1Hex(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte b : d) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(s.hashCode());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
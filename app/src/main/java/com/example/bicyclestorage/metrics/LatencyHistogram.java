@@ -0,0 +1,93 @@
+package com.example.bicyclestorage.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, HDR-style log-linear latency histogram (microseconds).
+ *
+ * Values below 32 µs get exact buckets; above that every power of two is split
+ * into 16 linear sub-buckets (~6% relative error). Recording is a single
+ * atomic increment plus sum/max updates – safe from any thread.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;       // 16
+    private static final int LINEAR_LIMIT = SUB_COUNT << 1;   // 32
+    private static final int MAX_EXPONENT = 40;               // ~12 days in µs – plenty
+    private static final int BUCKETS = LINEAR_LIMIT + MAX_EXPONENT * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketOf(micros));
+        total.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        long cur;
+        while (micros > (cur = maxMicros.get())) {
+            if (maxMicros.compareAndSet(cur, micros)) break;
+        }
+    }
+
+    static int bucketOf(long v) {
+        if (v < LINEAR_LIMIT) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS; // >= 1
+        int mantissa = (int) (v >>> shift);                          // [16, 31]
+        int idx = LINEAR_LIMIT + (shift - 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+        return Math.min(idx, BUCKETS - 1);
+    }
+
+    /** Highest value that maps to {@code idx} (reported value for percentiles). */
+    static long upperBoundOf(int idx) {
+        if (idx < LINEAR_LIMIT) return idx;
+        int rel = idx - LINEAR_LIMIT;
+        int shift = rel / SUB_COUNT + 1;
+        long mantissa = (rel % SUB_COUNT) + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    public double meanMicros() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sumMicros.get() / n;
+    }
+
+    /** Approximate quantile ({@code q} in [0,1]); 0 when empty. */
+    public long percentileMicros(double q) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBoundOf(i), maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "n=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                count(), meanMicros() / 1000.0,
+                percentileMicros(0.50) / 1000.0,
+                percentileMicros(0.95) / 1000.0,
+                percentileMicros(0.99) / 1000.0,
+                maxMicros() / 1000.0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bicyclestorage.metrics;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Debug dump of {@link OpMetrics} (logcat + files/metrics/ops-*.txt).
+ *
+ * Protected by the DUMP permission, so only adb / the system can trigger it:
+ * {@code adb shell am broadcast -a com.example.bicyclestorage.DUMP_METRICS
+ *  -n com.example.bicyclestorage/.metrics.MetricsDumpReceiver}
+ */
+public class MetricsDumpReceiver extends BroadcastReceiver {
+
+    public static final String ACTION_DUMP = "com.example.bicyclestorage.DUMP_METRICS";
+    private static final String TAG = "OpMetrics";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || !ACTION_DUMP.equals(intent.getAction())) return;
+        String dump = OpMetrics.get().dump();
+        for (String line : dump.split("\n")) Log.i(TAG, line);
+
+        File dir = new File(context.getFilesDir(), "metrics");
+        if (!dir.exists() && !dir.mkdirs()) return;
+        File out = new File(dir, "ops-" + System.currentTimeMillis() + ".txt");
+        try (Writer w = new FileWriter(out)) {
+            w.write(dump);
+            Log.i(TAG, "Dumped to " + out.getAbsolutePath());
+        } catch (IOException e) {
+            Log.e(TAG, "Dump failed: " + e.getMessage(), e);
+        }
+    }
+}
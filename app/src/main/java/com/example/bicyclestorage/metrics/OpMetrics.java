@@ -0,0 +1,141 @@
+package com.example.bicyclestorage.metrics;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide latency / error registry for Task-returning backend operations.
+ *
+ * Usage: {@code return OpMetrics.get().time(OpMetrics.OP_SIGN_IN, () -> auth.signIn...(..));}
+ * The clock starts before the call is made, so the time to issue the request
+ * is included. The task is returned unchanged, so callers chain listeners as before.
+ */
+public final class OpMetrics {
+
+    // Operation names
+    public static final String OP_SIGN_IN = "auth.signIn";
+    public static final String OP_CREATE_USER = "auth.createUser";
+    public static final String OP_CREATE_PROFILE = "profile.create";
+    public static final String OP_LOAD_PROFILE = "profile.load";
+    public static final String OP_UPDATE_USERNAME = "profile.updateUsername";
+    public static final String OP_CHECK_USERNAME = "username.check";
+    public static final String OP_TIME_TO_MAP = "startup.timeToMap";
+    public static final String OP_RESERVE = "reservation.txn";
+    public static final String OP_TELEMETRY_UPLOAD = "telemetry.upload";
+
+    /** Starts a backend operation. */
+    public interface Call<T> {
+        Task<T> start();
+    }
+
+    /** Maps a failure to a short error class key. */
+    public interface ErrorClassifier {
+        @NonNull String classify(@NonNull Exception e);
+    }
+
+    /** Per-operation statistics. */
+    public static final class Stats {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong successes = new AtomicLong();
+        final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+        public long successes() {
+            return successes.get();
+        }
+
+        /** Error class → count (sorted copy). */
+        public Map<String, Long> errors() {
+            Map<String, Long> out = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> e : errors.entrySet()) {
+                out.put(e.getKey(), e.getValue().get());
+            }
+            return out;
+        }
+    }
+
+    private static final OpMetrics INSTANCE = new OpMetrics();
+
+    private final ConcurrentHashMap<String, Stats> ops = new ConcurrentHashMap<>();
+    private volatile ErrorClassifier classifier = e -> e.getClass().getSimpleName();
+
+    private OpMetrics() {}
+
+    public static OpMetrics get() {
+        return INSTANCE;
+    }
+
+    public void setErrorClassifier(@NonNull ErrorClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    @NonNull
+    public Stats stats(@NonNull String op) {
+        Stats s = ops.get(op);
+        if (s == null) {
+            Stats created = new Stats();
+            s = ops.putIfAbsent(op, created);
+            if (s == null) s = created;
+        }
+        return s;
+    }
+
+    /** Starts {@code call} and records its latency + outcome under {@code op}; returns its task. */
+    public <T> Task<T> time(@NonNull String op, @NonNull Call<T> call) {
+        final long start = SystemClock.elapsedRealtimeNanos();
+        Task<T> task = call.start();
+        if (task == null) return null;
+        final Stats s = stats(op);
+        // Direct executor: record on the completing thread, no main-thread hop
+        task.addOnCompleteListener(Runnable::run, t -> {
+            long micros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+            record(s, micros, t.isSuccessful() ? null : t.getException(), t.isCanceled());
+        });
+        return task;
+    }
+
+    void record(@NonNull Stats s, long micros, Exception error, boolean canceled) {
+        s.latency.recordMicros(micros);
+        if (error == null && !canceled) {
+            s.successes.incrementAndGet();
+            return;
+        }
+        String cls = canceled ? "canceled" : classifier.classify(error);
+        AtomicLong c = s.errors.get(cls);
+        if (c == null) {
+            AtomicLong created = new AtomicLong();
+            c = s.errors.putIfAbsent(cls, created);
+            if (c == null) c = created;
+        }
+        c.incrementAndGet();
+    }
+
+    /** Text dump of every operation (sorted by name). */
+    @NonNull
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Stats> e : new TreeMap<>(ops).entrySet()) {
+            Stats s = e.getValue();
+            sb.append(e.getKey())
+                    .append(": ok=").append(s.successes())
+                    .append(' ').append(s.latency);
+            Map<String, Long> errs = s.errors();
+            if (!errs.isEmpty()) sb.append(" errors=").append(errs);
+            sb.append('\n');
+        }
+        if (sb.length() == 0) sb.append("(no operations recorded)\n");
+        return sb.toString();
+    }
+
+    /** Testing / debug reset. */
+    public void clear() {
+        ops.clear();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bicyclestorage.metrics;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+/**
+ * Launch timing: milliseconds from the launcher's onCreate to named milestones,
+ * and the time-to-map recorded once per process under
+ * {@link OpMetrics#OP_TIME_TO_MAP}.
+ *
+ * The origin is {@link #launchStarted()}, not process start: the process is
+ * often already running when the icon is tapped (WorkManager, the telemetry
+ * uploader, receivers), which would count idle background time. A map shown
+ * without a launcher start in this process (e.g. restored from recents) gives
+ * no sample.
+ *
+ * Time-to-map ends on the first frame after both the map has loaded and the
+ * backend's storages were added as markers; the map draws markers on its own
+ * thread, so that frame is the closest observable point.
+ */
+public final class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    private static long launchUptimeMs = -1;
+    private static boolean mapLoaded = false;
+    private static boolean markersAdded = false;
+    private static boolean mapRecorded = false;
+
+    private StartupTrace() {}
+
+    /**
+     * Launcher onCreate (main thread). {@code toMap}: the map is the first
+     * screen; a launch through login gives no sample. Only the first launch of
+     * the process counts, later ones are warm starts.
+     */
+    public static void launchStarted(boolean toMap) {
+        if (launchUptimeMs >= 0 || mapRecorded) return;
+        long now = SystemClock.uptimeMillis();
+        Log.i(TAG, "launch at +" + (now - Process.getStartUptimeMillis()) + " ms after process start");
+        if (toMap) launchUptimeMs = now;
+        else mapRecorded = true;
+    }
+
+    /** Milliseconds since the launcher's onCreate, or -1 without a launch in this process. */
+    public static long sinceLaunchMs() {
+        return launchUptimeMs < 0 ? -1 : SystemClock.uptimeMillis() - launchUptimeMs;
+    }
+
+    public static void mark(String milestone) {
+        Log.i(TAG, milestone + " at +" + sinceLaunchMs() + " ms");
+    }
+
+    /** The map finished its first render (main thread). True if this completed the start. */
+    public static boolean mapLoaded() {
+        mapLoaded = true;
+        return maybeRecord();
+    }
+
+    /** The backend's storages are on the map (main thread). True if this completed the start. */
+    public static boolean markersAdded() {
+        markersAdded = true;
+        return maybeRecord();
+    }
+
+    private static boolean maybeRecord() {
+        if (mapRecorded || !mapLoaded || !markersAdded) return false;
+        mapRecorded = true;
+        long origin = launchUptimeMs;
+        if (origin < 0) return true; // not started from the launcher: no sample
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+            long ms = SystemClock.uptimeMillis() - origin;
+            OpMetrics m = OpMetrics.get();
+            m.record(m.stats(OpMetrics.OP_TIME_TO_MAP), ms * 1000, null, false);
+            Log.i(TAG, "Time to map: " + ms + " ms");
+        });
+        return true;
+    }
+}
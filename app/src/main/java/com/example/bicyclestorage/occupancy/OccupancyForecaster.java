@@ -0,0 +1,66 @@
+package com.example.bicyclestorage.occupancy;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+
+/**
+ * "Likely free at 8:30?" – blends the latest observation with the seasonal
+ * weekday × hour profile. Lookups are O(1) (a few array reads), so it is cheap
+ * enough to run inside info window rendering.
+ */
+public class OccupancyForecaster {
+
+    /** Up to this horizon the current value dominates. */
+    private static final long NOWCAST_MS = 2 * 60 * 60_000L;
+    private static final long HOUR_MS = 60 * 60_000L;
+
+    public static final int UNKNOWN = -1;
+
+    private final OccupancyStore store;
+
+    public OccupancyForecaster(@NonNull OccupancyStore store) {
+        this.store = store;
+    }
+
+    /** Expected occupancy at {@code targetMs} in per-mille, or {@link #UNKNOWN}. */
+    public int forecastPermille(@NonNull String storageId, long nowMs, long targetMs) {
+        synchronized (store) {
+            OccupancySeries s = store.seriesFor(storageId);
+            if (s == null) return UNKNOWN;
+            int tz = store.offsetAt(targetMs);
+
+            // Seasonal: each cell is an hourly mean, anchored at half past the
+            // hour; interpolate between the two cells around the target
+            long shifted = targetMs - HOUR_MS / 2;
+            int cell = OccupancySeries.weekCell(shifted, tz);
+            int nextCell = (cell + 1) % OccupancySeries.WEEK_CELLS;
+            float a = s.seasonal(cell);
+            float b = s.seasonal(nextCell);
+            float seasonal;
+            if (a < 0) {
+                seasonal = b;
+            } else if (b < 0) {
+                seasonal = a;
+            } else {
+                float frac = (Math.floorMod(shifted + tz, HOUR_MS)) / (float) HOUR_MS;
+                seasonal = a + (b - a) * frac;
+            }
+
+            int latest = s.latest();
+            if (seasonal < 0) return latest; // may be UNKNOWN too
+            if (latest < 0) return Math.round(seasonal);
+
+            long ahead = Math.max(0, targetMs - nowMs);
+            float w = Math.min(1f, ahead / (float) NOWCAST_MS);
+            return Math.round(latest * (1 - w) + seasonal * w);
+        }
+    }
+
+    /** Expected free spaces at {@code targetMs}, or {@link #UNKNOWN}. */
+    public int forecastFree(@NonNull Storage storage, long nowMs, long targetMs) {
+        int p = forecastPermille(storage.id, nowMs, targetMs);
+        if (p == UNKNOWN) return UNKNOWN;
+        return Math.max(0, Math.round(storage.capacity * (1000 - p) / 1000f));
+    }
+}
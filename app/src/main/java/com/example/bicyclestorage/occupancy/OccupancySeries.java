@@ -0,0 +1,186 @@
+package com.example.bicyclestorage.occupancy;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Occupancy history of one storage in fixed-size primitive tiers:
+ * <ul>
+ *   <li>minute ring – last {@link #MINUTE_SLOTS} minutes (carry-forward values)</li>
+ *   <li>hour ring – last {@link #HOUR_SLOTS} hours (time-weighted averages)</li>
+ *   <li>weekday × hour – 168 EWMA cells (seasonal profile)</li>
+ * </ul>
+ * Values are occupancy ratios in per-mille (0..1000); -1 = unknown.
+ * Not thread-safe; {@link OccupancyStore} serializes access.
+ */
+final class OccupancySeries {
+
+    static final int MINUTE_SLOTS = 120;
+    static final int HOUR_SLOTS = 24 * 14;
+    static final int WEEK_CELLS = 7 * 24;
+    static final short UNKNOWN = -1;
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    // Gaps longer than this are not filled with the last value
+    private static final int MAX_CARRY_MINUTES = 6 * 60;
+    private static final float EWMA_ALPHA = 0.25f;
+    private static final int MAX_WEEK_COUNT = 10_000;
+
+    final short[] minuteVal = new short[MINUTE_SLOTS];
+    final short[] hourVal = new short[HOUR_SLOTS];
+    final float[] weekEwma = new float[WEEK_CELLS];
+    final short[] weekCount = new short[WEEK_CELLS];
+
+    int minuteHead = 0;
+    long curMinute = -1;      // epoch minute stored at minuteHead
+    int hourHead = 0;
+    long lastClosedHour = -1; // epoch hour stored at hourHead
+    int hourSum = 0;
+    int hourN = 0;
+    short last = UNKNOWN;
+
+    OccupancySeries() {
+        Arrays.fill(minuteVal, UNKNOWN);
+        Arrays.fill(hourVal, UNKNOWN);
+    }
+
+    /** Records the occupancy ratio observed at {@code epochMs}. */
+    void sample(long epochMs, int permille, int tzOffsetMs) {
+        short v = (short) Math.max(0, Math.min(1000, permille));
+        long m = Math.floorDiv(epochMs, MINUTE_MS);
+        if (curMinute < 0) {
+            curMinute = m;
+        } else if (m > curMinute) {
+            advanceTo(m, tzOffsetMs);
+        }
+        // m < curMinute: late sample – apply to the current minute
+        minuteVal[minuteHead] = v;
+        last = v;
+    }
+
+    /** Moves the clock forward without a new observation (carry-forward). */
+    void tick(long epochMs, int tzOffsetMs) {
+        long m = Math.floorDiv(epochMs, MINUTE_MS);
+        if (curMinute >= 0 && m > curMinute) advanceTo(m, tzOffsetMs);
+    }
+
+    private void advanceTo(long m, int tzOffsetMs) {
+        if (m - curMinute > MAX_CARRY_MINUTES) {
+            // Long gap: close what we have, forget the minute tier
+            if (hourN > 0) closeHour(Math.floorDiv(curMinute, 60), tzOffsetMs);
+            Arrays.fill(minuteVal, UNKNOWN);
+            curMinute = m;
+            last = UNKNOWN;
+            return;
+        }
+        while (curMinute < m) {
+            // The minute that just finished counts with its last value
+            if (last >= 0) {
+                hourSum += last;
+                hourN++;
+            }
+            curMinute++;
+            minuteHead = (minuteHead + 1) % MINUTE_SLOTS;
+            minuteVal[minuteHead] = last;
+            if (curMinute % 60 == 0 && hourN > 0) closeHour(curMinute / 60 - 1, tzOffsetMs);
+        }
+    }
+
+    private void closeHour(long epochHour, int tzOffsetMs) {
+        short avg = (short) (hourSum / hourN);
+        hourSum = 0;
+        hourN = 0;
+
+        if (lastClosedHour >= 0 && epochHour > lastClosedHour) {
+            long gap = Math.min(HOUR_SLOTS, epochHour - lastClosedHour - 1);
+            for (long i = 0; i < gap; i++) {
+                hourHead = (hourHead + 1) % HOUR_SLOTS;
+                hourVal[hourHead] = UNKNOWN;
+            }
+            hourHead = (hourHead + 1) % HOUR_SLOTS;
+        } else if (lastClosedHour >= 0 && epochHour <= lastClosedHour) {
+            return; // already closed
+        }
+        hourVal[hourHead] = avg;
+        lastClosedHour = epochHour;
+
+        int cell = weekCell(epochHour * HOUR_MS, tzOffsetMs);
+        if (weekCount[cell] == 0) {
+            weekEwma[cell] = avg;
+        } else {
+            weekEwma[cell] += EWMA_ALPHA * (avg - weekEwma[cell]);
+        }
+        if (weekCount[cell] < MAX_WEEK_COUNT) weekCount[cell]++;
+    }
+
+    /** Weekday (Mon=0) × hour cell of a local time. */
+    static int weekCell(long epochMs, int tzOffsetMs) {
+        long local = epochMs + tzOffsetMs;
+        long day = Math.floorDiv(local, DAY_MS);
+        int weekday = (int) Math.floorMod(day + 3, 7L); // 1970-01-01 was a Thursday
+        int hour = (int) (Math.floorMod(local, DAY_MS) / HOUR_MS);
+        return weekday * 24 + hour;
+    }
+
+    /** Latest observed value, or -1. */
+    int latest() {
+        return last;
+    }
+
+    /** Seasonal estimate for a cell; falls back to the same hour on other days. -1 if unknown. */
+    float seasonal(int cell) {
+        if (weekCount[cell] > 0) return weekEwma[cell];
+        int hour = cell % 24;
+        float sum = 0;
+        int n = 0;
+        for (int d = 0; d < 7; d++) {
+            int c = d * 24 + hour;
+            if (weekCount[c] > 0) {
+                sum += weekEwma[c];
+                n++;
+            }
+        }
+        return n == 0 ? -1 : sum / n;
+    }
+
+    // --- Persistence ---
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeShort(minuteHead);
+        out.writeLong(curMinute);
+        out.writeShort(hourHead);
+        out.writeLong(lastClosedHour);
+        out.writeInt(hourSum);
+        out.writeShort(hourN);
+        out.writeShort(last);
+        for (short s : minuteVal) out.writeShort(s);
+        for (short s : hourVal) out.writeShort(s);
+        for (int i = 0; i < WEEK_CELLS; i++) {
+            // EWMA stored as per-mille ×10 (0.1‰ resolution) to keep it 2 bytes
+            out.writeShort(Math.round(weekEwma[i] * 10));
+            out.writeShort(weekCount[i]);
+        }
+    }
+
+    static OccupancySeries read(DataInputStream in) throws IOException {
+        OccupancySeries s = new OccupancySeries();
+        s.minuteHead = in.readShort();
+        s.curMinute = in.readLong();
+        s.hourHead = in.readShort();
+        s.lastClosedHour = in.readLong();
+        s.hourSum = in.readInt();
+        s.hourN = in.readShort();
+        s.last = in.readShort();
+        for (int i = 0; i < MINUTE_SLOTS; i++) s.minuteVal[i] = in.readShort();
+        for (int i = 0; i < HOUR_SLOTS; i++) s.hourVal[i] = in.readShort();
+        for (int i = 0; i < WEEK_CELLS; i++) {
+            s.weekEwma[i] = in.readShort() / 10f;
+            s.weekCount[i] = in.readShort();
+        }
+        return s;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bicyclestorage.occupancy;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Per-storage occupancy time series ({@link OccupancySeries}) with compact
+ * binary persistence. All methods are synchronized; sampling and forecasting
+ * are O(1) and allocation-free after a series exists.
+ */
+public class OccupancyStore {
+
+    private static final String TAG = "OccupancyStore";
+    private static final int MAGIC = 0x4F434331; // "OCC1"
+
+    private final Map<String, OccupancySeries> series = new HashMap<>();
+    private final TimeZone zone;
+
+    public OccupancyStore(@NonNull TimeZone zone) {
+        this.zone = zone;
+    }
+
+    public synchronized void sample(@NonNull Storage s, long epochMs) {
+        if (s.capacity <= 0) return;
+        OccupancySeries ser = series.get(s.id);
+        if (ser == null) {
+            ser = new OccupancySeries();
+            series.put(s.id, ser);
+        }
+        ser.sample(epochMs, s.inUse * 1000 / s.capacity, zone.getOffset(epochMs));
+    }
+
+    /** Advances every series' clock (carry-forward of unchanged occupancy). */
+    public synchronized void tick(long epochMs) {
+        int tz = zone.getOffset(epochMs);
+        for (OccupancySeries s : series.values()) s.tick(epochMs, tz);
+    }
+
+    synchronized OccupancySeries seriesFor(String id) {
+        return series.get(id);
+    }
+
+    int offsetAt(long epochMs) {
+        return zone.getOffset(epochMs);
+    }
+
+    public synchronized int size() {
+        return series.size();
+    }
+
+    // --- Persistence ---
+
+    public synchronized void save(@NonNull File file) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(series.size());
+            for (Map.Entry<String, OccupancySeries> e : series.entrySet()) {
+                out.writeUTF(e.getKey());
+                e.getValue().write(out);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Save failed: " + e.getMessage(), e);
+            return;
+        }
+        if (!tmp.renameTo(file)) Log.e(TAG, "Rename failed: " + file);
+    }
+
+    /** Merges persisted history; values sampled before the load finished are re-applied on top. */
+    public void load(@NonNull File file) {
+        if (!file.exists()) return;
+        Map<String, OccupancySeries> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) return;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String id = in.readUTF();
+                loaded.put(id, OccupancySeries.read(in));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Load failed: " + e.getMessage(), e);
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<String, OccupancySeries> e : loaded.entrySet()) {
+                // History wins; samples taken before the load finished only
+                // carry their latest value over
+                OccupancySeries loadedSeries = e.getValue();
+                OccupancySeries fresh = series.put(e.getKey(), loadedSeries);
+                if (fresh != null && fresh.last >= 0) {
+                    long ms = fresh.curMinute * 60_000L;
+                    loadedSeries.sample(ms, fresh.last, zone.getOffset(ms));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.bicyclestorage.perf;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Fixed-size in-memory ring of frame samples (primitive arrays, no per-frame allocation).
+ * Each sample stores the frame duration and a bitmask of the phases active during the frame.
+ * Oldest samples are overwritten once the ring is full.
+ */
+public final class FrameRing {
+
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final int[] phaseMask;
+    private final boolean[] jank;
+    private final int capacity;
+
+    private int next = 0;   // write index
+    private long written = 0;
+
+    public FrameRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.startNanos = new long[capacity];
+        this.durationNanos = new long[capacity];
+        this.phaseMask = new int[capacity];
+        this.jank = new boolean[capacity];
+    }
+
+    public synchronized void add(long frameStartNanos, long frameDurationNanos, int mask, boolean isJank) {
+        startNanos[next] = frameStartNanos;
+        durationNanos[next] = frameDurationNanos;
+        phaseMask[next] = mask;
+        jank[next] = isJank;
+        next = (next + 1) % capacity;
+        written++;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        written = 0;
+    }
+
+    /**
+     * Frame-time percentiles for frames where all bits of {@code mask} were active.
+     * {@code mask == 0} selects frames with no phase at all.
+     */
+    public synchronized Summary summarize(int mask) {
+        int n = size();
+        long[] tmp = new long[n];
+        int count = 0;
+        int jankCount = 0;
+        for (int i = 0; i < n; i++) {
+            int m = phaseMask[i];
+            boolean match = mask == 0 ? m == 0 : (m & mask) == mask;
+            if (!match) continue;
+            tmp[count++] = durationNanos[i];
+            if (jank[i]) jankCount++;
+        }
+        Arrays.sort(tmp, 0, count);
+        return new Summary(count, jankCount,
+                percentile(tmp, count, 0.50),
+                percentile(tmp, count, 0.95),
+                percentile(tmp, count, 0.99));
+    }
+
+    private static long percentile(long[] sorted, int count, double q) {
+        if (count == 0) return 0;
+        int idx = (int) Math.ceil(q * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, idx))];
+    }
+
+    /** Writes all samples, oldest first, as CSV (start_ns,duration_ns,phase_mask,jank). */
+    public synchronized void writeCsv(@NonNull Writer out) throws IOException {
+        out.write("start_ns,duration_ns,phase_mask,jank\n");
+        int n = size();
+        int first = written > capacity ? next : 0;
+        for (int k = 0; k < n; k++) {
+            int i = (first + k) % capacity;
+            out.write(startNanos[i] + "," + durationNanos[i] + "," + phaseMask[i] + "," + (jank[i] ? 1 : 0) + "\n");
+        }
+    }
+
+    /** Percentile summary (nanoseconds). */
+    public static final class Summary {
+        public final int frames;
+        public final int jankFrames;
+        public final long p50Nanos;
+        public final long p95Nanos;
+        public final long p99Nanos;
+
+        Summary(int frames, int jankFrames, long p50Nanos, long p95Nanos, long p99Nanos) {
+            this.frames = frames;
+            this.jankFrames = jankFrames;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "frames=%d jank=%d p50=%.1fms p95=%.1fms p99=%.1fms",
+                    frames, jankFrames, p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6);
+        }
+    }
+}
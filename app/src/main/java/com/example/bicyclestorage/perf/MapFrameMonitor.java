@@ -0,0 +1,138 @@
+package com.example.bicyclestorage.perf;
+
+import android.app.Activity;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.metrics.performance.FrameData;
+import androidx.metrics.performance.JankStats;
+import androidx.metrics.performance.PerformanceMetricsState;
+import androidx.metrics.performance.StateInfo;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Frame-time / jank instrumentation for the map screen (JankStats based).
+ *
+ * Phases are annotated through {@link PerformanceMetricsState}, so a frame is
+ * attributed to every phase that was active while it was produced. Samples go
+ * into a {@link FrameRing}; summaries and CSV export are on demand.
+ */
+public class MapFrameMonitor {
+
+    private static final String TAG = "MapFrameMonitor";
+    private static final String STATE_PREFIX = "map:";
+    private static final int RING_CAPACITY = 4096;
+
+    /** Annotated phases of the map screen (bit = 1 << ordinal). */
+    public enum Phase {
+        ADDING_MARKERS("adding markers"),
+        CAMERA_MOVE("camera move"),
+        INFO_WINDOW("info window");
+
+        public final String label;
+        final int bit;
+        final String stateKey;
+
+        Phase(String label) {
+            this.label = label;
+            this.bit = 1 << ordinal();
+            this.stateKey = STATE_PREFIX + name();
+        }
+    }
+
+    // values() clones the array on every call; this is read once per frame
+    private static final Phase[] PHASES = Phase.values();
+
+    private final FrameRing ring;
+    private final JankStats jankStats;
+    private final PerformanceMetricsState.Holder stateHolder;
+
+    private MapFrameMonitor(@NonNull Activity activity, int ringCapacity) {
+        ring = new FrameRing(ringCapacity);
+        stateHolder = PerformanceMetricsState.getHolderForHierarchy(activity.getWindow().getDecorView());
+        jankStats = JankStats.createAndTrack(activity.getWindow(), this::onFrame);
+    }
+
+    public static MapFrameMonitor attach(@NonNull Activity activity) {
+        return attach(activity, RING_CAPACITY);
+    }
+
+    public static MapFrameMonitor attach(@NonNull Activity activity, int ringCapacity) {
+        return new MapFrameMonitor(activity, ringCapacity);
+    }
+
+    private void onFrame(@NonNull FrameData frame) {
+        int mask = 0;
+        List<StateInfo> states = frame.getStates();
+        for (int i = 0, n = states.size(); i < n; i++) {
+            String key = states.get(i).getKey();
+            if (!key.startsWith(STATE_PREFIX)) continue;
+            for (Phase p : PHASES) {
+                if (key.equals(p.stateKey)) mask |= p.bit;
+            }
+        }
+        ring.add(frame.getFrameStartNanos(), frame.getFrameDurationUiNanos(), mask, frame.isJank());
+    }
+
+    // --- Phase annotation (main thread) ---
+
+    public void begin(@NonNull Phase phase) {
+        PerformanceMetricsState state = stateHolder.getState();
+        if (state != null) state.putState(phase.stateKey, phase.label);
+    }
+
+    public void end(@NonNull Phase phase) {
+        PerformanceMetricsState state = stateHolder.getState();
+        // removeState keeps the state attached to the frame in progress
+        if (state != null) state.removeState(phase.stateKey);
+    }
+
+    public void setTrackingEnabled(boolean enabled) {
+        jankStats.setTrackingEnabled(enabled);
+    }
+
+    // --- Reporting ---
+
+    public FrameRing.Summary summary(@Nullable Phase phase) {
+        return ring.summarize(phase == null ? 0 : phase.bit);
+    }
+
+    /** Human-readable p50/p95/p99 per phase ("idle" = no phase active). */
+    public String summaryText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("idle: ").append(summary(null)).append('\n');
+        for (Phase p : PHASES) {
+            sb.append(p.label).append(": ").append(summary(p)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exports the ring as CSV into {@code dir}; returns the file or null on error.
+     * Blocking file IO: call off the main thread.
+     */
+    @WorkerThread
+    @Nullable
+    public File export(@NonNull File dir) {
+        if (!dir.exists() && !dir.mkdirs()) return null;
+        File out = new File(dir, "frames-" + System.currentTimeMillis() + ".csv");
+        try (Writer w = new FileWriter(out)) {
+            // Copy under the ring's lock, write to disk outside it: the frame listener keeps adding
+            StringWriter csv = new StringWriter();
+            ring.writeCsv(csv);
+            w.write(csv.toString());
+            return out;
+        } catch (IOException e) {
+            Log.e(TAG, "Export failed: " + e.getMessage(), e);
+            return null;
+        }
+    }
+}
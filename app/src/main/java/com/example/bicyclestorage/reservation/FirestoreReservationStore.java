@@ -0,0 +1,139 @@
+package com.example.bicyclestorage.reservation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.metrics.OpMetrics;
+import com.example.bicyclestorage.storage.backend.FirestoreStorageBackend;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.TransactionOptions;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds in {@code reservations/{storageId}}: a {@code holds} map (user id →
+ * expiry, epoch ms) and {@code expireAt}, the latest expiry as a Timestamp.
+ * A Firestore TTL policy on {@code reservations.expireAt} deletes documents
+ * whose holds have all run out; live documents are pruned by the clients.
+ *
+ * Reserving reads capacity and occupancy from {@code storages/{storageId}} in
+ * the same transaction; releasing and cleanup read only the holds, so they
+ * don't conflict with the frequent occupancy writes. Each {@link #runOnce} is a single Firestore attempt
+ * (max attempts 1) so retries follow {@link Reservations}' backoff.
+ */
+public class FirestoreReservationStore implements ReservationStore {
+
+    public static final String COLLECTION = "reservations";
+    static final String FIELD_HOLDS = "holds";
+    static final String FIELD_EXPIRE_AT = "expireAt";
+
+    private static final long TIMEOUT_S = 15;
+    private static final TransactionOptions SINGLE_ATTEMPT =
+            new TransactionOptions.Builder().setMaxAttempts(1).build();
+
+    private final FirebaseFirestore db;
+    private final OpMetrics metrics = OpMetrics.get();
+
+    public FirestoreReservationStore(@NonNull FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    @Override
+    public <T> T runOnce(@NonNull TxnBody<T> body) throws Exception {
+        Task<T> task = metrics.time(OpMetrics.OP_RESERVE, () -> db.runTransaction(SINGLE_ATTEMPT, tx -> {
+            try {
+                return body.run(new FirestoreTxn(tx));
+            } catch (FirebaseFirestoreException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new FirebaseFirestoreException(String.valueOf(e.getMessage()),
+                        FirebaseFirestoreException.Code.UNKNOWN, e);
+            }
+        }));
+        try {
+            return Tasks.await(task, TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FirebaseFirestoreException) {
+                FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) cause).getCode();
+                if (code == FirebaseFirestoreException.Code.ABORTED
+                        || code == FirebaseFirestoreException.Code.FAILED_PRECONDITION) {
+                    throw new ContentionException(cause);
+                }
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private final class FirestoreTxn implements Txn {
+        private final Transaction tx;
+
+        FirestoreTxn(Transaction tx) {
+            this.tx = tx;
+        }
+
+        @Nullable
+        @Override
+        public Slot read(@NonNull String storageId) throws Exception {
+            DocumentSnapshot storage = tx.get(storageRef(storageId));
+            DocumentSnapshot holdsDoc = tx.get(holdsRef(storageId));
+            Long capacity = storage.getLong("capacity");
+            if (!storage.exists() || capacity == null) return null;
+            Long inUse = storage.getLong("inUse");
+            return new Slot(capacity.intValue(), inUse != null ? inUse.intValue() : 0, parseHolds(holdsDoc));
+        }
+
+        @NonNull
+        @Override
+        public Map<String, Long> readHolds(@NonNull String storageId) throws Exception {
+            return parseHolds(tx.get(holdsRef(storageId)));
+        }
+
+        @Override
+        public void writeHolds(@NonNull String storageId, @NonNull Map<String, Long> holds) {
+            DocumentReference ref = holdsRef(storageId);
+            if (holds.isEmpty()) {
+                tx.delete(ref);
+                return;
+            }
+            long latest = Collections.max(holds.values());
+            Map<String, Object> data = new HashMap<>();
+            data.put(FIELD_HOLDS, new HashMap<>(holds));
+            data.put(FIELD_EXPIRE_AT, new Timestamp(new Date(latest)));
+            tx.set(ref, data);
+        }
+    }
+
+    private DocumentReference storageRef(String storageId) {
+        return db.collection(FirestoreStorageBackend.COLLECTION).document(storageId);
+    }
+
+    private DocumentReference holdsRef(String storageId) {
+        return db.collection(COLLECTION).document(storageId);
+    }
+
+    @NonNull
+    static Map<String, Long> parseHolds(@NonNull DocumentSnapshot doc) {
+        Map<String, Long> holds = new HashMap<>();
+        Object raw = doc.get(FIELD_HOLDS);
+        if (!(raw instanceof Map)) return holds;
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) raw).entrySet()) {
+            if (e.getKey() instanceof String && e.getValue() instanceof Number) {
+                holds.put((String) e.getKey(), ((Number) e.getValue()).longValue());
+            }
+        }
+        return holds;
+    }
+}
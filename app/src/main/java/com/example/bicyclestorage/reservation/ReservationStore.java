@@ -0,0 +1,62 @@
+package com.example.bicyclestorage.reservation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.Map;
+
+/**
+ * Optimistic transactions over the hold list of each storage
+ * ({@link FirestoreReservationStore} in production).
+ *
+ * One {@link #runOnce} is one attempt: if a document read in it changed before
+ * the commit, it fails with {@link ContentionException} and nothing is written.
+ * Retrying is up to the caller ({@link Reservations}).
+ */
+public interface ReservationStore {
+
+    /** Capacity, occupancy and active holds (user id → expiry, epoch ms) of one storage. */
+    final class Slot {
+        public final int capacity;
+        public final int inUse;
+        public final Map<String, Long> holds;
+
+        public Slot(int capacity, int inUse, @NonNull Map<String, Long> holds) {
+            this.capacity = capacity;
+            this.inUse = inUse;
+            this.holds = holds;
+        }
+    }
+
+    /** Reads and writes of one attempt; all reads must come before the first write. */
+    interface Txn {
+        /** Null if the storage does not exist. */
+        @Nullable
+        Slot read(@NonNull String storageId) throws Exception;
+
+        /** Holds only, without the storage document (empty if there are none). */
+        @NonNull
+        Map<String, Long> readHolds(@NonNull String storageId) throws Exception;
+
+        /** Replaces the hold list (empty = no holds left). */
+        void writeHolds(@NonNull String storageId, @NonNull Map<String, Long> holds);
+    }
+
+    interface TxnBody<T> {
+        T run(@NonNull Txn txn) throws Exception;
+    }
+
+    /** Another writer got there first; the attempt can be retried. */
+    final class ContentionException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public ContentionException(@Nullable Throwable cause) {
+            super("Transaction contention", cause);
+        }
+    }
+
+    /** Runs one attempt of {@code body}, blocking until it commits or fails. */
+    @WorkerThread
+    <T> T runOnce(@NonNull TxnBody<T> body) throws Exception;
+}
@@ -0,0 +1,198 @@
+package com.example.bicyclestorage.reservation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * "Hold a space for {@link #HOLD_MS}" on top of a {@link ReservationStore}.
+ *
+ * A hold counts against the storage's free spaces until it expires. Each
+ * transaction also drops expired holds of the documents it touches, so the
+ * lists stay short without a server job; {@link #cleanupExpired} does the same
+ * for several storages in one transaction.
+ *
+ * Contention (many riders racing for the last space) is retried here, with
+ * exponential backoff and full jitter, so the losers spread out instead of
+ * colliding again in lockstep.
+ *
+ * Blocking: call from a background thread.
+ */
+public final class Reservations {
+
+    public static final long HOLD_MS = 10 * 60_000L;
+    /** Other users' holds are dropped only this long after expiry (client clocks differ). */
+    static final long SKEW_GRACE_MS = 30_000;
+
+    static final int MAX_ATTEMPTS = 8;
+    static final long BASE_BACKOFF_MS = 25;
+    static final long MAX_BACKOFF_MS = 2_000;
+
+    public interface Clock {
+        long nowMs();
+    }
+
+    interface Sleeper {
+        void sleep(long ms) throws InterruptedException;
+    }
+
+    public enum Status { HELD, NO_SPACE, FAILED }
+
+    public static final class Result {
+        public final Status status;
+        public final String storageId;
+        /** Local expiry of the hold (epoch ms), 0 unless {@link Status#HELD}. */
+        public final long expiresAtMs;
+        public final int attempts;
+
+        Result(Status status, String storageId, long expiresAtMs, int attempts) {
+            this.status = status;
+            this.storageId = storageId;
+            this.expiresAtMs = expiresAtMs;
+            this.attempts = attempts;
+        }
+    }
+
+    private final ReservationStore store;
+    private final String uid;
+    private final Clock clock;
+    private final Sleeper sleeper;
+    private final Random random;
+
+    public Reservations(@NonNull ReservationStore store, @NonNull String uid) {
+        this(store, uid, System::currentTimeMillis, Thread::sleep, new Random());
+    }
+
+    Reservations(ReservationStore store, String uid, Clock clock, Sleeper sleeper, Random random) {
+        this.store = store;
+        this.uid = uid;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.random = random;
+    }
+
+    /**
+     * Holds (or renews) a space at {@code storageId}; a hold at {@code previousStorageId}
+     * is released in the same transaction.
+     */
+    @WorkerThread
+    @NonNull
+    public Result reserve(@NonNull String storageId, @Nullable String previousStorageId) {
+        String previous = storageId.equals(previousStorageId) ? null : previousStorageId;
+        final long[] expiry = new long[1];
+        return retrying(storageId, txn -> {
+            long now = clock.nowMs();
+            ReservationStore.Slot slot = txn.read(storageId);
+            ReservationStore.Slot prev = previous != null ? txn.read(previous) : null;
+            if (slot == null) return Status.FAILED;
+
+            Map<String, Long> holds = new HashMap<>(slot.holds);
+            boolean purged = purgeExpired(holds, now);
+            Long mine = holds.remove(uid);
+            boolean renewing = mine != null && mine > now;
+            if (!renewing && slot.inUse + holds.size() >= slot.capacity) {
+                if (mine != null) purged = true; // own stale hold goes too
+                if (purged) txn.writeHolds(storageId, holds);
+                return Status.NO_SPACE;
+            }
+            expiry[0] = now + HOLD_MS;
+            holds.put(uid, expiry[0]);
+            txn.writeHolds(storageId, holds);
+
+            if (prev != null && prev.holds.containsKey(uid)) {
+                Map<String, Long> prevHolds = new HashMap<>(prev.holds);
+                prevHolds.remove(uid);
+                purgeExpired(prevHolds, now);
+                txn.writeHolds(previous, prevHolds);
+            }
+            return Status.HELD;
+        }, expiry);
+    }
+
+    /** Gives the space back; true if a hold was removed. */
+    @WorkerThread
+    public boolean release(@NonNull String storageId) {
+        return retrying(storageId, txn -> {
+            Map<String, Long> holds = new HashMap<>(txn.readHolds(storageId));
+            if (holds.remove(uid) == null) return Status.NO_SPACE;
+            purgeExpired(holds, clock.nowMs());
+            txn.writeHolds(storageId, holds);
+            return Status.HELD;
+        }, null).status == Status.HELD;
+    }
+
+    /**
+     * Drops expired holds of several storages in one transaction; returns how many went.
+     * Reads only the hold documents, never the hot storage documents.
+     */
+    @WorkerThread
+    public int cleanupExpired(@NonNull List<String> storageIds) {
+        if (storageIds.isEmpty()) return 0;
+        final int[] removed = new int[1];
+        retrying(storageIds.get(0), txn -> {
+            long now = clock.nowMs();
+            removed[0] = 0;
+            Map<String, Map<String, Long>> writes = new HashMap<>();
+            for (String id : storageIds) {
+                Map<String, Long> holds = new HashMap<>(txn.readHolds(id));
+                int before = holds.size();
+                if (purgeExpired(holds, now)) {
+                    removed[0] += before - holds.size();
+                    writes.put(id, holds);
+                }
+            }
+            for (Map.Entry<String, Map<String, Long>> w : writes.entrySet()) {
+                txn.writeHolds(w.getKey(), w.getValue());
+            }
+            return Status.HELD;
+        }, null);
+        return removed[0];
+    }
+
+    private boolean purgeExpired(Map<String, Long> holds, long now) {
+        boolean changed = false;
+        for (Iterator<Map.Entry<String, Long>> it = holds.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> h = it.next();
+            long grace = uid.equals(h.getKey()) ? 0 : SKEW_GRACE_MS;
+            if (h.getValue() + grace <= now) {
+                it.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // --- Retry loop ---
+
+    private Result retrying(String storageId, ReservationStore.TxnBody<Status> body, @Nullable long[] expiry) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Status s = store.runOnce(body);
+                long exp = s == Status.HELD && expiry != null ? expiry[0] : 0;
+                return new Result(s, storageId, exp, attempt);
+            } catch (ReservationStore.ContentionException e) {
+                if (attempt >= MAX_ATTEMPTS) return new Result(Status.FAILED, storageId, 0, attempt);
+                try {
+                    sleeper.sleep(backoffMs(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return new Result(Status.FAILED, storageId, 0, attempt);
+                }
+            } catch (Exception e) {
+                return new Result(Status.FAILED, storageId, 0, attempt);
+            }
+        }
+    }
+
+    /** Full jitter: uniform in [0, min(max, base · 2^(attempt-1))]. */
+    long backoffMs(int attempt) {
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt - 1, 20));
+        return (long) (random.nextDouble() * (cap + 1));
+    }
+}
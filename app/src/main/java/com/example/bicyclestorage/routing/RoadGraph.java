@@ -0,0 +1,261 @@
+package com.example.bicyclestorage.routing;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.util.GeoMath;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Preprocessed bike network in CSR form (primitive arrays only).
+ *
+ * Node i has coordinates (latE6[i], lngE6[i]) in microdegrees; its outgoing
+ * edges are edgeStart[i] .. edgeStart[i + 1] - 1 with targets in edgeTarget
+ * and travel times in edgeCostDs (deciseconds). A grid index over the nodes
+ * answers nearest-node queries.
+ *
+ * Binary format (big-endian): "BRG1", version, nodeCount, edgeCount,
+ * maxSpeedMps (float), latE6[n], lngE6[n], edgeStart[n + 1], edgeTarget[m],
+ * edgeCostDs[m].
+ */
+public final class RoadGraph {
+
+    private static final int MAGIC = 0x42524731; // "BRG1"
+    private static final int VERSION = 1;
+
+    // Nearest-node grid: ~220 m cells
+    private static final int CELL_E6 = 2_000;
+    private static final int MAX_RING = 10;
+
+    final int nodeCount;
+    final int[] latE6;
+    final int[] lngE6;
+    final int[] edgeStart;
+    final int[] edgeTarget;
+    final int[] edgeCostDs;
+    /** Fastest speed on any edge; keeps the A* heuristic admissible. */
+    final float maxSpeedMps;
+
+    // Grid index: sorted distinct cell keys → node ids
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    RoadGraph(int[] latE6, int[] lngE6, int[] edgeStart, int[] edgeTarget, int[] edgeCostDs, float maxSpeedMps) {
+        this.nodeCount = latE6.length;
+        this.latE6 = latE6;
+        this.lngE6 = lngE6;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeCostDs = edgeCostDs;
+        this.maxSpeedMps = maxSpeedMps;
+
+        // Sort nodes by cell, then compress runs into (key, start)
+        long[] keyed = new long[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            keyed[i] = (cellKey(cellOf(latE6[i]), cellOf(lngE6[i])) << 20) | i;
+        }
+        Arrays.sort(keyed);
+        cellNodes = new int[nodeCount];
+        long[] keys = new long[nodeCount];
+        int[] starts = new int[nodeCount + 1];
+        int cells = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            long key = keyed[i] >>> 20;
+            cellNodes[i] = (int) (keyed[i] & 0xFFFFF);
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = nodeCount;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public double lat(int node) {
+        return latE6[node] / 1e6;
+    }
+
+    public double lng(int node) {
+        return lngE6[node] / 1e6;
+    }
+
+    /** Nearest node within ~{@code MAX_RING} cells, or -1. */
+    public int nearestNode(double lat, double lng) {
+        int qLat = (int) Math.round(lat * 1e6);
+        int qLng = (int) Math.round(lng * 1e6);
+        int cLat = cellOf(qLat);
+        int cLng = cellOf(qLng);
+        double cos = Math.cos(Math.toRadians(lat));
+        int best = -1;
+        double bestSq = Double.MAX_VALUE;
+        for (int r = 0; r <= MAX_RING; r++) {
+            for (int dy = -r; dy <= r; dy++) {
+                for (int dx = -r; dx <= r; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != r) continue; // ring only
+                    int c = Arrays.binarySearch(cellKeys, cellKey(cLat + dy, cLng + dx));
+                    if (c < 0) continue;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                        int n = cellNodes[k];
+                        double dy2 = latE6[n] - qLat;
+                        double dx2 = (lngE6[n] - qLng) * cos;
+                        double sq = dy2 * dy2 + dx2 * dx2;
+                        if (sq < bestSq) {
+                            bestSq = sq;
+                            best = n;
+                        }
+                    }
+                }
+            }
+            // Anything in a further ring is at least r cells away
+            if (best >= 0 && Math.sqrt(bestSq) <= (double) r * CELL_E6 * Math.min(1, cos)) break;
+        }
+        return best;
+    }
+
+    private static int cellOf(int e6) {
+        return Math.floorDiv(e6, CELL_E6);
+    }
+
+    private static long cellKey(int cLat, int cLng) {
+        // 22 bits each (offset to non-negative) – covers the whole globe at this cell size
+        return ((long) (cLat + (1 << 21)) << 22) | (cLng + (1 << 21));
+    }
+
+    // --- Binary IO ---
+
+    @NonNull
+    public static RoadGraph read(@NonNull InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[64 * 1024];
+        int r;
+        while ((r = in.read(buf)) > 0) bytes.write(buf, 0, r);
+        ByteBuffer bb = ByteBuffer.wrap(bytes.toByteArray());
+        try {
+            if (bb.getInt() != MAGIC) throw new IOException("Not a road graph");
+            int version = bb.getInt();
+            if (version != VERSION) throw new IOException("Unsupported graph version " + version);
+            int n = bb.getInt();
+            int m = bb.getInt();
+            if (n < 0 || n > (1 << 20) || m < 0) throw new IOException("Bad graph size " + n + "/" + m);
+            float maxSpeed = bb.getFloat();
+            int[] lat = new int[n];
+            int[] lng = new int[n];
+            int[] start = new int[n + 1];
+            int[] target = new int[m];
+            int[] cost = new int[m];
+            bb.asIntBuffer().get(lat);
+            bb.position(bb.position() + 4 * n);
+            bb.asIntBuffer().get(lng);
+            bb.position(bb.position() + 4 * n);
+            bb.asIntBuffer().get(start);
+            bb.position(bb.position() + 4 * (n + 1));
+            bb.asIntBuffer().get(target);
+            bb.position(bb.position() + 4 * m);
+            bb.asIntBuffer().get(cost);
+            if (start[n] != m) throw new IOException("Corrupt edge index");
+            return new RoadGraph(lat, lng, start, target, cost, maxSpeed);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Truncated road graph", e);
+        }
+    }
+
+    public void write(@NonNull OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(nodeCount);
+        out.writeInt(edgeTarget.length);
+        out.writeFloat(maxSpeedMps);
+        for (int v : latE6) out.writeInt(v);
+        for (int v : lngE6) out.writeInt(v);
+        for (int v : edgeStart) out.writeInt(v);
+        for (int v : edgeTarget) out.writeInt(v);
+        for (int v : edgeCostDs) out.writeInt(v);
+        out.flush();
+    }
+
+    // --- Builder (preprocessing / fixtures) ---
+
+    /** Collects nodes and directed edges, then packs them into CSR. */
+    public static final class Builder {
+        private int[] lat = new int[64];
+        private int[] lng = new int[64];
+        private int nodes = 0;
+        private long[] edges = new long[64]; // (from << 32) | index into costs/targets
+        private int[] targets = new int[64];
+        private int[] costs = new int[64];
+        private int edgeCount = 0;
+        private float maxSpeed = 0;
+
+        public int addNode(double latDeg, double lngDeg) {
+            if (nodes == lat.length) {
+                lat = Arrays.copyOf(lat, nodes * 2);
+                lng = Arrays.copyOf(lng, nodes * 2);
+            }
+            lat[nodes] = (int) Math.round(latDeg * 1e6);
+            lng[nodes] = (int) Math.round(lngDeg * 1e6);
+            return nodes++;
+        }
+
+        /** Directed edge travelled at {@code speedMps}; cost from the straight-line length. */
+        public void addEdge(int from, int to, double speedMps) {
+            double meters = GeoMath.distanceMeters(
+                    lat[from] / 1e6, lng[from] / 1e6, lat[to] / 1e6, lng[to] / 1e6);
+            addEdge(from, to, (int) Math.max(1, Math.round(meters / speedMps * 10)), (float) speedMps);
+        }
+
+        public void addEdge(int from, int to, int costDs, float speedMps) {
+            if (edgeCount == targets.length) {
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+                costs = Arrays.copyOf(costs, edgeCount * 2);
+            }
+            edges[edgeCount] = ((long) from << 32) | edgeCount;
+            targets[edgeCount] = to;
+            costs[edgeCount] = costDs;
+            edgeCount++;
+            maxSpeed = Math.max(maxSpeed, speedMps);
+        }
+
+        public void addBidirectional(int a, int b, double speedMps) {
+            addEdge(a, b, speedMps);
+            addEdge(b, a, speedMps);
+        }
+
+        @NonNull
+        public RoadGraph build() {
+            long[] order = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(order); // by source node, stable by insertion index
+            int[] start = new int[nodes + 1];
+            int[] target = new int[edgeCount];
+            int[] cost = new int[edgeCount];
+            for (int k = 0; k < edgeCount; k++) {
+                int from = (int) (order[k] >>> 32);
+                int idx = (int) order[k];
+                start[from + 1]++;
+                target[k] = targets[idx];
+                cost[k] = costs[idx];
+            }
+            for (int i = 0; i < nodes; i++) start[i + 1] += start[i];
+            return new RoadGraph(Arrays.copyOf(lat, nodes), Arrays.copyOf(lng, nodes),
+                    start, target, cost, maxSpeed);
+        }
+    }
+}
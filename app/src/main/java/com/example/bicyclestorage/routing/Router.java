@@ -0,0 +1,173 @@
+package com.example.bicyclestorage.routing;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Shortest travel times on a {@link RoadGraph}.
+ *
+ * One-to-one queries use A* with a straight-line / max-speed heuristic;
+ * one-to-many queries use a single Dijkstra that stops once every target is
+ * settled. Both search from the origin only (no bidirectional search or
+ * contraction hierarchies): a city graph and ~50 targets per query keep the
+ * settled set small. Search state lives in reusable primitive arrays stamped with a
+ * query generation, so a query never clears O(n) memory or allocates.
+ *
+ * Not thread-safe: use one Router per thread.
+ */
+public final class Router {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final double METERS_PER_E6 = 0.11132;
+
+    private final RoadGraph g;
+    private final int[] dist;
+    private final int[] seen;    // generation in which dist[] was written
+    private final int[] settled; // generation in which the node was settled
+    private final int[] target;  // generation in which the node is a pending target
+    private int generation = 0;
+    private int settledCount = 0; // nodes settled by the last query
+
+    // Binary heap of (priority << 32 | node); stale entries are skipped on pop
+    private long[] heap = new long[256];
+    private int heapSize;
+
+    public Router(@NonNull RoadGraph graph) {
+        this.g = graph;
+        int n = graph.nodeCount;
+        dist = new int[n];
+        seen = new int[n];
+        settled = new int[n];
+        target = new int[n];
+    }
+
+    @NonNull
+    public RoadGraph graph() {
+        return g;
+    }
+
+    /** Nodes the last query settled: the work it did, independent of the machine. */
+    public int lastSettledCount() {
+        return settledCount;
+    }
+
+    /** Travel time in deciseconds from {@code from} to {@code to}, or {@link #UNREACHABLE}. */
+    public int route(int from, int to) {
+        int gen = nextGeneration();
+        if (from == to) return 0;
+        double cosLat = Math.cos(Math.toRadians(g.lat(to)));
+        // Deciseconds per microdegree at the fastest speed; 0.99 absorbs the flat-earth error
+        double hScale = g.maxSpeedMps > 0 ? 0.99 * METERS_PER_E6 * 10 / g.maxSpeedMps : 0;
+        int tLat = g.latE6[to];
+        int tLng = g.lngE6[to];
+
+        heapSize = 0;
+        relax(from, 0, 0, gen);
+        while (heapSize > 0) {
+            int u = (int) pop();
+            if (settled[u] == gen) continue;
+            settled[u] = gen;
+            settledCount++;
+            int du = dist[u];
+            if (u == to) return du;
+            for (int e = g.edgeStart[u], end = g.edgeStart[u + 1]; e < end; e++) {
+                int v = g.edgeTarget[e];
+                if (settled[v] == gen) continue;
+                int dv = du + g.edgeCostDs[e];
+                if (seen[v] == gen && dist[v] <= dv) continue;
+                double dy = g.latE6[v] - tLat;
+                double dx = (g.lngE6[v] - tLng) * cosLat;
+                relax(v, dv, (int) (Math.sqrt(dy * dy + dx * dx) * hScale), gen);
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Travel times from {@code from} to every node of {@code targets} (deciseconds,
+     * {@link #UNREACHABLE} if disconnected), written to {@code out}.
+     */
+    public void oneToMany(int from, @NonNull int[] targets, @NonNull int[] out) {
+        int gen = nextGeneration();
+        Arrays.fill(out, 0, targets.length, UNREACHABLE);
+        int pending = 0;
+        for (int t : targets) {
+            if (t >= 0 && target[t] != gen) {
+                target[t] = gen;
+                pending++;
+            }
+        }
+
+        heapSize = 0;
+        relax(from, 0, 0, gen);
+        while (heapSize > 0 && pending > 0) {
+            int u = (int) pop();
+            if (settled[u] == gen) continue;
+            settled[u] = gen;
+            settledCount++;
+            int du = dist[u];
+            if (target[u] == gen) pending--;
+            for (int e = g.edgeStart[u], end = g.edgeStart[u + 1]; e < end; e++) {
+                int v = g.edgeTarget[e];
+                if (settled[v] == gen) continue;
+                int dv = du + g.edgeCostDs[e];
+                if (seen[v] == gen && dist[v] <= dv) continue;
+                relax(v, dv, 0, gen);
+            }
+        }
+        for (int i = 0; i < targets.length; i++) {
+            int t = targets[i];
+            if (t >= 0 && settled[t] == gen) out[i] = dist[t];
+        }
+    }
+
+    private int nextGeneration() {
+        settledCount = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            // Wrapped after ~2 billion queries: start over from clean stamps
+            Arrays.fill(seen, 0);
+            Arrays.fill(settled, 0);
+            Arrays.fill(target, 0);
+            generation = 1;
+        }
+        return generation;
+    }
+
+    private void relax(int node, int d, int h, int gen) {
+        dist[node] = d;
+        seen[node] = gen;
+        push(((long) (d + h) << 32) | node);
+    }
+
+    // --- Heap ---
+
+    private void push(long v) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heap[p] <= v) break;
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = v;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+            if (last <= heap[c]) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = last;
+        return top & 0xFFFFFFFFL;
+    }
+}
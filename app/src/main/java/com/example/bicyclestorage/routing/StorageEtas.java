@@ -0,0 +1,122 @@
+package com.example.bicyclestorage.routing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.StorageListAdapter;
+import com.example.bicyclestorage.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Riding times to the storages nearest the rider, for ETA-based ranking.
+ *
+ * The {@link #MAX_TARGETS} storages closest in a straight line are snapped to
+ * the graph (cached per storage position) and costed with one one-to-many
+ * search. The legs between a point and its snapped node are added at
+ * {@link #ACCESS_SPEED_MPS}.
+ *
+ * Confined to one thread (the list adapter's worker).
+ */
+public final class StorageEtas implements StorageListAdapter.EtaSource {
+
+    public static final int MAX_TARGETS = 50;
+    /** Pushing / slow riding between a point and the network. */
+    static final double ACCESS_SPEED_MPS = 2.0;
+    /** An origin farther than this from any node is outside the graph's coverage. */
+    static final double MAX_SNAP_M = 500;
+
+    private final Router router;
+    private final RoadGraph graph;
+
+    // Storage id → snapped node, valid while the storage does not move
+    private final Map<String, Snap> snaps = new HashMap<>();
+
+    private static final class Snap {
+        final double lat, lng;
+        final int node;
+        final int accessDs;
+
+        Snap(double lat, double lng, int node, int accessDs) {
+            this.lat = lat;
+            this.lng = lng;
+            this.node = node;
+            this.accessDs = accessDs;
+        }
+    }
+
+    public StorageEtas(@NonNull RoadGraph graph) {
+        this.graph = graph;
+        this.router = new Router(graph);
+    }
+
+    /**
+     * Seconds from (lat, lng) to each of the nearest storages; storages that are
+     * farther, off the graph or unreachable are absent. Null if the origin itself
+     * is outside the graph.
+     */
+    @Nullable
+    @Override
+    public Map<String, Integer> etaSeconds(double lat, double lng, @NonNull List<Storage> storages) {
+        Snap origin = snap(lat, lng);
+        if (origin == null) return null;
+
+        List<Storage> nearest = nearest(lat, lng, storages);
+        int[] targets = new int[nearest.size()];
+        Snap[] targetSnaps = new Snap[nearest.size()];
+        for (int i = 0; i < targets.length; i++) {
+            Storage s = nearest.get(i);
+            Snap sn = snaps.get(s.id);
+            if (sn == null || sn.lat != s.lat || sn.lng != s.lng) {
+                sn = snap(s.lat, s.lng);
+                if (sn == null) snaps.remove(s.id);
+                else snaps.put(s.id, sn);
+            }
+            targetSnaps[i] = sn;
+            targets[i] = sn == null ? -1 : sn.node;
+        }
+
+        int[] cost = new int[targets.length];
+        router.oneToMany(origin.node, targets, cost);
+
+        Map<String, Integer> out = new HashMap<>();
+        for (int i = 0; i < targets.length; i++) {
+            if (cost[i] == Router.UNREACHABLE) continue;
+            int ds = origin.accessDs + cost[i] + targetSnaps[i].accessDs;
+            out.put(nearest.get(i).id, Math.round(ds / 10f));
+        }
+        return out;
+    }
+
+    /** Graph nodes the last query settled. */
+    int lastSettledCount() {
+        return router.lastSettledCount();
+    }
+
+    @Nullable
+    private Snap snap(double lat, double lng) {
+        int node = graph.nearestNode(lat, lng);
+        if (node < 0) return null;
+        double m = GeoMath.distanceMeters(lat, lng, graph.lat(node), graph.lng(node));
+        if (m > MAX_SNAP_M) return null;
+        return new Snap(lat, lng, node, (int) Math.round(m / ACCESS_SPEED_MPS * 10));
+    }
+
+    private static List<Storage> nearest(double lat, double lng, List<Storage> storages) {
+        if (storages.size() <= MAX_TARGETS) return storages;
+        List<double[]> keyed = new ArrayList<>(storages.size()); // {distance, index}
+        for (int i = 0; i < storages.size(); i++) {
+            Storage s = storages.get(i);
+            keyed.add(new double[]{GeoMath.distanceMeters(lat, lng, s.lat, s.lng), i});
+        }
+        Collections.sort(keyed, (a, b) -> Double.compare(a[0], b[0]));
+        List<Storage> out = new ArrayList<>(MAX_TARGETS);
+        for (int i = 0; i < MAX_TARGETS; i++) out.add(storages.get((int) keyed.get(i)[1]));
+        return out;
+    }
+}
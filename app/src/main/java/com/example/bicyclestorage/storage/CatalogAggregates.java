@@ -0,0 +1,174 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bounds and totals of a {@link StorageCatalog}, kept up to date on every
+ * insert / update / remove instead of rescanning the catalog.
+ *
+ * Reads are O(1). Bounds use counted min/max multisets (TreeMap value →
+ * count), so a removal of the extreme storage is O(log n) too; an occupancy
+ * change touches only the totals and allocates nothing.
+ */
+public final class CatalogAggregates {
+
+    /** Assigns a storage to a district (for per-district rollups). */
+    public interface DistrictResolver {
+        @NonNull String districtOf(@NonNull Storage storage);
+    }
+
+    /** Count, capacity and occupancy of a group of storages. */
+    public static final class Totals {
+        int count;
+        int capacity;
+        int inUse;
+
+        public int count() {
+            return count;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        public int inUse() {
+            return inUse;
+        }
+
+        public int free() {
+            return capacity - inUse;
+        }
+
+        void add(Storage s, int sign) {
+            count += sign;
+            capacity += sign * s.capacity;
+            inUse += sign * s.inUse;
+        }
+    }
+
+    /** Square grid cells of {@code cellDeg} degrees, named "latIndex:lngIndex". */
+    @NonNull
+    public static DistrictResolver gridDistricts(double cellDeg) {
+        return s -> (long) Math.floor(s.lat / cellDeg) + ":" + (long) Math.floor(s.lng / cellDeg);
+    }
+
+    private final DistrictResolver resolver;
+
+    private final TreeMap<Double, Integer> lats = new TreeMap<>();
+    private final TreeMap<Double, Integer> lngs = new TreeMap<>();
+    private double minLat = Double.NaN, maxLat = Double.NaN, minLng = Double.NaN, maxLng = Double.NaN;
+
+    private final Totals total = new Totals();
+    private final Map<String, Totals> districts = new HashMap<>();
+    private final Map<String, Totals> districtById = new HashMap<>();
+
+    public CatalogAggregates(@NonNull DistrictResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /** {@code old} → {@code updated} for one id; either may be null (insert / remove). */
+    void replace(@Nullable Storage old, @Nullable Storage updated) {
+        if (old == null && updated == null) return;
+        boolean moved = old == null || updated == null || old.lat != updated.lat || old.lng != updated.lng;
+
+        if (old != null) {
+            total.add(old, -1);
+            Totals d = moved ? districtById.remove(old.id) : districtById.get(old.id);
+            if (d != null) {
+                d.add(old, -1);
+                if (moved && d.count == 0) districts.remove(resolver.districtOf(old));
+            }
+            if (moved) {
+                decrement(lats, old.lat);
+                decrement(lngs, old.lng);
+            }
+        }
+        if (updated != null) {
+            total.add(updated, 1);
+            Totals d;
+            if (moved) {
+                String name = resolver.districtOf(updated);
+                d = districts.get(name);
+                if (d == null) {
+                    d = new Totals();
+                    districts.put(name, d);
+                }
+                districtById.put(updated.id, d);
+                increment(lats, updated.lat);
+                increment(lngs, updated.lng);
+            } else {
+                d = districtById.get(updated.id);
+            }
+            d.add(updated, 1);
+        }
+        if (moved) refreshBounds();
+    }
+
+    private void refreshBounds() {
+        if (lats.isEmpty()) {
+            minLat = maxLat = minLng = maxLng = Double.NaN;
+            return;
+        }
+        minLat = lats.firstKey();
+        maxLat = lats.lastKey();
+        minLng = lngs.firstKey();
+        maxLng = lngs.lastKey();
+    }
+
+    private static void increment(TreeMap<Double, Integer> set, double v) {
+        Integer n = set.get(v);
+        set.put(v, n == null ? 1 : n + 1);
+    }
+
+    private static void decrement(TreeMap<Double, Integer> set, double v) {
+        Integer n = set.get(v);
+        if (n == null) return;
+        if (n == 1) set.remove(v);
+        else set.put(v, n - 1);
+    }
+
+    // --- O(1) reads ---
+
+    public boolean isEmpty() {
+        return total.count == 0;
+    }
+
+    /** Bounds are NaN when the catalog is empty. */
+    public double minLat() {
+        return minLat;
+    }
+
+    public double maxLat() {
+        return maxLat;
+    }
+
+    public double minLng() {
+        return minLng;
+    }
+
+    public double maxLng() {
+        return maxLng;
+    }
+
+    @NonNull
+    public Totals total() {
+        return total;
+    }
+
+    /** Totals of one district, or null if it has no storages. */
+    @Nullable
+    public Totals district(@NonNull String name) {
+        return districts.get(name);
+    }
+
+    @NonNull
+    public Map<String, Totals> districts() {
+        return Collections.unmodifiableMap(districts);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * The k storages nearest a point, by selection instead of sorting the whole
+ * catalog: one pass with a bounded max-heap, compared on flat-earth squared
+ * distance (same order as haversine at city scale, no trigonometry per
+ * storage). Pure; run it on a {@link StorageCatalog#snapshot()} off the main
+ * thread.
+ */
+public final class NearestStorages {
+
+    private NearestStorages() {}
+
+    /** Up to {@code k} storages matching {@code filter} (null: all), nearest first. */
+    @NonNull
+    public static List<Storage> nearest(@NonNull List<Storage> storages, double lat, double lng, int k,
+                                        @Nullable Predicate<Storage> filter) {
+        if (k <= 0) return Collections.emptyList();
+        double cos = Math.cos(Math.toRadians(lat));
+        // Farthest of the current k on top
+        PriorityQueue<double[]> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[0], a[0]));
+        for (int i = 0; i < storages.size(); i++) {
+            Storage s = storages.get(i);
+            if (filter != null && !filter.test(s)) continue;
+            double dy = s.lat - lat;
+            double dx = (s.lng - lng) * cos;
+            double d = dy * dy + dx * dx;
+            if (heap.size() == k) {
+                if (d >= heap.peek()[0]) continue;
+                heap.poll();
+            }
+            heap.add(new double[]{d, i});
+        }
+        List<Storage> out = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) out.add(storages.get((int) heap.poll()[1]));
+        Collections.reverse(out);
+        return out;
+    }
+}
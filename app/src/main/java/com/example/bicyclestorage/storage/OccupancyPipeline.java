@@ -0,0 +1,163 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.metrics.LatencyHistogram;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bridges backend updates (any thread) to the {@link StorageCatalog} (main thread).
+ *
+ * Updates are coalesced per storage id while a drain is pending (latest value wins),
+ * and applied in one catalog batch per drain. Update-to-apply latency, superseded
+ * ("dropped") updates and unknown ids are counted for load testing. A deletion
+ * discards whatever was still pending for that storage.
+ */
+public class OccupancyPipeline implements StorageBackend.Listener {
+
+    private static final class Pending {
+        int inUse;
+        long emittedAtNanos;
+    }
+
+    private final StorageCatalog catalog;
+    private final Executor mainExecutor;
+
+    private final Object lock = new Object();
+    private Map<String, Pending> pending = new HashMap<>();
+    private List<Storage> pendingStorages = new ArrayList<>();
+    private Set<String> pendingRemovals = new HashSet<>();
+    private boolean drainPosted = false;
+
+    private final LatencyHistogram applyLatency = new LatencyHistogram();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+
+    private final Runnable drainRunnable = this::drain;
+
+    public OccupancyPipeline(@NonNull StorageCatalog catalog, @NonNull Executor mainExecutor) {
+        this.catalog = catalog;
+        this.mainExecutor = mainExecutor;
+    }
+
+    // --- StorageBackend.Listener (any thread) ---
+
+    @Override
+    public void onStorages(@NonNull List<Storage> storages) {
+        synchronized (lock) {
+            for (Storage s : storages) pendingRemovals.remove(s.id); // re-created
+            pendingStorages.addAll(storages);
+            postDrainLocked();
+        }
+    }
+
+    @Override
+    public void onRemoved(@NonNull List<String> storageIds) {
+        synchronized (lock) {
+            for (String id : storageIds) {
+                pending.remove(id);
+                pendingRemovals.add(id);
+            }
+            pendingStorages.removeIf(s -> pendingRemovals.contains(s.id));
+            postDrainLocked();
+        }
+    }
+
+    @Override
+    public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {
+        received.incrementAndGet();
+        synchronized (lock) {
+            Pending p = pending.get(storageId);
+            if (p == null) {
+                p = new Pending();
+                pending.put(storageId, p);
+            } else {
+                coalesced.incrementAndGet(); // superseded before it reached the screen
+            }
+            p.inUse = inUse;
+            p.emittedAtNanos = emittedAtNanos;
+            postDrainLocked();
+        }
+    }
+
+    private void postDrainLocked() {
+        if (drainPosted) return;
+        drainPosted = true;
+        mainExecutor.execute(drainRunnable);
+    }
+
+    // --- Main thread ---
+
+    private void drain() {
+        Map<String, Pending> updates;
+        List<Storage> storages;
+        Set<String> removals;
+        synchronized (lock) {
+            updates = pending;
+            storages = pendingStorages;
+            removals = pendingRemovals;
+            pending = new HashMap<>();
+            pendingStorages = new ArrayList<>();
+            pendingRemovals = new HashSet<>();
+            drainPosted = false;
+        }
+
+        catalog.beginBatch();
+        try {
+            for (String id : removals) catalog.remove(id);
+            for (Storage s : storages) catalog.put(s);
+            for (Map.Entry<String, Pending> e : updates.entrySet()) {
+                Pending p = e.getValue();
+                if (catalog.updateOccupancy(e.getKey(), p.inUse) == null) {
+                    unknown.incrementAndGet();
+                    p.emittedAtNanos = -1; // not shown – excluded from latency
+                    continue;
+                }
+                applied.incrementAndGet();
+            }
+        } finally {
+            catalog.endBatch();
+        }
+
+        // Latency measured after listeners (markers, list) have consumed the batch
+        long now = System.nanoTime();
+        for (Pending p : updates.values()) {
+            if (p.emittedAtNanos < 0) continue;
+            applyLatency.recordMicros((now - p.emittedAtNanos) / 1000);
+        }
+    }
+
+    // --- Stats ---
+
+    public LatencyHistogram applyLatency() {
+        return applyLatency;
+    }
+
+    public long receivedCount() {
+        return received.get();
+    }
+
+    public long appliedCount() {
+        return applied.get();
+    }
+
+    /** Updates superseded by a newer value for the same storage before being applied. */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public long unknownCount() {
+        return unknown.get();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * Immutable bicycle storage snapshot. Occupancy changes produce a new
+ * instance (see {@link #withInUse(int)}), so list diffing can compare
+ * old and new snapshots safely.
+ */
+public final class Storage {
+
+    public final String id;
+    public final String title;
+    public final double lat;
+    public final double lng;
+    public final int capacity;
+    public final int inUse;
+    /** Photo of the rack (thumbnail source), if there is one. */
+    @Nullable
+    public final String photoUrl;
+
+    // Derived once here: read on every marker update / info window / list bind
+    private final LatLng position;
+    private final String snippet;
+
+    public Storage(@NonNull String id, @NonNull String title,
+                   double lat, double lng, int capacity, int inUse) {
+        this(id, title, lat, lng, capacity, inUse, null);
+    }
+
+    public Storage(@NonNull String id, @NonNull String title,
+                   double lat, double lng, int capacity, int inUse, @Nullable String photoUrl) {
+        this.id = id;
+        this.title = title;
+        this.lat = lat;
+        this.lng = lng;
+        this.capacity = capacity;
+        this.inUse = inUse;
+        this.photoUrl = photoUrl;
+        this.position = new LatLng(lat, lng);
+        this.snippet = "In use: " + inUse + "/" + capacity;
+    }
+
+    public LatLng getPosition() {
+        return position;
+    }
+
+    public int free() {
+        return Math.max(0, capacity - inUse);
+    }
+
+    public String snippet() {
+        return snippet;
+    }
+
+    public Storage withInUse(int newInUse) {
+        if (newInUse == inUse) return this;
+        return new Storage(id, title, lat, lng, capacity, newInUse, photoUrl);
+    }
+
+    /** Same storage, same static attributes (title, place, capacity, photo). */
+    public boolean sameStatic(@NonNull Storage o) {
+        return id.equals(o.id)
+                && title.equals(o.title)
+                && lat == o.lat
+                && lng == o.lng
+                && capacity == o.capacity
+                && (photoUrl == null ? o.photoUrl == null : photoUrl.equals(o.photoUrl));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Storage)) return false;
+        Storage s = (Storage) o;
+        return sameStatic(s) && inUse == s.inUse;
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode() * 31 + inUse;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "Storage{" + id + ", " + title + ", " + inUse + "/" + capacity + "}";
+    }
+}
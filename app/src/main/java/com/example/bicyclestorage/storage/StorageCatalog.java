@@ -0,0 +1,165 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory storage catalog keyed by stable storage id.
+ * Mutations are expected on the main thread; listeners get every updated entry,
+ * then one {@link Listener#onBatchEnd()} per batch (or per single mutation).
+ */
+public class StorageCatalog {
+
+    public interface Listener {
+        void onStorageChanged(@NonNull Storage storage);
+
+        /** The storage has been removed from the catalog. */
+        default void onStorageRemoved(@NonNull Storage storage) {}
+
+        /** All changes of the current batch have been delivered. */
+        default void onBatchEnd() {}
+    }
+
+    private final Map<String, Storage> byId = new LinkedHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Cached immutable snapshot, rebuilt only after a mutation
+    private List<Storage> snapshot = Collections.emptyList();
+    private boolean snapshotDirty = false;
+
+    // Bounds + totals, maintained on every mutation (~2 km grid districts)
+    private final CatalogAggregates aggregates =
+            new CatalogAggregates(CatalogAggregates.gridDistricts(0.02));
+
+    // Order-independent hash of ids + positions, maintained incrementally
+    private long layoutFingerprint = 0;
+
+    // Batch nesting depth and whether the current batch changed anything
+    private int batchDepth = 0;
+    private boolean batchChanged = false;
+
+    /** Built-in catalog (until storages come from the backend). */
+    public static StorageCatalog createDefault() {
+        StorageCatalog c = new StorageCatalog();
+        c.put(new Storage("storage-1", "Bicycle storage 1", 47.543277, 21.640391, 6, 3));
+        c.put(new Storage("storage-2", "Bicycle storage 2", 47.532368, 21.629087, 4, 1));
+        c.put(new Storage("storage-3", "Bicycle storage 3", 47.553577, 21.621793, 10, 5));
+        return c;
+    }
+
+    public void put(@NonNull Storage storage) {
+        Storage old = byId.put(storage.id, storage);
+        if (storage.equals(old)) return;
+        if (old == null || old.lat != storage.lat || old.lng != storage.lng) {
+            if (old != null) layoutFingerprint -= layoutHash(old);
+            layoutFingerprint += layoutHash(storage);
+        }
+        aggregates.replace(old, storage);
+        snapshotDirty = true;
+        for (Listener l : listeners) l.onStorageChanged(storage);
+        endMutation();
+    }
+
+    /** Removes a storage; returns it, or null if the id is unknown. */
+    @Nullable
+    public Storage remove(@NonNull String id) {
+        Storage old = byId.remove(id);
+        if (old == null) return null;
+        layoutFingerprint -= layoutHash(old);
+        aggregates.replace(old, null);
+        snapshotDirty = true;
+        for (Listener l : listeners) l.onStorageRemoved(old);
+        endMutation();
+        return old;
+    }
+
+    private void endMutation() {
+        if (batchDepth > 0) {
+            batchChanged = true;
+        } else {
+            for (Listener l : listeners) l.onBatchEnd();
+        }
+    }
+
+    /** Groups mutations until the matching {@link #endBatch()}. */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void endBatch() {
+        if (batchDepth == 0) throw new IllegalStateException("endBatch without beginBatch");
+        if (--batchDepth == 0 && batchChanged) {
+            batchChanged = false;
+            for (Listener l : listeners) l.onBatchEnd();
+        }
+    }
+
+    /** Applies an occupancy change; returns the updated storage, or null if the id is unknown. */
+    @Nullable
+    public Storage updateOccupancy(@NonNull String id, int inUse) {
+        Storage cur = byId.get(id);
+        if (cur == null) return null;
+        Storage upd = cur.withInUse(inUse);
+        if (upd != cur) put(upd);
+        return upd;
+    }
+
+    @Nullable
+    public Storage get(@NonNull String id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /** Immutable snapshot in insertion order. */
+    @NonNull
+    public List<Storage> snapshot() {
+        if (snapshotDirty || snapshot.size() != byId.size()) {
+            snapshot = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+            snapshotDirty = false;
+        }
+        return snapshot;
+    }
+
+    /** Bounds and totals (O(1) reads), always in sync with the catalog. */
+    @NonNull
+    public CatalogAggregates aggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Changes only when a storage is added, moved or removed (not on occupancy changes);
+     * stable across launches, so it can key on-disk caches of the map.
+     */
+    public long layoutFingerprint() {
+        return layoutFingerprint;
+    }
+
+    private static long layoutHash(Storage s) {
+        long h = s.id.hashCode();
+        h = h * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(s.lat);
+        h = h * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(s.lng);
+        return h ^ (h >>> 31);
+    }
+
+    public void addListener(@NonNull Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(@NonNull Listener l) {
+        listeners.remove(l);
+    }
+}
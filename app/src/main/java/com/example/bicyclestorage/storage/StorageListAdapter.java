@@ -0,0 +1,355 @@
+package com.example.bicyclestorage.storage;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.bicyclestorage.R;
+import com.example.bicyclestorage.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sortable storage list next to the map.
+ *
+ * Snapshots are coalesced on the main thread (latest wins), then sorted and
+ * diffed on a single background thread. Occupancy-only and distance-only
+ * changes are bound through payloads, so rows are not fully re-bound while
+ * occupancy streams in.
+ */
+public class StorageListAdapter extends RecyclerView.Adapter<StorageListAdapter.Holder> {
+
+    public enum SortMode { DISTANCE, FREE_SPACES, NAME }
+
+    public interface OnStorageClickListener {
+        void onStorageClick(@NonNull Storage storage);
+    }
+
+    /** Riding times from an origin, used instead of straight-line distance when set. */
+    public interface EtaSource {
+        /** Seconds per storage id (missing = unknown), or null if the origin is not covered. Worker thread. */
+        @Nullable
+        Map<String, Integer> etaSeconds(double lat, double lng, @NonNull List<Storage> storages);
+    }
+
+    // Payload bits for partial rebinds
+    static final int PAYLOAD_OCCUPANCY = 1;
+    static final int PAYLOAD_DISTANCE = 2;
+
+    // Snapshots arriving faster than this are merged into one diff
+    private static final long COALESCE_MS = 120;
+    // Distances are shown/compared in 10 m steps so GPS jitter does not rebind rows
+    private static final int DISTANCE_STEP_M = 10;
+    private static final int DISTANCE_UNKNOWN = -1;
+    // ETAs likewise in 30 s steps
+    private static final int ETA_STEP_S = 30;
+    private static final int ETA_UNKNOWN = -1;
+
+    /** One list row: immutable storage snapshot + distance and riding time to the rider. */
+    static final class Row {
+        final Storage storage;
+        final int distanceM;
+        final int etaS;
+
+        Row(Storage storage, int distanceM) {
+            this(storage, distanceM, ETA_UNKNOWN);
+        }
+
+        Row(Storage storage, int distanceM, int etaS) {
+            this.storage = storage;
+            this.distanceM = distanceM;
+            this.etaS = etaS;
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Row> DIFF = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row a, @NonNull Row b) {
+            return a.storage.id.equals(b.storage.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row a, @NonNull Row b) {
+            return a.storage.equals(b.storage) && a.distanceM == b.distanceM && a.etaS == b.etaS;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Row a, @NonNull Row b) {
+            if (!a.storage.sameStatic(b.storage)) return null; // full rebind
+            int mask = 0;
+            if (a.storage.inUse != b.storage.inUse) mask |= PAYLOAD_OCCUPANCY;
+            if (a.distanceM != b.distanceM || a.etaS != b.etaS) mask |= PAYLOAD_DISTANCE;
+            return mask;
+        }
+    };
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AsyncListDiffer<Row> differ;
+    private final OnStorageClickListener clickListener;
+    @Nullable private OnStorageClickListener longClickListener;
+
+    // Stable ids: storage id → long, assigned on first sight (main thread only)
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private long nextStableId = 1;
+
+    // Latest inputs (main thread only)
+    private List<Storage> pendingStorages = Collections.emptyList();
+    private SortMode sortMode = SortMode.DISTANCE;
+    private boolean hasOrigin = false;
+    private double originLat, originLng;
+    @Nullable private EtaSource etaSource;
+    private boolean flushScheduled = false;
+    private int generation = 0;
+
+    private final Runnable flushRunnable = this::flush;
+
+    public StorageListAdapter(@NonNull OnStorageClickListener clickListener) {
+        this.clickListener = clickListener;
+        this.differ = new AsyncListDiffer<>(
+                new AdapterListUpdateCallback(this),
+                new AsyncDifferConfig.Builder<>(DIFF).setBackgroundThreadExecutor(worker).build());
+        setHasStableIds(true);
+    }
+
+    // --- Inputs (main thread) ---
+
+    public void submitStorages(@NonNull List<Storage> storages) {
+        pendingStorages = storages;
+        scheduleFlush();
+    }
+
+    public void setOrigin(double lat, double lng) {
+        hasOrigin = true;
+        originLat = lat;
+        originLng = lng;
+        scheduleFlush();
+    }
+
+    /** Ranks by riding time where available (null = straight-line distance only). */
+    public void setEtaSource(@Nullable EtaSource source) {
+        etaSource = source;
+        scheduleFlush();
+    }
+
+    public void setOnStorageLongClickListener(@Nullable OnStorageClickListener listener) {
+        longClickListener = listener;
+    }
+
+    public void setSortMode(@NonNull SortMode mode) {
+        if (mode == sortMode) return;
+        sortMode = mode;
+        scheduleFlush();
+    }
+
+    public SortMode getSortMode() {
+        return sortMode;
+    }
+
+    /** Stops the background worker; call from the owner's onDestroy. */
+    public void shutdown() {
+        mainHandler.removeCallbacks(flushRunnable);
+        worker.shutdownNow();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        mainHandler.postDelayed(flushRunnable, COALESCE_MS);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (worker.isShutdown()) return;
+
+        final List<Storage> storages = pendingStorages;
+        final SortMode mode = sortMode;
+        final boolean origin = hasOrigin;
+        final double oLat = originLat, oLng = originLng;
+        final EtaSource etas = etaSource;
+        final int gen = ++generation;
+
+        worker.execute(() -> {
+            Map<String, Integer> eta = etas != null && origin && mode == SortMode.DISTANCE
+                    ? etas.etaSeconds(oLat, oLng, storages) : null;
+            List<Row> rows = buildRows(storages, mode, origin, oLat, oLng, eta);
+            mainHandler.post(() -> {
+                // A newer flush supersedes this one
+                if (gen == generation) differ.submitList(rows);
+            });
+        });
+    }
+
+    static List<Row> buildRows(List<Storage> storages, SortMode mode,
+                               boolean hasOrigin, double oLat, double oLng) {
+        return buildRows(storages, mode, hasOrigin, oLat, oLng, null);
+    }
+
+    static List<Row> buildRows(List<Storage> storages, SortMode mode,
+                               boolean hasOrigin, double oLat, double oLng,
+                               @Nullable Map<String, Integer> etaSeconds) {
+        List<Row> rows = new ArrayList<>(storages.size());
+        for (Storage s : storages) {
+            int d = DISTANCE_UNKNOWN;
+            if (hasOrigin) {
+                double m = GeoMath.distanceMeters(oLat, oLng, s.lat, s.lng);
+                d = (int) (Math.round(m / DISTANCE_STEP_M) * DISTANCE_STEP_M);
+            }
+            int eta = ETA_UNKNOWN;
+            Integer sec = etaSeconds != null ? etaSeconds.get(s.id) : null;
+            if (sec != null) eta = Math.round(sec / (float) ETA_STEP_S) * ETA_STEP_S;
+            rows.add(new Row(s, d, eta));
+        }
+        Collections.sort(rows, comparatorFor(mode, hasOrigin));
+        return rows;
+    }
+
+    private static final Comparator<Row> BY_NAME = (a, b) -> {
+        int c = a.storage.title.compareToIgnoreCase(b.storage.title);
+        return c != 0 ? c : a.storage.id.compareTo(b.storage.id);
+    };
+
+    private static Comparator<Row> comparatorFor(SortMode mode, boolean hasOrigin) {
+        switch (mode) {
+            case DISTANCE:
+                if (!hasOrigin) return BY_NAME;
+                return (a, b) -> {
+                    // Rows with a riding time first (they are the nearest ones), by time
+                    boolean ea = a.etaS != ETA_UNKNOWN, eb = b.etaS != ETA_UNKNOWN;
+                    int c = ea != eb ? (ea ? -1 : 1)
+                            : ea ? Integer.compare(a.etaS, b.etaS)
+                            : Integer.compare(a.distanceM, b.distanceM);
+                    if (c == 0 && ea) c = Integer.compare(a.distanceM, b.distanceM);
+                    return c != 0 ? c : BY_NAME.compare(a, b);
+                };
+            case FREE_SPACES:
+                return (a, b) -> {
+                    int c = Integer.compare(b.storage.free(), a.storage.free());
+                    return c != 0 ? c : BY_NAME.compare(a, b);
+                };
+            case NAME:
+            default:
+                return BY_NAME;
+        }
+    }
+
+    // --- RecyclerView.Adapter ---
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = differ.getCurrentList().get(position).storage.id;
+        Long stable = stableIds.get(id);
+        if (stable == null) {
+            stable = nextStableId++;
+            stableIds.put(id, stable);
+        }
+        return stable;
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_storage, parent, false);
+        Holder h = new Holder(v);
+        // One pair of listeners per holder; the row is looked up at click time
+        v.setOnClickListener(view -> {
+            int pos = h.getBindingAdapterPosition();
+            if (pos == RecyclerView.NO_POSITION) return;
+            clickListener.onStorageClick(differ.getCurrentList().get(pos).storage);
+        });
+        v.setOnLongClickListener(view -> {
+            int pos = h.getBindingAdapterPosition();
+            if (pos == RecyclerView.NO_POSITION || longClickListener == null) return false;
+            longClickListener.onStorageClick(differ.getCurrentList().get(pos).storage);
+            return true;
+        });
+        return h;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder h, int position) {
+        Row row = differ.getCurrentList().get(position);
+        h.title.setText(row.storage.title);
+        h.bindOccupancy(row.storage);
+        h.bindDistance(row.distanceM, row.etaS);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder h, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(h, position);
+            return;
+        }
+        int mask = 0;
+        for (Object p : payloads) {
+            if (!(p instanceof Integer)) {
+                onBindViewHolder(h, position);
+                return;
+            }
+            mask |= (Integer) p;
+        }
+        Row row = differ.getCurrentList().get(position);
+        if ((mask & PAYLOAD_OCCUPANCY) != 0) h.bindOccupancy(row.storage);
+        if ((mask & PAYLOAD_DISTANCE) != 0) h.bindDistance(row.distanceM, row.etaS);
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        final TextView title;
+        final TextView occupancy;
+        final TextView distance;
+
+        Holder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.storageTitle);
+            occupancy = itemView.findViewById(R.id.storageOccupancy);
+            distance = itemView.findViewById(R.id.storageDistance);
+        }
+
+        void bindOccupancy(Storage s) {
+            occupancy.setText(itemView.getContext().getString(R.string.list_occupancy,
+                    s.inUse, s.capacity, s.free()));
+        }
+
+        void bindDistance(int meters, int etaS) {
+            Context ctx = itemView.getContext();
+            String text;
+            if (meters == DISTANCE_UNKNOWN) {
+                text = "";
+            } else if (meters < 1000) {
+                text = ctx.getString(R.string.list_distance_m, meters);
+            } else {
+                text = ctx.getString(R.string.list_distance_km, meters / 1000f);
+            }
+            if (etaS != ETA_UNKNOWN) {
+                text = ctx.getString(R.string.list_eta, Math.max(1, Math.round(etaS / 60f)), text);
+            }
+            distance.setText(text);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads storages + occupancy for the area the rider is heading to.
+ *
+ * Heading and speed are extrapolated from recent location fixes; the points
+ * {@link #HORIZONS_S} seconds ahead are mapped to grid tiles, and tiles that
+ * are not fresh yet are fetched through {@link StorageBackend#fetchArea}.
+ * Fetches are limited by a byte budget (token bucket) and a power gate, and
+ * in-flight fetches for tiles that are no longer ahead are cancelled.
+ *
+ * Confined to one thread: call {@link #onFix} and receive fetch callbacks on
+ * the same executor (the main thread in the app).
+ */
+public class TrajectoryPrefetcher {
+
+    /** Whether prefetching is allowed right now (battery level, power save). */
+    public interface PowerGate {
+        boolean allowPrefetch();
+    }
+
+    // Grid: 0.01° ≈ 1.1 km north–south; one tile = one backend area key
+    static final double TILE_DEG = StorageBackend.AREA_TILE_DEG;
+    static final int[] HORIZONS_S = {60, 180, 300};
+    static final double MAX_LOOKAHEAD_M = 3000;
+    static final double MIN_SPEED_MPS = 1.5;
+    static final float MAX_ACCURACY_M = 50;
+    static final long WINDOW_MS = 30_000;
+    static final long MIN_WINDOW_MS = 5_000;
+    static final long TILE_TTL_MS = 5 * 60_000L;
+    static final long MIN_ROUND_INTERVAL_MS = 10_000;
+    static final int MAX_IN_FLIGHT = 2;
+    /** Fetch times kept for the TTL check; the oldest are dropped beyond this. */
+    static final int MAX_FETCHED_TILES = 64;
+    /** Cancel when a tile is more than this many degrees off the heading. */
+    static final double CANCEL_ANGLE_DEG = 60;
+
+    // Byte cost estimate (request/response framing + per document)
+    static final int REQUEST_OVERHEAD_BYTES = 1024;
+    static final int BYTES_PER_STORAGE = 200;
+
+    private static final double METERS_PER_DEG = 111_320;
+    private static final int FIX_RING = 16;
+
+    private final StorageBackend backend;
+    private final Executor executor;
+    private final StorageBackend.Listener sink;
+    private final PowerGate power;
+
+    // Token bucket: bytesPerHour refill, burst of a quarter hour
+    private final double refillPerMs;
+    private final double bucketCapacity;
+    private double tokens;
+    private long tokensAtMs = -1;
+
+    // Recent fixes (primitive ring)
+    private final long[] fixTime = new long[FIX_RING];
+    private final double[] fixLat = new double[FIX_RING];
+    private final double[] fixLng = new double[FIX_RING];
+    private int fixHead = 0;
+    private int fixCount = 0;
+
+    // Insertion order = fetch order (entries are re-inserted on refetch)
+    private final Map<Long, Long> fetchedAt = new LinkedHashMap<Long, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_FETCHED_TILES;
+        }
+    };
+    private final Map<Long, StorageBackend.Subscription> inFlight = new HashMap<>();
+    private long lastRoundMs = Long.MIN_VALUE;
+    private long nowMs;
+
+    // Stats
+    private long requested, completed, partial, cancelled, budgetSkipped, bytesSpent;
+
+    public TrajectoryPrefetcher(@NonNull StorageBackend backend, @NonNull Executor executor,
+                                @NonNull StorageBackend.Listener sink, @NonNull PowerGate power,
+                                long bytesPerHour) {
+        this.backend = backend;
+        this.executor = executor;
+        this.sink = sink;
+        this.power = power;
+        this.refillPerMs = bytesPerHour / 3_600_000.0;
+        this.bucketCapacity = bytesPerHour / 4.0;
+        this.tokens = bucketCapacity;
+    }
+
+    /** Feeds one location fix (wall-clock time). */
+    public void onFix(long timeMs, double lat, double lng, float accuracyM) {
+        if (accuracyM > MAX_ACCURACY_M) return;
+        nowMs = timeMs;
+        refill(timeMs);
+
+        fixHead = (fixHead + 1) % FIX_RING;
+        fixTime[fixHead] = timeMs;
+        fixLat[fixHead] = lat;
+        fixLng[fixHead] = lng;
+        if (fixCount < FIX_RING) fixCount++;
+
+        // Velocity from the oldest fix inside the window
+        int oldest = -1;
+        for (int k = 1; k < fixCount; k++) {
+            int i = Math.floorMod(fixHead - k, FIX_RING);
+            if (timeMs - fixTime[i] > WINDOW_MS) break;
+            oldest = i;
+        }
+        if (oldest < 0) return;
+        long dt = timeMs - fixTime[oldest];
+        if (dt < MIN_WINDOW_MS) return;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double vNorth = (lat - fixLat[oldest]) * METERS_PER_DEG / (dt / 1000.0);
+        double vEast = (lng - fixLng[oldest]) * METERS_PER_DEG * cosLat / (dt / 1000.0);
+        double speed = Math.hypot(vNorth, vEast);
+        if (speed < MIN_SPEED_MPS) return;
+
+        cancelDiverged(lat, lng, cosLat, vNorth / speed, vEast / speed);
+
+        if (lastRoundMs != Long.MIN_VALUE && timeMs - lastRoundMs < MIN_ROUND_INTERVAL_MS) return;
+        if (!power.allowPrefetch()) return;
+        lastRoundMs = timeMs;
+
+        for (int h : HORIZONS_S) {
+            double dist = Math.min(speed * h, MAX_LOOKAHEAD_M);
+            double pLat = lat + vNorth / speed * dist / METERS_PER_DEG;
+            double pLng = lng + vEast / speed * dist / (METERS_PER_DEG * cosLat);
+            long tile = tileOf(pLat, pLng);
+            Long at = fetchedAt.get(tile);
+            if (at != null && timeMs - at < TILE_TTL_MS) continue;
+            if (inFlight.containsKey(tile)) continue;
+            if (inFlight.size() >= MAX_IN_FLIGHT) break;
+            if (tokens < REQUEST_OVERHEAD_BYTES) {
+                budgetSkipped++;
+                break;
+            }
+            start(tile);
+        }
+    }
+
+    private void start(long tile) {
+        tokens -= REQUEST_OVERHEAD_BYTES;
+        bytesSpent += REQUEST_OVERHEAD_BYTES;
+        requested++;
+        double minLat = tileLat(tile) * TILE_DEG;
+        double minLng = tileLng(tile) * TILE_DEG;
+        // Registered before the call: a backend may answer synchronously
+        StorageBackend.Subscription[] handle = new StorageBackend.Subscription[1];
+        inFlight.put(tile, () -> {
+            if (handle[0] != null) handle[0].remove();
+        });
+        handle[0] = backend.fetchArea(minLat, minLng,
+                minLat + TILE_DEG, minLng + TILE_DEG, executor, new StorageBackend.AreaCallback() {
+                    @Override
+                    public void onArea(@NonNull List<Storage> storages) {
+                        if (!land(storages)) return;
+                        fetchedAt.remove(tile);
+                        fetchedAt.put(tile, nowMs);
+                    }
+
+                    // Truncated: deliver what came, but the tile is fetched again next round
+                    @Override
+                    public void onAreaPartial(@NonNull List<Storage> storages) {
+                        if (land(storages)) partial++;
+                    }
+
+                    private boolean land(List<Storage> storages) {
+                        if (inFlight.remove(tile) == null) return false; // cancelled meanwhile
+                        completed++;
+                        long cost = (long) storages.size() * BYTES_PER_STORAGE;
+                        tokens -= cost; // may go into debt; blocks further fetches until refilled
+                        bytesSpent += cost;
+                        if (!storages.isEmpty()) sink.onStorages(new ArrayList<>(storages));
+                        return true;
+                    }
+
+                    @Override
+                    public void onAreaFailed(@NonNull Exception e) {
+                        inFlight.remove(tile);
+                    }
+                });
+    }
+
+    // In-flight tiles behind or off to the side are wrong guesses
+    private void cancelDiverged(double lat, double lng, double cosLat, double hNorth, double hEast) {
+        double cosLimit = Math.cos(Math.toRadians(CANCEL_ANGLE_DEG));
+        Iterator<Map.Entry<Long, StorageBackend.Subscription>> it = inFlight.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, StorageBackend.Subscription> e = it.next();
+            long tile = e.getKey();
+            if (tile == tileOf(lat, lng)) continue; // already there – let it land
+            double cNorth = ((tileLat(tile) + 0.5) * TILE_DEG - lat) * METERS_PER_DEG;
+            double cEast = ((tileLng(tile) + 0.5) * TILE_DEG - lng) * METERS_PER_DEG * cosLat;
+            double d = Math.hypot(cNorth, cEast);
+            if (d == 0) continue;
+            if ((cNorth * hNorth + cEast * hEast) / d < cosLimit) {
+                e.getValue().remove();
+                it.remove();
+                cancelled++;
+            }
+        }
+    }
+
+    private void refill(long timeMs) {
+        if (tokensAtMs >= 0 && timeMs > tokensAtMs) {
+            tokens = Math.min(bucketCapacity, tokens + (timeMs - tokensAtMs) * refillPerMs);
+        }
+        tokensAtMs = Math.max(tokensAtMs, timeMs);
+    }
+
+    /** Cancels everything in flight (e.g. on destroy). */
+    public void cancelAll() {
+        for (StorageBackend.Subscription s : inFlight.values()) s.remove();
+        cancelled += inFlight.size();
+        inFlight.clear();
+    }
+
+    // --- Tiles: packed (latIndex, lngIndex) ---
+
+    static long tileOf(double lat, double lng) {
+        long la = (long) Math.floor(lat / TILE_DEG);
+        long ln = (long) Math.floor(lng / TILE_DEG);
+        return (la << 32) | (ln & 0xFFFFFFFFL);
+    }
+
+    static long tileLat(long tile) {
+        return tile >> 32;
+    }
+
+    static long tileLng(long tile) {
+        return (int) tile;
+    }
+
+    // --- Stats ---
+
+    public long requestedCount() {
+        return requested;
+    }
+
+    public long completedCount() {
+        return completed;
+    }
+
+    /** Completed fetches that hit the backend's result limit (tile not marked fresh). */
+    public long partialCount() {
+        return partial;
+    }
+
+    public long cancelledCount() {
+        return cancelled;
+    }
+
+    /** Rounds stopped because the byte budget was exhausted. */
+    public long budgetSkippedCount() {
+        return budgetSkipped;
+    }
+
+    /** Estimated bytes spent (request overhead + documents). */
+    public long bytesSpent() {
+        return bytesSpent;
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    int fetchedTileCount() {
+        return fetchedAt.size();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process storage backend for offline runs and load tests.
+ *
+ * Either synthesizes {@code count} storages around a center point and emits
+ * random occupancy updates at {@code updatesPerSecond}, or replays a fixed
+ * update list at that rate. Fully offline, deterministic for a given seed.
+ */
+public class FakeStorageBackend implements StorageBackend {
+
+    /** One replayable occupancy update. */
+    public static final class Update {
+        public final String storageId;
+        public final int inUse;
+
+        public Update(@NonNull String storageId, int inUse) {
+            this.storageId = storageId;
+            this.inUse = inUse;
+        }
+    }
+
+    private final List<Storage> storages;
+    private final List<Update> replay;   // null → synthesize
+    private final int updatesPerSecond;
+    private final long seed;
+    private final AtomicLong emitted = new AtomicLong();
+
+    private FakeStorageBackend(List<Storage> storages, List<Update> replay, int updatesPerSecond, long seed) {
+        if (updatesPerSecond <= 0) throw new IllegalArgumentException("updatesPerSecond must be > 0");
+        this.storages = storages;
+        this.replay = replay;
+        this.updatesPerSecond = updatesPerSecond;
+        this.seed = seed;
+    }
+
+    /** {@code count} synthetic storages within ~{@code radiusDeg} of the center. */
+    public static FakeStorageBackend synthetic(int count, double centerLat, double centerLng,
+                                               double radiusDeg, int updatesPerSecond, long seed) {
+        Random rnd = new Random(seed);
+        List<Storage> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double lat = centerLat + (rnd.nextDouble() * 2 - 1) * radiusDeg;
+            double lng = centerLng + (rnd.nextDouble() * 2 - 1) * radiusDeg;
+            int capacity = 4 + rnd.nextInt(17);
+            list.add(new Storage("fake-" + i, "Storage " + i, lat, lng, capacity, rnd.nextInt(capacity + 1)));
+        }
+        return new FakeStorageBackend(Collections.unmodifiableList(list), null, updatesPerSecond, seed);
+    }
+
+    /** Replays {@code updates} (in order) over {@code storages}. */
+    public static FakeStorageBackend replay(@NonNull List<Storage> storages, @NonNull List<Update> updates,
+                                            int updatesPerSecond) {
+        return new FakeStorageBackend(Collections.unmodifiableList(new ArrayList<>(storages)),
+                Collections.unmodifiableList(new ArrayList<>(updates)), updatesPerSecond, 0);
+    }
+
+    @NonNull
+    public List<Storage> storages() {
+        return storages;
+    }
+
+    /** Number of updates emitted so far (all subscriptions). */
+    public long emittedCount() {
+        return emitted.get();
+    }
+
+    @NonNull
+    @Override
+    public Subscription subscribe(@NonNull Executor executor, @NonNull Listener listener) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "FakeStorageBackend");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(() -> listener.onStorages(storages));
+
+        // Emit in ~10 ms ticks so high rates do not need one timer task per update
+        final long tickMs = 10;
+        final double perTick = updatesPerSecond * tickMs / 1000.0;
+        final Random rnd = new Random(seed ^ 0x5DEECE66DL);
+        final double[] carry = {0};
+        final int[] replayPos = {0};
+
+        timer.scheduleAtFixedRate(() -> {
+            carry[0] += perTick;
+            int n = (int) carry[0];
+            carry[0] -= n;
+            for (int i = 0; i < n; i++) {
+                final Update u;
+                if (replay != null) {
+                    if (replayPos[0] >= replay.size()) {
+                        timer.shutdown();
+                        return;
+                    }
+                    u = replay.get(replayPos[0]++);
+                } else {
+                    Storage s = storages.get(rnd.nextInt(storages.size()));
+                    u = new Update(s.id, rnd.nextInt(s.capacity + 1));
+                }
+                final long at = System.nanoTime();
+                emitted.incrementAndGet();
+                executor.execute(() -> listener.onOccupancy(u.storageId, u.inUse, at));
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+
+        return timer::shutdownNow;
+    }
+
+    @NonNull
+    @Override
+    public Subscription watchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                 @NonNull Listener listener) {
+        Set<String> wanted = new HashSet<>(ids);
+        return subscribe(executor, new Listener() {
+            @Override
+            public void onStorages(@NonNull List<Storage> all) {
+                List<Storage> found = new ArrayList<>();
+                for (Storage s : all) if (wanted.contains(s.id)) found.add(s);
+                if (!found.isEmpty()) listener.onStorages(found);
+            }
+
+            @Override
+            public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {
+                if (wanted.contains(storageId)) listener.onOccupancy(storageId, inUse, emittedAtNanos);
+            }
+
+            @Override
+            public void onRemoved(@NonNull List<String> storageIds) {
+                List<String> found = new ArrayList<>();
+                for (String id : storageIds) if (wanted.contains(id)) found.add(id);
+                if (!found.isEmpty()) listener.onRemoved(found);
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public Subscription fetchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                 @NonNull AreaCallback callback) {
+        Set<String> wanted = new HashSet<>(ids);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        executor.execute(() -> {
+            if (cancelled.get()) return;
+            List<Storage> found = new ArrayList<>();
+            for (Storage s : storages) if (wanted.contains(s.id)) found.add(s);
+            callback.onArea(found);
+        });
+        return () -> cancelled.set(true);
+    }
+
+    @NonNull
+    @Override
+    public Subscription fetchArea(double minLat, double minLng, double maxLat, double maxLng,
+                                  @NonNull Executor executor, @NonNull AreaCallback callback) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        executor.execute(() -> {
+            if (cancelled.get()) return;
+            List<Storage> inside = new ArrayList<>();
+            for (Storage s : storages) {
+                if (s.lat >= minLat && s.lat <= maxLat && s.lng >= minLng && s.lng <= maxLng) inside.add(s);
+            }
+            callback.onArea(inside);
+        });
+        return () -> cancelled.set(true);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Firestore-backed storages: {@code storages/{id}} with
+ * title, lat, lng, capacity, inUse, tile (area key, see {@link #tileKey}) and
+ * optional photoUrl fields.
+ */
+public class FirestoreStorageBackend implements StorageBackend {
+
+    public static final String COLLECTION = "storages";
+
+    // Upper bound on documents per area fetch (prefetch must stay cheap)
+    private static final int AREA_LIMIT = 200;
+    static final String FIELD_TILE = "tile";
+
+    private final FirebaseFirestore db;
+
+    public FirestoreStorageBackend(@NonNull FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    @NonNull
+    @Override
+    public Subscription subscribe(@NonNull Executor executor, @NonNull Listener listener) {
+        return listen(db.collection(COLLECTION), executor, listener);
+    }
+
+    @NonNull
+    @Override
+    public Subscription watchIds(@NonNull List<String> ids, @NonNull Executor executor, @NonNull Listener listener) {
+        checkIds(ids);
+        return listen(db.collection(COLLECTION).whereIn(FieldPath.documentId(), ids), executor, listener);
+    }
+
+    @NonNull
+    @Override
+    public Subscription fetchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                 @NonNull AreaCallback callback) {
+        checkIds(ids);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        db.collection(COLLECTION)
+                .whereIn(FieldPath.documentId(), ids)
+                .get(Source.SERVER)
+                .addOnSuccessListener(executor, snap -> {
+                    if (cancelled.get()) return;
+                    List<Storage> found = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : snap) {
+                        Storage s = fromDoc(doc);
+                        if (s != null) found.add(s);
+                    }
+                    callback.onArea(found);
+                })
+                .addOnFailureListener(executor, e -> {
+                    if (!cancelled.get()) callback.onAreaFailed(e);
+                });
+        return () -> cancelled.set(true);
+    }
+
+    private static void checkIds(List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS_PER_QUERY) {
+            throw new IllegalArgumentException("Expected 1.." + MAX_IDS_PER_QUERY + " ids, got " + ids.size());
+        }
+    }
+
+    private static Subscription listen(Query query, Executor executor, Listener listener) {
+        SnapshotChanges changes = new SnapshotChanges();
+        ListenerRegistration reg = query
+                .addSnapshotListener(executor, (snap, e) -> {
+                    if (e != null || snap == null) return;
+                    long now = System.nanoTime();
+                    synchronized (changes) {
+                        for (DocumentChange ch : snap.getDocumentChanges()) {
+                            DocumentSnapshot doc = ch.getDocument();
+                            if (ch.getType() == DocumentChange.Type.REMOVED) {
+                                changes.removed(doc.getId());
+                                continue;
+                            }
+                            Storage s = fromDoc(doc);
+                            if (s == null) continue;
+                            if (ch.getType() == DocumentChange.Type.ADDED) changes.added(s);
+                            else changes.modified(s, now, listener);
+                        }
+                        changes.flush(listener);
+                    }
+                });
+        return reg::remove;
+    }
+
+    @NonNull
+    @Override
+    public Subscription fetchArea(double minLat, double minLng, double maxLat, double maxLng,
+                                  @NonNull Executor executor, @NonNull AreaCallback callback) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        // Equality on the tile key (written by the importer) instead of a lat range,
+        // which would span the whole width of the map; exact bounds are checked here
+        List<String> tiles = tileKeys(minLat, minLng, maxLat, maxLng);
+        if (tiles.size() > MAX_IDS_PER_QUERY) {
+            throw new IllegalArgumentException("Area spans " + tiles.size() + " tiles, max " + MAX_IDS_PER_QUERY);
+        }
+        db.collection(COLLECTION)
+                .whereIn(FIELD_TILE, new ArrayList<Object>(tiles))
+                .limit(AREA_LIMIT)
+                .get(Source.SERVER)
+                .addOnSuccessListener(executor, snap -> {
+                    if (cancelled.get()) return;
+                    List<Storage> inside = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : snap) {
+                        Storage s = fromDoc(doc);
+                        if (s != null && s.lat >= minLat && s.lat <= maxLat
+                                && s.lng >= minLng && s.lng <= maxLng) inside.add(s);
+                    }
+                    if (snap.size() >= AREA_LIMIT) callback.onAreaPartial(inside);
+                    else callback.onArea(inside);
+                })
+                .addOnFailureListener(executor, e -> {
+                    if (!cancelled.get()) callback.onAreaFailed(e);
+                });
+        return () -> cancelled.set(true);
+    }
+
+    /** Tile key of a position; the importer writes the same value into {@code tile}. */
+    @NonNull
+    static String tileKey(double lat, double lng) {
+        return (long) Math.floor(lat / AREA_TILE_DEG) + "_" + (long) Math.floor(lng / AREA_TILE_DEG);
+    }
+
+    // Tiles overlapping the area; the epsilon keeps a tile-aligned area at one tile
+    @NonNull
+    static List<String> tileKeys(double minLat, double minLng, double maxLat, double maxLng) {
+        long la0 = (long) Math.floor(minLat / AREA_TILE_DEG + 1e-6);
+        long la1 = (long) Math.ceil(maxLat / AREA_TILE_DEG - 1e-6) - 1;
+        long ln0 = (long) Math.floor(minLng / AREA_TILE_DEG + 1e-6);
+        long ln1 = (long) Math.ceil(maxLng / AREA_TILE_DEG - 1e-6) - 1;
+        List<String> keys = new ArrayList<>();
+        for (long la = la0; la <= Math.max(la0, la1); la++) {
+            for (long ln = ln0; ln <= Math.max(ln0, ln1); ln++) keys.add(la + "_" + ln);
+        }
+        return keys;
+    }
+
+    @Nullable
+    static Storage fromDoc(@NonNull DocumentSnapshot doc) {
+        String title = doc.getString("title");
+        Double lat = doc.getDouble("lat");
+        Double lng = doc.getDouble("lng");
+        Long capacity = doc.getLong("capacity");
+        Long inUse = doc.getLong("inUse");
+        if (title == null || lat == null || lng == null || capacity == null) return null;
+        return new Storage(doc.getId(), title, lat, lng, capacity.intValue(),
+                inUse != null ? inUse.intValue() : 0, doc.getString("photoUrl"));
+    }
+}
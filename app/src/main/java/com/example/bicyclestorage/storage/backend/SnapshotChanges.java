@@ -0,0 +1,52 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns one snapshot listener's document changes into {@link StorageBackend.Listener}
+ * calls. A document edit arrives only as "modified"; comparing it with the copy
+ * last delivered for that id separates static edits (title, place, capacity,
+ * photo → {@code onStorages}) from occupancy-only changes ({@code onOccupancy}).
+ *
+ * One instance per listener; not thread-safe.
+ */
+final class SnapshotChanges {
+
+    private final Map<String, Storage> delivered = new HashMap<>();
+    private final List<Storage> changed = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+
+    void added(@NonNull Storage s) {
+        delivered.put(s.id, s);
+        changed.add(s);
+    }
+
+    void modified(@NonNull Storage s, long emittedAtNanos, @NonNull StorageBackend.Listener listener) {
+        Storage prev = delivered.put(s.id, s);
+        if (prev != null && prev.sameStatic(s)) {
+            if (prev.inUse != s.inUse) listener.onOccupancy(s.id, s.inUse, emittedAtNanos);
+        } else {
+            changed.add(s);
+        }
+    }
+
+    void removed(@NonNull String id) {
+        delivered.remove(id);
+        removed.add(id);
+    }
+
+    /** Delivers the static changes and removals collected since the last flush. */
+    void flush(@NonNull StorageBackend.Listener listener) {
+        if (!changed.isEmpty()) listener.onStorages(new ArrayList<>(changed));
+        if (!removed.isEmpty()) listener.onRemoved(new ArrayList<>(removed));
+        changed.clear();
+        removed.clear();
+    }
+}
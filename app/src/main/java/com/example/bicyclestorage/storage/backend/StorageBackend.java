@@ -0,0 +1,77 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Source of storage catalog entries and occupancy updates
+ * (Firestore in production, {@link FakeStorageBackend} offline / under load).
+ */
+public interface StorageBackend {
+
+    /** Most ids one {@link #watchIds} / {@link #fetchIds} call may take (Firestore "in" filter). */
+    int MAX_IDS_PER_QUERY = 10;
+
+    /** Grid of the {@code tile} document field that area queries filter on. */
+    double AREA_TILE_DEG = 0.01;
+
+    interface Listener {
+        /** Storages added or changed statically (title, place, capacity, photo), with their occupancy. */
+        void onStorages(@NonNull List<Storage> storages);
+
+        /** Occupancy of one storage changed; {@code emittedAtNanos} is {@link System#nanoTime()}. */
+        void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos);
+
+        /** Storages deleted on the backend. */
+        default void onRemoved(@NonNull List<String> storageIds) {}
+    }
+
+    /** Result of {@link #fetchArea} / {@link #fetchIds}. */
+    interface AreaCallback {
+        /** Storages inside the area, with their current occupancy. */
+        void onArea(@NonNull List<Storage> storages);
+
+        /**
+         * The query hit the backend's result limit: {@code storages} are real but the
+         * area may hold more. Callers that cache "area loaded" must not do so here.
+         */
+        default void onAreaPartial(@NonNull List<Storage> storages) {
+            onArea(storages);
+        }
+
+        void onAreaFailed(@NonNull Exception e);
+    }
+
+    /** Handle returned by the subscribe / fetch calls; {@link #remove()} is idempotent. */
+    interface Subscription {
+        void remove();
+    }
+
+    /** Starts streaming to {@code listener}; callbacks run on {@code executor}. */
+    @NonNull
+    Subscription subscribe(@NonNull Executor executor, @NonNull Listener listener);
+
+    /**
+     * One-shot load of the storages in [minLat, maxLat] × [minLng, maxLng], at most
+     * {@link #MAX_IDS_PER_QUERY} {@link #AREA_TILE_DEG} tiles. Removing the returned
+     * handle suppresses a callback that has not run yet.
+     */
+    @NonNull
+    Subscription fetchArea(double minLat, double minLng, double maxLat, double maxLng,
+                           @NonNull Executor executor, @NonNull AreaCallback callback);
+
+    /**
+     * Streams only the given storages (at most {@link #MAX_IDS_PER_QUERY}): their
+     * current state through {@link Listener#onStorages}, then occupancy changes.
+     */
+    @NonNull
+    Subscription watchIds(@NonNull List<String> ids, @NonNull Executor executor, @NonNull Listener listener);
+
+    /** One-shot load of the given storages (at most {@link #MAX_IDS_PER_QUERY}). */
+    @NonNull
+    Subscription fetchIds(@NonNull List<String> ids, @NonNull Executor executor, @NonNull AreaCallback callback);
+}
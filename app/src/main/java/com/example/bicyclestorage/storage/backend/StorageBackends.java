@@ -0,0 +1,27 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Chooses the storage backend; tests and load harnesses install an override
+ * (e.g. {@link FakeStorageBackend}) before the map screen starts.
+ */
+public final class StorageBackends {
+
+    private static volatile StorageBackend override;
+
+    private StorageBackends() {}
+
+    @NonNull
+    public static StorageBackend get() {
+        StorageBackend o = override;
+        return o != null ? o : new FirestoreStorageBackend(FirebaseFirestore.getInstance());
+    }
+
+    public static void setOverride(@Nullable StorageBackend backend) {
+        override = backend;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.bicyclestorage.telemetry;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary layout of an event batch (one queue segment = one upload).
+ *
+ * <pre>
+ * batch  := "BTEL" version:u8 baseTimeMs:varint record*
+ * record := type:u8 dt:zz weight:varint arg:zz str
+ * str    := varint v   0 = none
+ *                      odd  → (v &gt;&gt; 1) UTF-8 bytes follow, appended to the string table
+ *                      even → string table[(v &gt;&gt; 1) - 1]
+ * </pre>
+ * {@code dt} is the difference to the previous record's time (first: to the
+ * base time). {@code weight} is the sampling weight: the record stands for
+ * that many events. Storage ids repeat a lot, so each distinct string is
+ * written once per batch. A typical event costs 4–6 bytes.
+ */
+final class EventCodec {
+
+    static final byte[] MAGIC = {'B', 'T', 'E', 'L'};
+    static final int VERSION = 1;
+
+    /** Reserved type: {@code arg} events were lost (ring full or queue trimmed). */
+    static final int TYPE_DROPPED = 0;
+
+    static final int MAX_STRINGS = 256;   // per batch; later new strings are written inline
+    static final int MAX_STRING_CHARS = 64;
+
+    private EventCodec() {}
+
+    /** Decoded record (uploads and tests). */
+    static final class Event {
+        final int type;
+        final long timeMs;
+        final int weight;
+        final int arg;
+        @Nullable final String str;
+
+        Event(int type, long timeMs, int weight, int arg, @Nullable String str) {
+            this.type = type;
+            this.timeMs = timeMs;
+            this.weight = weight;
+            this.arg = arg;
+            this.str = str;
+        }
+    }
+
+    // --- Encoding (writer thread; buffer reused between commits) ---
+
+    static final class Encoder {
+        byte[] buf = new byte[1024];
+        int len = 0;
+        private long prevTimeMs;
+        private final Map<String, Integer> table = new HashMap<>();
+
+        /** Starts a new batch; the string table and time base restart with it. */
+        void header(long baseTimeMs) {
+            table.clear();
+            prevTimeMs = baseTimeMs;
+            ensure(MAGIC.length + 11);
+            System.arraycopy(MAGIC, 0, buf, len, MAGIC.length);
+            len += MAGIC.length;
+            buf[len++] = (byte) VERSION;
+            varint(baseTimeMs);
+        }
+
+        void event(int type, long timeMs, int weight, int arg, @Nullable String str) {
+            ensure(1 + 10 + 5 + 10);
+            buf[len++] = (byte) type;
+            varint(zigzag(timeMs - prevTimeMs));
+            prevTimeMs = timeMs;
+            varint(weight);
+            varint(zigzag(arg));
+            string(str);
+        }
+
+        /** Drops the encoded bytes but keeps the batch state (after they were written out). */
+        void clearBytes() {
+            len = 0;
+        }
+
+        private void string(@Nullable String s) {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            if (s.length() > MAX_STRING_CHARS) s = s.substring(0, MAX_STRING_CHARS);
+            Integer ref = table.get(s);
+            if (ref != null) {
+                varint((long) ref << 1);
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            varint(((long) b.length << 1) | 1);
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+            if (table.size() < MAX_STRINGS) table.put(s, table.size() + 1);
+        }
+
+        private void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        private void ensure(int extra) {
+            if (len + extra <= buf.length) return;
+            byte[] grown = new byte[Math.max(buf.length * 2, len + extra)];
+            System.arraycopy(buf, 0, grown, 0, len);
+            buf = grown;
+        }
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // --- Decoding ---
+
+    /** All complete records; a torn tail (crash mid-write) is ignored. */
+    @NonNull
+    static List<Event> decode(@NonNull byte[] data, int len) {
+        List<Event> out = new ArrayList<>();
+        scan(data, len, out);
+        return out;
+    }
+
+    /** Length of the valid prefix (header + complete records), or 0 if the header is bad. */
+    static int validLength(@NonNull byte[] data, int len) {
+        return scan(data, len, null);
+    }
+
+    private static int scan(byte[] data, int len, @Nullable List<Event> out) {
+        ByteBuffer bb = ByteBuffer.wrap(data, 0, len);
+        long time;
+        try {
+            for (byte m : MAGIC) if (bb.get() != m) return 0;
+            if (bb.get() != VERSION) return 0;
+            time = readVarint(bb);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return 0;
+        }
+        List<String> table = new ArrayList<>();
+        int valid = bb.position();
+        try {
+            while (bb.hasRemaining()) {
+                int type = bb.get() & 0xFF;
+                time += unzigzag(readVarint(bb));
+                int weight = (int) readVarint(bb);
+                int arg = (int) unzigzag(readVarint(bb));
+                long v = readVarint(bb);
+                String str = null;
+                if (v != 0 && (v & 1) == 0) {
+                    int ref = (int) (v >> 1) - 1;
+                    if (ref >= table.size()) throw new IllegalArgumentException("bad string ref");
+                    str = table.get(ref);
+                } else if (v != 0) {
+                    byte[] b = new byte[(int) (v >> 1)];
+                    bb.get(b);
+                    str = new String(b, StandardCharsets.UTF_8);
+                    if (table.size() < MAX_STRINGS) table.add(str);
+                }
+                valid = bb.position();
+                if (out != null) out.add(new Event(type, time, weight, arg, str));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ignored) {
+            // torn tail: keep what decoded cleanly
+        }
+        return valid;
+    }
+
+    private static long readVarint(ByteBuffer bb) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bb.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.bicyclestorage.telemetry;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usage events → lock-free {@link EventRing} → {@link EventCodec} batches in
+ * a bounded on-disk queue → {@link Uploader}, one call per batch.
+ *
+ * A writer thread drains the ring every {@link #COMMIT_MS} (or once it is a
+ * quarter full) and appends to the open segment. A segment is sealed into a
+ * batch when it reaches {@link #MAX_BATCH_BYTES} or {@link #MAX_BATCH_AGE_MS};
+ * an upload thread sends sealed batches oldest first and deletes them once
+ * accepted, backing off while uploads fail.
+ *
+ * Back-pressure: as the queue (disk bytes, or ring occupancy) fills past half,
+ * producers keep only every 2nd … 16th event of each type, and the kept
+ * record carries the sampling weight. Past {@link #MAX_QUEUE_BYTES} the
+ * oldest batches are deleted; every event lost that way or on a full ring is
+ * counted in a {@link EventCodec#TYPE_DROPPED} record.
+ */
+public final class EventPipeline implements Closeable {
+
+    /** Sends one batch; returns normally only once it is stored (upload thread, may block). */
+    public interface Uploader {
+        void upload(@NonNull String batchId, @NonNull byte[] data, int length, int eventCount) throws Exception;
+    }
+
+    /** Diagnostics of the writer and upload threads; the app sends them to Logcat. */
+    public interface Logger {
+        void warn(@NonNull String message, @Nullable Throwable error);
+
+        void info(@NonNull String message);
+    }
+
+    interface Clock {
+        long nowMs();
+    }
+
+    private static final String TAG = "EventPipeline";
+
+    static final String SEGMENT_PREFIX = "evt-";
+    static final String OPEN_SUFFIX = ".part";
+    static final String SEALED_SUFFIX = ".bin";
+
+    public static final int MAX_TYPES = 32;
+    static final int RING_CAPACITY = 1024;
+    static final long COMMIT_MS = 5_000L;
+    static final long MAX_BATCH_BYTES = 16 * 1024;
+    static final long MAX_BATCH_AGE_MS = 10 * 60_000L;
+    static final long MAX_QUEUE_BYTES = 256 * 1024;
+    static final int MAX_SAMPLE_SHIFT = 4; // keep 1 in 16 at worst
+    static final long RETRY_MIN_MS = 30_000L;
+    static final long RETRY_MAX_MS = 30 * 60_000L;
+
+    private final File dir;
+    private final Uploader uploader;
+    private final Clock clock;
+    private final Logger logger;
+    private final long maxBatchBytes;
+    private final long maxBatchAgeMs;
+    private final long maxQueueBytes;
+
+    // --- Producer side (any thread, lock-free) ---
+    private final EventRing ring = new EventRing(RING_CAPACITY);
+    private final AtomicIntegerArray typeCounters = new AtomicIntegerArray(MAX_TYPES);
+    private final AtomicLong ringDropped = new AtomicLong();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private volatile int sampleShift = 0;
+
+    // --- Writer state (writer thread only) ---
+    private final ScheduledExecutorService writer;
+    private final EventCodec.Encoder encoder = new EventCodec.Encoder();
+    private final EventRing.Consumer encodeEvent = this::encodeEvent;
+    private final Runnable commitRunnable = this::commit;
+    private FileOutputStream segment;
+    private File segmentFile;
+    private long segmentCreatedMs;
+    private long lastSegmentCreatedMs = 0;
+    private long segmentBytes;
+    private long trimmedLost = 0;
+
+    // Bytes of open + sealed segments (writer adds, both threads subtract on delete)
+    private final AtomicLong queueBytes = new AtomicLong();
+
+    // --- Upload state ---
+    private final ScheduledExecutorService uploads;
+    private final AtomicBoolean uploadScheduled = new AtomicBoolean();
+    private final Runnable uploadRunnable = this::uploadPending;
+    private long retryDelayMs = 0; // upload thread only
+
+    public EventPipeline(@NonNull File dir, @NonNull Uploader uploader, @NonNull Logger logger) {
+        this(dir, uploader, logger, System::currentTimeMillis, MAX_BATCH_BYTES, MAX_BATCH_AGE_MS, MAX_QUEUE_BYTES);
+    }
+
+    EventPipeline(@NonNull File dir, @NonNull Uploader uploader, @NonNull Logger logger, @NonNull Clock clock,
+                  long maxBatchBytes, long maxBatchAgeMs, long maxQueueBytes) {
+        this.dir = dir;
+        this.uploader = uploader;
+        this.logger = logger;
+        this.clock = clock;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchAgeMs = maxBatchAgeMs;
+        this.maxQueueBytes = maxQueueBytes;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, TAG));
+        this.uploads = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, TAG + "Upload"));
+        writer.execute(this::recover);
+        writer.scheduleWithFixedDelay(commitRunnable, COMMIT_MS, COMMIT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    }
+
+    // --- Producer API (any thread, no locks, no allocation) ---
+
+    /**
+     * Queues an event of {@code type} (1 … {@link #MAX_TYPES} - 1). Returns
+     * false if it was sampled out or the ring was full.
+     */
+    public boolean log(int type, int arg, @Nullable String str) {
+        if (type <= EventCodec.TYPE_DROPPED || type >= MAX_TYPES) {
+            throw new IllegalArgumentException("type out of range: " + type);
+        }
+        int shift = sampleShift;
+        if (shift > 0 && (typeCounters.getAndIncrement(type) & ((1 << shift) - 1)) != 0) return false;
+        if (!ring.offer(type, clock.nowMs(), 1 << shift, arg, str)) {
+            ringDropped.incrementAndGet();
+            return false;
+        }
+        if (ring.size() >= RING_CAPACITY / 4 && commitScheduled.compareAndSet(false, true)) {
+            if (!writer.isShutdown()) writer.execute(commitRunnable);
+        }
+        return true;
+    }
+
+    /** Current sampling: 1 of every {@code 1 << shift} events is kept. */
+    public int sampleShift() {
+        return sampleShift;
+    }
+
+    public long queueBytes() {
+        return queueBytes.get();
+    }
+
+    /** Writes pending events and starts an upload of sealed batches (asynchronous). */
+    public void flush() {
+        if (writer.isShutdown()) return;
+        writer.execute(commitRunnable);
+        requestUpload(0);
+    }
+
+    /** Writes pending events and closes the open segment; it is sealed on the next start. */
+    @Override
+    public void close() {
+        if (writer.isShutdown()) return;
+        writer.execute(() -> {
+            commit();
+            closeSegment();
+        });
+        writer.shutdown();
+        uploads.shutdownNow();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Commits pending events and waits for it (tests). */
+    void sync() throws Exception {
+        writer.submit(commitRunnable).get(5, TimeUnit.SECONDS);
+    }
+
+    /** Seals the open segment and waits for it (tests). */
+    void seal() throws Exception {
+        writer.submit(() -> {
+            commit();
+            sealSegment();
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    /** Runs one upload pass and waits for it (tests). */
+    void syncUpload() throws Exception {
+        uploads.submit(uploadRunnable).get(5, TimeUnit.SECONDS);
+    }
+
+    // --- Writer thread ---
+
+    // A crash leaves an open segment, possibly with a torn last record: cut it and seal it
+    private void recover() {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX));
+        if (files == null) return;
+        long total = 0;
+        boolean sealed = false;
+        for (File f : files) {
+            if (f.getName().endsWith(OPEN_SUFFIX)) {
+                byte[] data = readFully(f);
+                int valid = data != null ? EventCodec.validLength(data, data.length) : 0;
+                if (valid == 0 || !truncate(f, valid) || !f.renameTo(sealedFile(f))) {
+                    //noinspection ResultOfMethodCallIgnored
+                    f.delete();
+                    continue;
+                }
+                total += valid;
+                sealed = true;
+            } else if (f.getName().endsWith(SEALED_SUFFIX)) {
+                total += f.length();
+                sealed = true;
+            }
+        }
+        queueBytes.addAndGet(total);
+        updateSampling(0);
+        if (sealed) requestUpload(0);
+    }
+
+    private void commit() {
+        commitScheduled.set(false);
+        long now = clock.nowMs();
+        int n = ring.drain(encodeEvent, RING_CAPACITY);
+        long lost = ringDropped.getAndSet(0) + trimmedLost;
+        trimmedLost = 0;
+        if (lost > 0) encodeEvent(EventCodec.TYPE_DROPPED, now, 1, (int) Math.min(Integer.MAX_VALUE, lost), null);
+        try {
+            writeOut();
+            if (segment != null && (segmentBytes >= maxBatchBytes || now - segmentCreatedMs >= maxBatchAgeMs)) {
+                sealSegment();
+            }
+        } catch (IOException e) {
+            logger.warn("Commit failed: " + e.getMessage(), e);
+            closeSegment();
+        }
+        enforceQueueBound();
+        updateSampling(n);
+    }
+
+    private void encodeEvent(int type, long timeMs, int weight, int arg, @Nullable String str) {
+        try {
+            if (segment != null && segmentBytes + encoder.len >= maxBatchBytes) {
+                writeOut();
+                sealSegment();
+            }
+            if (segment == null) openSegment(timeMs);
+        } catch (IOException e) {
+            logger.warn("Segment failed: " + e.getMessage(), e);
+            closeSegment();
+            trimmedLost += weight;
+            return;
+        }
+        encoder.event(type, timeMs, weight, arg, str);
+    }
+
+    private void openSegment(long nowMs) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        // Strictly increasing creation times keep lexical file order chronological
+        long created = Math.max(nowMs, lastSegmentCreatedMs + 1);
+        File f = openFile(created);
+        while (f.exists() || sealedFile(f).exists()) f = openFile(++created);
+        lastSegmentCreatedMs = created;
+        segment = new FileOutputStream(f, true);
+        segmentFile = f;
+        segmentCreatedMs = created;
+        segmentBytes = 0;
+        encoder.clearBytes();
+        encoder.header(created);
+    }
+
+    private File openFile(long createdMs) {
+        return new File(dir, String.format(Locale.US, "%s%015d%s", SEGMENT_PREFIX, createdMs, OPEN_SUFFIX));
+    }
+
+    private static File sealedFile(File open) {
+        String name = open.getName();
+        return new File(open.getParentFile(), name.substring(0, name.length() - OPEN_SUFFIX.length()) + SEALED_SUFFIX);
+    }
+
+    // No fsync: losing the last few seconds of usage events on a crash is acceptable
+    private void writeOut() throws IOException {
+        if (encoder.len == 0 || segment == null) return;
+        segment.write(encoder.buf, 0, encoder.len);
+        segmentBytes += encoder.len;
+        queueBytes.addAndGet(encoder.len);
+        encoder.clearBytes();
+    }
+
+    private void sealSegment() {
+        if (segment == null) return;
+        File open = segmentFile;
+        closeSegment();
+        if (!open.renameTo(sealedFile(open))) {
+            logger.warn("Seal failed: " + open, null);
+            return;
+        }
+        requestUpload(0);
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException ignored) {
+        }
+        segment = null;
+        segmentFile = null;
+        encoder.clearBytes();
+    }
+
+    // Over the cap (uploads failing for a long time): the oldest batches go first
+    private void enforceQueueBound() {
+        if (queueBytes.get() <= maxQueueBytes) return;
+        File[] sealed = sealedBatches();
+        for (File f : sealed) {
+            if (queueBytes.get() <= maxQueueBytes * 3 / 4) break;
+            byte[] data = readFully(f);
+            long length = f.length();
+            if (!f.delete()) continue;
+            queueBytes.addAndGet(-length);
+            if (data != null) {
+                for (EventCodec.Event e : EventCodec.decode(data, data.length)) {
+                    trimmedLost += e.type == EventCodec.TYPE_DROPPED ? e.arg : e.weight;
+                }
+            }
+        }
+    }
+
+    // Past half full, each eighth of the remaining room halves the kept share
+    private void updateSampling(int drained) {
+        double fill = Math.max(queueBytes.get() / (double) maxQueueBytes, drained / (double) RING_CAPACITY);
+        int shift = fill < 0.5 ? 0 : Math.min(MAX_SAMPLE_SHIFT, 1 + (int) ((fill - 0.5) * 8));
+        if (shift != sampleShift) {
+            logger.info("Sampling 1/" + (1 << shift) + " (queue " + queueBytes.get() + " B)");
+            sampleShift = shift;
+        }
+    }
+
+    // --- Upload thread ---
+
+    private void requestUpload(long delayMs) {
+        if (uploads.isShutdown() || !uploadScheduled.compareAndSet(false, true)) return;
+        uploads.schedule(uploadRunnable, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void uploadPending() {
+        uploadScheduled.set(false);
+        for (File f : sealedBatches()) {
+            if (Thread.currentThread().isInterrupted()) return;
+            byte[] data = readFully(f);
+            if (data == null) continue; // trimmed meanwhile
+            int valid = EventCodec.validLength(data, data.length);
+            List<EventCodec.Event> events = EventCodec.decode(data, valid);
+            if (!events.isEmpty()) {
+                try {
+                    uploader.upload(batchId(f), data, valid, events.size());
+                } catch (Exception e) {
+                    retryDelayMs = retryDelayMs == 0 ? RETRY_MIN_MS : Math.min(RETRY_MAX_MS, retryDelayMs * 2);
+                    logger.warn("Upload failed, retry in " + retryDelayMs / 1000 + " s", e);
+                    requestUpload(retryDelayMs);
+                    return;
+                }
+            }
+            retryDelayMs = 0;
+            long length = f.length();
+            if (f.delete()) queueBytes.addAndGet(-length);
+        }
+    }
+
+    /** Stable per batch, so a retried upload overwrites instead of duplicating. */
+    private static String batchId(File sealed) {
+        String name = sealed.getName();
+        return name.substring(0, name.length() - SEALED_SUFFIX.length());
+    }
+
+    private File[] sealedBatches() {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEALED_SUFFIX));
+        if (files == null) return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+
+    @Nullable
+    private static byte[] readFully(File f) {
+        try (FileInputStream in = new FileInputStream(f)) {
+            byte[] data = new byte[(int) f.length()];
+            int off = 0, r;
+            while (off < data.length && (r = in.read(data, off, data.length - off)) > 0) off += r;
+            return off == data.length ? data : Arrays.copyOf(data, off);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean truncate(File f, long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            raf.setLength(length);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bicyclestorage.telemetry;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring of events in preallocated
+ * primitive slots. Producers claim a slot with one CAS and publish it with a
+ * release store of the slot's sequence number; they never block and never
+ * allocate. {@link #offer} fails instead of waiting when the ring is full.
+ */
+final class EventRing {
+
+    /** Receives drained events (consumer thread). */
+    interface Consumer {
+        void accept(int type, long timeMs, int weight, int arg, @Nullable String str);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong(); // next slot to claim
+    private volatile long head = 0;                   // next slot to read (consumer writes)
+
+    private final int[] types;
+    private final long[] times;
+    private final int[] weights;
+    private final int[] args;
+    private final String[] strs;
+
+    EventRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two");
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequence.set(i, i);
+        this.types = new int[capacity];
+        this.times = new long[capacity];
+        this.weights = new int[capacity];
+        this.args = new int[capacity];
+        this.strs = new String[capacity];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Approximate number of queued events. */
+    int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    // --- Producers (any thread) ---
+
+    boolean offer(int type, long timeMs, int weight, int arg, @Nullable String str) {
+        long pos = tail.get();
+        int i;
+        while (true) {
+            i = (int) (pos & mask);
+            long diff = sequence.get(i) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // slot not consumed yet: full
+            } else {
+                pos = tail.get(); // another producer took it
+            }
+        }
+        types[i] = type;
+        times[i] = timeMs;
+        weights[i] = weight;
+        args[i] = arg;
+        strs[i] = str;
+        sequence.lazySet(i, pos + 1); // publish
+        return true;
+    }
+
+    // --- Consumer (single thread) ---
+
+    /** Hands up to {@code max} published events to {@code consumer}; returns the count. */
+    int drain(Consumer consumer, int max) {
+        long h = head;
+        int n = 0;
+        while (n < max) {
+            int i = (int) (h & mask);
+            if (sequence.get(i) != h + 1) break; // not published yet
+            String s = strs[i];
+            strs[i] = null;
+            consumer.accept(types[i], times[i], weights[i], args[i], s);
+            sequence.lazySet(i, h + capacity); // free for the next lap
+            h++;
+            n++;
+        }
+        head = h;
+        return n;
+    }
+}
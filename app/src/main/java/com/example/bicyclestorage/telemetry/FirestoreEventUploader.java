@@ -0,0 +1,50 @@
+package com.example.bicyclestorage.telemetry;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.metrics.OpMetrics;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One document per batch in {@code telemetry/{installId}_{batchId}}: the
+ * encoded events as a Blob ({@link EventCodec} layout, decoded offline), the
+ * event count and who sent it. The id is stable per batch, so a retry after a
+ * lost acknowledgement overwrites the same document.
+ */
+final class FirestoreEventUploader implements EventPipeline.Uploader {
+
+    static final String COLLECTION = "telemetry";
+    private static final long TIMEOUT_S = 15;
+
+    private final FirebaseFirestore db;
+    private final String installId;
+
+    FirestoreEventUploader(@NonNull FirebaseFirestore db, @NonNull String installId) {
+        this.db = db;
+        this.installId = installId;
+    }
+
+    @Override
+    public void upload(@NonNull String batchId, @NonNull byte[] data, int length, int eventCount) throws Exception {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("install", installId);
+        doc.put("uid", user != null ? user.getUid() : null);
+        doc.put("format", EventCodec.VERSION);
+        doc.put("count", eventCount);
+        doc.put("events", Blob.fromBytes(Arrays.copyOf(data, length)));
+        doc.put("receivedAt", FieldValue.serverTimestamp());
+        Tasks.await(OpMetrics.get().time(OpMetrics.OP_TELEMETRY_UPLOAD,
+                () -> db.collection(COLLECTION).document(installId + "_" + batchId).set(doc)), TIMEOUT_S, TimeUnit.SECONDS);
+    }
+}
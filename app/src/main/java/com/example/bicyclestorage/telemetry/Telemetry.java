@@ -0,0 +1,94 @@
+package com.example.bicyclestorage.telemetry;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Adoption events (one instance per process). Calls only enqueue into the
+ * {@link EventPipeline}, so they are safe on the main thread and hot paths.
+ */
+public final class Telemetry {
+
+    // Event types (stable: they are decoded from uploaded batches)
+    public static final int MARKER_TAP = 1;   // str: storage id
+    public static final int LOCK_TOGGLE = 2;  // arg: 1 locked, 0 unlocked
+    public static final int NAVIGATION = 3;   // str: storage id (null: other marker); arg: 1 Maps app, 0 web
+    public static final int LOGIN = 4;        // arg: 1 success, 0 failure; str: error class on failure
+
+    private static final String PREFS_NAME = "telemetry";
+    private static final String KEY_INSTALL_ID = "install_id";
+    private static final String DIR = "telemetry";
+    private static final String TAG = "EventPipeline";
+
+    private static final EventPipeline.Logger LOGCAT = new EventPipeline.Logger() {
+        @Override
+        public void warn(@NonNull String message, @Nullable Throwable error) {
+            Log.w(TAG, message, error);
+        }
+
+        @Override
+        public void info(@NonNull String message) {
+            Log.i(TAG, message);
+        }
+    };
+
+    private static volatile Telemetry instance;
+
+    private final EventPipeline pipeline;
+
+    private Telemetry(Context app) {
+        SharedPreferences prefs = app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String installId = prefs.getString(KEY_INSTALL_ID, null);
+        if (installId == null) {
+            installId = UUID.randomUUID().toString();
+            prefs.edit().putString(KEY_INSTALL_ID, installId).apply();
+        }
+        pipeline = new EventPipeline(new File(app.getFilesDir(), DIR),
+                new FirestoreEventUploader(FirebaseFirestore.getInstance(), installId), LOGCAT);
+    }
+
+    @NonNull
+    public static Telemetry get(@NonNull Context context) {
+        Telemetry t = instance;
+        if (t == null) {
+            synchronized (Telemetry.class) {
+                t = instance;
+                if (t == null) {
+                    t = new Telemetry(context.getApplicationContext());
+                    instance = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    public void markerTap(@NonNull String storageId) {
+        pipeline.log(MARKER_TAP, 0, storageId);
+    }
+
+    public void lockToggle(boolean locked) {
+        pipeline.log(LOCK_TOGGLE, locked ? 1 : 0, null);
+    }
+
+    public void navigation(@Nullable String storageId, boolean mapsApp) {
+        pipeline.log(NAVIGATION, mapsApp ? 1 : 0, storageId);
+    }
+
+    public void login(boolean success, @Nullable String errorClass) {
+        pipeline.log(LOGIN, success ? 1 : 0, success ? null : errorClass);
+    }
+
+    /** Writes pending events and uploads finished batches (e.g. when the app goes to the background). */
+    public void flush() {
+        pipeline.flush();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bicyclestorage.trip;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.util.GeoMath;
+
+import java.util.Arrays;
+
+/** Decoded trip: fixes in parallel primitive arrays. */
+public final class Trip {
+
+    /** Trip id = start time (epoch ms). */
+    public final long id;
+    public final long[] timesMs;
+    public final double[] lats;
+    public final double[] lngs;
+    public final boolean ended;
+
+    Trip(long id, long[] timesMs, double[] lats, double[] lngs, boolean ended) {
+        this.id = id;
+        this.timesMs = timesMs;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.ended = ended;
+    }
+
+    public int size() {
+        return timesMs.length;
+    }
+
+    public long durationMs() {
+        return size() < 2 ? 0 : timesMs[size() - 1] - timesMs[0];
+    }
+
+    public double distanceMeters() {
+        double d = 0;
+        for (int i = 1; i < size(); i++) {
+            d += GeoMath.distanceMeters(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+        }
+        return d;
+    }
+
+    /** Growable builder used while decoding. */
+    static final class Builder {
+        final long id;
+        long[] t = new long[64];
+        double[] la = new double[64];
+        double[] lo = new double[64];
+        int n = 0;
+        boolean ended = false;
+
+        Builder(long id) {
+            this.id = id;
+        }
+
+        void add(long time, double lat, double lng) {
+            if (n == t.length) {
+                t = Arrays.copyOf(t, n * 2);
+                la = Arrays.copyOf(la, n * 2);
+                lo = Arrays.copyOf(lo, n * 2);
+            }
+            t[n] = time;
+            la[n] = lat;
+            lo[n] = lng;
+            n++;
+        }
+
+        Trip build() {
+            return new Trip(id, Arrays.copyOf(t, n), Arrays.copyOf(la, n), Arrays.copyOf(lo, n), ended);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "Trip{" + id + ", fixes=" + size() + ", " + Math.round(distanceMeters()) + " m}";
+    }
+}
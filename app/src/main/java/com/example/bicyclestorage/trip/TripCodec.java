@@ -0,0 +1,229 @@
+package com.example.bicyclestorage.trip;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout of trip segment files.
+ *
+ * <pre>
+ * segment := "BSTR" version:u8 createdAtMs:varint record*
+ * record  := START  tripId:varint fix_abs      (new trip)
+ *          | CONT   tripId:varint fix_abs      (trip continues from a previous segment)
+ *          | FIX    dt:varint dLat:zz dLng:zz acc:varint   (delta to previous fix)
+ *          | END
+ * fix_abs := timeMs:varint lat:zz lng:zz acc:varint
+ * </pre>
+ * Coordinates are 1e-5 degree units (~1.1 m), time deltas are 100 ms units,
+ * accuracy is whole meters (capped at 255). A typical 5 s fix costs ~5 bytes.
+ */
+public final class TripCodec {
+
+    static final byte[] MAGIC = {'B', 'S', 'T', 'R'};
+    static final int VERSION = 1;
+
+    static final int TAG_START = 1;
+    static final int TAG_CONT = 2;
+    static final int TAG_FIX = 3;
+    static final int TAG_END = 4;
+
+    static final double COORD_SCALE = 1e5;
+    static final long TIME_UNIT_MS = 100;
+    static final int MAX_ACCURACY_M = 255;
+
+    private TripCodec() {}
+
+    static int quantize(double deg) {
+        return (int) Math.round(deg * COORD_SCALE);
+    }
+
+    static double dequantize(int q) {
+        return q / COORD_SCALE;
+    }
+
+    static int accuracy(float meters) {
+        if (!(meters >= 0)) return MAX_ACCURACY_M;
+        return Math.min(MAX_ACCURACY_M, Math.round(meters));
+    }
+
+    // --- Encoding (growable byte array, reused between commits) ---
+
+    /** Append-only byte buffer with varint helpers; {@link #reset()} keeps the storage. */
+    static final class Out {
+        byte[] buf = new byte[512];
+        int len = 0;
+
+        void reset() {
+            len = 0;
+        }
+
+        void u8(int v) {
+            ensure(1);
+            buf[len++] = (byte) v;
+        }
+
+        void bytes(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        private void ensure(int n) {
+            if (len + n <= buf.length) return;
+            byte[] b = new byte[Math.max(buf.length * 2, len + n)];
+            System.arraycopy(buf, 0, b, 0, len);
+            buf = b;
+        }
+    }
+
+    /** Stateful delta encoder for one segment. */
+    static final class Encoder {
+        private boolean hasPrev = false;
+        private long prevTimeUnits;
+        private int prevLat, prevLng;
+
+        void header(Out out, long createdAtMs) {
+            out.bytes(MAGIC);
+            out.u8(VERSION);
+            out.varint(createdAtMs);
+            hasPrev = false;
+        }
+
+        void start(Out out, int tag, long tripId, long timeMs, double lat, double lng, float acc) {
+            out.u8(tag);
+            out.varint(tripId);
+            prevTimeUnits = timeMs / TIME_UNIT_MS;
+            prevLat = quantize(lat);
+            prevLng = quantize(lng);
+            out.varint(prevTimeUnits * TIME_UNIT_MS);
+            out.zigzag(prevLat);
+            out.zigzag(prevLng);
+            out.varint(accuracy(acc));
+            hasPrev = true;
+        }
+
+        void fix(Out out, long timeMs, double lat, double lng, float acc) {
+            if (!hasPrev) throw new IllegalStateException("fix without START/CONT");
+            long t = timeMs / TIME_UNIT_MS;
+            int la = quantize(lat);
+            int lo = quantize(lng);
+            out.u8(TAG_FIX);
+            out.varint(Math.max(0, t - prevTimeUnits));
+            out.zigzag(la - prevLat);
+            out.zigzag(lo - prevLng);
+            out.varint(accuracy(acc));
+            prevTimeUnits = Math.max(prevTimeUnits, t);
+            prevLat = la;
+            prevLng = lo;
+        }
+
+        void end(Out out) {
+            out.u8(TAG_END);
+            hasPrev = false;
+        }
+
+        boolean inTrip() {
+            return hasPrev;
+        }
+    }
+
+    // --- Decoding ---
+
+    interface Visitor {
+        void onTripStart(long tripId, boolean continuation);
+
+        void onFix(long tripId, long timeMs, double lat, double lng, int accuracyM);
+
+        void onTripEnd(long tripId);
+    }
+
+    /**
+     * Decodes one segment. A truncated trailing record (crash during append) is
+     * ignored; returns false if the header is not a trip segment.
+     */
+    static boolean decode(ByteBuffer in, Visitor v) {
+        try {
+            for (byte m : MAGIC) if (in.get() != m) return false;
+            if ((in.get() & 0xFF) != VERSION) return false;
+            readVarint(in); // createdAt
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+        long trip = -1;
+        long timeUnits = 0;
+        int lat = 0, lng = 0;
+        try {
+            while (in.hasRemaining()) {
+                int tag = in.get() & 0xFF;
+                switch (tag) {
+                    case TAG_START:
+                    case TAG_CONT: {
+                        long id = readVarint(in);
+                        long t = readVarint(in) / TIME_UNIT_MS;
+                        int la = (int) readZigzag(in);
+                        int lo = (int) readZigzag(in);
+                        int acc = (int) readVarint(in);
+                        trip = id;
+                        timeUnits = t;
+                        lat = la;
+                        lng = lo;
+                        v.onTripStart(trip, tag == TAG_CONT);
+                        v.onFix(trip, timeUnits * TIME_UNIT_MS, dequantize(lat), dequantize(lng), acc);
+                        break;
+                    }
+                    case TAG_FIX: {
+                        long dt = readVarint(in);
+                        int dLa = (int) readZigzag(in);
+                        int dLo = (int) readZigzag(in);
+                        int acc = (int) readVarint(in);
+                        if (trip < 0) return true; // corrupt: fix outside a trip
+                        timeUnits += dt;
+                        lat += dLa;
+                        lng += dLo;
+                        v.onFix(trip, timeUnits * TIME_UNIT_MS, dequantize(lat), dequantize(lng), acc);
+                        break;
+                    }
+                    case TAG_END:
+                        if (trip >= 0) v.onTripEnd(trip);
+                        trip = -1;
+                        break;
+                    default:
+                        return true; // unknown tag – stop at corruption
+                }
+            }
+        } catch (BufferUnderflowException ignored) {
+            // truncated tail
+        }
+        return true;
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+            if (shift > 63) throw new BufferUnderflowException();
+        }
+    }
+
+    static long readZigzag(ByteBuffer in) {
+        long v = readVarint(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
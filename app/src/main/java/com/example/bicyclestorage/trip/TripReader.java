@@ -0,0 +1,60 @@
+package com.example.bicyclestorage.trip;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Reads trips back from segment files via read-only memory mapping. */
+public final class TripReader {
+
+    private TripReader() {}
+
+    @NonNull
+    public static List<Trip> readAll(@NonNull File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) ->
+                name.startsWith(TripRecorder.SEGMENT_PREFIX) && name.endsWith(TripRecorder.SEGMENT_SUFFIX));
+        if (files == null || files.length == 0) return new ArrayList<>();
+        // Names embed a zero-padded creation time → lexical order is chronological
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+
+        final Map<Long, Trip.Builder> trips = new LinkedHashMap<>();
+        TripCodec.Visitor visitor = new TripCodec.Visitor() {
+            @Override
+            public void onTripStart(long tripId, boolean continuation) {
+                if (!trips.containsKey(tripId)) trips.put(tripId, new Trip.Builder(tripId));
+            }
+
+            @Override
+            public void onFix(long tripId, long timeMs, double lat, double lng, int accuracyM) {
+                trips.get(tripId).add(timeMs, lat, lng);
+            }
+
+            @Override
+            public void onTripEnd(long tripId) {
+                Trip.Builder b = trips.get(tripId);
+                if (b != null) b.ended = true;
+            }
+        };
+
+        for (File f : files) {
+            if (f.length() == 0) continue;
+            try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                TripCodec.decode(buf, visitor);
+            }
+        }
+
+        List<Trip> out = new ArrayList<>(trips.size());
+        for (Trip.Builder b : trips.values()) out.add(b.build());
+        return out;
+    }
+}
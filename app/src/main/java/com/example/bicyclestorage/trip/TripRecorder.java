@@ -0,0 +1,272 @@
+package com.example.bicyclestorage.trip;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records location fixes into append-only, delta/varint-encoded segment files.
+ *
+ * The caller thread only copies the fix into a preallocated primitive ring.
+ * A background writer encodes everything pending and appends it with a single
+ * write + fsync (group commit) every {@link #GROUP_COMMIT_MS} or once
+ * {@link #GROUP_MAX_FIXES} fixes are waiting. Segments roll by size and age.
+ * Trips are split on {@link #endTrip()} or a gap longer than {@link #TRIP_GAP_MS}.
+ */
+public class TripRecorder implements Closeable {
+
+    private static final String TAG = "TripRecorder";
+
+    static final String SEGMENT_PREFIX = "seg-";
+    static final String SEGMENT_SUFFIX = ".bin";
+
+    public static final long TRIP_GAP_MS = 5 * 60_000L;
+    static final long GROUP_COMMIT_MS = 15_000L;
+    static final int GROUP_MAX_FIXES = 64;
+    static final int RING_CAPACITY = 512;
+    static final long MAX_SEGMENT_BYTES = 64 * 1024;
+    static final long MAX_SEGMENT_AGE_MS = 6 * 60 * 60_000L;
+
+    private static final byte KIND_FIX = 0;
+    private static final byte KIND_END = 1;
+
+    private final File dir;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMs;
+
+    // --- Producer ring (guarded by lock) ---
+    private final Object lock = new Object();
+    private final byte[] kinds = new byte[RING_CAPACITY];
+    private final long[] times = new long[RING_CAPACITY];
+    private final double[] lats = new double[RING_CAPACITY];
+    private final double[] lngs = new double[RING_CAPACITY];
+    private final float[] accs = new float[RING_CAPACITY];
+    private int head = 0, count = 0;
+    private long dropped = 0;
+    private boolean commitScheduled = false;
+
+    // --- Writer state (writer thread only) ---
+    private final ScheduledExecutorService writer;
+    private final TripCodec.Out out = new TripCodec.Out();
+    private TripCodec.Encoder encoder;
+    private FileChannel segment;
+    private long segmentCreatedMs;
+    private long lastSegmentCreatedMs = 0;
+    private long segmentBytes;
+    private boolean tripActive = false;
+    private long tripId;
+    private long lastFixMs;
+    // Drain copies (reused)
+    private final byte[] dKinds = new byte[RING_CAPACITY];
+    private final long[] dTimes = new long[RING_CAPACITY];
+    private final double[] dLats = new double[RING_CAPACITY];
+    private final double[] dLngs = new double[RING_CAPACITY];
+    private final float[] dAccs = new float[RING_CAPACITY];
+
+    private final Runnable commitRunnable = this::commit;
+
+    public TripRecorder(@NonNull File dir) {
+        this(dir, MAX_SEGMENT_BYTES, MAX_SEGMENT_AGE_MS);
+    }
+
+    TripRecorder(@NonNull File dir, long maxSegmentBytes, long maxSegmentAgeMs) {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeMs = maxSegmentAgeMs;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, TAG);
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(commitRunnable, GROUP_COMMIT_MS, GROUP_COMMIT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public File directory() {
+        return dir;
+    }
+
+    // --- Producer API (any thread, no allocation) ---
+
+    public void record(long timeMs, double lat, double lng, float accuracyM) {
+        enqueue(KIND_FIX, timeMs, lat, lng, accuracyM);
+    }
+
+    /** Ends the current trip (e.g. bike parked / locked). */
+    public void endTrip() {
+        enqueue(KIND_END, 0, 0, 0, 0);
+        flush();
+    }
+
+    private void enqueue(byte kind, long t, double lat, double lng, float acc) {
+        synchronized (lock) {
+            if (count == RING_CAPACITY) {
+                dropped++; // writer stalled; keep the older fixes, they anchor the deltas
+                return;
+            }
+            int i = (head + count) % RING_CAPACITY;
+            kinds[i] = kind;
+            times[i] = t;
+            lats[i] = lat;
+            lngs[i] = lng;
+            accs[i] = acc;
+            count++;
+            if (count >= GROUP_MAX_FIXES && !commitScheduled) {
+                commitScheduled = true;
+                writer.execute(commitRunnable);
+            }
+        }
+    }
+
+    /** Requests a commit of everything pending (asynchronous). */
+    public void flush() {
+        synchronized (lock) {
+            if (commitScheduled || writer.isShutdown()) return;
+            commitScheduled = true;
+        }
+        writer.execute(commitRunnable);
+    }
+
+    public long droppedCount() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    /** Commits everything pending and waits for it (tests). */
+    void sync() throws Exception {
+        writer.submit(commitRunnable).get(5, TimeUnit.SECONDS);
+    }
+
+    /** Commits pending fixes and closes the current segment (blocks up to 5 s). */
+    @Override
+    public void close() {
+        if (writer.isShutdown()) return;
+        writer.execute(() -> {
+            commit();
+            closeSegment();
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer thread ---
+
+    private void commit() {
+        int n;
+        synchronized (lock) {
+            commitScheduled = false;
+            n = count;
+            for (int k = 0; k < n; k++) {
+                int i = (head + k) % RING_CAPACITY;
+                dKinds[k] = kinds[i];
+                dTimes[k] = times[i];
+                dLats[k] = lats[i];
+                dLngs[k] = lngs[i];
+                dAccs[k] = accs[i];
+            }
+            head = (head + n) % RING_CAPACITY;
+            count = 0;
+        }
+        if (n == 0) return;
+
+        try {
+            out.reset();
+            for (int k = 0; k < n; k++) {
+                if (dKinds[k] == KIND_END) {
+                    endActiveTrip();
+                    continue;
+                }
+                long t = dTimes[k];
+                if (tripActive && t - lastFixMs > TRIP_GAP_MS) endActiveTrip();
+                boolean rolled = ensureSegment(t);
+                if (!tripActive) {
+                    tripId = t;
+                    tripActive = true;
+                    encoder.start(out, TripCodec.TAG_START, tripId, t, dLats[k], dLngs[k], dAccs[k]);
+                } else if (rolled || !encoder.inTrip()) {
+                    encoder.start(out, TripCodec.TAG_CONT, tripId, t, dLats[k], dLngs[k], dAccs[k]);
+                } else {
+                    encoder.fix(out, t, dLats[k], dLngs[k], dAccs[k]);
+                }
+                lastFixMs = t;
+            }
+            writeOut();
+        } catch (IOException e) {
+            Log.e(TAG, "Commit failed: " + e.getMessage(), e);
+            closeSegment();
+        }
+    }
+
+    private void endActiveTrip() {
+        if (!tripActive) return;
+        if (encoder != null && encoder.inTrip()) encoder.end(out);
+        tripActive = false;
+    }
+
+    /**
+     * Opens a segment if none is open, or rolls it when over size / age.
+     * Pending bytes are written to the old segment first. Returns true if a new
+     * segment was started.
+     */
+    private boolean ensureSegment(long nowMs) throws IOException {
+        if (segment != null
+                && segmentBytes + out.len < maxSegmentBytes
+                && nowMs - segmentCreatedMs < maxSegmentAgeMs) {
+            return false;
+        }
+        if (segment != null) {
+            writeOut();
+            closeSegment();
+        }
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        // Strictly increasing creation times keep lexical file order chronological
+        long created = Math.max(nowMs, lastSegmentCreatedMs + 1);
+        File f = segmentFile(created);
+        while (f.exists()) f = segmentFile(++created);
+        lastSegmentCreatedMs = created;
+        segment = new FileOutputStream(f, true).getChannel();
+        segmentCreatedMs = created;
+        segmentBytes = 0;
+        encoder = new TripCodec.Encoder();
+        encoder.header(out, created);
+        return true;
+    }
+
+    private File segmentFile(long createdMs) {
+        return new File(dir, String.format(Locale.US, "%s%015d%s", SEGMENT_PREFIX, createdMs, SEGMENT_SUFFIX));
+    }
+
+    private void writeOut() throws IOException {
+        if (out.len == 0 || segment == null) return;
+        ByteBuffer bb = ByteBuffer.wrap(out.buf, 0, out.len);
+        while (bb.hasRemaining()) segment.write(bb);
+        segment.force(false); // one fsync per group
+        segmentBytes += out.len;
+        out.reset();
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException ignored) {
+        }
+        segment = null;
+        encoder = null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bicyclestorage.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.location.Priority;
+
+/**
+ * Device class and every quality/cost decision derived from it, in one place.
+ * Subsystems read their knobs from here instead of checking the hardware.
+ *
+ * Classified once per process from {@link ActivityManager#isLowRamDevice()},
+ * the per-app memory class and the CPU count.
+ */
+public final class DeviceProfile {
+
+    public enum Tier { LOW, STANDARD }
+
+    public final Tier tier;
+
+    // Map rendering
+    public final int markerIconPx;
+    /** Hide markers outside the visible region (re-evaluated on camera idle). */
+    public final boolean cullOffscreenMarkers;
+    /** 3D buildings + indoor maps. */
+    public final boolean mapDetailEnabled;
+
+    // Location
+    public final int locationPriority;
+    public final long locationIntervalMs;
+    public final long locationFastestIntervalMs;
+
+    // Network
+    /** Byte budget of trajectory prefetch. */
+    public final long prefetchBytesPerHour;
+
+    // Caches / buffers
+    public final int snapshotDownsample;
+    /** Memory budget of decoded storage thumbnails. */
+    public final int thumbnailCacheBytes;
+    public final int frameRingCapacity;
+
+    private static volatile DeviceProfile instance;
+
+    private DeviceProfile(@NonNull Tier tier) {
+        this.tier = tier;
+        boolean low = tier == Tier.LOW;
+        markerIconPx = low ? 72 : 120;
+        cullOffscreenMarkers = low;
+        mapDetailEnabled = !low;
+        locationPriority = low ? Priority.PRIORITY_BALANCED_POWER_ACCURACY : Priority.PRIORITY_HIGH_ACCURACY;
+        locationIntervalMs = low ? 15_000 : 5_000;
+        locationFastestIntervalMs = low ? 10_000 : 2_000;
+        prefetchBytesPerHour = low ? 128 * 1024 : 512 * 1024;
+        snapshotDownsample = low ? 4 : 2;
+        thumbnailCacheBytes = low ? 4 * 1024 * 1024 : 12 * 1024 * 1024;
+        frameRingCapacity = low ? 1024 : 4096;
+    }
+
+    @NonNull
+    public static DeviceProfile get(@NonNull Context context) {
+        DeviceProfile p = instance;
+        if (p == null) {
+            ActivityManager am = (ActivityManager) context.getApplicationContext()
+                    .getSystemService(Context.ACTIVITY_SERVICE);
+            p = forTier(classify(am.isLowRamDevice(), am.getMemoryClass(),
+                    Runtime.getRuntime().availableProcessors()));
+            instance = p;
+        }
+        return p;
+    }
+
+    @NonNull
+    public static DeviceProfile forTier(@NonNull Tier tier) {
+        return new DeviceProfile(tier);
+    }
+
+    @NonNull
+    static Tier classify(boolean lowRamDevice, int memoryClassMb, int cpuCount) {
+        if (lowRamDevice || memoryClassMb <= 96) return Tier.LOW;
+        if (memoryClassMb <= 128 && cpuCount <= 4) return Tier.LOW;
+        return Tier.STANDARD;
+    }
+
+    public boolean isLowEnd() {
+        return tier == Tier.LOW;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bicyclestorage.util;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+/**
+ * dp → px conversion with the density read once (instead of on every call).
+ * Create per Activity; a density change recreates the Activity anyway.
+ */
+public final class DisplayUnits {
+
+    private final float density;
+
+    public DisplayUnits(float density) {
+        this.density = density;
+    }
+
+    public static DisplayUnits of(@NonNull Context context) {
+        return new DisplayUnits(context.getResources().getDisplayMetrics().density);
+    }
+
+    public int dp(int value) {
+        return Math.round(value * density);
+    }
+
+    public float density() {
+        return density;
+    }
+}
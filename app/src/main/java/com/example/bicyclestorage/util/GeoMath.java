@@ -0,0 +1,22 @@
+package com.example.bicyclestorage.util;
+
+/**
+ * Small spherical-earth helpers (no Android dependency, usable off the main thread
+ * and in local unit tests).
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_M = 6_371_008.8;
+
+    private GeoMath() {}
+
+    /** Great-circle distance in meters (haversine). */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bicyclestorage.watch;
+
+import androidx.annotation.NonNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Free/full state of watched storages with hysteresis.
+ *
+ * A storage is FULL at 0 free spaces and FREE from {@link #FREE_ENTER} free
+ * spaces (or all spaces of a smaller storage); values in between keep the
+ * previous state, so one bike coming and going does not flap. Only a
+ * FULL → FREE transition notifies, at most once per {@link #COOLDOWN_MS} per
+ * storage. The first observation of a storage is a baseline and never notifies.
+ *
+ * Synchronized: fed by foreground listeners and the background poll alike.
+ */
+public final class AvailabilityTracker {
+
+    static final int FREE_ENTER = 2;
+    static final long COOLDOWN_MS = 20 * 60_000L;
+
+    private static final int MAGIC = 0x57415431; // "WAT1"
+
+    static final byte UNKNOWN = 0;
+    static final byte FULL = 1;
+    static final byte FREE = 2;
+
+    private static final class Entry {
+        byte state = UNKNOWN;
+        int capacity = -1;
+        long lastNotifiedMs = Long.MIN_VALUE;
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Records the current occupancy; returns true if the storage just became free
+     * and a notification is due. {@code capacity} &lt; 0 reuses the last known one.
+     */
+    public synchronized boolean observe(@NonNull String id, int capacity, int inUse, long nowMs) {
+        Entry e = entries.get(id);
+        if (e == null) {
+            e = new Entry();
+            entries.put(id, e);
+        }
+        if (capacity >= 0) e.capacity = capacity;
+        if (e.capacity <= 0) return false;
+
+        int free = e.capacity - inUse;
+        byte next = e.state;
+        if (free <= 0) next = FULL;
+        else if (free >= Math.min(FREE_ENTER, e.capacity)) next = FREE;
+        else if (e.state == UNKNOWN) next = FREE; // baseline inside the band
+
+        byte prev = e.state;
+        e.state = next;
+        if (prev != FULL || next != FREE) return false;
+        if (e.lastNotifiedMs != Long.MIN_VALUE && nowMs - e.lastNotifiedMs < COOLDOWN_MS) return false;
+        e.lastNotifiedMs = nowMs;
+        return true;
+    }
+
+    /** Forgets storages that are no longer watched. */
+    public synchronized void retain(@NonNull Set<String> ids) {
+        entries.keySet().retainAll(ids);
+    }
+
+    synchronized byte stateOf(@NonNull String id) {
+        Entry e = entries.get(id);
+        return e == null ? UNKNOWN : e.state;
+    }
+
+    // --- Persistence (the background poll may run in a fresh process) ---
+
+    public synchronized void write(@NonNull DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> me : entries.entrySet()) {
+            Entry e = me.getValue();
+            out.writeUTF(me.getKey());
+            out.writeByte(e.state);
+            out.writeInt(e.capacity);
+            out.writeLong(e.lastNotifiedMs);
+        }
+    }
+
+    public synchronized void read(@NonNull DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a watch state file");
+        int n = in.readInt();
+        Map<String, Entry> loaded = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String id = in.readUTF();
+            Entry e = new Entry();
+            e.state = in.readByte();
+            e.capacity = in.readInt();
+            e.lastNotifiedMs = in.readLong();
+            loaded.put(id, e);
+        }
+        // Anything observed meanwhile is newer than the file
+        for (Map.Entry<String, Entry> me : loaded.entrySet()) {
+            if (!entries.containsKey(me.getKey())) entries.put(me.getKey(), me.getValue());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bicyclestorage.watch;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+
+/**
+ * All watched storages over as few backend listeners as possible: ids are
+ * packed into chunks of {@link StorageBackend#MAX_IDS_PER_QUERY}, one
+ * {@link StorageBackend#watchIds} listener per chunk.
+ *
+ * When the watch set changes, untouched chunks keep their listeners; only
+ * chunks that lost or gained ids are re-subscribed.
+ *
+ * Confined to one thread (the main thread in the app).
+ */
+public final class WatchMultiplexer {
+
+    private final StorageBackend backend;
+    private final Executor executor;
+    private final StorageBackend.Listener sink;
+    private final int chunkSize;
+
+    // Chunk lists are compared by identity: same instance = same listener
+    private List<List<String>> chunks = Collections.emptyList();
+    private final Map<List<String>, StorageBackend.Subscription> subscriptions = new IdentityHashMap<>();
+
+    public WatchMultiplexer(@NonNull StorageBackend backend, @NonNull Executor executor,
+                            @NonNull StorageBackend.Listener sink) {
+        this(backend, executor, sink, StorageBackend.MAX_IDS_PER_QUERY);
+    }
+
+    WatchMultiplexer(StorageBackend backend, Executor executor, StorageBackend.Listener sink, int chunkSize) {
+        this.backend = backend;
+        this.executor = executor;
+        this.sink = sink;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Watches exactly {@code ids} from now on. */
+    public void setIds(@NonNull Set<String> ids) {
+        List<List<String>> next = plan(chunks, ids, chunkSize);
+        Set<List<String>> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        keep.addAll(next);
+        for (List<String> old : chunks) {
+            if (keep.contains(old)) continue;
+            StorageBackend.Subscription s = subscriptions.remove(old);
+            if (s != null) s.remove();
+        }
+        for (List<String> chunk : next) {
+            if (!subscriptions.containsKey(chunk)) {
+                subscriptions.put(chunk, backend.watchIds(chunk, executor, sink));
+            }
+        }
+        chunks = next;
+    }
+
+    public void stop() {
+        setIds(Collections.emptySet());
+    }
+
+    public int listenerCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Next chunk layout. Chunks whose ids are all still wanted are returned as the
+     * same instances; new ids go to chunks that change anyway, then to an unchanged
+     * chunk only if that avoids opening another listener.
+     */
+    static List<List<String>> plan(List<List<String>> current, Set<String> wanted, int max) {
+        List<List<String>> next = new ArrayList<>();
+        List<List<String>> changed = new ArrayList<>();
+        Set<String> placed = new HashSet<>();
+        for (List<String> chunk : current) {
+            List<String> kept = new ArrayList<>(chunk.size());
+            for (String id : chunk) if (wanted.contains(id)) kept.add(id);
+            placed.addAll(kept);
+            if (kept.size() == chunk.size()) {
+                next.add(chunk);
+            } else if (!kept.isEmpty()) {
+                changed.add(kept);
+            }
+        }
+
+        TreeSet<String> missing = new TreeSet<>(wanted);
+        missing.removeAll(placed);
+        for (List<String> c : changed) {
+            while (c.size() < max && !missing.isEmpty()) c.add(missing.pollFirst());
+        }
+        while (!missing.isEmpty()) {
+            List<String> target = null;
+            if (missing.size() < max) {
+                for (int i = 0; i < next.size(); i++) {
+                    if (max - next.get(i).size() >= missing.size()) {
+                        target = new ArrayList<>(next.remove(i));
+                        break;
+                    }
+                }
+            }
+            if (target == null) target = new ArrayList<>(max);
+            while (target.size() < max && !missing.isEmpty()) target.add(missing.pollFirst());
+            changed.add(target);
+        }
+        next.addAll(changed);
+
+        // Removals left too many sparse chunks: repack everything
+        int minimal = (wanted.size() + max - 1) / max;
+        if (next.size() > minimal + 1) {
+            next = new ArrayList<>();
+            List<String> c = null;
+            for (String id : new TreeSet<>(wanted)) {
+                if (c == null || c.size() == max) {
+                    c = new ArrayList<>(max);
+                    next.add(c);
+                }
+                c.add(id);
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bicyclestorage.watch;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.example.bicyclestorage.LaunchActivity;
+import com.example.bicyclestorage.R;
+
+/** "A watched storage has a free space" notifications (one per storage, replaced on repeat). */
+final class WatchNotifier {
+
+    static final String CHANNEL_ID = "watchlist";
+
+    private final Context app;
+    private boolean channelCreated = false;
+
+    WatchNotifier(@NonNull Context app) {
+        this.app = app;
+    }
+
+    @SuppressWarnings("MissingPermission") // checked via areNotificationsEnabled()
+    void notifyFree(@NonNull String storageId, @Nullable String title, int free) {
+        NotificationManagerCompat nm = NotificationManagerCompat.from(app);
+        if (!nm.areNotificationsEnabled()) return;
+        ensureChannel();
+
+        Intent open = new Intent(app, LaunchActivity.class)
+                .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent content = PendingIntent.getActivity(app, 0, open,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        String heading = title != null
+                ? app.getString(R.string.watch_free_title, title)
+                : app.getString(R.string.watch_free_title_unknown);
+        String text = free > 0
+                ? app.getString(R.string.watch_free_text, free)
+                : app.getString(R.string.watch_free_text_unknown);
+
+        nm.notify(storageId.hashCode(), new NotificationCompat.Builder(app, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_stat_storage)
+                .setContentTitle(heading)
+                .setContentText(text)
+                .setContentIntent(content)
+                .setAutoCancel(true)
+                .setOnlyAlertOnce(true)
+                .setCategory(NotificationCompat.CATEGORY_STATUS)
+                .build());
+    }
+
+    private synchronized void ensureChannel() {
+        if (channelCreated || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+        NotificationChannel ch = new NotificationChannel(CHANNEL_ID,
+                app.getString(R.string.watch_channel_name), NotificationManager.IMPORTANCE_DEFAULT);
+        ch.setDescription(app.getString(R.string.watch_channel_desc));
+        NotificationManager nm = app.getSystemService(NotificationManager.class);
+        if (nm != null) nm.createNotificationChannel(ch);
+        channelCreated = true;
+    }
+}
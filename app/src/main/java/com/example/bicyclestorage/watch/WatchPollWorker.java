@@ -0,0 +1,94 @@
+package com.example.bicyclestorage.watch;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+import com.example.bicyclestorage.storage.backend.StorageBackends;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background replacement for the live watch listeners: every
+ * {@link #INTERVAL_MIN} minutes (on a network) one id query per chunk of
+ * watched storages, evaluated by the {@link Watchlist}'s hysteresis.
+ */
+public class WatchPollWorker extends Worker {
+
+    private static final String WORK_NAME = "watchlist-poll";
+    static final long INTERVAL_MIN = 15; // WorkManager's minimum period
+    private static final long FETCH_TIMEOUT_S = 30;
+
+    public WatchPollWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Starts the periodic poll (kept if already scheduled). */
+    public static void schedule(@NonNull Context context) {
+        PeriodicWorkRequest req = new PeriodicWorkRequest.Builder(
+                WatchPollWorker.class, INTERVAL_MIN, TimeUnit.MINUTES)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(INTERVAL_MIN, TimeUnit.MINUTES)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, req);
+    }
+
+    public static void cancel(@NonNull Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Watchlist watchlist = Watchlist.get(getApplicationContext());
+        List<String> ids = new ArrayList<>(watchlist.ids());
+        if (ids.isEmpty()) return Result.success();
+
+        StorageBackend backend = StorageBackends.get();
+        int chunk = StorageBackend.MAX_IDS_PER_QUERY;
+        int chunks = (ids.size() + chunk - 1) / chunk;
+        CountDownLatch done = new CountDownLatch(chunks);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < ids.size(); i += chunk) {
+            backend.fetchIds(ids.subList(i, Math.min(ids.size(), i + chunk)), Runnable::run,
+                    new StorageBackend.AreaCallback() {
+                        @Override
+                        public void onArea(@NonNull List<Storage> storages) {
+                            for (Storage s : storages) watchlist.observe(s, true);
+                            done.countDown();
+                        }
+
+                        @Override
+                        public void onAreaFailed(@NonNull Exception e) {
+                            failed.incrementAndGet();
+                            done.countDown();
+                        }
+                    });
+        }
+        boolean complete;
+        try {
+            complete = done.await(FETCH_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+        watchlist.saveState();
+        return !complete || failed.get() == chunks ? Result.retry() : Result.success();
+    }
+}
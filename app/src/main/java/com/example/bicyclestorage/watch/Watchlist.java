@@ -0,0 +1,158 @@
+package com.example.bicyclestorage.watch;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rider's favourite storages and their notification state, shared by the
+ * map screen and {@link WatchPollWorker} (one instance per process).
+ *
+ * Watched ids live in SharedPreferences; the {@link AvailabilityTracker} state
+ * is saved to a small file so a poll in a fresh process keeps the hysteresis.
+ */
+public final class Watchlist {
+
+    private static final String TAG = "Watchlist";
+    private static final String PREFS_NAME = "watchlist";
+    private static final String KEY_IDS = "ids";
+    private static final String STATE_FILE = "watch_state.bin";
+
+    private static volatile Watchlist instance;
+
+    private final SharedPreferences prefs;
+    private final File stateFile;
+    private final WatchNotifier notifier;
+    private final AvailabilityTracker tracker = new AvailabilityTracker();
+
+    // Titles seen so far (for notification text); guarded by this
+    private final Map<String, String> titles = new HashMap<>();
+    private Set<String> ids;
+
+    private Watchlist(Context app) {
+        prefs = app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        stateFile = new File(app.getFilesDir(), STATE_FILE);
+        notifier = new WatchNotifier(app);
+        ids = Collections.unmodifiableSet(new HashSet<>(prefs.getStringSet(KEY_IDS, Collections.emptySet())));
+        loadState();
+    }
+
+    @NonNull
+    public static Watchlist get(@NonNull Context context) {
+        Watchlist w = instance;
+        if (w == null) {
+            synchronized (Watchlist.class) {
+                w = instance;
+                if (w == null) {
+                    w = new Watchlist(context.getApplicationContext());
+                    instance = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    @NonNull
+    public synchronized Set<String> ids() {
+        return ids;
+    }
+
+    public synchronized boolean contains(@NonNull String storageId) {
+        return ids.contains(storageId);
+    }
+
+    /** Watches / unwatches a storage; returns true if it is watched now. */
+    public synchronized boolean toggle(@NonNull Storage storage) {
+        Set<String> next = new HashSet<>(ids);
+        boolean watched = !next.remove(storage.id);
+        if (watched) next.add(storage.id);
+        ids = Collections.unmodifiableSet(next);
+        prefs.edit().putStringSet(KEY_IDS, next).apply();
+        tracker.retain(next);
+        if (watched) observe(storage, false); // baseline
+        return watched;
+    }
+
+    /** Full storage state; posts a notification on a due FULL → FREE transition if {@code notify}. */
+    public void observe(@NonNull Storage s, boolean notify) {
+        synchronized (this) {
+            if (!ids.contains(s.id)) return;
+            titles.put(s.id, s.title);
+        }
+        if (tracker.observe(s.id, s.capacity, s.inUse, System.currentTimeMillis()) && notify) {
+            notifier.notifyFree(s.id, s.title, s.free());
+        }
+    }
+
+    /** Occupancy-only update (capacity from an earlier {@link #observe}). */
+    public void observeOccupancy(@NonNull String storageId, int inUse, boolean notify) {
+        String title;
+        synchronized (this) {
+            if (!ids.contains(storageId)) return;
+            title = titles.get(storageId);
+        }
+        if (tracker.observe(storageId, -1, inUse, System.currentTimeMillis()) && notify) {
+            notifier.notifyFree(storageId, title, -1);
+        }
+    }
+
+    /** Backend listener that feeds this watchlist (background: {@code notify} = true). */
+    @NonNull
+    public StorageBackend.Listener listener(boolean notify) {
+        return new StorageBackend.Listener() {
+            @Override
+            public void onStorages(@NonNull List<Storage> storages) {
+                for (Storage s : storages) observe(s, notify);
+            }
+
+            @Override
+            public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {
+                observeOccupancy(storageId, inUse, notify);
+            }
+        };
+    }
+
+    // --- Tracker state file ---
+
+    private void loadState() {
+        if (!stateFile.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+            tracker.read(in);
+            tracker.retain(ids);
+        } catch (IOException e) {
+            Log.w(TAG, "State load failed: " + e.getMessage());
+        }
+    }
+
+    /** Writes the tracker state (call off the main thread). */
+    public void saveState() {
+        File tmp = new File(stateFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            tracker.write(out);
+        } catch (IOException e) {
+            Log.w(TAG, "State save failed: " + e.getMessage());
+            return;
+        }
+        if (!tmp.renameTo(stateFile)) Log.w(TAG, "State rename failed");
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bicyclestorage.auth;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UsernameBloomFilterTest {
+
+    @Test
+    public void noFalseNegativesAndLowFalsePositiveRate() {
+        UsernameBloomFilter f = UsernameBloomFilter.createDefault();
+        int n = 10_000;
+        for (int i = 0; i < n; i++) f.put("rider" + i);
+        for (int i = 0; i < n; i++) assertTrue(f.mightContain("rider" + i));
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (f.mightContain("cyclist" + i)) falsePositives++;
+        }
+        assertTrue("fp=" + falsePositives, falsePositives < probes / 100);
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        UsernameBloomFilter f = UsernameBloomFilter.createDefault();
+        f.put("kata");
+        f.put("árvíztűrő");
+        UsernameBloomFilter g = UsernameBloomFilter.fromBytes(f.toBytes());
+        assertNotNull(g);
+        assertTrue(g.mightContain("kata"));
+        assertTrue(g.mightContain("árvíztűrő"));
+        assertFalse(g.mightContain("bence"));
+
+        assertNull(UsernameBloomFilter.fromBytes(new byte[3]));
+        byte[] truncated = new byte[100];
+        System.arraycopy(f.toBytes(), 0, truncated, 0, truncated.length);
+        assertNull(UsernameBloomFilter.fromBytes(truncated));
+    }
+
+    @Test
+    public void normalizationIsCaseInsensitive() {
+        UsernameBloomFilter f = UsernameBloomFilter.createDefault();
+        f.put(Usernames.normalize("  Kata "));
+        assertTrue(f.mightContain(Usernames.normalize("KATA")));
+
+        assertNull(Usernames.problem("kata_99"));
+        assertNull(Usernames.problem("Ödön"));
+        assertNotNull(Usernames.problem("ab"));
+        assertNotNull(Usernames.problem("a/b/c"));
+        assertNotNull(Usernames.problem(" "));
+    }
+}
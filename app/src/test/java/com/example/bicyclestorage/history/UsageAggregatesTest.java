@@ -0,0 +1,130 @@
+package com.example.bicyclestorage.history;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class UsageAggregatesTest {
+
+    private static final TimeZone BUDAPEST = TimeZone.getTimeZone("Europe/Budapest");
+    private static final long T0 = 1_760_000_000_000L; // 2025-10-09
+
+    private static ParkingSession session(String storageId, long startMs, long durationMs) {
+        ParkingSession s = new ParkingSession();
+        s.storageId = storageId;
+        s.storageTitle = storageId != null ? "Title " + storageId : null;
+        s.startMs = startMs;
+        s.endMs = startMs + durationMs;
+        return s;
+    }
+
+    @Test
+    public void monthKeyFollowsLocalCalendar() {
+        assertEquals(202510, UsageAggregates.monthKey(T0, BUDAPEST));
+        // 2025-10-31 23:30 UTC is already November in Budapest
+        long lateOctoberUtc = 1_761_953_400_000L;
+        assertEquals(202510, UsageAggregates.monthKey(lateOctoberUtc, TimeZone.getTimeZone("UTC")));
+        assertEquals(202511, UsageAggregates.monthKey(lateOctoberUtc, BUDAPEST));
+    }
+
+    @Test
+    public void incrementalRowsMatchAFullRecompute() {
+        Random rnd = new Random(7);
+        UsageTotals totals = new UsageTotals();
+        Map<Integer, MonthlyUsage> months = new HashMap<>();
+        Map<String, StorageUsage> storages = new HashMap<>();
+        List<ParkingSession> history = new ArrayList<>();
+
+        long t = T0;
+        for (int i = 0; i < 2_000; i++) {
+            t += 3_600_000L + rnd.nextInt(48) * 3_600_000L;
+            String id = rnd.nextInt(10) == 0 ? null : "s" + (int) Math.abs(rnd.nextGaussian() * 4);
+            ParkingSession s = session(id, t, 60_000L + rnd.nextInt(10 * 3_600_000));
+            history.add(s);
+
+            int key = UsageAggregates.monthKey(s.startMs, BUDAPEST);
+            MonthlyUsage m = months.get(key);
+            if (m == null) {
+                m = new MonthlyUsage();
+                m.month = key;
+                months.put(key, m);
+            }
+            StorageUsage u = null;
+            if (id != null) {
+                u = storages.get(id);
+                if (u == null) {
+                    u = new StorageUsage();
+                    u.storageId = id;
+                    storages.put(id, u);
+                }
+            }
+            UsageAggregates.add(s, u, m, totals);
+        }
+
+        // Recompute from the full history
+        long totalMs = 0;
+        Map<Integer, long[]> byMonth = new HashMap<>();
+        Map<String, long[]> byStorage = new HashMap<>();
+        for (ParkingSession s : history) {
+            totalMs += s.durationMs();
+            long[] m = byMonth.computeIfAbsent(UsageAggregates.monthKey(s.startMs, BUDAPEST), k -> new long[2]);
+            m[0]++;
+            m[1] += s.durationMs();
+            if (s.storageId == null) continue;
+            long[] u = byStorage.computeIfAbsent(s.storageId, k -> new long[2]);
+            u[0]++;
+            u[1] += s.durationMs();
+        }
+        String favourite = null;
+        for (Map.Entry<String, long[]> e : byStorage.entrySet()) {
+            long[] v = e.getValue();
+            long[] f = favourite != null ? byStorage.get(favourite) : null;
+            if (f == null || v[0] > f[0] || (v[0] == f[0] && v[1] > f[1])) favourite = e.getKey();
+        }
+
+        assertEquals(history.size(), totals.sessions);
+        assertEquals(totalMs, totals.totalMs);
+        assertEquals(byMonth.size(), months.size());
+        for (Map.Entry<Integer, long[]> e : byMonth.entrySet()) {
+            assertEquals(e.getValue()[0], months.get(e.getKey()).sessions);
+            assertEquals(e.getValue()[1], months.get(e.getKey()).totalMs);
+        }
+        for (Map.Entry<String, long[]> e : byStorage.entrySet()) {
+            assertEquals(e.getValue()[0], storages.get(e.getKey()).sessions);
+            assertEquals(e.getValue()[1], storages.get(e.getKey()).totalMs);
+        }
+        assertEquals(favourite, totals.favouriteId);
+        assertEquals("Title " + favourite, totals.favouriteTitle);
+        assertEquals(byStorage.get(favourite)[0], totals.favouriteSessions);
+    }
+
+    @Test
+    public void favouriteMovesOnlyWhenOvertaken() {
+        UsageTotals totals = new UsageTotals();
+        MonthlyUsage month = new MonthlyUsage();
+        StorageUsage a = new StorageUsage();
+        a.storageId = "a";
+        StorageUsage b = new StorageUsage();
+        b.storageId = "b";
+
+        UsageAggregates.add(session("a", T0, 3_600_000L), a, month, totals);
+        UsageAggregates.add(session("b", T0, 60_000L), b, month, totals);
+        assertEquals("a", totals.favouriteId); // same count, less time
+
+        UsageAggregates.add(session("b", T0, 60_000L), b, month, totals);
+        assertEquals("b", totals.favouriteId);
+        assertEquals(2, totals.favouriteSessions);
+
+        UsageAggregates.add(session(null, T0, 60_000L), null, month, totals);
+        assertEquals("b", totals.favouriteId);
+        assertEquals(4, totals.sessions);
+        assertEquals(4, month.sessions);
+    }
+}
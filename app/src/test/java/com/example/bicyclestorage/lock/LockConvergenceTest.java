@@ -0,0 +1,162 @@
+package com.example.bicyclestorage.lock;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Simulated devices of one user syncing through a merge-written lock document. */
+public class LockConvergenceTest {
+
+    private static final String[] STORAGES = {"storage-1", "storage-2", "storage-3"};
+
+    /** Server document with Firestore merge-write semantics (nested maps merge deeply). */
+    private static final class Server {
+        final Map<String, Object> doc = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        void mergeWrite(Map<String, Object> data) {
+            merge(doc, data);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void merge(Map<String, Object> into, Map<String, Object> data) {
+            for (Map.Entry<String, Object> e : data.entrySet()) {
+                Object cur = into.get(e.getKey());
+                if (cur instanceof Map && e.getValue() instanceof Map) {
+                    merge((Map<String, Object>) cur, (Map<String, Object>) e.getValue());
+                } else if (e.getValue() instanceof Map) {
+                    Map<String, Object> copy = new HashMap<>();
+                    merge(copy, (Map<String, Object>) e.getValue());
+                    into.put(e.getKey(), copy);
+                } else {
+                    into.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> copy = new HashMap<>();
+            merge(copy, doc);
+            return copy;
+        }
+    }
+
+    private static final class Device {
+        final LockStateModel model;
+        final ArrayDeque<Map<String, Object>> outbox = new ArrayDeque<>(); // per-client FIFO
+
+        Device(String id) {
+            model = new LockStateModel(id);
+        }
+
+        void toggle(String storageId) {
+            LockEntry e = model.toggle(storageId, true);
+            outbox.add(LockDoc.encode(storageId, e));
+        }
+    }
+
+    @Test
+    public void concurrentTogglesConverge() {
+        for (long seed = 1; seed <= 200; seed++) {
+            Random rnd = new Random(seed);
+            Server server = new Server();
+            List<Device> devices = new ArrayList<>();
+            int n = 2 + rnd.nextInt(3);
+            for (int i = 0; i < n; i++) devices.add(new Device("device-" + i));
+
+            for (int step = 0; step < 200; step++) {
+                Device d = devices.get(rnd.nextInt(n));
+                switch (rnd.nextInt(3)) {
+                    case 0:
+                        d.toggle(STORAGES[rnd.nextInt(STORAGES.length)]);
+                        break;
+                    case 1:
+                        if (!d.outbox.isEmpty()) server.mergeWrite(d.outbox.poll());
+                        break;
+                    default:
+                        // A (possibly stale) snapshot reaches this device
+                        LockDoc.apply(d.model, server.snapshot(), true);
+                }
+            }
+
+            // Quiescence: all writes land, every device gets one listener tick
+            for (Device d : devices) {
+                while (!d.outbox.isEmpty()) server.mergeWrite(d.outbox.poll());
+            }
+            Map<String, Object> finalSnap = server.snapshot();
+            for (Device d : devices) LockDoc.apply(d.model, finalSnap, true);
+
+            for (String s : STORAGES) {
+                LockEntry ref = devices.get(0).model.entry(s);
+                for (Device d : devices) {
+                    assertEquals("seed " + seed + " " + s, ref, d.model.entry(s));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toggleAfterSeeingStateWins() {
+        Server server = new Server();
+        Device phone = new Device("phone");
+        Device tablet = new Device("tablet"); // sorts after "phone": wins exact ties
+
+        phone.toggle("storage-1"); // unlocked @1
+        phone.toggle("storage-1"); // locked @2
+        phone.toggle("storage-1"); // unlocked @3
+        server.mergeWrite(phone.outbox.poll());
+        server.mergeWrite(phone.outbox.poll());
+        server.mergeWrite(phone.outbox.poll());
+        LockDoc.apply(tablet.model, server.snapshot(), true);
+        assertFalse(tablet.model.isLocked("storage-1", true));
+
+        tablet.toggle("storage-1"); // locked @4 – causally after the phone's writes
+        server.mergeWrite(tablet.outbox.poll());
+        List<String> changed = LockDoc.apply(phone.model, server.snapshot(), true);
+
+        assertEquals(1, changed.size());
+        assertTrue(phone.model.isLocked("storage-1", true));
+        assertTrue(tablet.model.isLocked("storage-1", true));
+        assertEquals(4, phone.model.clock());
+    }
+
+    @Test
+    public void applyIsIdempotentAndReportsOnlyVisibleChanges() {
+        Server server = new Server();
+        Device a = new Device("a");
+        Device b = new Device("b");
+        a.toggle("storage-2");
+        server.mergeWrite(a.outbox.poll());
+
+        Map<String, Object> snap = server.snapshot();
+        assertEquals(1, LockDoc.apply(b.model, snap, true).size());
+        assertTrue(LockDoc.apply(b.model, snap, true).isEmpty());
+        // Own write echoed back changes nothing
+        assertTrue(LockDoc.apply(a.model, snap, true).isEmpty());
+    }
+
+    @Test
+    public void firstRemoteEntryEqualToDefaultIsNoChange() {
+        Server server = new Server();
+        Device a = new Device("a");
+        a.toggle("storage-1");                       // true → false
+        server.mergeWrite(a.outbox.poll());
+
+        // A device that already shows "unlocked" sees no visible change
+        Device b = new Device("b");
+        assertTrue(LockDoc.apply(b.model, server.snapshot(), false).isEmpty());
+        assertFalse(b.model.isLocked("storage-1", true)); // but the entry is merged
+
+        // One that shows "locked" does
+        Device c = new Device("c");
+        assertEquals(Collections.singletonList("storage-1"), LockDoc.apply(c.model, server.snapshot(), true));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bicyclestorage.map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ByteLruCacheTest {
+
+    private static ByteLruCache<String, byte[]> cache(long maxBytes) {
+        return new ByteLruCache<>(maxBytes, v -> v.length);
+    }
+
+    @Test
+    public void evictsByBytesNotCount() {
+        ByteLruCache<String, byte[]> c = cache(100);
+        c.put("a", new byte[40]);
+        c.put("b", new byte[40]);
+        assertEquals(80, c.bytes());
+
+        c.put("c", new byte[30]);
+        assertNull(c.get("a"));
+        assertNotNull(c.get("b"));
+        assertNotNull(c.get("c"));
+        assertEquals(70, c.bytes());
+    }
+
+    @Test
+    public void getRefreshesRecency() {
+        ByteLruCache<String, byte[]> c = cache(100);
+        c.put("a", new byte[40]);
+        c.put("b", new byte[40]);
+        c.get("a");
+        c.put("c", new byte[40]);
+
+        assertNotNull(c.get("a"));
+        assertNull(c.get("b"));
+    }
+
+    @Test
+    public void replacingAKeyAccountsForTheOldValue() {
+        ByteLruCache<String, byte[]> c = cache(100);
+        c.put("a", new byte[60]);
+        c.put("a", new byte[20]);
+        assertEquals(1, c.size());
+        assertEquals(20, c.bytes());
+    }
+
+    @Test
+    public void oversizedValueIsNotKept() {
+        ByteLruCache<String, byte[]> c = cache(100);
+        c.put("a", new byte[50]);
+        c.put("huge", new byte[101]);
+
+        assertNull(c.get("huge"));
+        assertNotNull(c.get("a"));
+        assertEquals(50, c.bytes());
+    }
+
+    @Test
+    public void trimToDropsOldestFirst() {
+        ByteLruCache<String, byte[]> c = cache(100);
+        c.put("a", new byte[30]);
+        c.put("b", new byte[30]);
+        c.put("c", new byte[30]);
+
+        c.trimTo(50);
+        assertEquals(1, c.size());
+        assertNotNull(c.get("c"));
+
+        c.trimTo(0);
+        assertEquals(0, c.size());
+        assertEquals(0, c.bytes());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.bicyclestorage.map;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.StorageCatalog;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MapSnapshotCacheTest {
+
+    private static final int PORTRAIT = 1;
+
+    private static final List<Storage> BACKEND = Arrays.asList(
+            new Storage("fs-1", "Piac tér", 47.5301, 21.6390, 12, 4),
+            new Storage("fs-2", "Egyetem", 47.5560, 21.6210, 30, 11),
+            new Storage("fs-3", "Nagyerdő", 47.5512, 21.6302, 8, 0));
+
+    @Test
+    public void savedKeyIsConfirmedOnlyOnceTheBackendCatalogIsIn() throws Exception {
+        SharedPreferences prefs = new MemoryPrefs();
+        File image = Files.createTempFile("snapshot", ".webp").toFile();
+
+        // onPause: built-in + backend storages on the map
+        StorageCatalog before = StorageCatalog.createDefault();
+        for (Storage s : BACKEND) before.put(s);
+        MapSnapshotCache.Key key = new MapSnapshotCache.Key(47.53, 21.63, 14.5f, 0f,
+                before.layoutFingerprint(), PORTRAIT);
+        new MapSnapshotCache(prefs, image, 2).saveKey(key);
+
+        // Next cold start: new instance over the same storage
+        MapSnapshotCache.Key saved = new MapSnapshotCache(prefs, image, 2).savedKey();
+        assertNotNull(saved);
+        assertTrue(saved.matches(key));
+        assertEquals(PORTRAIT, saved.orientation);
+
+        // onCreate: only the built-in storages – no verdict possible yet
+        StorageCatalog after = StorageCatalog.createDefault();
+        assertFalse(saved.sameLayout(after.layoutFingerprint()));
+
+        // First backend batch (different arrival order) confirms it
+        for (int i = BACKEND.size() - 1; i >= 0; i--) after.put(BACKEND.get(i));
+        assertTrue(saved.sameLayout(after.layoutFingerprint()));
+
+        // Occupancy does not matter, a moved storage does
+        after.updateOccupancy("fs-1", 9);
+        assertTrue(saved.sameLayout(after.layoutFingerprint()));
+        Storage moved = BACKEND.get(2);
+        after.put(new Storage(moved.id, moved.title, moved.lat + 0.001, moved.lng, moved.capacity, moved.inUse));
+        assertFalse(saved.sameLayout(after.layoutFingerprint()));
+    }
+
+    @Test
+    public void invalidateDropsKeyAndImage() throws Exception {
+        SharedPreferences prefs = new MemoryPrefs();
+        File image = Files.createTempFile("snapshot", ".webp").toFile();
+        MapSnapshotCache cache = new MapSnapshotCache(prefs, image, 2);
+        assertNull(cache.savedKey());
+
+        cache.saveKey(new MapSnapshotCache.Key(47.53, 21.63, 14.5f, 0f, 42L, PORTRAIT));
+        assertNotNull(cache.savedKey());
+        cache.invalidate();
+        assertNull(cache.savedKey());
+        assertFalse(image.exists());
+    }
+
+    /** SharedPreferences over a map; edits apply immediately. */
+    private static final class MemoryPrefs implements SharedPreferences {
+        private final Map<String, Object> values = new HashMap<>();
+
+        @Override
+        public Map<String, ?> getAll() {
+            return new HashMap<>(values);
+        }
+
+        @Nullable
+        @Override
+        public String getString(String key, @Nullable String defValue) {
+            return values.containsKey(key) ? (String) values.get(key) : defValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        @Override
+        public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+            return values.containsKey(key) ? (Set<String>) values.get(key) : defValues;
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            return values.containsKey(key) ? (Integer) values.get(key) : defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return values.containsKey(key) ? (Long) values.get(key) : defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return values.containsKey(key) ? (Float) values.get(key) : defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return values.containsKey(key) ? (Boolean) values.get(key) : defValue;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new Editor() {
+                private final Map<String, Object> pending = new HashMap<>();
+                private boolean clear;
+
+                @Override
+                public Editor putString(String key, @Nullable String value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putStringSet(String key, @Nullable Set<String> v) {
+                    pending.put(key, v);
+                    return this;
+                }
+
+                @Override
+                public Editor putInt(String key, int value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putLong(String key, long value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putFloat(String key, float value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putBoolean(String key, boolean value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor remove(String key) {
+                    pending.put(key, null);
+                    return this;
+                }
+
+                @Override
+                public Editor clear() {
+                    clear = true;
+                    return this;
+                }
+
+                @Override
+                public boolean commit() {
+                    if (clear) values.clear();
+                    for (Map.Entry<String, Object> e : pending.entrySet()) {
+                        if (e.getValue() == null) values.remove(e.getKey());
+                        else values.put(e.getKey(), e.getValue());
+                    }
+                    return true;
+                }
+
+                @Override
+                public void apply() {
+                    commit();
+                }
+            };
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener l) {}
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener l) {}
+    }
+}
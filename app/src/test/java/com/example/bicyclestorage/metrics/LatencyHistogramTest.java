@@ -0,0 +1,83 @@
+package com.example.bicyclestorage.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (long v = 0; v < 32; v++) {
+            assertEquals(v, LatencyHistogram.bucketOf(v));
+            assertEquals(v, LatencyHistogram.upperBoundOf((int) v));
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguousAndWithinSixPercent() {
+        int prev = LatencyHistogram.bucketOf(31);
+        for (long v = 32; v < 5_000_000; v += 1 + v / 997) {
+            int b = LatencyHistogram.bucketOf(v);
+            assertTrue("monotonic at " + v, b >= prev);
+            long upper = LatencyHistogram.upperBoundOf(b);
+            assertTrue("upper bound below value at " + v, upper >= v);
+            assertTrue("too coarse at " + v, upper - v <= v / 16);
+            // The bucket below ends right before this one starts
+            assertTrue(LatencyHistogram.upperBoundOf(b - 1) < v);
+            prev = b;
+        }
+    }
+
+    @Test
+    public void bucketBoundariesAtPowersOfTwo() {
+        for (int exp = 5; exp < 40; exp++) {
+            long p = 1L << exp;
+            int b = LatencyHistogram.bucketOf(p);
+            assertEquals(p - 1, LatencyHistogram.upperBoundOf(b - 1));
+            assertEquals(b, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(b)));
+        }
+    }
+
+    @Test
+    public void percentilesTrackAKnownDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 1..10000 ms uniformly, shuffled
+        int n = 10_000;
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) values[i] = (i + 1) * 1000L;
+        Random rnd = new Random(5);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            long t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        for (long v : values) h.recordMicros(v);
+
+        assertEquals(n, h.count());
+        assertEquals(10_000_000L, h.maxMicros());
+        assertEquals(5_000_500.0, h.meanMicros(), 1e-6);
+        assertWithin(5_000_000, h.percentileMicros(0.50));
+        assertWithin(9_500_000, h.percentileMicros(0.95));
+        assertWithin(9_900_000, h.percentileMicros(0.99));
+        assertEquals(10_000_000L, h.percentileMicros(1.0));
+    }
+
+    @Test
+    public void emptyAndNegativeValues() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentileMicros(0.5));
+        assertEquals(0.0, h.meanMicros(), 0);
+        h.recordMicros(-5);
+        assertEquals(1, h.count());
+        assertEquals(0, h.percentileMicros(0.99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " got " + actual,
+                actual >= expected && actual - expected <= expected / 16);
+    }
+}
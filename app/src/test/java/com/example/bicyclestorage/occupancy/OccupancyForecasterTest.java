@@ -0,0 +1,83 @@
+package com.example.bicyclestorage.occupancy;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class OccupancyForecasterTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    // Monday 2025-10-06 00:00 UTC
+    private static final long MONDAY = 1_759_708_800_000L;
+
+    /** Weekday mornings 7–9 the rack is full (10/10), otherwise 2/10. */
+    private static int inUseAt(long t) {
+        long day = (t - MONDAY) / DAY % 7;
+        long hour = (t % DAY) / HOUR;
+        return day < 5 && hour >= 7 && hour < 9 ? 10 : 2;
+    }
+
+    private static OccupancyStore threeWeeks() {
+        OccupancyStore store = new OccupancyStore(TimeZone.getTimeZone("UTC"));
+        Storage s = new Storage("s1", "Rack", 47.5, 21.6, 10, 0);
+        for (long t = MONDAY; t < MONDAY + 21 * DAY; t += 10 * MINUTE) {
+            store.sample(s.withInUse(inUseAt(t)), t);
+        }
+        return store;
+    }
+
+    @Test
+    public void learnsWeekdayMorningPeak() {
+        OccupancyStore store = threeWeeks();
+        OccupancyForecaster f = new OccupancyForecaster(store);
+        Storage s = new Storage("s1", "Rack", 47.5, 21.6, 10, 2);
+        long now = MONDAY + 21 * DAY; // Monday 00:00, three weeks later
+
+        int mondayPeak = f.forecastFree(s, now, now + 8 * HOUR + 30 * MINUTE);
+        int sundayPeak = f.forecastFree(s, now, now + 6 * DAY + 8 * HOUR + 30 * MINUTE);
+        assertTrue("monday 8:30 free=" + mondayPeak, mondayPeak <= 1);
+        assertTrue("sunday 8:30 free=" + sundayPeak, sundayPeak >= 7);
+
+        // Nowcast: right now the latest value dominates
+        assertEquals(8, f.forecastFree(s, now, now + MINUTE));
+        assertEquals(OccupancyForecaster.UNKNOWN, f.forecastPermille("nope", now, now));
+    }
+
+    @Test
+    public void persistsCompactly() throws Exception {
+        OccupancyStore store = threeWeeks();
+        File file = Files.createTempFile("occ", ".bin").toFile();
+        store.save(file);
+        assertTrue("bytes=" + file.length(), file.length() < 2 * 1024);
+
+        OccupancyStore loaded = new OccupancyStore(TimeZone.getTimeZone("UTC"));
+        loaded.load(file);
+        Storage s = new Storage("s1", "Rack", 47.5, 21.6, 10, 2);
+        long now = MONDAY + 21 * DAY;
+        long target = now + 8 * HOUR;
+        assertEquals(new OccupancyForecaster(store).forecastPermille("s1", now, target),
+                new OccupancyForecaster(loaded).forecastPermille("s1", now, target), 1);
+        file.delete();
+    }
+
+    @Test
+    public void forecastTakesMicroseconds() {
+        OccupancyForecaster f = new OccupancyForecaster(threeWeeks());
+        long now = MONDAY + 21 * DAY;
+        int sink = 0;
+        for (int i = 0; i < 50_000; i++) sink += f.forecastPermille("s1", now, now + (i % 500) * MINUTE);
+        long start = System.nanoTime();
+        int n = 200_000;
+        for (int i = 0; i < n; i++) sink += f.forecastPermille("s1", now, now + (i % 500) * MINUTE);
+        double micros = (System.nanoTime() - start) / 1000.0 / n;
+        assertTrue("avg " + micros + " µs (" + sink + ")", micros < 5);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bicyclestorage.perf;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Per-call allocation measurement for budget tests (HotSpot thread allocation
+ * counters). {@link #isSupported()} is false on JVMs without them. Wall-clock
+ * time is deliberately not measured: it depends on the machine, bytes do not.
+ */
+final class AllocationBudget {
+
+    interface Call {
+        void run();
+    }
+
+    /** Average result of a measured loop. */
+    static final class Result {
+        final double bytesPerCall;
+
+        Result(double bytesPerCall) {
+            this.bytesPerCall = bytesPerCall;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.US, "%.2f B/call", bytesPerCall);
+        }
+    }
+
+    private static final int WARMUP = 20_000;
+
+    private AllocationBudget() {}
+
+    static boolean isSupported() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (!(mx instanceof com.sun.management.ThreadMXBean)) return false;
+        com.sun.management.ThreadMXBean hs = (com.sun.management.ThreadMXBean) mx;
+        return hs.isThreadAllocatedMemorySupported() && hs.isThreadAllocatedMemoryEnabled();
+    }
+
+    static Result measure(int iterations, Call call) {
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++) call.run();
+
+        // Baseline: cost of the counter reads themselves
+        long b0 = mx.getThreadAllocatedBytes(tid);
+        long b1 = mx.getThreadAllocatedBytes(tid);
+        long overhead = b1 - b0;
+
+        long startBytes = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < iterations; i++) call.run();
+        long bytes = mx.getThreadAllocatedBytes(tid) - startBytes - overhead;
+
+        return new Result(Math.max(0, bytes) / (double) iterations);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bicyclestorage.perf;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class FrameRingTest {
+
+    private static final int SCROLL = 1;
+    private static final int MARKERS = 2;
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void wrapsAroundKeepingTheNewestSamples() throws IOException {
+        FrameRing ring = new FrameRing(4);
+        for (int i = 0; i < 6; i++) ring.add(i * 100L, (i + 1) * MS, 0, false);
+        assertEquals(4, ring.size());
+
+        // Oldest first: samples 2..5 survive
+        String[] rows = csv(ring);
+        assertEquals(5, rows.length);
+        assertEquals("start_ns,duration_ns,phase_mask,jank", rows[0]);
+        for (int k = 0; k < 4; k++) {
+            assertEquals(((k + 2) * 100L) + "," + ((k + 3) * MS) + ",0,0", rows[k + 1]);
+        }
+        assertEquals(4, ring.summarize(0).frames);
+        assertEquals(4 * MS, ring.summarize(0).p50Nanos); // of 3, 4, 5, 6 ms
+
+        ring.clear();
+        assertEquals(0, ring.size());
+        assertEquals(1, csv(ring).length);
+    }
+
+    @Test
+    public void percentilesArePerPhase() {
+        FrameRing ring = new FrameRing(1_000);
+        // Idle: 1..100 ms
+        for (int i = 1; i <= 100; i++) ring.add(i, i * MS, 0, false);
+        // Scrolling: 200 frames of 10 ms, the last 4 janky at 50 ms
+        for (int i = 0; i < 200; i++) {
+            boolean jank = i >= 196;
+            ring.add(i, (jank ? 50 : 10) * MS, SCROLL, jank);
+        }
+        // Scrolling while adding markers: 20 ms
+        for (int i = 0; i < 10; i++) ring.add(i, 20 * MS, SCROLL | MARKERS, true);
+
+        FrameRing.Summary idle = ring.summarize(0);
+        assertEquals(100, idle.frames);
+        assertEquals(0, idle.jankFrames);
+        assertEquals(50 * MS, idle.p50Nanos);
+        assertEquals(95 * MS, idle.p95Nanos);
+        assertEquals(99 * MS, idle.p99Nanos);
+
+        // SCROLL matches frames where it is one of several active phases too
+        FrameRing.Summary scroll = ring.summarize(SCROLL);
+        assertEquals(210, scroll.frames);
+        assertEquals(14, scroll.jankFrames);
+        assertEquals(10 * MS, scroll.p50Nanos);
+        assertEquals(20 * MS, scroll.p95Nanos);
+        assertEquals(50 * MS, scroll.p99Nanos);
+
+        FrameRing.Summary both = ring.summarize(SCROLL | MARKERS);
+        assertEquals(10, both.frames);
+        assertEquals(20 * MS, both.p99Nanos);
+
+        FrameRing.Summary none = new FrameRing(8).summarize(SCROLL);
+        assertEquals(0, none.frames);
+        assertEquals(0, none.p99Nanos);
+    }
+
+    @Test
+    public void csvRowsCarryMaskAndJank() throws IOException {
+        FrameRing ring = new FrameRing(8);
+        ring.add(1_000L, 16 * MS, SCROLL | MARKERS, true);
+        ring.add(2_000L, 8 * MS, 0, false);
+        String[] rows = csv(ring);
+        assertEquals(3, rows.length);
+        assertEquals("1000," + 16 * MS + ",3,1", rows[1]);
+        assertEquals("2000," + 8 * MS + ",0,0", rows[2]);
+    }
+
+    private static String[] csv(FrameRing ring) throws IOException {
+        StringWriter out = new StringWriter();
+        ring.writeCsv(out);
+        return out.toString().split("\n");
+    }
+}
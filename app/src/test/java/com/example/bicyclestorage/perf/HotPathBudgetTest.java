@@ -0,0 +1,141 @@
+package com.example.bicyclestorage.perf;
+
+import com.example.bicyclestorage.map.InfoWindowRenderer;
+import com.example.bicyclestorage.map.MarkerIconCache;
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.StorageCatalog;
+import com.example.bicyclestorage.util.DisplayUnits;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Work and allocation budgets for UI hot paths, run against the classes the
+ * activity delegates to. Part of the unit test task, so going over budget fails
+ * the build. Budgets are call counts (inflate / decode happen once per key) and
+ * bytes per call averaged over many calls after warm-up; wall-clock time is not
+ * asserted.
+ */
+public class HotPathBudgetTest {
+
+    private static final int ITERATIONS = 200_000;
+    // Any real per-call allocation is >= 16 bytes; below 1 B/call is JIT / counter noise
+    private static final double NO_ALLOCATION = 1.0;
+
+    private int sink; // defeats dead-code elimination
+
+    /** Stand-in for the inflated info window: the text view's content. */
+    private static final class FakeWindow {
+        CharSequence text;
+    }
+
+    private static void requireAllocationCounters() {
+        assumeTrue("Thread allocation counters not available", AllocationBudget.isSupported());
+    }
+
+    // dp(): density is read once, conversion must not allocate
+    @Test
+    public void dpConversion_allocatesNothing() {
+        requireAllocationCounters();
+        DisplayUnits units = new DisplayUnits(2.75f);
+        AllocationBudget.Result r = AllocationBudget.measure(ITERATIONS, () -> sink += units.dp(16));
+        assertTrue("dp(): " + r, r.bytesPerCall < NO_ALLOCATION);
+    }
+
+    // addStorageMarker() icon: decoded and scaled once per (resource, size), hits allocate nothing
+    @Test
+    public void markerIcon_createdOncePerKey() {
+        int[] created = {0};
+        MarkerIconCache<Object> cache = new MarkerIconCache<>((res, w, h) -> {
+            created[0]++;
+            return new Object();
+        });
+        Object first = cache.get(0x7f080001, 120, 120);
+        cache.get(0x7f080002, 72, 72);
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(first, cache.get(0x7f080001, 120, 120));
+            cache.get(0x7f080002, 72, 72);
+        }
+        assertEquals("icon created more than once per key", 2, created[0]);
+        cache.get(0x7f080001, 96, 96);
+        assertEquals(3, created[0]);
+    }
+
+    @Test
+    public void markerIconCacheHit_allocatesNothing() {
+        requireAllocationCounters();
+        MarkerIconCache<Object> cache = new MarkerIconCache<>((res, w, h) -> new Object());
+        cache.get(0x7f080001, 120, 120);
+        AllocationBudget.Result r = AllocationBudget.measure(ITERATIONS,
+                () -> sink += cache.get(0x7f080001, 120, 120).hashCode());
+        assertTrue("marker icon hit: " + r, r.bytesPerCall < NO_ALLOCATION);
+    }
+
+    // getInfoWindow(): one inflation for the whole session, then bind only
+    @Test
+    public void infoWindow_inflatesOnceAndRebindsPerMarker() {
+        Map<String, Storage> markers = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            Storage s = new Storage("storage-" + i, "Bicycle storage " + i, 47.54, 21.64, 6, i % 7);
+            markers.put(s.id, s);
+        }
+        int[] binds = {0};
+        InfoWindowRenderer<FakeWindow, Storage> renderer = new InfoWindowRenderer<>(FakeWindow::new,
+                (v, st) -> {
+                    binds[0]++;
+                    v.text = st.snippet();
+                });
+
+        FakeWindow first = renderer.render(markers.get("storage-0"));
+        for (int round = 0; round < 50; round++) {
+            for (Storage s : markers.values()) {
+                FakeWindow w = renderer.render(s);
+                assertSame(first, w);
+                assertSame(s.snippet(), w.text);
+            }
+        }
+        assertEquals(1, renderer.inflations());
+        assertEquals(1 + 50 * markers.size(), binds[0]);
+
+        // Marker without a storage (e.g. the rider's own): default window, nothing bound
+        assertNull(renderer.render(null));
+        assertEquals(1 + 50 * markers.size(), binds[0]);
+    }
+
+    @Test
+    public void infoWindowRender_allocatesNothingPerSnapshot() {
+        requireAllocationCounters();
+        Storage s = new Storage("storage-1", "Bicycle storage 1", 47.54, 21.64, 6, 3);
+        InfoWindowRenderer<FakeWindow, Storage> renderer =
+                new InfoWindowRenderer<>(FakeWindow::new, (v, st) -> v.text = st.snippet());
+        renderer.render(s);
+        AllocationBudget.Result r = AllocationBudget.measure(ITERATIONS,
+                () -> sink += renderer.render(s).text.length());
+        assertTrue("info window: " + r, r.bytesPerCall < NO_ALLOCATION);
+    }
+
+    // Catalog reads on the marker / bounds path: snapshot is rebuilt only after mutations
+    @Test
+    public void catalogSnapshot_rebuiltOnlyAfterMutation() {
+        StorageCatalog catalog = StorageCatalog.createDefault();
+        Object first = catalog.snapshot();
+        for (int i = 0; i < 1_000; i++) assertSame(first, catalog.snapshot());
+        Storage s = catalog.snapshot().get(0);
+        catalog.updateOccupancy(s.id, s.inUse == 0 ? 1 : 0);
+        assertNotSame(first, catalog.snapshot());
+    }
+
+    @Test
+    public void catalogSnapshot_allocatesNothingWhenUnchanged() {
+        requireAllocationCounters();
+        StorageCatalog catalog = StorageCatalog.createDefault();
+        catalog.snapshot();
+        AllocationBudget.Result r = AllocationBudget.measure(ITERATIONS, () -> sink += catalog.snapshot().size());
+        assertTrue("snapshot(): " + r, r.bytesPerCall < NO_ALLOCATION);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bicyclestorage.reservation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory stand-in with Firestore's optimistic semantics: reads record the
+ * document version, the commit is rejected with {@link ContentionException}
+ * if any of them changed meanwhile. Like the Firestore layout, a storage's
+ * occupancy and its holds are separate documents.
+ */
+final class LocalReservationStore implements ReservationStore {
+
+    private static final class Doc {
+        long version;        // holds document
+        long storageVersion; // storage document (capacity / occupancy)
+        int capacity;
+        int inUse;
+        Map<String, Long> holds = new HashMap<>();
+    }
+
+    private final Map<String, Doc> docs = new HashMap<>();
+    private int storageReads = 0;
+
+    synchronized void putStorage(String id, int capacity, int inUse) {
+        Doc d = new Doc();
+        d.capacity = capacity;
+        d.inUse = inUse;
+        docs.put(id, d);
+    }
+
+    synchronized void setInUse(String id, int inUse) {
+        Doc d = docs.get(id);
+        d.inUse = inUse;
+        d.storageVersion++;
+    }
+
+    synchronized int storageReads() {
+        return storageReads;
+    }
+
+    synchronized Map<String, Long> holds(String id) {
+        return new HashMap<>(docs.get(id).holds);
+    }
+
+    synchronized void putHold(String id, String uid, long expiresAtMs) {
+        Doc d = docs.get(id);
+        d.holds.put(uid, expiresAtMs);
+        d.version++;
+    }
+
+    @Override
+    public <T> T runOnce(@NonNull TxnBody<T> body) throws Exception {
+        Map<String, Long> readVersions = new HashMap<>();
+        Map<String, Map<String, Long>> writes = new LinkedHashMap<>();
+        T result = body.run(new Txn() {
+            @Nullable
+            @Override
+            public Slot read(@NonNull String storageId) {
+                if (!writes.isEmpty()) throw new IllegalStateException("read after write");
+                synchronized (LocalReservationStore.this) {
+                    Doc d = docs.get(storageId);
+                    if (d == null) return null;
+                    storageReads++;
+                    readVersions.put("storages/" + storageId, d.storageVersion);
+                    readVersions.put("reservations/" + storageId, d.version);
+                    return new Slot(d.capacity, d.inUse, new HashMap<>(d.holds));
+                }
+            }
+
+            @NonNull
+            @Override
+            public Map<String, Long> readHolds(@NonNull String storageId) {
+                if (!writes.isEmpty()) throw new IllegalStateException("read after write");
+                synchronized (LocalReservationStore.this) {
+                    Doc d = docs.get(storageId);
+                    if (d == null) return new HashMap<>();
+                    readVersions.put("reservations/" + storageId, d.version);
+                    return new HashMap<>(d.holds);
+                }
+            }
+
+            @Override
+            public void writeHolds(@NonNull String storageId, @NonNull Map<String, Long> holds) {
+                writes.put(storageId, new HashMap<>(holds));
+            }
+        });
+        Thread.yield(); // widen the read → commit window
+        synchronized (this) {
+            for (Map.Entry<String, Long> r : readVersions.entrySet()) {
+                String path = r.getKey();
+                Doc d = docs.get(path.substring(path.indexOf('/') + 1));
+                long version = path.startsWith("storages/") ? d.storageVersion : d.version;
+                if (version != r.getValue()) {
+                    throw new ContentionException(null);
+                }
+            }
+            for (Map.Entry<String, Map<String, Long>> w : writes.entrySet()) {
+                Doc d = docs.get(w.getKey());
+                d.holds = w.getValue();
+                d.version++;
+            }
+        }
+        return result;
+    }
+}
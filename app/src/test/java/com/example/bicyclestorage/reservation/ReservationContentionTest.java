@@ -0,0 +1,128 @@
+package com.example.bicyclestorage.reservation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReservationContentionTest {
+
+    private static List<Reservations.Result> race(LocalReservationStore store, int riders, int freeSpaces)
+            throws Exception {
+        store.putStorage("s", 10, 10 - freeSpaces);
+        ExecutorService pool = Executors.newFixedThreadPool(riders);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Reservations.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < riders; i++) {
+            Reservations r = new Reservations(store, "u" + i, System::currentTimeMillis,
+                    Thread::sleep, new Random(i));
+            futures.add(pool.submit(() -> {
+                go.await();
+                return r.reserve("s", null);
+            }));
+        }
+        go.countDown();
+        List<Reservations.Result> results = new ArrayList<>();
+        for (Future<Reservations.Result> f : futures) results.add(f.get(30, TimeUnit.SECONDS));
+        pool.shutdown();
+        return results;
+    }
+
+    private static int count(List<Reservations.Result> results, Reservations.Status status) {
+        int n = 0;
+        for (Reservations.Result r : results) if (r.status == status) n++;
+        return n;
+    }
+
+    @Test
+    public void lastSpaceGoesToExactlyOneRider() throws Exception {
+        LocalReservationStore store = new LocalReservationStore();
+        List<Reservations.Result> results = race(store, 32, 1);
+
+        assertEquals(1, count(results, Reservations.Status.HELD));
+        assertEquals(31, count(results, Reservations.Status.NO_SPACE));
+        assertEquals(1, store.holds("s").size());
+    }
+
+    @Test
+    public void neverOverbooksUnderContention() throws Exception {
+        LocalReservationStore store = new LocalReservationStore();
+        List<Reservations.Result> results = race(store, 48, 3);
+
+        assertEquals(3, count(results, Reservations.Status.HELD));
+        assertEquals(0, count(results, Reservations.Status.FAILED));
+        assertEquals(3, store.holds("s").size());
+    }
+
+    @Test
+    public void expiredHoldsAreReclaimedAfterGrace() {
+        LocalReservationStore store = new LocalReservationStore();
+        store.putStorage("s", 2, 1);
+        store.putStorage("t", 5, 0);
+        long[] now = {1_000_000};
+        Reservations alice = new Reservations(store, "alice", () -> now[0], ms -> {}, new Random(1));
+        Reservations bob = new Reservations(store, "bob", () -> now[0], ms -> {}, new Random(2));
+
+        Reservations.Result a = alice.reserve("s", null);
+        assertEquals(Reservations.Status.HELD, a.status);
+        assertEquals(now[0] + Reservations.HOLD_MS, a.expiresAtMs);
+        assertEquals(Reservations.Status.NO_SPACE, bob.reserve("s", null).status);
+
+        // Expired, but within the clock-skew grace: still alice's
+        now[0] += Reservations.HOLD_MS + 1;
+        assertEquals(Reservations.Status.NO_SPACE, bob.reserve("s", null).status);
+
+        now[0] += Reservations.SKEW_GRACE_MS;
+        assertEquals(Reservations.Status.HELD, bob.reserve("s", null).status);
+        assertEquals(Arrays.asList("bob"), new ArrayList<>(store.holds("s").keySet()));
+
+        // Moving a hold releases the old one in the same transaction
+        assertEquals(Reservations.Status.HELD, bob.reserve("t", "s").status);
+        assertTrue(store.holds("s").isEmpty());
+        assertTrue(bob.release("t"));
+        assertFalse(bob.release("t"));
+    }
+
+    @Test
+    public void cleanupDropsExpiredHoldsAcrossStorages() {
+        LocalReservationStore store = new LocalReservationStore();
+        store.putStorage("a", 5, 0);
+        store.putStorage("b", 5, 0);
+        long now = 5_000_000;
+        store.putHold("a", "x", now - Reservations.SKEW_GRACE_MS - 1);
+        store.putHold("a", "y", now + 60_000);
+        store.putHold("b", "z", now - Reservations.SKEW_GRACE_MS - 1);
+
+        Reservations r = new Reservations(store, "me", () -> now, ms -> {}, new Random(3));
+        assertEquals(2, r.cleanupExpired(Arrays.asList("a", "b", "missing")));
+        assertEquals(1, store.holds("a").size());
+        assertTrue(store.holds("b").isEmpty());
+        // Only the hold documents were read: occupancy writes can't abort a cleanup
+        assertEquals(0, store.storageReads());
+    }
+
+    @Test
+    public void backoffIsJitteredAndCapped() {
+        Reservations r = new Reservations(new LocalReservationStore(), "me", () -> 0, ms -> {}, new Random(4));
+        for (int attempt = 1; attempt <= 12; attempt++) {
+            long cap = Math.min(Reservations.MAX_BACKOFF_MS, Reservations.BASE_BACKOFF_MS << (attempt - 1));
+            long min = Long.MAX_VALUE, max = 0;
+            for (int i = 0; i < 200; i++) {
+                long b = r.backoffMs(attempt);
+                assertTrue(b >= 0 && b <= cap);
+                min = Math.min(min, b);
+                max = Math.max(max, b);
+            }
+            assertTrue("spread at attempt " + attempt, max - min > cap / 2);
+        }
+    }
+}
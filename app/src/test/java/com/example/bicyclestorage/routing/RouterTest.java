@@ -0,0 +1,138 @@
+package com.example.bicyclestorage.routing;
+
+import com.example.bicyclestorage.storage.Storage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs against a 30 × 30 street grid (0.001° × 0.0015°, ~111 m × 113 m blocks,
+ * 5 m/s) from (47.50, 21.60), with a river between rows 14 and 15 that is
+ * crossed only by a bridge at column 2.
+ */
+public class RouterTest {
+
+    private static final int N = 30;
+    private static final int RIVER_ROW = 14;
+    private static final int BRIDGE_COL = 2;
+    private static final double SPEED_MPS = 5.0;
+
+    private RoadGraph graph;
+
+    @Before
+    public void setUp() {
+        graph = riverGrid();
+    }
+
+    static RoadGraph riverGrid() {
+        RoadGraph.Builder b = new RoadGraph.Builder();
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) b.addNode(lat(row), lng(col));
+        }
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                if (col + 1 < N) b.addBidirectional(node(row, col), node(row, col + 1), SPEED_MPS);
+                if (row + 1 < N && (row != RIVER_ROW || col == BRIDGE_COL)) {
+                    b.addBidirectional(node(row, col), node(row + 1, col), SPEED_MPS);
+                }
+            }
+        }
+        return b.build();
+    }
+
+    private static int node(int row, int col) {
+        return row * N + col;
+    }
+
+    private static double lat(int row) {
+        return 47.50 + row * 0.001;
+    }
+
+    private static double lng(int col) {
+        return 21.60 + col * 0.0015;
+    }
+
+    @Test
+    public void fixtureRoundTripsAndSnaps() throws IOException {
+        assertEquals(N * N, graph.nodeCount());
+        // Horizontal streets both ways, vertical ones except across the river, one bridge
+        assertEquals(2 * (N * (N - 1) + (N - 1) * N - (N - 1)), graph.edgeCount());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        graph.write(out);
+        RoadGraph copy = RoadGraph.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(graph.edgeCount(), copy.edgeCount());
+
+        assertEquals(node(7, 11), graph.nearestNode(lat(7) + 0.0002, lng(11) - 0.0003));
+        assertEquals(-1, graph.nearestNode(0, 0));
+    }
+
+    @Test
+    public void aStarMatchesDijkstra() {
+        Router router = new Router(graph);
+        Random rnd = new Random(41);
+        int[] out = new int[1];
+        for (int i = 0; i < 200; i++) {
+            int a = rnd.nextInt(N * N);
+            int b = rnd.nextInt(N * N);
+            router.oneToMany(a, new int[]{b}, out);
+            assertEquals(out[0], router.route(a, b));
+        }
+    }
+
+    @Test
+    public void riverMakesTheCloserStorageSlower() {
+        // Rider just north of the river, far from the bridge
+        double oLat = lat(13), oLng = lng(25);
+        Storage across = new Storage("across", "Across", lat(16), lng(25), 10, 0); // ~330 m, over the river
+        Storage along = new Storage("along", "Along", lat(13), lng(20), 10, 0);    // ~570 m, same bank
+        List<Storage> storages = new ArrayList<>();
+        storages.add(across);
+        storages.add(along);
+
+        Map<String, Integer> eta = new StorageEtas(graph).etaSeconds(oLat, oLng, storages);
+        assertNotNull(eta);
+        assertTrue(eta.get("across") > eta.get("along"));
+        // 5 blocks at 5 m/s
+        assertEquals(113, eta.get("along"), 3);
+        // Detour: 23 blocks west, 3 across, 23 back east
+        assertTrue(eta.get("across") > 45 * 111 / 5);
+
+        assertNull(new StorageEtas(graph).etaSeconds(10, 10, storages));
+    }
+
+    @Test
+    public void searchesStopOnceTheirTargetsAreSettled() {
+        // Fifty nearest of 400 storages around the grid's middle: the search settles the
+        // neighbourhood they lie in, not the whole graph
+        List<Storage> storages = new ArrayList<>();
+        Random rnd = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            storages.add(new Storage("s" + i, "S" + i,
+                    lat(0) + rnd.nextDouble() * 0.029, lng(0) + rnd.nextDouble() * 0.0435, 10, 0));
+        }
+        StorageEtas etas = new StorageEtas(graph);
+        Map<String, Integer> m = etas.etaSeconds(lat(7), lng(15), storages);
+        assertEquals(StorageEtas.MAX_TARGETS, m.size());
+        int settled = etas.lastSettledCount();
+        assertTrue("settled " + settled, settled > 0 && settled < graph.nodeCount() / 2);
+
+        // A* towards one target settles fewer nodes than a Dijkstra that reaches it
+        Router router = new Router(graph);
+        int from = node(3, 3), to = node(10, 25);
+        router.oneToMany(from, new int[]{to}, new int[1]);
+        int dijkstra = router.lastSettledCount();
+        router.route(from, to);
+        assertTrue("A* " + router.lastSettledCount() + " vs Dijkstra " + dijkstra,
+                router.lastSettledCount() < dijkstra);
+    }
+}
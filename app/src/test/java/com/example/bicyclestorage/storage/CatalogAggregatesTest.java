@@ -0,0 +1,125 @@
+package com.example.bicyclestorage.storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CatalogAggregatesTest {
+
+    @Test
+    public void removingTheExtremeStorageShrinksBounds() {
+        StorageCatalog c = new StorageCatalog();
+        c.put(new Storage("a", "A", 47.50, 21.60, 4, 1));
+        c.put(new Storage("b", "B", 47.55, 21.65, 6, 2));
+        c.put(new Storage("c", "C", 47.55, 21.62, 8, 8)); // same max lat as b
+        CatalogAggregates agg = c.aggregates();
+        assertEquals(47.55, agg.maxLat(), 0);
+
+        c.remove("b");
+        assertEquals(47.55, agg.maxLat(), 0); // still held by c
+        assertEquals(21.62, agg.maxLng(), 0);
+        c.remove("c");
+        assertEquals(47.50, agg.maxLat(), 0);
+        assertEquals(1, agg.total().count());
+        assertEquals(3, agg.total().free());
+
+        c.remove("a");
+        assertTrue(agg.isEmpty());
+        assertTrue(Double.isNaN(agg.minLat()));
+        assertTrue(agg.districts().isEmpty());
+    }
+
+    @Test
+    public void backendDeletionReachesTheAggregates() {
+        List<Runnable> drains = new ArrayList<>();
+        StorageCatalog c = new StorageCatalog();
+        OccupancyPipeline pipeline = new OccupancyPipeline(c, drains::add);
+        pipeline.onStorages(Arrays.asList(
+                new Storage("a", "A", 47.50, 21.60, 4, 1),
+                new Storage("b", "B", 47.55, 21.65, 6, 2)));
+        drains.remove(0).run();
+        CatalogAggregates agg = c.aggregates();
+        assertEquals(47.55, agg.maxLat(), 0);
+        assertEquals(7, agg.total().free());
+
+        pipeline.onRemoved(Collections.singletonList("b"));
+        drains.remove(0).run();
+        assertEquals(1, agg.total().count());
+        assertEquals(3, agg.total().free());
+        assertEquals(47.50, agg.maxLat(), 0);
+        assertEquals(21.60, agg.maxLng(), 0);
+    }
+
+    @Test
+    public void matchesFullRescanUnderRandomChurn() {
+        StorageCatalog c = new StorageCatalog();
+        CatalogAggregates.DistrictResolver districts = CatalogAggregates.gridDistricts(0.02);
+        Random rnd = new Random(7);
+        List<String> ids = new ArrayList<>();
+        for (int step = 0; step < 5_000; step++) {
+            int op = rnd.nextInt(10);
+            if (op < 4 || ids.isEmpty()) {
+                String id = "s" + step;
+                int cap = 1 + rnd.nextInt(20);
+                c.put(new Storage(id, id, 47.5 + rnd.nextDouble() * 0.1, 21.6 + rnd.nextDouble() * 0.1,
+                        cap, rnd.nextInt(cap + 1)));
+                ids.add(id);
+            } else if (op < 8) {
+                String id = ids.get(rnd.nextInt(ids.size()));
+                Storage s = c.get(id);
+                c.updateOccupancy(id, rnd.nextInt(s.capacity + 1));
+            } else if (op < 9) {
+                String id = ids.get(rnd.nextInt(ids.size()));
+                Storage s = c.get(id);
+                c.put(new Storage(id, s.title, s.lat + 0.01, s.lng - 0.01, s.capacity, s.inUse));
+            } else {
+                c.remove(ids.remove(rnd.nextInt(ids.size())));
+            }
+            if (step % 250 == 0) assertMatchesRescan(c, districts);
+        }
+        assertMatchesRescan(c, districts);
+    }
+
+    private static void assertMatchesRescan(StorageCatalog c, CatalogAggregates.DistrictResolver districts) {
+        CatalogAggregates agg = c.aggregates();
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        int cap = 0, inUse = 0;
+        Map<String, int[]> byDistrict = new HashMap<>();
+        for (Storage s : c.snapshot()) {
+            minLat = Math.min(minLat, s.lat);
+            maxLat = Math.max(maxLat, s.lat);
+            minLng = Math.min(minLng, s.lng);
+            maxLng = Math.max(maxLng, s.lng);
+            cap += s.capacity;
+            inUse += s.inUse;
+            int[] d = byDistrict.computeIfAbsent(districts.districtOf(s), k -> new int[3]);
+            d[0]++;
+            d[1] += s.capacity;
+            d[2] += s.inUse;
+        }
+        assertEquals(c.size(), agg.total().count());
+        assertEquals(cap, agg.total().capacity());
+        assertEquals(inUse, agg.total().inUse());
+        assertEquals(minLat, agg.minLat(), 0);
+        assertEquals(maxLat, agg.maxLat(), 0);
+        assertEquals(minLng, agg.minLng(), 0);
+        assertEquals(maxLng, agg.maxLng(), 0);
+        assertEquals(byDistrict.size(), agg.districts().size());
+        for (Map.Entry<String, int[]> e : byDistrict.entrySet()) {
+            CatalogAggregates.Totals t = agg.district(e.getKey());
+            assertNotNull(t);
+            assertEquals(e.getValue()[0], t.count());
+            assertEquals(e.getValue()[1], t.capacity());
+            assertEquals(e.getValue()[2], t.inUse());
+        }
+    }
+}
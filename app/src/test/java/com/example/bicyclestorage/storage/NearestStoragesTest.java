@@ -0,0 +1,47 @@
+package com.example.bicyclestorage.storage;
+
+import com.example.bicyclestorage.util.GeoMath;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NearestStoragesTest {
+
+    @Test
+    public void matchesAFullHaversineSort() {
+        Random rnd = new Random(44);
+        List<Storage> storages = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            storages.add(new Storage("s" + i, "S" + i,
+                    47.45 + rnd.nextDouble() * 0.15, 21.55 + rnd.nextDouble() * 0.2, 10, 0));
+        }
+        double lat = 47.53, lng = 21.63;
+        List<Storage> sorted = new ArrayList<>(storages);
+        Collections.sort(sorted, (a, b) -> Double.compare(
+                GeoMath.distanceMeters(lat, lng, a.lat, a.lng), GeoMath.distanceMeters(lat, lng, b.lat, b.lng)));
+
+        assertEquals(sorted.subList(0, 10), NearestStorages.nearest(storages, lat, lng, 10, null));
+        assertEquals(storages.size(), NearestStorages.nearest(storages, lat, lng, 5_000, null).size());
+        assertTrue(NearestStorages.nearest(storages, lat, lng, 0, null).isEmpty());
+    }
+
+    @Test
+    public void filterIsAppliedBeforeSelecting() {
+        List<Storage> storages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            storages.add(new Storage("s" + i, "S" + i, 47.53 + i * 0.001, 21.63, 10, 0));
+        }
+        List<Storage> odd = NearestStorages.nearest(storages, 47.53, 21.63, 3,
+                s -> Integer.parseInt(s.id.substring(1)) % 2 == 1);
+        assertEquals(3, odd.size());
+        assertEquals("s1", odd.get(0).id);
+        assertEquals("s3", odd.get(1).id);
+        assertEquals("s5", odd.get(2).id);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.bicyclestorage.storage;
+
+import com.example.bicyclestorage.map.InfoWindowRenderer;
+import com.example.bicyclestorage.metrics.LatencyHistogram;
+import com.example.bicyclestorage.storage.backend.FakeStorageBackend;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Offline load harness: 10k storages, occupancy replayed at a fixed rate through
+ * {@link OccupancyPipeline} into the catalog and a marker stand-in running on a
+ * single "main" thread. Open info windows are re-rendered through the real
+ * {@link InfoWindowRenderer}, as MainActivity does. Reports update-to-apply
+ * latency, info-window render time and superseded updates.
+ */
+public class StorageLoadHarnessTest {
+
+    private static final int STORAGES = 10_000;
+    private static final int UPDATES = 1_500;
+    private static final int RATE = 500; // updates / s
+    private static final int OPEN_WINDOWS = 5; // among the hot subset
+
+    /** Stand-in for the inflated info window: the text view's content. */
+    private static final class FakeWindow {
+        CharSequence text;
+    }
+
+    @Test
+    public void streamsOccupancyWithoutLosingFinalState() throws Exception {
+        FakeStorageBackend seed = FakeStorageBackend.synthetic(STORAGES, 47.53, 21.63, 0.05, 1, 42);
+        List<Storage> storages = seed.storages();
+
+        // Deterministic update list + expected final value per storage
+        Random rnd = new Random(7);
+        List<FakeStorageBackend.Update> updates = new ArrayList<>(UPDATES);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < UPDATES; i++) {
+            // Skew towards a hot subset so coalescing actually happens
+            Storage s = storages.get(rnd.nextInt(4) == 0 ? rnd.nextInt(STORAGES) : rnd.nextInt(50));
+            int inUse = rnd.nextInt(s.capacity + 1);
+            updates.add(new FakeStorageBackend.Update(s.id, inUse));
+            expected.put(s.id, inUse);
+        }
+        FakeStorageBackend backend = FakeStorageBackend.replay(storages, updates, RATE);
+
+        ExecutorService main = Executors.newSingleThreadExecutor();
+        StorageCatalog catalog = new StorageCatalog();
+
+        // Marker stand-in: snippet per storage, rebuilt on every change (like Marker.setSnippet);
+        // a shown info window is re-rendered with the fresh storage (like showInfoWindow())
+        Map<String, String> markerSnippets = new HashMap<>();
+        Set<String> shownWindows = new HashSet<>();
+        for (int i = 0; i < OPEN_WINDOWS; i++) shownWindows.add(storages.get(i).id);
+        InfoWindowRenderer<FakeWindow, Storage> infoWindow = new InfoWindowRenderer<>(FakeWindow::new,
+                (v, st) -> v.text = st.snippet() + " · " + st.free());
+        Map<String, CharSequence> windowTexts = new HashMap<>();
+        LatencyHistogram renderTime = new LatencyHistogram();
+        int[] batches = {0};
+        catalog.addListener(new StorageCatalog.Listener() {
+            @Override
+            public void onStorageChanged(Storage storage) {
+                markerSnippets.put(storage.id, storage.snippet());
+                if (!shownWindows.contains(storage.id)) return;
+                long t0 = System.nanoTime();
+                FakeWindow w = infoWindow.render(storage);
+                renderTime.recordMicros((System.nanoTime() - t0) / 1000);
+                windowTexts.put(storage.id, w.text);
+            }
+
+            @Override
+            public void onBatchEnd() {
+                batches[0]++;
+            }
+        });
+
+        OccupancyPipeline pipeline = new OccupancyPipeline(catalog, main);
+        StorageBackend.Subscription sub = backend.subscribe(Runnable::run, pipeline);
+
+        long deadline = System.currentTimeMillis() + (UPDATES * 1000L / RATE) + 10_000;
+        while (backend.emittedCount() < UPDATES && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        sub.remove();
+        // Let the last drain run
+        main.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        main.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        LatencyHistogram lat = pipeline.applyLatency();
+        System.out.println("[load] storages=" + STORAGES
+                + " received=" + pipeline.receivedCount()
+                + " applied=" + pipeline.appliedCount()
+                + " superseded=" + pipeline.coalescedCount()
+                + " batches=" + batches[0]
+                + " latency{" + lat + "}"
+                + " infoWindow{" + renderTime + "}");
+
+        assertEquals(UPDATES, pipeline.receivedCount());
+        assertEquals(0, pipeline.unknownCount());
+        assertEquals(UPDATES, pipeline.appliedCount() + pipeline.coalescedCount());
+        for (Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertEquals(e.getKey(), (int) e.getValue(), catalog.get(e.getKey()).inUse);
+        }
+        assertEquals(STORAGES, catalog.size());
+        // Open windows show the final state; one inflated view served every render
+        assertEquals(1, infoWindow.inflations());
+        assertTrue(renderTime.count() > OPEN_WINDOWS);
+        for (String id : shownWindows) {
+            Storage s = catalog.get(id);
+            assertEquals(s.snippet() + " · " + s.free(), windowTexts.get(id).toString());
+        }
+        // Generous bound – CI machines vary; typical p99 is a few ms
+        assertTrue("p99 too high: " + lat, lat.percentileMicros(0.99) < 500_000);
+
+        main.shutdownNow();
+    }
+
+    @Test
+    public void removedStoragesLeaveTheCatalog() {
+        List<Runnable> drains = new ArrayList<>();
+        StorageCatalog catalog = new StorageCatalog();
+        OccupancyPipeline pipeline = new OccupancyPipeline(catalog, drains::add);
+        List<String> removed = new ArrayList<>();
+        catalog.addListener(new StorageCatalog.Listener() {
+            @Override
+            public void onStorageChanged(Storage storage) {}
+
+            @Override
+            public void onStorageRemoved(Storage storage) {
+                removed.add(storage.id);
+            }
+        });
+
+        pipeline.onStorages(Arrays.asList(
+                new Storage("a", "A", 47.50, 21.60, 4, 1),
+                new Storage("b", "B", 47.55, 21.65, 6, 2)));
+        drains.remove(0).run();
+
+        // Occupancy queued for a storage that is then deleted is dropped with it
+        pipeline.onOccupancy("b", 5, System.nanoTime());
+        pipeline.onRemoved(Collections.singletonList("b"));
+        assertEquals(1, drains.size());
+        drains.remove(0).run();
+
+        assertNull(catalog.get("b"));
+        assertEquals(Collections.singletonList("b"), removed);
+        assertEquals(0, pipeline.unknownCount());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.bicyclestorage.storage;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class TrajectoryPrefetcherTest {
+
+    private static final double LAT0 = 47.5305;
+    private static final double LNG0 = 21.6255;
+    private static final double DEG_PER_M = 1 / 111_320.0;
+
+    /** Records area requests; completes them on demand. */
+    private static final class RecordingBackend implements StorageBackend {
+        final class Request {
+            final double minLat, minLng, maxLat, maxLng;
+            final AreaCallback callback;
+            boolean removed;
+
+            Request(double minLat, double minLng, double maxLat, double maxLng, AreaCallback callback) {
+                this.minLat = minLat;
+                this.minLng = minLng;
+                this.maxLat = maxLat;
+                this.maxLng = maxLng;
+                this.callback = callback;
+            }
+        }
+
+        final List<Request> requests = new ArrayList<>();
+
+        @NonNull
+        @Override
+        public Subscription subscribe(@NonNull Executor executor, @NonNull Listener listener) {
+            return () -> {};
+        }
+
+        @NonNull
+        @Override
+        public Subscription fetchArea(double minLat, double minLng, double maxLat, double maxLng,
+                                      @NonNull Executor executor, @NonNull AreaCallback callback) {
+            Request r = new Request(minLat, minLng, maxLat, maxLng, callback);
+            requests.add(r);
+            return () -> r.removed = true;
+        }
+
+        @NonNull
+        @Override
+        public Subscription watchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                     @NonNull Listener listener) {
+            return () -> {};
+        }
+
+        @NonNull
+        @Override
+        public Subscription fetchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                     @NonNull AreaCallback callback) {
+            return () -> {};
+        }
+    }
+
+    private static final class Sink implements StorageBackend.Listener {
+        final List<Storage> received = new ArrayList<>();
+
+        @Override
+        public void onStorages(@NonNull List<Storage> storages) {
+            received.addAll(storages);
+        }
+
+        @Override
+        public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {}
+    }
+
+    private final RecordingBackend backend = new RecordingBackend();
+    private final Sink sink = new Sink();
+
+    private TrajectoryPrefetcher prefetcher(long bytesPerHour, boolean powerOk) {
+        return new TrajectoryPrefetcher(backend, Runnable::run, sink, () -> powerOk, bytesPerHour);
+    }
+
+    /** Rides north at {@code speed} m/s, one fix per second, starting at t0. */
+    private static double rideNorth(TrajectoryPrefetcher p, long t0, int seconds, double fromLat, double speed) {
+        double lat = fromLat;
+        for (int s = 0; s <= seconds; s++) {
+            lat = fromLat + s * speed * DEG_PER_M;
+            p.onFix(t0 + s * 1000L, lat, LNG0, 8f);
+        }
+        return lat;
+    }
+
+    @Test
+    public void prefetchesTilesAheadAndDeliversThem() {
+        TrajectoryPrefetcher p = prefetcher(1_000_000, true);
+        rideNorth(p, 0, 10, LAT0, 6);
+
+        assertFalse(backend.requests.isEmpty());
+        for (RecordingBackend.Request r : backend.requests) {
+            assertTrue("tile ahead: " + r.minLat, r.maxLat > LAT0 + 0.005);
+            assertTrue(r.minLng <= LNG0 && r.maxLng >= LNG0);
+        }
+
+        Storage ahead = new Storage("ahead", "Ahead", backend.requests.get(0).minLat + 0.001, LNG0, 8, 3);
+        backend.requests.get(0).callback.onArea(Collections.singletonList(ahead));
+        assertEquals(Collections.singletonList(ahead), sink.received);
+        assertEquals(1, p.completedCount());
+
+        // Fresh tile is not fetched again on the next rounds
+        int before = backend.requests.size();
+        double firstTileLat = backend.requests.get(0).minLat;
+        rideNorth(p, 11_000, 20, LAT0 + 66 * DEG_PER_M, 6);
+        for (int i = before; i < backend.requests.size(); i++) {
+            assertNotEquals(firstTileLat, backend.requests.get(i).minLat, 1e-9);
+        }
+    }
+
+    @Test
+    public void truncatedAreaIsFetchedAgain() {
+        TrajectoryPrefetcher p = prefetcher(1_000_000, true);
+        rideNorth(p, 0, 10, LAT0, 6);
+
+        RecordingBackend.Request first = backend.requests.get(0);
+        Storage dense = new Storage("dense", "Dense", first.minLat + 0.001, LNG0, 8, 3);
+        first.callback.onAreaPartial(Collections.singletonList(dense));
+        assertEquals(Collections.singletonList(dense), sink.received);
+        assertEquals(1, p.partialCount());
+
+        int before = backend.requests.size();
+        rideNorth(p, 11_000, 20, LAT0 + 66 * DEG_PER_M, 6);
+        boolean again = false;
+        for (int i = before; i < backend.requests.size(); i++) {
+            again |= Math.abs(backend.requests.get(i).minLat - first.minLat) < 1e-9;
+        }
+        assertTrue("partial tile not refetched", again);
+    }
+
+    @Test
+    public void fetchTimesAreBounded() {
+        TrajectoryPrefetcher p = prefetcher(1_000_000_000L, true);
+        int answered = 0;
+        // ~90 km north: far more tiles than are remembered
+        for (int s = 0; s <= 15_000; s++) {
+            p.onFix(s * 1000L, LAT0 + s * 6 * DEG_PER_M, LNG0, 8f);
+            while (answered < backend.requests.size()) {
+                backend.requests.get(answered++).callback.onArea(Collections.emptyList());
+            }
+        }
+        assertTrue(p.completedCount() > TrajectoryPrefetcher.MAX_FETCHED_TILES);
+        assertEquals(TrajectoryPrefetcher.MAX_FETCHED_TILES, p.fetchedTileCount());
+    }
+
+    @Test
+    public void turningAroundCancelsWrongGuesses() {
+        TrajectoryPrefetcher p = prefetcher(1_000_000, true);
+        double lat = rideNorth(p, 0, 10, LAT0, 6);
+        int inFlight = p.inFlightCount();
+        assertTrue(inFlight > 0);
+
+        // Now ride south for a while
+        for (int s = 1; s <= 30; s++) p.onFix(10_000 + s * 1000L, lat - s * 6 * DEG_PER_M, LNG0, 8f);
+
+        assertEquals(inFlight, p.cancelledCount());
+        for (int i = 0; i < inFlight; i++) assertTrue(backend.requests.get(i).removed);
+        // A late answer for a cancelled tile is ignored
+        backend.requests.get(0).callback.onArea(Collections.singletonList(
+                new Storage("late", "Late", LAT0 + 0.02, LNG0, 4, 1)));
+        assertTrue(sink.received.isEmpty());
+        assertTrue(backend.requests.size() > inFlight); // new tiles to the south
+    }
+
+    @Test
+    public void respectsByteBudget() {
+        // Burst = a quarter of the hourly budget = one request
+        TrajectoryPrefetcher p = prefetcher(4 * TrajectoryPrefetcher.REQUEST_OVERHEAD_BYTES, true);
+        rideNorth(p, 0, 10, LAT0, 6);
+        assertEquals(1, backend.requests.size());
+        assertTrue(p.budgetSkippedCount() > 0);
+    }
+
+    @Test
+    public void idleWhenStationaryOrPowerGated() {
+        TrajectoryPrefetcher still = prefetcher(1_000_000, true);
+        for (int s = 0; s < 60; s++) still.onFix(s * 1000L, LAT0, LNG0, 8f);
+        assertTrue(backend.requests.isEmpty());
+
+        TrajectoryPrefetcher gated = prefetcher(1_000_000, false);
+        rideNorth(gated, 0, 30, LAT0, 6);
+        assertTrue(backend.requests.isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bicyclestorage.storage.backend;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.OccupancyPipeline;
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.StorageCatalog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SnapshotChangesTest {
+
+    /** Records listener calls as "storages:id,id" / "occupancy:id=n" / "removed:id". */
+    private static final class Recorder implements StorageBackend.Listener {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void onStorages(@NonNull List<Storage> storages) {
+            StringBuilder sb = new StringBuilder("storages:");
+            for (Storage s : storages) sb.append(s.id).append(',');
+            calls.add(sb.toString());
+        }
+
+        @Override
+        public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {
+            calls.add("occupancy:" + storageId + "=" + inUse);
+        }
+
+        @Override
+        public void onRemoved(@NonNull List<String> storageIds) {
+            calls.add("removed:" + String.join(",", storageIds));
+        }
+    }
+
+    @Test
+    public void staticEditsAreStoragesOccupancyIsOccupancy() {
+        SnapshotChanges changes = new SnapshotChanges();
+        Recorder l = new Recorder();
+        changes.added(new Storage("a", "A", 47.50, 21.60, 4, 1));
+        changes.added(new Storage("b", "B", 47.55, 21.65, 6, 2));
+        changes.flush(l);
+        assertEquals(Collections.singletonList("storages:a,b,"), l.calls);
+
+        l.calls.clear();
+        changes.modified(new Storage("a", "A", 47.50, 21.60, 4, 3), 0, l);  // occupancy only
+        changes.modified(new Storage("b", "B", 47.55, 21.65, 10, 2), 0, l); // capacity edited
+        changes.modified(new Storage("b", "B", 47.55, 21.65, 10, 2), 0, l); // nothing we keep changed
+        changes.flush(l);
+        assertEquals(Arrays.asList("occupancy:a=3", "storages:b,"), l.calls);
+
+        l.calls.clear();
+        changes.removed("a");
+        changes.flush(l);
+        changes.flush(l);
+        assertEquals(Collections.singletonList("removed:a"), l.calls);
+    }
+
+    @Test
+    public void modifiedCapacityReachesTheCatalog() {
+        List<Runnable> drains = new ArrayList<>();
+        StorageCatalog catalog = new StorageCatalog();
+        OccupancyPipeline pipeline = new OccupancyPipeline(catalog, drains::add);
+        SnapshotChanges changes = new SnapshotChanges();
+
+        changes.added(new Storage("a", "A", 47.50, 21.60, 4, 4));
+        changes.flush(pipeline);
+        drains.remove(0).run();
+        assertEquals(0, catalog.get("a").free());
+
+        // Importer re-run doubled the racks; occupancy unchanged
+        changes.modified(new Storage("a", "A", 47.50, 21.60, 8, 4), System.nanoTime(), pipeline);
+        changes.flush(pipeline);
+        drains.remove(0).run();
+        assertEquals(8, catalog.get("a").capacity);
+        assertEquals(4, catalog.get("a").free());
+        assertEquals(8, catalog.aggregates().total().capacity());
+    }
+}
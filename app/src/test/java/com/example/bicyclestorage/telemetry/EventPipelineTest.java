@@ -0,0 +1,240 @@
+package com.example.bicyclestorage.telemetry;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class EventPipelineTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    private File dir;
+    private final long[] now = {T0};
+    private final List<String> reports = new CopyOnWriteArrayList<>();
+
+    /** Keeps what the writer and upload threads report. */
+    private final EventPipeline.Logger logger = new EventPipeline.Logger() {
+        @Override
+        public void warn(@NonNull String message, @Nullable Throwable error) {
+            reports.add(message);
+        }
+
+        @Override
+        public void info(@NonNull String message) {
+            reports.add(message);
+        }
+    };
+
+    /** Stores uploaded batches; fails while {@link #failing} is set. */
+    private static final class RecordingUploader implements EventPipeline.Uploader {
+        final List<String> ids = new ArrayList<>();
+        final List<List<EventCodec.Event>> batches = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        public synchronized void upload(@NonNull String batchId, @NonNull byte[] data, int length, int eventCount)
+                throws Exception {
+            if (failing) throw new Exception("offline");
+            List<EventCodec.Event> events = EventCodec.decode(data, length);
+            assertEquals(eventCount, events.size());
+            ids.add(batchId);
+            batches.add(events);
+            sizes.add(length);
+        }
+
+        synchronized List<EventCodec.Event> all() {
+            List<EventCodec.Event> out = new ArrayList<>();
+            for (List<EventCodec.Event> b : batches) out.addAll(b);
+            return out;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("telemetry").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private EventPipeline pipeline(RecordingUploader up, long maxBatchBytes, long maxQueueBytes) {
+        return new EventPipeline(dir, up, logger, () -> now[0], maxBatchBytes, EventPipeline.MAX_BATCH_AGE_MS, maxQueueBytes);
+    }
+
+    @Test
+    public void codecRoundTripsAndCutsTornTail() {
+        EventCodec.Encoder enc = new EventCodec.Encoder();
+        enc.header(T0);
+        enc.event(1, T0 + 500, 1, 0, "storage-42");
+        enc.event(2, T0 + 400, 4, 1, null);          // out of order across producer threads
+        int before = enc.len;
+        enc.event(3, T0 + 9_000, 1, -7, "storage-42");
+        int complete = enc.len;
+        enc.event(4, T0 + 9_100, 1, 0, "network");
+        byte[] data = Arrays.copyOf(enc.buf, enc.len);
+
+        List<EventCodec.Event> events = EventCodec.decode(data, data.length);
+        assertEquals(4, events.size());
+        assertEquals("storage-42", events.get(2).str);
+        assertEquals(T0 + 400, events.get(1).timeMs);
+        assertEquals(4, events.get(1).weight);
+        assertEquals(-7, events.get(2).arg);
+        assertEquals("network", events.get(3).str);
+
+        // Repeated ids are written once: the third record is a handful of bytes
+        assertTrue(complete - before < "storage-42".length());
+
+        int torn = data.length - 3;
+        assertEquals(complete, EventCodec.validLength(data, torn));
+        assertEquals(3, EventCodec.decode(data, torn).size());
+        assertEquals(0, EventCodec.validLength(new byte[]{'B', 'T'}, 2));
+    }
+
+    @Test
+    public void ringLosesNothingUnderConcurrentProducers() throws Exception {
+        EventRing ring = new EventRing(256);
+        int producers = 4, perProducer = 20_000;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int id = p + 1;
+            Thread t = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(id, i, 1, i, null)) Thread.yield(); // full: spin in the test only
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        int[] next = new int[producers + 1];
+        AtomicBoolean ordered = new AtomicBoolean(true);
+        EventRing.Consumer check = (type, timeMs, weight, arg, str) -> {
+            if (arg != next[type]) ordered.set(false);
+            next[type] = arg + 1;
+        };
+        go.countDown();
+        int total = 0;
+        while (total < producers * perProducer) {
+            int n = ring.drain(check, 64);
+            if (n == 0) Thread.yield();
+            total += n;
+        }
+        for (Thread t : threads) t.join();
+
+        assertTrue("per-producer order", ordered.get());
+        for (int p = 1; p <= producers; p++) assertEquals(perProducer, next[p]);
+        assertEquals(0, ring.drain(check, 64));
+    }
+
+    @Test
+    public void batchesAreSizeBoundedAndUploadedOnce() throws Exception {
+        RecordingUploader up = new RecordingUploader();
+        EventPipeline p = pipeline(up, 2 * 1024, EventPipeline.MAX_QUEUE_BYTES);
+        for (int i = 0; i < 3_000; i++) {
+            now[0] += 700;
+            assertTrue(p.log(Telemetry.MARKER_TAP, 0, "s" + (i % 40)));
+            if (i % 200 == 199) p.sync();
+        }
+        p.seal();
+        p.syncUpload();
+
+        List<EventCodec.Event> all = up.all();
+        assertEquals(3_000, all.size());
+        for (int i = 1; i < all.size(); i++) assertTrue(all.get(i).timeMs > all.get(i - 1).timeMs);
+        assertTrue(up.batches.size() >= 5);
+        for (int size : up.sizes) assertTrue("batch " + size + " B", size <= 2 * 1024 + 64);
+        assertEquals(up.ids.size(), new java.util.HashSet<>(up.ids).size());
+        assertEquals(0, p.queueBytes());
+        assertEquals(0, dir.listFiles().length);
+        p.close();
+    }
+
+    @Test
+    public void fullQueueSamplesAndCountsWhatItLoses() throws Exception {
+        RecordingUploader up = new RecordingUploader();
+        up.failing = true;
+        long maxQueue = 8 * 1024;
+        EventPipeline p = pipeline(up, 1024, maxQueue);
+        int logged = 20_000;
+        int kept = 0;
+        boolean sampled = false;
+        for (int i = 0; i < logged; i++) {
+            now[0] += 250;
+            if (p.log(i % 3 == 0 ? Telemetry.LOCK_TOGGLE : Telemetry.MARKER_TAP, i & 1, "s" + (i % 25))) kept++;
+            if (i % 100 == 99) {
+                p.sync();
+                sampled |= p.sampleShift() > 0;
+                assertTrue("queue " + p.queueBytes(), p.queueBytes() <= maxQueue + 1024);
+            }
+        }
+        assertTrue(sampled);
+        assertTrue(kept < logged);
+        assertTrue(reports.stream().anyMatch(m -> m.startsWith("Sampling 1/")));
+
+        up.failing = false;
+        p.seal();
+        p.syncUpload();
+        long represented = 0;
+        boolean sawDropped = false;
+        for (EventCodec.Event e : up.all()) {
+            if (e.type == EventCodec.TYPE_DROPPED) {
+                represented += e.arg;
+                sawDropped = true;
+            } else {
+                represented += e.weight;
+            }
+        }
+        assertTrue(sawDropped);
+        // Weights stand in for sampled-out events: the total is close to what was logged
+        assertTrue("represented " + represented, Math.abs(represented - logged) < logged / 20);
+        p.close();
+    }
+
+    @Test
+    public void tornOpenSegmentIsRecoveredOnStart() throws Exception {
+        EventCodec.Encoder enc = new EventCodec.Encoder();
+        enc.header(T0);
+        enc.event(Telemetry.LOGIN, T0 + 10, 1, 0, "network");
+        enc.event(Telemetry.LOGIN, T0 + 20, 1, 1, null);
+        File part = new File(dir, "evt-000" + T0 + EventPipeline.OPEN_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(part)) {
+            out.write(enc.buf, 0, enc.len - 1); // crash in the middle of the last record
+        }
+
+        RecordingUploader up = new RecordingUploader();
+        EventPipeline p = pipeline(up, EventPipeline.MAX_BATCH_BYTES, EventPipeline.MAX_QUEUE_BYTES);
+        p.sync();
+        p.syncUpload();
+
+        assertEquals(1, up.batches.size());
+        assertEquals(1, up.batches.get(0).size());
+        assertEquals("network", up.batches.get(0).get(0).str);
+        assertFalse(part.exists());
+        p.close();
+    }
+}
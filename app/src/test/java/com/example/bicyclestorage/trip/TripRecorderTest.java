@@ -0,0 +1,99 @@
+package com.example.bicyclestorage.trip;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TripRecorderTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("trips").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    /** One hour of riding, a fix every 5 s at ~18 km/h with GPS jitter. */
+    private static void rideOneHour(TripRecorder rec, long start) throws Exception {
+        double lat = 47.5433, lng = 21.6404;
+        for (int i = 0; i < 720; i++) {
+            lat += 0.00018 + ((i * 7919) % 11 - 5) * 0.000004;
+            lng += 0.00012 + ((i * 104729) % 13 - 6) * 0.000004;
+            rec.record(start + i * 5_000L + (i % 3) * 37, lat, lng, 4 + i % 9);
+            // Real fixes arrive every few seconds; keep the test from outrunning the writer
+            if (i % 100 == 99) rec.sync();
+        }
+    }
+
+    private long totalBytes() {
+        long sum = 0;
+        for (File f : dir.listFiles()) sum += f.length();
+        return sum;
+    }
+
+    @Test
+    public void hourOfRidingFitsInAFewKilobytes() throws Exception {
+        TripRecorder rec = new TripRecorder(dir);
+        rideOneHour(rec, T0);
+        rec.endTrip();
+        rec.close();
+
+        assertEquals(0, rec.droppedCount());
+        List<Trip> trips = TripReader.readAll(dir);
+        assertEquals(1, trips.size());
+        Trip t = trips.get(0);
+        assertEquals(720, t.size());
+        assertTrue(t.ended);
+        assertEquals(T0, t.id);
+        assertEquals(47.5433 + 0.00018, t.lats[0], 2e-5);
+        assertTrue("distance " + t.distanceMeters(), t.distanceMeters() > 15_000);
+        assertTrue("bytes/hour = " + totalBytes(), totalBytes() < 4 * 1024);
+    }
+
+    @Test
+    public void splitsTripsOnGapAndRollsSegmentsBySize() throws Exception {
+        TripRecorder rec = new TripRecorder(dir, 512, TripRecorder.MAX_SEGMENT_AGE_MS);
+        rideOneHour(rec, T0);
+        // 10 min pause → new trip
+        rideOneHour(rec, T0 + 3_600_000L + 10 * 60_000L);
+        rec.close();
+
+        assertTrue("expected several segments", dir.listFiles().length > 4);
+        List<Trip> trips = TripReader.readAll(dir);
+        assertEquals(2, trips.size());
+        assertEquals(720, trips.get(0).size());
+        assertEquals(720, trips.get(1).size());
+        assertTrue(trips.get(0).ended);     // closed by the gap
+        assertFalse(trips.get(1).ended);    // still open when recording stopped
+    }
+
+    @Test
+    public void toleratesTruncatedTail() throws Exception {
+        TripRecorder rec = new TripRecorder(dir);
+        rideOneHour(rec, T0);
+        rec.close();
+        File seg = dir.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(seg, "rw")) {
+            raf.setLength(raf.length() - 2); // crash in the middle of the last record
+        }
+        List<Trip> trips = TripReader.readAll(dir);
+        assertEquals(1, trips.size());
+        assertEquals(719, trips.get(0).size());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bicyclestorage.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeviceProfileTest {
+
+    @Test
+    public void lowRamFlagAlwaysWins() {
+        assertEquals(DeviceProfile.Tier.LOW, DeviceProfile.classify(true, 512, 8));
+    }
+
+    @Test
+    public void memoryClassBoundaries() {
+        assertEquals(DeviceProfile.Tier.LOW, DeviceProfile.classify(false, 64, 8));
+        assertEquals(DeviceProfile.Tier.LOW, DeviceProfile.classify(false, 96, 8));
+        assertEquals(DeviceProfile.Tier.STANDARD, DeviceProfile.classify(false, 97, 8));
+        assertEquals(DeviceProfile.Tier.STANDARD, DeviceProfile.classify(false, 256, 8));
+    }
+
+    @Test
+    public void midMemoryDependsOnCpuCount() {
+        assertEquals(DeviceProfile.Tier.LOW, DeviceProfile.classify(false, 128, 4));
+        assertEquals(DeviceProfile.Tier.LOW, DeviceProfile.classify(false, 112, 2));
+        assertEquals(DeviceProfile.Tier.STANDARD, DeviceProfile.classify(false, 128, 6));
+        assertEquals(DeviceProfile.Tier.STANDARD, DeviceProfile.classify(false, 129, 4));
+    }
+
+    @Test
+    public void lowTierIsCheaperOnEveryKnob() {
+        DeviceProfile low = DeviceProfile.forTier(DeviceProfile.Tier.LOW);
+        DeviceProfile std = DeviceProfile.forTier(DeviceProfile.Tier.STANDARD);
+        assertTrue(low.isLowEnd());
+        assertFalse(std.isLowEnd());
+        assertTrue(low.cullOffscreenMarkers);
+        assertFalse(std.cullOffscreenMarkers);
+        assertFalse(low.mapDetailEnabled);
+        assertTrue(low.markerIconPx < std.markerIconPx);
+        assertTrue(low.locationIntervalMs > std.locationIntervalMs);
+        assertTrue(low.prefetchBytesPerHour < std.prefetchBytesPerHour);
+        assertTrue(low.snapshotDownsample > std.snapshotDownsample);
+        assertTrue(low.thumbnailCacheBytes < std.thumbnailCacheBytes);
+        assertTrue(low.frameRingCapacity < std.frameRingCapacity);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.bicyclestorage.watch;
+
+import androidx.annotation.NonNull;
+
+import com.example.bicyclestorage.storage.Storage;
+import com.example.bicyclestorage.storage.backend.StorageBackend;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class WatchlistTest {
+
+    private static final long MIN = 60_000L;
+
+    @Test
+    public void hysteresisNotifiesOncePerRecovery() {
+        AvailabilityTracker t = new AvailabilityTracker();
+        long now = 0;
+        assertFalse(t.observe("a", 10, 10, now));        // baseline: full
+        assertFalse(t.observe("a", -1, 9, now += MIN));  // 1 free: inside the band, still full
+        assertFalse(t.observe("a", -1, 10, now += MIN));
+        assertTrue(t.observe("a", -1, 8, now += MIN));   // 2 free: FULL → FREE
+        assertFalse(t.observe("a", -1, 9, now += MIN));  // stays FREE
+        assertFalse(t.observe("a", -1, 10, now += MIN)); // FULL again
+        assertFalse(t.observe("a", -1, 7, now += MIN));  // FREE, but within the cooldown
+        assertEquals(AvailabilityTracker.FREE, t.stateOf("a"));
+
+        assertFalse(t.observe("a", -1, 10, now += AvailabilityTracker.COOLDOWN_MS));
+        assertTrue(t.observe("a", -1, 8, now + MIN));
+
+        // A one-space storage frees up with its only space
+        assertFalse(t.observe("b", 1, 1, 0));
+        assertTrue(t.observe("b", -1, 0, MIN));
+        // First sighting of a free storage is a baseline, not a notification
+        assertFalse(t.observe("c", 10, 0, 0));
+    }
+
+    @Test
+    public void trackerStateSurvivesRestart() throws IOException {
+        AvailabilityTracker t = new AvailabilityTracker();
+        t.observe("a", 10, 10, 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        t.write(new DataOutputStream(bytes));
+
+        AvailabilityTracker restored = new AvailabilityTracker();
+        restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(AvailabilityTracker.FULL, restored.stateOf("a"));
+        assertTrue(restored.observe("a", -1, 5, MIN)); // capacity came along
+    }
+
+    /** Records id listeners. */
+    private static final class RecordingBackend implements StorageBackend {
+        final List<List<String>> active = new ArrayList<>();
+        int opened;
+
+        @NonNull
+        @Override
+        public Subscription watchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                     @NonNull Listener listener) {
+            assertTrue(ids.size() <= 3);
+            active.add(ids);
+            opened++;
+            return () -> active.remove(ids);
+        }
+
+        @NonNull
+        @Override
+        public Subscription subscribe(@NonNull Executor executor, @NonNull Listener listener) {
+            throw new AssertionError("full stream not expected");
+        }
+
+        @NonNull
+        @Override
+        public Subscription fetchArea(double minLat, double minLng, double maxLat, double maxLng,
+                                      @NonNull Executor executor, @NonNull AreaCallback callback) {
+            throw new AssertionError();
+        }
+
+        @NonNull
+        @Override
+        public Subscription fetchIds(@NonNull List<String> ids, @NonNull Executor executor,
+                                     @NonNull AreaCallback callback) {
+            throw new AssertionError();
+        }
+    }
+
+    private static Set<String> ids(int from, int to) {
+        Set<String> s = new HashSet<>();
+        for (int i = from; i < to; i++) s.add("s" + (char) ('a' + i));
+        return s;
+    }
+
+    @Test
+    public void multiplexerPacksIdsAndKeepsUntouchedListeners() {
+        RecordingBackend backend = new RecordingBackend();
+        StorageBackend.Listener sink = new StorageBackend.Listener() {
+            @Override
+            public void onStorages(@NonNull List<Storage> storages) {}
+
+            @Override
+            public void onOccupancy(@NonNull String storageId, int inUse, long emittedAtNanos) {}
+        };
+        WatchMultiplexer mux = new WatchMultiplexer(backend, Runnable::run, sink, 3);
+
+        mux.setIds(ids(0, 7)); // 7 ids → 3 listeners
+        assertEquals(3, mux.listenerCount());
+        assertEquals(3, backend.opened);
+
+        // One more id fits into the partial chunk: one re-subscribe, no new listener
+        Set<String> more = ids(0, 8);
+        mux.setIds(more);
+        assertEquals(3, mux.listenerCount());
+        assertEquals(4, backend.opened);
+
+        // Removing one id re-subscribes only its chunk
+        more.remove("sa");
+        mux.setIds(more);
+        assertEquals(3, mux.listenerCount());
+        assertEquals(5, backend.opened);
+        Set<String> covered = new HashSet<>();
+        for (List<String> chunk : backend.active) covered.addAll(chunk);
+        assertEquals(more, covered);
+
+        // Same set again: nothing changes
+        mux.setIds(new HashSet<>(more));
+        assertEquals(5, backend.opened);
+
+        mux.stop();
+        assertEquals(0, mux.listenerCount());
+        assertTrue(backend.active.isEmpty());
+    }
+}
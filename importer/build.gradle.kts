@@ -0,0 +1,53 @@
+// Storage katalógus tömeges importáló (JVM parancssori eszköz, nem Android modul)
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    mainClass.set("com.example.bicyclestorage.importer.ImporterMain")
+}
+
+// A username szűrő bitképét és a kerékpáros úthálózat formátumát az app és az eszközök ugyanabból a forrásból használják
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include("com/example/bicyclestorage/importer/**")
+            include("com/example/bicyclestorage/auth/UsernameBloomFilter.java")
+            include("com/example/bicyclestorage/routing/RoadGraph.java")
+            include("com/example/bicyclestorage/util/GeoMath.java")
+        }
+    }
+}
+
+// Ütemezett futtatás (cron / Cloud Scheduler): ./gradlew :importer:rebuildUsernameFilter -PfirestoreProject=ID
+tasks.register<JavaExec>("rebuildUsernameFilter") {
+    group = "application"
+    mainClass.set("com.example.bicyclestorage.importer.UsernameFilterJob")
+    classpath = sourceSets["main"].runtimeClasspath
+    findProperty("firestoreProject")?.let { args("--project", it) }
+    findProperty("firestoreEmulator")?.let { args("--emulator", it) }
+}
+
+// Offline úthálózat az apphoz: ./gradlew :importer:buildBikeGraph -PosmExtract=debrecen.osm
+// (a kivonat letöltése: scripts/build_bike_graph.sh)
+tasks.register<JavaExec>("buildBikeGraph") {
+    group = "application"
+    mainClass.set("com.example.bicyclestorage.importer.BikeGraphBuilder")
+    classpath = sourceSets["main"].runtimeClasspath
+    findProperty("osmExtract")?.let { args("--input", file(it)) }
+    args("--output", rootProject.file("app/src/main/assets/bike_graph.bin"))
+}
+
+dependencies {
+    implementation("com.google.cloud:google-cloud-firestore:3.26.5")
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.17.2")
+    compileOnly("androidx.annotation:annotation-jvm:1.8.2")
+
+    testImplementation(libs.junit)
+}
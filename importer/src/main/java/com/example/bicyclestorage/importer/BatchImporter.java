@@ -0,0 +1,213 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows from a {@link RecordReader}, validates and de-duplicates them by
+ * position, and writes maximal batches with a bounded number in flight.
+ *
+ * Resuming: the checkpoint holds the source index up to which everything is
+ * durable. On restart earlier rows are still read (to rebuild the dedup index)
+ * but not written again.
+ *
+ * Failed batches are retried with backoff on a timer thread, so no sink or
+ * completion thread is ever put to sleep.
+ */
+public class BatchImporter {
+
+    /** Firestore WriteBatch limit. */
+    public static final int MAX_BATCH = 500;
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final int MAX_LOGGED_ERRORS = 20;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /** Totals of one run. */
+    public static final class Result {
+        public long read;
+        public long written;
+        public long invalid;
+        public long duplicates;
+        public long resumedSkipped;
+        public long batches;
+        public long retries;
+        public long elapsedNanos;
+        public long checkpoint;
+        public Throwable failure;
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : read * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "read=%d written=%d invalid=%d duplicates=%d resumedSkipped=%d batches=%d retries=%d "
+                            + "elapsed=%.2fs rows/s=%.0f checkpoint=%d%s",
+                    read, written, invalid, duplicates, resumedSkipped, batches, retries,
+                    elapsedNanos / 1e9, rowsPerSecond(), checkpoint,
+                    failure != null ? " FAILED: " + failure : "");
+        }
+    }
+
+    private final BatchSink sink;
+    private final Checkpoint checkpoint;
+    private final PositionDeduplicator dedup;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Consumer<String> log;
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "import-retry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Completion bookkeeping (guarded by this)
+    private final TreeMap<Long, Long> completed = new TreeMap<>(); // seq → last source index
+    private long nextSeq = 0;
+    private long nextToRetire = 0;
+    private long watermark;
+    private volatile Throwable failure;
+    private final Result result = new Result();
+
+    public BatchImporter(BatchSink sink, Checkpoint checkpoint, double toleranceMeters,
+                         int batchSize, int maxInFlight, Consumer<String> log) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH) throw new IllegalArgumentException("batchSize 1.." + MAX_BATCH);
+        if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be > 0");
+        this.sink = sink;
+        this.checkpoint = checkpoint;
+        this.dedup = new PositionDeduplicator(toleranceMeters);
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.log = log;
+    }
+
+    public Result run(RecordReader reader) throws IOException, InterruptedException {
+        final long resumeFrom = checkpoint.load();
+        watermark = resumeFrom;
+        if (resumeFrom > 0) log.accept("Resuming after source row " + resumeFrom);
+
+        long start = System.nanoTime();
+        long lastReport = start;
+        long lastIndex = resumeFrom;
+        List<StorageRecord> batch = new ArrayList<>(batchSize);
+
+        while (failure == null) {
+            StorageRecord rec;
+            try {
+                rec = reader.next();
+            } catch (RecordReader.RowError e) {
+                result.read++;
+                lastIndex = Math.max(lastIndex, e.sourceIndex);
+                if (result.invalid++ < MAX_LOGGED_ERRORS) log.accept("Skipped " + e.getMessage());
+                continue;
+            }
+            if (rec == null) break;
+            result.read++;
+            lastIndex = Math.max(lastIndex, rec.sourceIndex);
+
+            if (!dedup.accept(rec.lat, rec.lng)) {
+                result.duplicates++;
+                continue;
+            }
+            if (rec.sourceIndex <= resumeFrom) {
+                result.resumedSkipped++;
+                continue;
+            }
+            batch.add(rec);
+            if (batch.size() == batchSize) {
+                submit(batch, rec.sourceIndex);
+                batch = new ArrayList<>(batchSize);
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                lastReport = now;
+                log.accept(String.format(Locale.US, "%d rows, %.0f rows/s, %d written",
+                        result.read, result.read * 1e9 / (now - start), result.written));
+            }
+        }
+        if (!batch.isEmpty() && failure == null) submit(batch, batch.get(batch.size() - 1).sourceIndex);
+
+        // Wait for all in-flight batches (pending retries hold their permit)
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        retryTimer.shutdown();
+
+        synchronized (this) {
+            // Trailing invalid / duplicate rows are done too once everything is committed
+            if (failure == null && nextToRetire == nextSeq) advanceWatermark(lastIndex);
+            result.checkpoint = watermark;
+        }
+        result.failure = failure;
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void submit(List<StorageRecord> batch, long lastSourceIndex) throws InterruptedException {
+        inFlight.acquire();
+        long seq;
+        synchronized (this) {
+            seq = nextSeq++;
+            result.batches++;
+        }
+        write(batch, seq, lastSourceIndex, 1);
+    }
+
+    private void write(List<StorageRecord> batch, long seq, long lastSourceIndex, int attempt) {
+        CompletableFuture<Void> f;
+        try {
+            f = sink.write(batch);
+        } catch (RuntimeException e) {
+            f = new CompletableFuture<>();
+            f.completeExceptionally(e);
+        }
+        f.whenComplete((ok, err) -> {
+            if (err != null && attempt < MAX_ATTEMPTS && failure == null) {
+                synchronized (this) {
+                    result.retries++;
+                }
+                retryTimer.schedule(() -> write(batch, seq, lastSourceIndex, attempt + 1),
+                        50L << attempt, TimeUnit.MILLISECONDS); // 100, 200, 400 ms
+                return;
+            }
+            synchronized (this) {
+                if (err != null) {
+                    if (failure == null) failure = err;
+                } else {
+                    result.written += batch.size();
+                    completed.put(seq, lastSourceIndex);
+                    // Retire contiguous completed batches only – keeps the checkpoint exact
+                    while (completed.containsKey(nextToRetire)) {
+                        advanceWatermark(completed.remove(nextToRetire));
+                        nextToRetire++;
+                    }
+                }
+            }
+            inFlight.release();
+        });
+    }
+
+    // Caller holds the lock
+    private void advanceWatermark(long sourceIndex) {
+        if (sourceIndex <= watermark) return;
+        watermark = sourceIndex;
+        try {
+            checkpoint.save(watermark);
+        } catch (IOException e) {
+            log.accept("Checkpoint write failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/** Destination of one atomic batch of storage documents. */
+public interface BatchSink extends AutoCloseable {
+
+    /** Writes {@code batch} atomically; completes when durable (or fails). */
+    CompletableFuture<Void> write(List<StorageRecord> batch);
+
+    @Override
+    default void close() throws IOException {}
+}
@@ -0,0 +1,192 @@
+package com.example.bicyclestorage.importer;
+
+import com.example.bicyclestorage.routing.RoadGraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Builds the app's offline bike graph ({@code app/src/main/assets/bike_graph.bin})
+ * from an OSM XML extract, e.g. the Overpass export of scripts/bike_graph.overpassql.
+ *
+ * Every way a bike may use becomes edges between consecutive nodes, costed at a
+ * per-highway riding speed; one-way streets stay one-way unless bikes are
+ * exempt. Only nodes on kept ways enter the graph.
+ *
+ * <pre>
+ * BikeGraphBuilder --input debrecen.osm --output app/src/main/assets/bike_graph.bin
+ * </pre>
+ */
+public final class BikeGraphBuilder {
+
+    // Riding speeds (m/s) by highway tag; missing = not rideable
+    private static final Map<String, Double> SPEED_MPS = new HashMap<>();
+    static {
+        SPEED_MPS.put("cycleway", 5.5);
+        SPEED_MPS.put("primary", 5.0);
+        SPEED_MPS.put("primary_link", 5.0);
+        SPEED_MPS.put("secondary", 5.0);
+        SPEED_MPS.put("secondary_link", 5.0);
+        SPEED_MPS.put("tertiary", 5.0);
+        SPEED_MPS.put("tertiary_link", 5.0);
+        SPEED_MPS.put("unclassified", 5.0);
+        SPEED_MPS.put("residential", 5.0);
+        SPEED_MPS.put("service", 4.5);
+        SPEED_MPS.put("living_street", 3.5);
+        SPEED_MPS.put("track", 3.5);
+        SPEED_MPS.put("path", 3.5);
+        // Footways only where bikes are allowed (checked in speedOf)
+        SPEED_MPS.put("footway", 3.0);
+        SPEED_MPS.put("pedestrian", 3.0);
+    }
+
+    // RoadGraph packs node ids into 20 bits
+    static final int MAX_NODES = 1 << 20;
+
+    private BikeGraphBuilder() {}
+
+    public static void main(String[] args) throws Exception {
+        String input = null, output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input": input = args[++i]; break;
+                case "--output": output = args[++i]; break;
+                default:
+                    usage("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+        if (input == null || output == null) {
+            usage("--input and --output are required");
+            return;
+        }
+        long start = System.nanoTime();
+        RoadGraph graph;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(input)))) {
+            graph = build(in);
+        }
+        Path out = Paths.get(output);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+            graph.write(os);
+        }
+        System.out.printf("[bike-graph] %d nodes, %d edges, %d bytes, %.1fs%n", graph.nodeCount(),
+                graph.edgeCount(), Files.size(out), (System.nanoTime() - start) / 1e9);
+    }
+
+    /** Graph of the rideable ways in an OSM XML document. */
+    static RoadGraph build(InputStream osmXml) throws IOException {
+        Map<Long, double[]> coords = new HashMap<>();
+        List<Way> ways = new ArrayList<>();
+        try {
+            XMLStreamReader r = XMLInputFactory.newFactory().createXMLStreamReader(osmXml);
+            Way way = null;
+            while (r.hasNext()) {
+                int ev = r.next();
+                if (ev == XMLStreamConstants.START_ELEMENT) {
+                    switch (r.getLocalName()) {
+                        case "node":
+                            coords.put(Long.parseLong(r.getAttributeValue(null, "id")), new double[]{
+                                    Double.parseDouble(r.getAttributeValue(null, "lat")),
+                                    Double.parseDouble(r.getAttributeValue(null, "lon"))});
+                            break;
+                        case "way":
+                            way = new Way();
+                            break;
+                        case "nd":
+                            if (way != null) way.refs.add(Long.parseLong(r.getAttributeValue(null, "ref")));
+                            break;
+                        case "tag":
+                            if (way != null) way.tags.put(r.getAttributeValue(null, "k"), r.getAttributeValue(null, "v"));
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (ev == XMLStreamConstants.END_ELEMENT && "way".equals(r.getLocalName())) {
+                    if (way != null && speedOf(way.tags) > 0) ways.add(way);
+                    way = null;
+                }
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Bad OSM extract: " + e.getMessage(), e);
+        }
+
+        RoadGraph.Builder b = new RoadGraph.Builder();
+        Map<Long, Integer> index = new HashMap<>();
+        for (Way w : ways) {
+            double speed = speedOf(w.tags);
+            int dir = direction(w.tags);
+            int prev = -1;
+            for (long ref : w.refs) {
+                double[] c = coords.get(ref);
+                if (c == null) { // node outside the extract
+                    prev = -1;
+                    continue;
+                }
+                Integer node = index.get(ref);
+                if (node == null) {
+                    if (index.size() == MAX_NODES) throw new IOException("More than " + MAX_NODES + " nodes");
+                    node = b.addNode(c[0], c[1]);
+                    index.put(ref, node);
+                }
+                if (prev >= 0 && prev != node) {
+                    if (dir >= 0) b.addEdge(prev, node, speed);
+                    if (dir <= 0) b.addEdge(node, prev, speed);
+                }
+                prev = node;
+            }
+        }
+        return b.build();
+    }
+
+    /** Riding speed in m/s, or 0 if bikes can't use the way. */
+    static double speedOf(Map<String, String> tags) {
+        Double speed = SPEED_MPS.get(tags.get("highway"));
+        if (speed == null) return 0;
+        String bicycle = tags.getOrDefault("bicycle", "");
+        if ("no".equals(bicycle) || "dismount".equals(bicycle)) return 0;
+        String access = tags.getOrDefault("access", "");
+        if (("no".equals(access) || "private".equals(access)) && bicycle.isEmpty()) return 0;
+        String highway = tags.get("highway");
+        if (("footway".equals(highway) || "pedestrian".equals(highway))
+                && !"yes".equals(bicycle) && !"designated".equals(bicycle)) return 0;
+        return speed;
+    }
+
+    /** 1: forward only, -1: backward only, 0: both ways. */
+    static int direction(Map<String, String> tags) {
+        if ("no".equals(tags.get("oneway:bicycle"))) return 0;
+        String cycleway = tags.getOrDefault("cycleway", "");
+        if (cycleway.startsWith("opposite")) return 0;
+        String oneway = tags.getOrDefault("oneway", "");
+        if ("yes".equals(oneway) || "1".equals(oneway) || "true".equals(oneway)) return 1;
+        if ("-1".equals(oneway)) return -1;
+        return "roundabout".equals(tags.get("junction")) ? 1 : 0;
+    }
+
+    private static final class Way {
+        final List<Long> refs = new ArrayList<>();
+        final Map<String, String> tags = new HashMap<>();
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: BikeGraphBuilder --input EXTRACT.osm --output bike_graph.bin");
+        System.exit(2);
+    }
+}
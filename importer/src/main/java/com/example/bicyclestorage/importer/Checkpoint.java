@@ -0,0 +1,43 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Resume point: the highest source index (line / feature) such that every row
+ * up to it has been committed or deliberately skipped. Written atomically.
+ */
+public class Checkpoint {
+
+    private final Path file;
+
+    public Checkpoint(Path file) {
+        this.file = file;
+    }
+
+    /** No-op checkpoint (always starts from the beginning). */
+    public static Checkpoint none() {
+        return new Checkpoint(null);
+    }
+
+    public long load() throws IOException {
+        if (file == null || !Files.exists(file)) return 0;
+        String s = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        return s.isEmpty() ? 0 : Long.parseLong(s);
+    }
+
+    public synchronized void save(long sourceIndex) throws IOException {
+        if (file == null) return;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, Long.toString(sourceIndex).getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
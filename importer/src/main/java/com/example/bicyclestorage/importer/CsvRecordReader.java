@@ -0,0 +1,108 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming CSV reader (RFC 4180 quoting, header row required).
+ *
+ * Recognized columns (case-insensitive): id, title|name, lat|latitude,
+ * lng|lon|long|longitude, capacity|spaces. Other columns are ignored.
+ */
+public class CsvRecordReader implements RecordReader {
+
+    private final BufferedReader in;
+    private final char separator;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder cell = new StringBuilder();
+
+    private int idCol = -1, titleCol = -1, latCol = -1, lngCol = -1, capCol = -1;
+    private long line = 0;
+
+    public CsvRecordReader(Reader reader, char separator) throws IOException {
+        this.in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        this.separator = separator;
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        if (!readRow()) throw new IOException("Empty CSV (no header)");
+        for (int i = 0; i < fields.size(); i++) {
+            String h = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && h.startsWith("\uFEFF")) h = h.substring(1); // BOM
+            switch (h) {
+                case "id": idCol = i; break;
+                case "title": case "name": titleCol = i; break;
+                case "lat": case "latitude": latCol = i; break;
+                case "lng": case "lon": case "long": case "longitude": lngCol = i; break;
+                case "capacity": case "spaces": capCol = i; break;
+                default: break;
+            }
+        }
+        if (latCol < 0 || lngCol < 0) throw new IOException("CSV header needs lat and lng columns");
+    }
+
+    @Override
+    public StorageRecord next() throws IOException, RowError {
+        while (true) {
+            if (!readRow()) return null;
+            if (fields.size() == 1 && fields.get(0).trim().isEmpty()) continue; // blank line
+            return RecordValidator.build(col(idCol), col(titleCol), col(latCol), col(lngCol), col(capCol), line);
+        }
+    }
+
+    private String col(int i) {
+        return i >= 0 && i < fields.size() ? fields.get(i) : null;
+    }
+
+    /** Reads one logical row (may span lines inside quotes) into {@link #fields}. */
+    private boolean readRow() throws IOException {
+        fields.clear();
+        String l = in.readLine();
+        if (l == null) return false;
+        line++;
+        cell.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < l.length(); i++) {
+                char c = l.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < l.length() && l.charAt(i + 1) == '"') {
+                            cell.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        cell.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(cell.toString());
+                    cell.setLength(0);
+                } else {
+                    cell.append(c);
+                }
+            }
+            if (!quoted) break;
+            // Quoted field continues on the next physical line
+            l = in.readLine();
+            if (l == null) break;
+            line++;
+            cell.append('\n');
+        }
+        fields.add(cell.toString());
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
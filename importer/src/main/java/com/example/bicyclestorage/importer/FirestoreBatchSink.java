@@ -0,0 +1,78 @@
+package com.example.bicyclestorage.importer;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Firestore sink: one {@link WriteBatch} per batch into {@code storages}.
+ * Works against production or the local emulator ({@code host:port}).
+ *
+ * Writes are merge upserts: re-importing updates title, position and capacity
+ * but keeps the live occupancy. {@code inUse} is written as an increment by 0,
+ * which creates it as 0 on new documents and leaves existing values unchanged,
+ * so no read is needed to tell new and existing documents apart.
+ */
+public class FirestoreBatchSink implements BatchSink {
+
+    public static final String COLLECTION = "storages";
+
+    private final Firestore db;
+    private final CollectionReference collection;
+
+    public FirestoreBatchSink(String projectId, String emulatorHost) {
+        FirestoreOptions.Builder b = FirestoreOptions.newBuilder().setProjectId(projectId);
+        if (emulatorHost != null) b.setEmulatorHost(emulatorHost);
+        this.db = b.build().getService();
+        this.collection = db.collection(COLLECTION);
+    }
+
+    @Override
+    public CompletableFuture<Void> write(List<StorageRecord> batch) {
+        WriteBatch wb = db.batch();
+        for (StorageRecord r : batch) {
+            Map<String, Object> fields = r.toFields();
+            fields.put(StorageRecord.FIELD_IN_USE, FieldValue.increment(0L));
+            wb.set(collection.document(r.id), fields, SetOptions.merge());
+        }
+        CompletableFuture<Void> out = new CompletableFuture<>();
+        ApiFuture<List<WriteResult>> f = wb.commit();
+        ApiFutures.addCallback(f, new ApiFutureCallback<List<WriteResult>>() {
+            @Override
+            public void onSuccess(List<WriteResult> result) {
+                out.complete(null);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                out.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            db.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing Firestore", e);
+        } catch (Exception e) {
+            throw new IOException("Closing Firestore failed", e);
+        }
+    }
+}
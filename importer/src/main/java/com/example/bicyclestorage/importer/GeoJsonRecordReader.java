@@ -0,0 +1,80 @@
+package com.example.bicyclestorage.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming GeoJSON reader: walks a FeatureCollection token by token and
+ * materializes one feature at a time (memory bounded by the largest feature).
+ *
+ * Point geometry is required; properties id, title|name, capacity|spaces are used.
+ */
+public class GeoJsonRecordReader implements RecordReader {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonParser parser;
+    private long featureIndex = 0;
+    private boolean inFeatures = false;
+
+    public GeoJsonRecordReader(Reader reader) throws IOException {
+        this.parser = mapper.getFactory().createParser(reader);
+        seekFeatures();
+    }
+
+    private void seekFeatures() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("GeoJSON must be an object");
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken t = parser.nextToken();
+            if ("features".equals(name) && t == JsonToken.START_ARRAY) {
+                inFeatures = true;
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new IOException("GeoJSON has no features array");
+    }
+
+    @Override
+    public StorageRecord next() throws IOException, RowError {
+        if (!inFeatures) return null;
+        JsonToken t = parser.nextToken();
+        if (t == JsonToken.END_ARRAY || t == null) {
+            inFeatures = false;
+            return null;
+        }
+        featureIndex++;
+        JsonNode f = mapper.readTree(parser);
+        JsonNode geom = f.path("geometry");
+        if (!"Point".equals(geom.path("type").asText())) {
+            throw new RowError(featureIndex, "geometry is not a Point");
+        }
+        JsonNode coords = geom.path("coordinates");
+        if (!coords.isArray() || coords.size() < 2) throw new RowError(featureIndex, "bad coordinates");
+        JsonNode props = f.path("properties");
+        String id = text(props, "id");
+        if (id == null && f.has("id")) id = f.get("id").asText();
+        String title = text(props, "title");
+        if (title == null) title = text(props, "name");
+        JsonNode cap = props.has("capacity") ? props.get("capacity") : props.get("spaces");
+        int capacity = cap == null || cap.isNull() ? 1 : cap.asInt(-1);
+        // GeoJSON order is [lng, lat]
+        return RecordValidator.build(id, title, coords.get(1).asDouble(Double.NaN),
+                coords.get(0).asDouble(Double.NaN), capacity, featureIndex);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point.
+ *
+ * <pre>
+ * importer --input racks.csv [--format csv|geojson] [--separator ;]
+ *          [--project my-project] [--emulator localhost:8080] [--in-memory]
+ *          [--tolerance-m 3] [--batch 500] [--in-flight 8] [--checkpoint racks.ckpt]
+ * </pre>
+ */
+public final class ImporterMain {
+
+    private ImporterMain() {}
+
+    public static void main(String[] args) throws Exception {
+        String input = null, format = null, project = null, emulator = null, checkpointPath = null;
+        char separator = ',';
+        boolean inMemory = false;
+        double tolerance = 3.0;
+        int batch = BatchImporter.MAX_BATCH;
+        int inFlight = 8;
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a) {
+                case "--input": input = args[++i]; break;
+                case "--format": format = args[++i]; break;
+                case "--separator": separator = args[++i].charAt(0); break;
+                case "--project": project = args[++i]; break;
+                case "--emulator": emulator = args[++i]; break;
+                case "--in-memory": inMemory = true; break;
+                case "--tolerance-m": tolerance = Double.parseDouble(args[++i]); break;
+                case "--batch": batch = Integer.parseInt(args[++i]); break;
+                case "--in-flight": inFlight = Integer.parseInt(args[++i]); break;
+                case "--checkpoint": checkpointPath = args[++i]; break;
+                default:
+                    usage("Unknown argument: " + a);
+                    return;
+            }
+        }
+        if (input == null) {
+            usage("--input is required");
+            return;
+        }
+        if (!inMemory && project == null) {
+            usage("--project is required (or use --in-memory)");
+            return;
+        }
+        Path in = Paths.get(input);
+        if (format == null) format = input.toLowerCase().endsWith("json") ? "geojson" : "csv";
+        if (emulator == null) emulator = System.getenv("FIRESTORE_EMULATOR_HOST");
+
+        Checkpoint checkpoint = checkpointPath != null ? new Checkpoint(Paths.get(checkpointPath)) : Checkpoint.none();
+
+        try (BatchSink sink = inMemory ? new InMemoryBatchSink(5, 0) : new FirestoreBatchSink(project, emulator);
+             RecordReader reader = open(in, format, separator)) {
+            BatchImporter importer = new BatchImporter(sink, checkpoint, tolerance, batch, inFlight,
+                    msg -> System.err.println("[import] " + msg));
+            BatchImporter.Result r = importer.run(reader);
+            System.out.println(r);
+            if (r.failure != null) System.exit(1);
+        }
+    }
+
+    static RecordReader open(Path file, String format, char separator) throws IOException {
+        Reader r = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), 1 << 16);
+        switch (format) {
+            case "csv": return new CsvRecordReader(r, separator);
+            case "geojson": return new GeoJsonRecordReader(r);
+            default:
+                r.close();
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: importer --input FILE [--format csv|geojson] [--separator C]"
+                + " (--project ID [--emulator HOST:PORT] | --in-memory)"
+                + " [--tolerance-m M] [--batch N] [--in-flight N] [--checkpoint FILE]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bicyclestorage.importer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for Firestore: batches commit after a simulated latency
+ * on a small thread pool. Optionally fails every n-th commit (for retry tests).
+ * Writes merge like {@link FirestoreBatchSink}: existing occupancy is kept.
+ */
+public class InMemoryBatchSink implements BatchSink {
+
+    private final Map<String, Map<String, Object>> docs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService pool = Executors.newScheduledThreadPool(4);
+    private final long latencyMs;
+    private final int failEveryNth;
+
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public InMemoryBatchSink(long latencyMs, int failEveryNth) {
+        this.latencyMs = latencyMs;
+        this.failEveryNth = failEveryNth;
+    }
+
+    @Override
+    public CompletableFuture<Void> write(List<StorageRecord> batch) {
+        if (batch.size() > BatchImporter.MAX_BATCH) {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            f.completeExceptionally(new IllegalArgumentException("batch > " + BatchImporter.MAX_BATCH));
+            return f;
+        }
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        int n = commits.incrementAndGet();
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        pool.schedule(() -> {
+            inFlight.decrementAndGet();
+            if (failEveryNth > 0 && n % failEveryNth == 0) {
+                f.completeExceptionally(new RuntimeException("simulated commit failure #" + n));
+                return;
+            }
+            for (StorageRecord r : batch) {
+                docs.compute(r.id, (id, old) -> {
+                    Map<String, Object> doc = old != null ? old : new HashMap<>();
+                    doc.putAll(r.toFields());
+                    doc.putIfAbsent(StorageRecord.FIELD_IN_USE, 0L);
+                    return doc;
+                });
+            }
+            f.complete(null);
+        }, latencyMs, TimeUnit.MILLISECONDS);
+        return f;
+    }
+
+    /** Live document map (tests may seed or modify documents, e.g. occupancy). */
+    public Map<String, Map<String, Object>> documents() {
+        return docs;
+    }
+
+    public int commitCount() {
+        return commits.get();
+    }
+
+    public int maxObservedInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bicyclestorage.importer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Detects racks within {@code toleranceMeters} of an already accepted one.
+ *
+ * Positions are bucketed into a grid with cell size = tolerance, so a lookup
+ * checks only the 3x3 neighbourhood. Coordinates are kept in primitive arrays
+ * per cell (memory ~ accepted racks, independent of file size).
+ */
+public class PositionDeduplicator {
+
+    private static final double METERS_PER_DEG_LAT = 111_320.0;
+
+    private static final class Cell {
+        double[] coords = new double[4]; // lat,lng pairs
+        int size = 0;
+
+        void add(double lat, double lng) {
+            if (size * 2 == coords.length) {
+                double[] c = new double[coords.length * 2];
+                System.arraycopy(coords, 0, c, 0, coords.length);
+                coords = c;
+            }
+            coords[size * 2] = lat;
+            coords[size * 2 + 1] = lng;
+            size++;
+        }
+    }
+
+    private final double toleranceM;
+    private final double cellDegLat;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private long accepted = 0;
+
+    public PositionDeduplicator(double toleranceMeters) {
+        if (toleranceMeters <= 0) throw new IllegalArgumentException("tolerance must be > 0");
+        this.toleranceM = toleranceMeters;
+        this.cellDegLat = toleranceMeters / METERS_PER_DEG_LAT;
+    }
+
+    /** True (and remembers the position) if no accepted rack is within tolerance. */
+    public boolean accept(double lat, double lng) {
+        // Longitude cells use the latitude cell size; distance check below is exact
+        long cy = (long) Math.floor(lat / cellDegLat);
+        long cx = (long) Math.floor(lng / cellDegLat);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        int reachX = (int) Math.ceil(1 / Math.max(cosLat, 1e-6));
+        for (long dy = -1; dy <= 1; dy++) {
+            for (long dx = -reachX; dx <= reachX; dx++) {
+                Cell c = cells.get(key(cy + dy, cx + dx));
+                if (c == null) continue;
+                for (int i = 0; i < c.size; i++) {
+                    if (distanceM(lat, lng, c.coords[i * 2], c.coords[i * 2 + 1], cosLat) <= toleranceM) {
+                        return false;
+                    }
+                }
+            }
+        }
+        long k = key(cy, cx);
+        Cell c = cells.get(k);
+        if (c == null) {
+            c = new Cell();
+            cells.put(k, c);
+        }
+        c.add(lat, lng);
+        accepted++;
+        return true;
+    }
+
+    public long acceptedCount() {
+        return accepted;
+    }
+
+    // Equirectangular approximation – exact enough at tolerance scale (meters)
+    private static double distanceM(double lat1, double lng1, double lat2, double lng2, double cosLat) {
+        double dy = (lat2 - lat1) * METERS_PER_DEG_LAT;
+        double dx = (lng2 - lng1) * METERS_PER_DEG_LAT * cosLat;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static long key(long cy, long cx) {
+        return (cy << 32) ^ (cx & 0xFFFFFFFFL);
+    }
+}
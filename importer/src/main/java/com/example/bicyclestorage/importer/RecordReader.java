@@ -0,0 +1,26 @@
+package com.example.bicyclestorage.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming source of raw rows; one row at a time, constant memory.
+ * Rows that cannot be parsed are reported through {@link RowError}.
+ */
+public interface RecordReader extends Closeable {
+
+    /** A rejected source row. */
+    final class RowError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public final long sourceIndex;
+
+        public RowError(long sourceIndex, String message) {
+            super("row " + sourceIndex + ": " + message);
+            this.sourceIndex = sourceIndex;
+        }
+    }
+
+    /** Next row, or null at end of input. */
+    StorageRecord next() throws IOException, RowError;
+}
@@ -0,0 +1,59 @@
+package com.example.bicyclestorage.importer;
+
+/** Range / sanity checks shared by all readers. */
+final class RecordValidator {
+
+    private static final int MAX_CAPACITY = 10_000;
+
+    private RecordValidator() {}
+
+    static StorageRecord build(String id, String title, String lat, String lng, String capacity,
+                               long sourceIndex) throws RecordReader.RowError {
+        double la = parseDouble(lat, "lat", sourceIndex);
+        double lo = parseDouble(lng, "lng", sourceIndex);
+        int cap = capacity == null || capacity.isEmpty() ? 1 : parseInt(capacity, sourceIndex);
+        return build(id, title, la, lo, cap, sourceIndex);
+    }
+
+    static StorageRecord build(String id, String title, double lat, double lng, int capacity,
+                               long sourceIndex) throws RecordReader.RowError {
+        if (Double.isNaN(lat) || lat < -90 || lat > 90)
+            throw new RecordReader.RowError(sourceIndex, "lat out of range: " + lat);
+        if (Double.isNaN(lng) || lng < -180 || lng > 180)
+            throw new RecordReader.RowError(sourceIndex, "lng out of range: " + lng);
+        if (lat == 0 && lng == 0)
+            throw new RecordReader.RowError(sourceIndex, "null island (0,0)");
+        if (capacity <= 0 || capacity > MAX_CAPACITY)
+            throw new RecordReader.RowError(sourceIndex, "capacity out of range: " + capacity);
+        String t = title == null ? "" : title.trim();
+        if (t.isEmpty()) t = "Bicycle storage";
+        String docId = id == null || id.trim().isEmpty()
+                ? StorageRecord.positionId(lat, lng)
+                : sanitizeId(id.trim());
+        return new StorageRecord(docId, t, lat, lng, capacity, sourceIndex);
+    }
+
+    // Firestore ids: no '/', not "." / "..", max 1500 bytes
+    private static String sanitizeId(String id) {
+        String s = id.replace('/', '_');
+        if (s.equals(".") || s.equals("..")) s = "_" + s;
+        return s.length() > 200 ? s.substring(0, 200) : s;
+    }
+
+    private static double parseDouble(String v, String field, long idx) throws RecordReader.RowError {
+        if (v == null || v.trim().isEmpty()) throw new RecordReader.RowError(idx, "missing " + field);
+        try {
+            return Double.parseDouble(v.trim());
+        } catch (NumberFormatException e) {
+            throw new RecordReader.RowError(idx, "bad " + field + ": " + v);
+        }
+    }
+
+    private static int parseInt(String v, long idx) throws RecordReader.RowError {
+        try {
+            return (int) Math.round(Double.parseDouble(v.trim()));
+        } catch (NumberFormatException e) {
+            throw new RecordReader.RowError(idx, "bad capacity: " + v);
+        }
+    }
+}
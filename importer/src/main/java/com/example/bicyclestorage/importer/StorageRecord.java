@@ -0,0 +1,59 @@
+package com.example.bicyclestorage.importer;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/** One validated storage row (document {@code storages/{id}}). */
+public final class StorageRecord {
+
+    public final String id;
+    public final String title;
+    public final double lat;
+    public final double lng;
+    public final int capacity;
+    /** 1-based source position (line for CSV, feature index for GeoJSON). */
+    public final long sourceIndex;
+
+    public StorageRecord(String id, String title, double lat, double lng, int capacity, long sourceIndex) {
+        this.id = id;
+        this.title = title;
+        this.lat = lat;
+        this.lng = lng;
+        this.capacity = capacity;
+        this.sourceIndex = sourceIndex;
+    }
+
+    /** Deterministic id from the position (~1 m grid), so re-runs overwrite instead of duplicating. */
+    public static String positionId(double lat, double lng) {
+        return String.format(Locale.US, "rack_%.5f_%.5f", lat, lng).replace('-', 'm');
+    }
+
+    /** Occupancy field: owned by the app at runtime, only initialised by the importer. */
+    public static final String FIELD_IN_USE = "inUse";
+
+    /**
+     * Static Firestore fields – same layout the app's FirestoreStorageBackend reads.
+     * {@value #FIELD_IN_USE} is not included: sinks merge these into existing documents
+     * and must leave the live occupancy alone.
+     */
+    public Map<String, Object> toFields() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("title", title);
+        m.put("lat", lat);
+        m.put("lng", lng);
+        m.put("capacity", (long) capacity);
+        m.put("tile", tileKey(lat, lng));
+        return m;
+    }
+
+    /** Area key the app's prefetch queries on – same as FirestoreStorageBackend.tileKey (0.01° grid). */
+    public static String tileKey(double lat, double lng) {
+        return (long) Math.floor(lat / 0.01) + "_" + (long) Math.floor(lng / 0.01);
+    }
+
+    @Override
+    public String toString() {
+        return "StorageRecord{" + id + ", " + title + ", " + lat + "," + lng + ", cap=" + capacity + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bicyclestorage.importer;
+
+import com.example.bicyclestorage.auth.UsernameBloomFilter;
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the shared username filter ({@code meta/usernameBloom}) from the
+ * {@code usernames} index. Registrations only claim {@code usernames/{name}};
+ * this job is the filter's single writer, so the document is not a write
+ * hotspot and clients need no write access to it. Run it on a schedule
+ * (cron / Cloud Scheduler); the app treats a filter miss as a hint anyway.
+ *
+ * <pre>
+ * UsernameFilterJob --project my-project [--emulator localhost:8080]
+ * </pre>
+ */
+public final class UsernameFilterJob {
+
+    static final String USERNAMES = "usernames";
+    static final String META = "meta";
+    static final String FILTER_DOC = "usernameBloom";
+
+    private static final int PAGE = 1000;
+
+    private UsernameFilterJob() {}
+
+    public static void main(String[] args) throws Exception {
+        String project = null, emulator = System.getenv("FIRESTORE_EMULATOR_HOST");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--project": project = args[++i]; break;
+                case "--emulator": emulator = args[++i]; break;
+                default:
+                    usage("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+        if (project == null) {
+            usage("--project is required");
+            return;
+        }
+        FirestoreOptions.Builder b = FirestoreOptions.newBuilder().setProjectId(project);
+        if (emulator != null) b.setEmulatorHost(emulator);
+        Firestore db = b.build().getService();
+        try {
+            long start = System.nanoTime();
+            UsernameBloomFilter filter = UsernameBloomFilter.createDefault();
+            long names = 0;
+            // Keys only, paged by document id (the id is the normalized name)
+            Query base = db.collection(USERNAMES).select(new String[0]).orderBy(FieldPath.documentId()).limit(PAGE);
+            String last = null;
+            while (true) {
+                QuerySnapshot page = (last == null ? base : base.startAfter(last)).get().get();
+                List<QueryDocumentSnapshot> docs = page.getDocuments();
+                for (QueryDocumentSnapshot d : docs) filter.put(d.getId());
+                names += docs.size();
+                if (docs.size() < PAGE) break;
+                last = docs.get(docs.size() - 1).getId();
+            }
+            DocumentReference out = db.collection(META).document(FILTER_DOC);
+            out.set(fields(filter, names)).get();
+            System.out.printf("[username-filter] %d names, %.1fs%n", names, (System.nanoTime() - start) / 1e9);
+        } finally {
+            db.close();
+        }
+    }
+
+    /** Document layout the app's FirebaseUserRepository.parseUsernameFilter reads. */
+    static Map<String, Object> fields(UsernameBloomFilter filter, long names) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("bits", Blob.fromBytes(filter.toBytes()));
+        m.put("names", names);
+        m.put("updatedAt", FieldValue.serverTimestamp());
+        return m;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: UsernameFilterJob --project ID [--emulator HOST:PORT]");
+        System.exit(2);
+    }
+}
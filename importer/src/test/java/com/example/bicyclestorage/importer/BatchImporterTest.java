@@ -0,0 +1,160 @@
+package com.example.bicyclestorage.importer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/** Import runs against the in-memory Firestore stand-in. */
+public class BatchImporterTest {
+
+    private static final int ROWS = 5_000;
+
+    /** {@code ROWS} racks on a ~50 m grid; every 10th row duplicates its predecessor (1 m off), every 97th is invalid. */
+    private static String csv() {
+        StringBuilder sb = new StringBuilder("id,name,lat,lng,capacity\n");
+        for (int i = 1; i <= ROWS; i++) {
+            double lat = 47.50 + (i / 100) * 0.00045;
+            double lng = 21.60 + (i % 100) * 0.00066;
+            if (i % 10 == 0) lat = 47.50 + ((i - 1) / 100) * 0.00045 + 0.00001; // dup of i-1
+            if (i % 10 == 0) lng = 21.60 + ((i - 1) % 100) * 0.00066;
+            String cap = i % 97 == 0 ? "-1" : Integer.toString(4 + i % 8);
+            sb.append("r").append(i).append(",\"Rack ").append(i).append(", gate\",")
+                    .append(lat).append(',').append(lng).append(',').append(cap).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static BatchImporter importer(BatchSink sink, Checkpoint cp, int inFlight) {
+        return new BatchImporter(sink, cp, 3.0, BatchImporter.MAX_BATCH, inFlight, msg -> { });
+    }
+
+    @Test
+    public void importsDedupesAndBoundsInFlight() throws Exception {
+        try (InMemoryBatchSink sink = new InMemoryBatchSink(3, 0)) {
+            BatchImporter.Result r = importer(sink, Checkpoint.none(), 3)
+                    .run(new CsvRecordReader(new StringReader(csv()), ','));
+            System.out.println("[import] " + r);
+
+            assertNull(r.failure);
+            assertEquals(ROWS, r.read);
+            assertTrue(r.invalid > 0);
+            assertTrue(r.duplicates > 0);
+            assertEquals(ROWS, r.written + r.invalid + r.duplicates);
+            assertEquals(r.written, sink.documents().size());
+            assertTrue("in-flight bound exceeded", sink.maxObservedInFlight() <= 3);
+            assertEquals((r.written + BatchImporter.MAX_BATCH - 1) / BatchImporter.MAX_BATCH, sink.commitCount());
+            assertEquals("Rack 1, gate", sink.documents().get("r1").get("title"));
+            assertEquals("4750_2160", sink.documents().get("r1").get("tile"));
+            assertEquals(ROWS + 1, r.checkpoint); // last CSV line (line 1 is the header)
+        }
+    }
+
+    @Test
+    public void resumesAfterFailureWithoutRewriting() throws Exception {
+        Path ckpt = Files.createTempFile("import", ".ckpt");
+        Files.delete(ckpt);
+        Checkpoint cp = new Checkpoint(ckpt);
+        String data = csv();
+
+        // Run 1: the backend dies after 4 commits
+        Map<String, Map<String, Object>> all = new HashMap<>();
+        try (InMemoryBatchSink inner = new InMemoryBatchSink(2, 0)) {
+            BatchSink dying = new BatchSink() {
+                final AtomicInteger n = new AtomicInteger();
+
+                @Override
+                public CompletableFuture<Void> write(List<StorageRecord> batch) {
+                    if (n.incrementAndGet() > 4) {
+                        CompletableFuture<Void> f = new CompletableFuture<>();
+                        f.completeExceptionally(new IOException("backend down"));
+                        return f;
+                    }
+                    return inner.write(batch);
+                }
+            };
+            BatchImporter.Result r1 = importer(dying, cp, 2).run(new CsvRecordReader(new StringReader(data), ','));
+            assertNotNull(r1.failure);
+            assertTrue(r1.checkpoint > 0);
+            assertTrue(r1.checkpoint < ROWS);
+            all.putAll(inner.documents());
+        }
+        long resumeAt = cp.load();
+
+        // Run 2: resumes after the checkpoint, writes only the rest
+        try (InMemoryBatchSink sink = new InMemoryBatchSink(2, 0)) {
+            BatchImporter.Result r2 = importer(sink, cp, 2).run(new CsvRecordReader(new StringReader(data), ','));
+            assertNull(r2.failure);
+            assertTrue(r2.resumedSkipped > 0);
+            for (Map.Entry<String, Map<String, Object>> e : sink.documents().entrySet()) {
+                long line = Long.parseLong(e.getKey().substring(1)) + 1; // +1: header line
+                assertTrue("line " + line + " re-written", line > resumeAt);
+            }
+            all.putAll(sink.documents());
+        }
+
+        // Union equals a clean single run
+        try (InMemoryBatchSink clean = new InMemoryBatchSink(0, 0)) {
+            importer(clean, Checkpoint.none(), 2).run(new CsvRecordReader(new StringReader(data), ','));
+            assertEquals(clean.documents().keySet(), all.keySet());
+        }
+        Files.deleteIfExists(ckpt);
+    }
+
+    @Test
+    public void retriesTransientFailures() throws Exception {
+        try (InMemoryBatchSink sink = new InMemoryBatchSink(1, 3)) {
+            BatchImporter.Result r = importer(sink, Checkpoint.none(), 4)
+                    .run(new CsvRecordReader(new StringReader(csv()), ','));
+            assertNull(r.failure);
+            assertTrue(r.retries > 0);
+            assertEquals(r.written, sink.documents().size());
+        }
+    }
+
+    @Test
+    public void reimportKeepsLiveOccupancy() throws Exception {
+        String data = csv();
+        try (InMemoryBatchSink sink = new InMemoryBatchSink(0, 0)) {
+            importer(sink, Checkpoint.none(), 2).run(new CsvRecordReader(new StringReader(data), ','));
+            assertEquals(0L, sink.documents().get("r1").get("inUse"));
+            sink.documents().get("r1").put("inUse", 3L); // riders parked meanwhile
+
+            BatchImporter.Result r = importer(sink, Checkpoint.none(), 2)
+                    .run(new CsvRecordReader(new StringReader(data.replace("Rack 1,", "Rack one,")), ','));
+            assertNull(r.failure);
+            assertEquals("Rack one, gate", sink.documents().get("r1").get("title"));
+            assertEquals(3L, sink.documents().get("r1").get("inUse"));
+            assertEquals(0L, sink.documents().get("r2").get("inUse"));
+        }
+    }
+
+    @Test
+    public void readsGeoJsonPoints() throws Exception {
+        String json = "{\"type\":\"FeatureCollection\",\"name\":\"racks\",\"features\":["
+                + "{\"type\":\"Feature\",\"properties\":{\"name\":\"A\",\"capacity\":6},"
+                + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[21.640391,47.543277]}},"
+                + "{\"type\":\"Feature\",\"properties\":{\"name\":\"B\"},"
+                + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1]]}},"
+                + "{\"type\":\"Feature\",\"id\":\"c\",\"properties\":{\"title\":\"C\",\"spaces\":4},"
+                + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[21.629087,47.532368]}}]}";
+        try (InMemoryBatchSink sink = new InMemoryBatchSink(0, 0)) {
+            BatchImporter.Result r = importer(sink, Checkpoint.none(), 1)
+                    .run(new GeoJsonRecordReader(new StringReader(json)));
+            assertEquals(3, r.read);
+            assertEquals(1, r.invalid);
+            assertEquals(2, r.written);
+            assertEquals("C", sink.documents().get("c").get("title"));
+            assertEquals(6L, sink.documents().get(StorageRecord.positionId(47.543277, 21.640391)).get("capacity"));
+        }
+    }
+}
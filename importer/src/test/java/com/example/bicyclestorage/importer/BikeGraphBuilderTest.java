@@ -0,0 +1,79 @@
+package com.example.bicyclestorage.importer;
+
+import com.example.bicyclestorage.routing.RoadGraph;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BikeGraphBuilderTest {
+
+    /** Five nodes; a two-way street, a one-way street, a footway and a motorway. */
+    private static final String OSM = "<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<osm version='0.6'>\n"
+            + "  <node id='1' lat='47.5300' lon='21.6300'/>\n"
+            + "  <node id='2' lat='47.5310' lon='21.6300'/>\n"
+            + "  <node id='3' lat='47.5320' lon='21.6300'/>\n"
+            + "  <node id='4' lat='47.5320' lon='21.6320'/>\n"
+            + "  <node id='5' lat='47.5400' lon='21.6400'/>\n"
+            + "  <way id='10'><nd ref='1'/><nd ref='2'/><nd ref='3'/>"
+            + "<tag k='highway' v='residential'/></way>\n"
+            + "  <way id='11'><nd ref='3'/><nd ref='4'/>"
+            + "<tag k='highway' v='tertiary'/><tag k='oneway' v='yes'/></way>\n"
+            + "  <way id='12'><nd ref='4'/><nd ref='1'/><tag k='highway' v='footway'/></way>\n"
+            + "  <way id='13'><nd ref='4'/><nd ref='5'/><tag k='highway' v='motorway'/></way>\n"
+            + "  <way id='14'><nd ref='2'/><nd ref='99'/><tag k='highway' v='cycleway'/></way>\n"
+            + "</osm>\n";
+
+    @Test
+    public void keepsRideableWaysAndOneWays() throws IOException {
+        RoadGraph g = BikeGraphBuilder.build(new ByteArrayInputStream(OSM.getBytes(StandardCharsets.UTF_8)));
+        // Node 5 is only on the motorway, 99 is outside the extract
+        assertEquals(4, g.nodeCount());
+        // Residential 1-2-3 both ways (4), one-way 3→4 (1); footway without bicycle=yes dropped
+        assertEquals(5, g.edgeCount());
+        int n4 = g.nearestNode(47.5320, 21.6320);
+        assertEquals(47.5320, g.lat(n4), 1e-6);
+        assertEquals(21.6320, g.lng(n4), 1e-6);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        g.write(out);
+        RoadGraph copy = RoadGraph.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(g.nodeCount(), copy.nodeCount());
+        assertEquals(g.edgeCount(), copy.edgeCount());
+    }
+
+    @Test
+    public void bicycleTagsOverrideAccessAndOneway() {
+        Map<String, String> footway = new HashMap<>();
+        footway.put("highway", "footway");
+        assertEquals(0, BikeGraphBuilder.speedOf(footway), 0);
+        footway.put("bicycle", "designated");
+        assertTrue(BikeGraphBuilder.speedOf(footway) > 0);
+
+        Map<String, String> street = new HashMap<>();
+        street.put("highway", "residential");
+        street.put("access", "private");
+        assertEquals(0, BikeGraphBuilder.speedOf(street), 0);
+        street.put("bicycle", "yes");
+        assertTrue(BikeGraphBuilder.speedOf(street) > 0);
+
+        street.put("oneway", "yes");
+        assertEquals(1, BikeGraphBuilder.direction(street));
+        street.put("oneway:bicycle", "no");
+        assertEquals(0, BikeGraphBuilder.direction(street));
+
+        Map<String, String> roundabout = new HashMap<>();
+        roundabout.put("junction", "roundabout");
+        assertEquals(1, BikeGraphBuilder.direction(roundabout));
+        roundabout.put("oneway", "-1");
+        assertEquals(-1, BikeGraphBuilder.direction(roundabout));
+    }
+}
@@ -0,0 +1,14 @@
+#!/usr/bin/env bash
+# Újraépíti az app offline úthálózatát (app/src/main/assets/bike_graph.bin):
+# letölti az OSM kivonatot az Overpass API-ról, majd lefuttatja a BikeGraphBuilder-t.
+#
+#   scripts/build_bike_graph.sh [overpass végpont]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+ENDPOINT="${1:-https://overpass-api.de/api/interpreter}"
+EXTRACT="$(mktemp -t bike_graph.XXXXXX.osm)"
+trap 'rm -f "$EXTRACT"' EXIT
+
+curl -sSf --data-urlencode "data@scripts/bike_graph.overpassql" "$ENDPOINT" -o "$EXTRACT"
+./gradlew -q :importer:buildBikeGraph -PosmExtract="$EXTRACT"
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Hidegindítás mérése eszközön: N-szer leállítja az appot, elindítja a launcherből,
+# és kiírja a "Time to map" (StartupTrace) és a "Fully drawn" (ActivityManager) mediánját.
+# Előtte/utána számokhoz ugyanazon az eszközön, mindkét buildre futtatandó.
+#
+#   scripts/startup_bench.sh [futások=15] [csomag=com.example.bicyclestorage]
+set -euo pipefail
+
+RUNS="${1:-15}"
+PKG="${2:-com.example.bicyclestorage}"
+ACTIVITY="$PKG/.LaunchActivity"
+
+# "+1s5ms" / "+812ms" → ezredmásodperc
+to_ms() { sed -E 's/.*\+//' | awk '{ s = 0; if (match($0, /[0-9]+s/)) s = substr($0, RSTART, RLENGTH - 1); sub(/.*[0-9]s/, ""); sub(/ms$/, ""); print s * 1000 + $0 }'; }
+median() { sort -n | awk '{ a[NR] = $1 } END { if (NR) print a[int((NR + 1) / 2)]; else print "-" }'; }
+
+ttm=()
+drawn=()
+for i in $(seq 1 "$RUNS"); do
+  adb shell am force-stop "$PKG"
+  sleep 1
+  adb logcat -c
+  adb shell am start -W -n "$ACTIVITY" > /dev/null
+  sleep 8 # a háttérből érkező tárolók és a markerek kirajzolása
+  log="$(adb logcat -d -s StartupTrace:I ActivityTaskManager:I ActivityManager:I)"
+  t="$(grep -o 'Time to map: [0-9]*' <<< "$log" | grep -o '[0-9]*$' | head -1 || true)"
+  d="$(grep -o "Fully drawn $PKG/[^:]*: +[0-9ms]*" <<< "$log" | head -1 | to_ms || true)"
+  echo "run $i: time to map ${t:--} ms, fully drawn ${d:--} ms"
+  [ -n "$t" ] && ttm+=("$t")
+  [ -n "$d" ] && drawn+=("$d")
+done
+
+echo "median time to map: $(printf '%s\n' "${ttm[@]}" | median) ms (${#ttm[@]}/$RUNS samples)"
+echo "median fully drawn: $(printf '%s\n' "${drawn[@]}" | median) ms (${#drawn[@]}/$RUNS samples)"
@@ -26,4 +26,5 @@ dependencyResolutionManagement {
 }
 
 rootProject.name = "BicycleStorage"
-include(":app")
\ No newline at end of file
+include(":app")
+include(":importer")
\ No newline at end of file